@@ -1,8 +1,8 @@
 package org.arastreju.bindings.memory;
 
-import de.lichtflut.infra.exceptions.NotYetImplementedException;
 import org.arastreju.bindings.memory.conversation.MemConversationContext;
 import org.arastreju.bindings.memory.conversation.MemModelingConversation;
+import org.arastreju.bindings.memory.storage.MemTripleStore;
 import org.arastreju.sge.ModelingConversation;
 import org.arastreju.sge.Organizer;
 import org.arastreju.sge.context.Context;
@@ -22,32 +22,41 @@ import org.arastreju.sge.spi.abstracts.AbstractArastrejuGate;
  */
 public class MemGate extends AbstractArastrejuGate {
 
-    public MemGate(DomainIdentifier domainIdentifier) {
+    private final MemTripleStore store;
+
+    // ----------------------------------------------------
+
+    public MemGate(MemTripleStore store, DomainIdentifier domainIdentifier) {
         super(domainIdentifier);
+        this.store = store;
+    }
+
+    public MemGate(DomainIdentifier domainIdentifier) {
+        this(new MemTripleStore(), domainIdentifier);
     }
 
     // ----------------------------------------------------
 
     @Override
     public ModelingConversation startConversation() {
-        MemConversationContext cc = new MemConversationContext();
+        MemConversationContext cc = new MemConversationContext(store);
         initContext(cc);
         return new MemModelingConversation(cc);
     }
 
     @Override
     public ModelingConversation startConversation(Context primary, Context... readContexts) {
-        MemConversationContext cc = new MemConversationContext(primary, readContexts);
+        MemConversationContext cc = new MemConversationContext(store, primary, readContexts);
         return new MemModelingConversation(cc);
     }
 
     @Override
     public Organizer getOrganizer() {
-        throw new NotYetImplementedException();
+        return new MemOrganizer(this, store);
     }
 
     @Override
     public void close() {
-        throw new NotYetImplementedException();
+        // nothing to release, the store lives as long as it's factory.
     }
 }
@@ -0,0 +1,139 @@
+package org.arastreju.bindings.memory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.arastreju.bindings.memory.storage.MemTripleStore;
+import org.arastreju.bindings.memory.storage.SnapshotFile;
+import org.arastreju.bindings.memory.storage.WriteAheadLog;
+import org.arastreju.sge.ArastrejuGate;
+import org.arastreju.sge.ArastrejuProfile;
+import org.arastreju.sge.context.DomainIdentifier;
+import org.arastreju.sge.eh.ArastrejuRuntimeException;
+import org.arastreju.sge.eh.ErrorCodes;
+import org.arastreju.sge.spi.ArastrejuGateFactory;
+import org.arastreju.sge.spi.GateInitializationException;
+import org.arastreju.sge.spi.ProfileCloseListener;
+
+/**
+ * <p>
+ *  Memory specific extension of ArastrejuGateFactory. All gates of the same storage share one store.
+ * </p>
+ *
+ * <p>
+ *  If the profile defines a store directory ({@link ArastrejuProfile#ARAS_STORE_DIRECTORY}) each storage
+ *  is backed by a snapshot file and a {@link WriteAheadLog} in a sub directory. On creation of the first gate
+ *  an existing snapshot will be memory mapped and the log will be replayed. Compacted snapshots are written
+ *  periodically and when the profile is closed.
+ * </p>
+ *
+ * <p>
+ *  The log can be configured by the profile properties:
+ *  <ul>
+ *      <li>{@link #WAL_FSYNC}: force the log to disk on commit, enabled by default</li>
+ *      <li>{@link #WAL_GROUP_COMMIT_DELAY}: milliseconds to wait for further commits before syncing, default 0</li>
+ *      <li>{@link #CHECKPOINT_SIZE}: log size in bytes triggering a new snapshot, default 64 MB</li>
+ *  </ul>
+ * </p>
+ */
+public class MemGateFactory extends ArastrejuGateFactory implements ProfileCloseListener {
+
+    public static final String SNAPSHOT_FILE = "snapshot.aras";
+
+    public static final String WAL_FSYNC = "org.arastreju.mem.wal.fsync";
+
+    public static final String WAL_GROUP_COMMIT_DELAY = "org.arastreju.mem.wal.group-commit-delay";
+
+    public static final String CHECKPOINT_SIZE = "org.arastreju.mem.checkpoint-size";
+
+    private static final long DEFAULT_CHECKPOINT_SIZE = 64L * 1024 * 1024;
+
+    private final Map<String, MemTripleStore> stores = new HashMap<String, MemTripleStore>();
+
+    // ----------------------------------------------------
+
+    public MemGateFactory(ArastrejuProfile profile) {
+        super(profile);
+        profile.addListener(this);
+    }
+
+    // ----------------------------------------------------
+
+    @Override
+    public synchronized ArastrejuGate create(DomainIdentifier identifier) throws GateInitializationException {
+        MemTripleStore store = stores.get(identifier.getStorage());
+        if (store == null) {
+            store = openStore(identifier.getStorage());
+            stores.put(identifier.getStorage(), store);
+        }
+        return new MemGate(store, identifier);
+    }
+
+    @Override
+    public synchronized void onClosed(ArastrejuProfile profile) {
+        if (!isPersistent()) {
+            return;
+        }
+        for (Map.Entry<String, MemTripleStore> entry : stores.entrySet()) {
+            try {
+                entry.getValue().closeLog();
+            } catch (IOException e) {
+                throw new ArastrejuRuntimeException(ErrorCodes.GRAPH_WRITE_ERROR,
+                        "Could not write snapshot of storage " + entry.getKey(), e);
+            }
+        }
+        stores.clear();
+    }
+
+    // ----------------------------------------------------
+
+    private MemTripleStore openStore(String storage) {
+        if (!isPersistent()) {
+            return new MemTripleStore();
+        }
+        final File snapshot = snapshotFile(storage);
+        if (!snapshot.getParentFile().exists() && !snapshot.getParentFile().mkdirs()) {
+            throw new GateInitializationException("Could not create store directory " + snapshot.getParentFile());
+        }
+        try {
+            // a checkpoint may have been interrupted between deleting the old and renaming the new snapshot
+            SnapshotFile.recover(snapshot);
+            final MemTripleStore store = snapshot.exists() ? SnapshotFile.open(snapshot) : new MemTripleStore();
+            final WriteAheadLog log = new WriteAheadLog(snapshot.getParentFile(),
+                    !getProfile().isPropertyDisabled(WAL_FSYNC),
+                    longProperty(WAL_GROUP_COMMIT_DELAY, 0),
+                    longProperty(CHECKPOINT_SIZE, DEFAULT_CHECKPOINT_SIZE));
+            final int replayed = log.replay(store);
+            store.attachLog(log, snapshot);
+            if (replayed > 0) {
+                store.checkpoint();
+            }
+            return store;
+        } catch (IOException e) {
+            throw new GateInitializationException("Could not open store " + snapshot.getParentFile(), e);
+        }
+    }
+
+    private long longProperty(String key, long defaultValue) {
+        if (!getProfile().isPropertyDefined(key)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(getProfile().getProperty(key).trim());
+        } catch (NumberFormatException e) {
+            throw new GateInitializationException("Invalid value of profile property " + key, e);
+        }
+    }
+
+    private boolean isPersistent() {
+        return getProfile().isPropertyDefined(ArastrejuProfile.ARAS_STORE_DIRECTORY);
+    }
+
+    private File snapshotFile(String storage) {
+        final File dir = new File(getProfile().getProperty(ArastrejuProfile.ARAS_STORE_DIRECTORY), storage);
+        return new File(dir, SNAPSHOT_FILE);
+    }
+
+}
@@ -0,0 +1,95 @@
+package org.arastreju.bindings.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.arastreju.bindings.memory.storage.MemTripleStore;
+import org.arastreju.sge.ModelingConversation;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.io.StatementContainer;
+import org.arastreju.sge.model.DefaultSemanticGraph;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.naming.Namespace;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.spi.abstracts.AbstractOrganizer;
+
+/**
+ * <p>
+ *  Organizer of the memory binding. Namespaces and contexts are stored as resources and found by queries.
+ * </p>
+ */
+public class MemOrganizer extends AbstractOrganizer {
+
+    private final MemGate gate;
+
+    private final MemTripleStore store;
+
+    // ----------------------------------------------------
+
+    public MemOrganizer(MemGate gate, MemTripleStore store) {
+        this.gate = gate;
+        this.store = store;
+    }
+
+    // ----------------------------------------------------
+
+    @Override
+    public Collection<Namespace> getNamespaces() {
+        final List<Namespace> result = new ArrayList<Namespace>();
+        for (ResourceNode node : findByType(Aras.NAMESPACE.getQualifiedName())) {
+            result.add(createNamespace(node));
+        }
+        return result;
+    }
+
+    @Override
+    public Collection<Context> getContexts() {
+        final List<Context> result = new ArrayList<Context>();
+        for (ResourceNode node : findByType(Aras.CONTEXT.getQualifiedName())) {
+            result.add(createContext(node));
+        }
+        return result;
+    }
+
+    @Override
+    public StatementContainer getStatements(Context... ctx) {
+        final List<Context> filter = Arrays.asList(ctx);
+        final DefaultSemanticGraph graph = new DefaultSemanticGraph();
+        for (QualifiedName qn : store.getResources()) {
+            for (Statement stmt : store.getAssociations(qn)) {
+                if (filter.isEmpty() || containsAny(stmt.getContexts(), filter)) {
+                    graph.addStatement(stmt);
+                }
+            }
+        }
+        return graph;
+    }
+
+    // ----------------------------------------------------
+
+    @Override
+    protected ModelingConversation conversation() {
+        return gate.startConversation();
+    }
+
+    // ----------------------------------------------------
+
+    private List<ResourceNode> findByType(QualifiedName type) {
+        return conversation().createQuery().addField(RDF.TYPE, type).getResult().toList();
+    }
+
+    private boolean containsAny(Context[] contexts, List<Context> filter) {
+        for (Context context : contexts) {
+            if (filter.contains(context)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -1,5 +1,9 @@
 package org.arastreju.bindings.memory.conversation;
 
+import org.arastreju.bindings.memory.keepers.MemAssocKeeper;
+import org.arastreju.bindings.memory.storage.MemTripleStore;
+import org.arastreju.bindings.memory.storage.TripleStore;
+import org.arastreju.bindings.memory.tx.MemTransaction;
 import org.arastreju.bindings.memory.tx.MemTransactionProvider;
 import org.arastreju.sge.context.Context;
 import org.arastreju.sge.persistence.TxProvider;
@@ -18,21 +22,67 @@ import org.arastreju.sge.spi.abstracts.AbstractConversationContext;
  */
 public class MemConversationContext extends AbstractConversationContext {
 
-    public MemConversationContext(Context primary, Context... readContexts) {
-       super(primary, readContexts);
+    private final MemTripleStore store;
+
+    private final MemResourceRegistry registry = new MemResourceRegistry();
+
+    private final MemTransactionProvider txProvider;
+
+    // ----------------------------------------------------
+
+    public MemConversationContext(MemTripleStore store, Context primary, Context... readContexts) {
+        super(primary, readContexts);
+        this.store = store;
+        this.txProvider = new MemTransactionProvider(store, this);
+    }
+
+    public MemConversationContext(MemTripleStore store) {
+        this.store = store;
+        this.txProvider = new MemTransactionProvider(store, this);
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * @return The current transaction if there is one, otherwise the gate wide store.
+     */
+    public TripleStore getStore() {
+        final MemTransaction tx = txProvider.getCurrent();
+        if (tx != null) {
+            return tx;
+        }
+        return store;
+    }
+
+    /**
+     * @return The registry of the resources attached to this conversation.
+     */
+    public MemResourceRegistry getRegistry() {
+        return registry;
     }
 
-    public MemConversationContext() {
+    /**
+     * Reload the associations of all attached resources, e.g. after a rollback.
+     */
+    public void reset() {
+        for (MemAssocKeeper keeper : registry.getKeepers()) {
+            if (getStore().contains(keeper.getQualifiedName())) {
+                keeper.reload();
+            } else {
+                registry.remove(keeper.getQualifiedName());
+            }
+        }
     }
 
     // ----------------------------------------------------
 
     @Override
     protected void clearCaches() {
+        registry.clear();
     }
 
     @Override
     public TxProvider getTxProvider() {
-        return new MemTransactionProvider();
+        return txProvider;
     }
 }
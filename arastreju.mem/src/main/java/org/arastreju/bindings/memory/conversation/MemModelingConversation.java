@@ -1,16 +1,21 @@
 package org.arastreju.bindings.memory.conversation;
 
+import java.util.HashSet;
 import java.util.Set;
 
+import org.arastreju.bindings.memory.keepers.MemAssocKeeper;
+import org.arastreju.bindings.memory.query.MemQueryBuilder;
 import org.arastreju.sge.model.ResourceID;
 import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.associations.DetachedAssociationKeeper;
 import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
 import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.persistence.ResourceResolver;
 import org.arastreju.sge.query.Query;
+import org.arastreju.sge.spi.AssocKeeperAccess;
 import org.arastreju.sge.spi.abstracts.AbstractModelingConversation;
 
-import de.lichtflut.infra.exceptions.NotYetImplementedException;
-
 /**
  * <p>
  *  The conversation context.
@@ -22,58 +27,141 @@ import de.lichtflut.infra.exceptions.NotYetImplementedException;
  *
  * @author Oliver Tigges
  */
-public class MemModelingConversation extends AbstractModelingConversation {
+public class MemModelingConversation extends AbstractModelingConversation implements ResourceResolver {
+
+	private final MemConversationContext context;
+
+	// ----------------------------------------------------
 
 	public MemModelingConversation(final MemConversationContext conversationContext) {
 		super(conversationContext);
+		this.context = conversationContext;
 	}
 
 	// ----------------------------------------------------
 
 	@Override
 	public Query createQuery() {
-		throw new NotYetImplementedException();
+		assertActive();
+		return new MemQueryBuilder(context, this);
 	}
 
 	@Override
 	public Set<Statement> findIncomingStatements(final ResourceID object) {
-		throw new NotYetImplementedException();
+		assertActive();
+		return context.getStore().getIncomingStatements(object.getQualifiedName());
 	}
 
 	@Override
 	public ResourceNode findResource(final QualifiedName qn) {
-		throw new NotYetImplementedException();
+		assertActive();
+		MemAssocKeeper keeper = context.getRegistry().get(qn);
+		if (keeper == null) {
+			if (!context.getStore().contains(qn)) {
+				return null;
+			}
+			keeper = createKeeper(qn);
+		}
+		return createNode(qn, keeper);
 	}
 
 	@Override
 	public ResourceNode resolve(final ResourceID resourceID) {
-		throw new NotYetImplementedException();
+		assertActive();
+		if (resourceID instanceof ResourceNode && ((ResourceNode) resourceID).isAttached()) {
+			return (ResourceNode) resourceID;
+		}
+		final ResourceNode existing = findResource(resourceID.getQualifiedName());
+		if (existing != null) {
+			return existing;
+		}
+		final ResourceNode node;
+		if (resourceID instanceof ResourceNode) {
+			node = (ResourceNode) resourceID;
+		} else {
+			node = new SNResource(resourceID.getQualifiedName());
+		}
+		attach(node);
+		return node;
 	}
 
 	@Override
 	public void attach(final ResourceNode node) {
-		throw new NotYetImplementedException();
+		assertActive();
+		if (node.isAttached()) {
+			return;
+		}
+		final QualifiedName qn = node.getQualifiedName();
+		MemAssocKeeper keeper = context.getRegistry().get(qn);
+		if (keeper == null) {
+			context.getStore().register(qn);
+			keeper = createKeeper(qn);
+		}
+		// copy the associations before the keeper is replaced, the node may be reached again by it's associations
+		final Set<Statement> associations = new HashSet<Statement>(node.getAssociations());
+		AssocKeeperAccess.getInstance().setAssociationKeeper(node, keeper);
+		for (Statement stmt : associations) {
+			keeper.addAssociation(stmt);
+		}
 	}
 
 	@Override
 	public void detach(final ResourceNode node) {
-		throw new NotYetImplementedException();
+		assertActive();
+		if (!node.isAttached()) {
+			return;
+		}
+		final Set<Statement> associations = new HashSet<Statement>(node.getAssociations());
+		AssocKeeperAccess.getInstance().setAssociationKeeper(node, new DetachedAssociationKeeper(associations));
 	}
 
 	@Override
 	public void reset(final ResourceNode node) {
-		throw new NotYetImplementedException();
+		assertActive();
+		if (node.isAttached()) {
+			return;
+		}
+		final Set<Statement> associations = context.getStore().getAssociations(node.getQualifiedName());
+		AssocKeeperAccess.getInstance().setAssociationKeeper(node, new DetachedAssociationKeeper(associations));
 	}
 
 	@Override
 	public void remove(final ResourceID id) {
-		throw new NotYetImplementedException();
+		assertActive();
+		final QualifiedName qn = id.getQualifiedName();
+		final ResourceNode node = findResource(qn);
+		if (node == null) {
+			return;
+		}
+		for (Statement stmt : findIncomingStatements(id)) {
+			resolve(stmt.getSubject()).removeAssociation(stmt);
+		}
+		for (Statement stmt : new HashSet<Statement>(node.getAssociations())) {
+			node.removeAssociation(stmt);
+		}
+		context.getStore().remove(qn);
+		context.getRegistry().remove(qn);
 	}
 
 	// ----------------------------------------------------
 
 	@Override
 	protected void assertActive() {
+		if (!context.isActive()) {
+			throw new IllegalStateException("Conversation already closed.");
+		}
+	}
+
+	// ----------------------------------------------------
+
+	private MemAssocKeeper createKeeper(final QualifiedName qn) {
+		return context.getRegistry().register(qn, new MemAssocKeeper(qn, context, this));
+	}
+
+	private ResourceNode createNode(final QualifiedName qn, final MemAssocKeeper keeper) {
+		final ResourceNode node = new SNResource(qn);
+		AssocKeeperAccess.getInstance().setAssociationKeeper(node, keeper);
+		return node;
 	}
 
 }
@@ -3,12 +3,20 @@ package org.arastreju.bindings.memory.conversation;
 import org.arastreju.bindings.memory.keepers.MemAssocKeeper;
 import org.arastreju.sge.naming.QualifiedName;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * <p>
- *  DESCRITPION.
+ *  Registry of the association keepers of all resources attached to one conversation.
+ * </p>
+ *
+ * <p>
+ *  A conversation may be used by several threads. The registry is lock striped, lookups never block and
+ *  registrations only lock the stripe of the resource. Concurrent registrations of the same resource
+ *  result in one keeper.
  * </p>
  *
  * <p>
@@ -19,7 +27,53 @@ import java.util.Map;
  */
 public class MemResourceRegistry {
 
-    private Map<QualifiedName, MemAssocKeeper> map = new HashMap<QualifiedName, MemAssocKeeper>();
+    private static final int STRIPES = 64;
+
+    private final ConcurrentMap<QualifiedName, MemAssocKeeper> map =
+            new ConcurrentHashMap<QualifiedName, MemAssocKeeper>(256, 0.75f, STRIPES);
+
+    // ----------------------------------------------------
+
+    /**
+     * Get the keeper of an attached resource.
+     * @param qn The qualified name of the resource.
+     * @return The keeper or null if the resource is not registered.
+     */
+    public MemAssocKeeper get(final QualifiedName qn) {
+        return map.get(qn);
+    }
+
+    /**
+     * Register the keeper of an attached resource, unless another keeper has been registered concurrently.
+     * @param qn The qualified name of the resource.
+     * @param keeper The keeper.
+     * @return The registered keeper, which is to be used instead of the given one.
+     */
+    public MemAssocKeeper register(final QualifiedName qn, final MemAssocKeeper keeper) {
+        final MemAssocKeeper existing = map.putIfAbsent(qn, keeper);
+        return existing != null ? existing : keeper;
+    }
+
+    /**
+     * Remove the keeper of given resource from the registry.
+     * @param qn The qualified name of the resource.
+     */
+    public void remove(final QualifiedName qn) {
+        map.remove(qn);
+    }
+
+    /**
+     * @return A copy of all registered keepers.
+     */
+    public Collection<MemAssocKeeper> getKeepers() {
+        return new ArrayList<MemAssocKeeper>(map.values());
+    }
 
+    /**
+     * Remove all keepers from the registry.
+     */
+    public void clear() {
+        map.clear();
+    }
 
 }
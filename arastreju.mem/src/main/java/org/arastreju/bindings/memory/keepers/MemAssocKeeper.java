@@ -1,10 +1,28 @@
 package org.arastreju.bindings.memory.keepers;
 
+import java.util.Collections;
+import java.util.Set;
+
+import org.arastreju.bindings.memory.conversation.MemConversationContext;
+import org.arastreju.sge.model.DetachedStatement;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.Statement;
 import org.arastreju.sge.model.associations.AbstractAssociationKeeper;
+import org.arastreju.sge.model.associations.AssociationSet;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.persistence.ResourceResolver;
 
 /**
  * <p>
- *  Extension of AssociationKeeper.
+ *  Association keeper of a resource attached to a memory conversation. All changes will immediately
+ *  be written through to the conversation's store, or the current transaction.
+ * </p>
+ *
+ * <p>
+ *  The keeper may be shared by several threads of one conversation. The associations are kept in a
+ *  concurrent set indexed by predicate, which is loaded once and replaced as a whole on reload. Readers
+ *  never block, iterating the associations never fails on concurrent changes.
  * </p>
  *
  * <p>
@@ -15,9 +33,64 @@ import org.arastreju.sge.model.associations.AbstractAssociationKeeper;
  */
 public class MemAssocKeeper extends AbstractAssociationKeeper {
 
+    private final QualifiedName qn;
+
+    private final MemConversationContext context;
+
+    private final ResourceResolver resolver;
+
+    private volatile Set<Statement> associations;
+
+    // ----------------------------------------------------
+
+    /**
+     * Constructor.
+     * @param qn The qualified name of the resource.
+     * @param context The conversation context.
+     * @param resolver The resolver for the objects of the associations.
+     */
+    public MemAssocKeeper(final QualifiedName qn, final MemConversationContext context, final ResourceResolver resolver) {
+        this.qn = qn;
+        this.context = context;
+        this.resolver = resolver;
+    }
+
+    // ----------------------------------------------------
+
     @Override
-    protected void resolveAssociations() {
-        //To change body of implemented methods use File | Settings | File Templates.
+    public Set<Statement> getAssociations() {
+        Set<Statement> current = associations;
+        if (current == null) {
+            synchronized (this) {
+                current = associations;
+                if (current == null) {
+                    current = load();
+                    associations = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public void addAssociation(final Statement assoc) {
+        if (getAssociations().contains(assoc)) {
+            return;
+        }
+        final Statement attached = attachObject(assoc);
+        context.getStore().addStatement(attached);
+        getAssociations().add(attached);
+    }
+
+    @Override
+    public boolean removeAssociation(final Statement assoc) {
+        context.getStore().removeStatement(assoc);
+        return getAssociations().remove(assoc);
+    }
+
+    @Override
+    public Set<Statement> getAssociationsForRemoval() {
+        return Collections.emptySet();
     }
 
     @Override
@@ -25,4 +98,49 @@ public class MemAssocKeeper extends AbstractAssociationKeeper {
         return true;
     }
 
+    /**
+     * @return The qualified name of the resource.
+     */
+    public QualifiedName getQualifiedName() {
+        return qn;
+    }
+
+    /**
+     * Discard the loaded associations and load them again from the store.
+     */
+    public void reload() {
+        associations = load();
+    }
+
+    // ----------------------------------------------------
+
+    @Override
+    protected void resolveAssociations() {
+        reload();
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Load the associations from the store into a new concurrent set, indexed by predicate.
+     */
+    private Set<Statement> load() {
+        final Set<Statement> loaded = new AssociationSet(true);
+        for (Statement stmt : context.getStore().getAssociations(qn)) {
+            loaded.add(attachObject(stmt));
+        }
+        return loaded;
+    }
+
+    /**
+     * Replace a resource object by the node attached to the conversation.
+     */
+    private Statement attachObject(final Statement stmt) {
+        final SemanticNode object = stmt.getObject();
+        if (object.isValueNode()) {
+            return stmt;
+        }
+        return new DetachedStatement(stmt, resolver.resolve((ResourceID) object));
+    }
+
 }
@@ -0,0 +1,181 @@
+package org.arastreju.bindings.memory.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import org.arastreju.bindings.memory.conversation.MemConversationContext;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.model.nodes.ValueNode;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.persistence.ResourceResolver;
+import org.arastreju.sge.query.QueryBuilder;
+import org.arastreju.sge.query.QueryResult;
+import org.arastreju.sge.query.SimpleQueryResult;
+import org.arastreju.sge.query.SortCriteria;
+
+/**
+ * <p>
+ *  Query builder of the memory binding. The query expression is evaluated directly against the indexes
+ *  of the store, or the transaction of the conversation.
+ * </p>
+ *
+ * <p>
+ *  The result is ordered by the sort criteria, where each column denotes a predicate. Like in the RDB binding
+ *  resources are compared by the smallest value of the predicate: numbers and points in time by their numeric
+ *  value before all other values by their string value or URI, resources without a value come last.
+ *  Without sort criteria the order is undefined.
+ * </p>
+ */
+public class MemQueryBuilder extends QueryBuilder {
+
+    private final MemConversationContext context;
+
+    private final ResourceResolver resolver;
+
+    // ----------------------------------------------------
+
+    /**
+     * Constructor.
+     * @param context The conversation context.
+     * @param resolver The resolver for the resulting nodes.
+     */
+    public MemQueryBuilder(final MemConversationContext context, final ResourceResolver resolver) {
+        this.context = context;
+        this.resolver = resolver;
+    }
+
+    // ----------------------------------------------------
+
+    @Override
+    public QueryResult getResult() {
+        if (isEmpty()) {
+            return SimpleQueryResult.EMPTY;
+        }
+        final List<ResourceNode> nodes = new ArrayList<ResourceNode>();
+        for (QualifiedName qn : context.getStore().query(getRoot())) {
+            final ResourceNode node = resolver.findResource(qn);
+            if (node != null) {
+                nodes.add(node);
+            }
+        }
+        if (getSortCriteria() != null) {
+            Collections.sort(nodes, new SortCriteriaComparator(getSortCriteria()));
+        }
+        return new SimpleQueryResult(nodes);
+    }
+
+    @Override
+    public ResourceNode getSingleNode() {
+        return getResult().getSingleNode();
+    }
+
+    // ----------------------------------------------------
+
+    private static class SortCriteriaComparator implements Comparator<ResourceNode> {
+
+        private final List<SimpleResourceID> predicates = new ArrayList<SimpleResourceID>();
+
+        private SortCriteriaComparator(final SortCriteria criteria) {
+            for (String column : criteria.getColumns()) {
+                predicates.add(new SimpleResourceID(column));
+            }
+        }
+
+        @Override
+        public int compare(final ResourceNode a, final ResourceNode b) {
+            for (SimpleResourceID predicate : predicates) {
+                final int result = new SortKey(a, predicate).compareTo(new SortKey(b, predicate));
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * The smallest numeric and the smallest other value of a predicate, as sorted by the RDB binding.
+     */
+    private static class SortKey implements Comparable<SortKey> {
+
+        private Double number;
+
+        private String string;
+
+        private SortKey(final ResourceNode node, final SimpleResourceID predicate) {
+            for (Statement stmt : SNOPS.associations(node, predicate)) {
+                final SemanticNode object = stmt.getObject();
+                final Double n = number(object);
+                if (n != null) {
+                    if (number == null || n < number) {
+                        number = n;
+                    }
+                    continue;
+                }
+                final String s = object.isResourceNode()
+                        ? object.asResource().getQualifiedName().toURI()
+                        : object.asValue().getStringValue();
+                if (string == null || s.compareTo(string) < 0) {
+                    string = s;
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(final SortKey other) {
+            final int result = compare(number, other.number);
+            if (result != 0) {
+                return result;
+            }
+            return compare(string, other.string);
+        }
+
+        private static <T extends Comparable<T>> int compare(final T a, final T b) {
+            if (a == null) {
+                return b == null ? 0 : 1;
+            } else if (b == null) {
+                return -1;
+            }
+            return a.compareTo(b);
+        }
+
+        /**
+         * The numeric value of integers and decimals, the milliseconds of points in time.
+         */
+        private static Double number(final SemanticNode node) {
+            if (node.isResourceNode()) {
+                return null;
+            }
+            final ValueNode value = node.asValue();
+            try {
+                switch (value.getDataType()) {
+                case INTEGER:
+                    return value.getIntegerValue().doubleValue();
+                case DECIMAL:
+                    return value.getDecimalValue().doubleValue();
+                case DATE:
+                case TIME_OF_DAY:
+                case TIMESTAMP:
+                    if (value.getValue() instanceof Date) {
+                        return (double) value.getTimeValue().getTime();
+                    }
+                    return null;
+                default:
+                    return null;
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            } catch (ClassCastException e) {
+                return null;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.naming.QualifiedName;
+
+/**
+ * <p>
+ *  Net changes of a transaction, to be applied to the {@link MemTripleStore} as one version.
+ *  Added and removed statements are kept disjoint, as are registered and removed resources.
+ *  The added statements are indexed by subject and by resource object, so a transaction reads it's
+ *  own changes without scanning all of them.
+ * </p>
+ */
+public class ChangeSet {
+
+    private final Set<Statement> added = new HashSet<Statement>();
+
+    private final Set<Statement> removed = new HashSet<Statement>();
+
+    private final Set<QualifiedName> registered = new HashSet<QualifiedName>();
+
+    private final Set<QualifiedName> removedResources = new HashSet<QualifiedName>();
+
+    private final Map<QualifiedName, Set<Statement>> addedBySubject = new HashMap<QualifiedName, Set<Statement>>();
+
+    private final Map<QualifiedName, Set<Statement>> addedByObject = new HashMap<QualifiedName, Set<Statement>>();
+
+    // ----------------------------------------------------
+
+    /**
+     * @param stmt The added statement.
+     * @param existing true if the statement exists in the store.
+     */
+    public void add(final Statement stmt, final boolean existing) {
+        if (!removed.remove(stmt) && !existing && added.add(stmt)) {
+            index(addedBySubject, stmt.getSubject().getQualifiedName(), stmt, true);
+            if (stmt.getObject().isResourceNode()) {
+                index(addedByObject, ((ResourceID) stmt.getObject()).getQualifiedName(), stmt, true);
+            }
+        }
+        register(stmt.getSubject().getQualifiedName());
+        if (stmt.getObject().isResourceNode()) {
+            register(((ResourceID) stmt.getObject()).getQualifiedName());
+        }
+    }
+
+    /**
+     * @param stmt The removed statement.
+     * @param existing true if the statement exists in the store.
+     */
+    public void remove(final Statement stmt, final boolean existing) {
+        if (added.remove(stmt)) {
+            index(addedBySubject, stmt.getSubject().getQualifiedName(), stmt, false);
+            if (stmt.getObject().isResourceNode()) {
+                index(addedByObject, ((ResourceID) stmt.getObject()).getQualifiedName(), stmt, false);
+            }
+        } else if (existing) {
+            removed.add(stmt);
+        }
+    }
+
+    public void register(final QualifiedName qn) {
+        removedResources.remove(qn);
+        registered.add(qn);
+    }
+
+    public void remove(final QualifiedName qn) {
+        registered.remove(qn);
+        removedResources.add(qn);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && registered.isEmpty() && removedResources.isEmpty();
+    }
+
+    // ----------------------------------------------------
+
+    public Set<Statement> getAdded() {
+        return added;
+    }
+
+    /**
+     * @return The statements added by {@link #add(Statement, boolean)} with the given subject.
+     */
+    public Set<Statement> getAdded(final QualifiedName subject) {
+        final Set<Statement> result = addedBySubject.get(subject);
+        return result != null ? result : Collections.<Statement>emptySet();
+    }
+
+    /**
+     * @return The statements added by {@link #add(Statement, boolean)} with the given resource as object.
+     */
+    public Set<Statement> getAddedIncoming(final QualifiedName object) {
+        final Set<Statement> result = addedByObject.get(object);
+        return result != null ? result : Collections.<Statement>emptySet();
+    }
+
+    public Set<Statement> getRemoved() {
+        return removed;
+    }
+
+    public Set<QualifiedName> getRegistered() {
+        return registered;
+    }
+
+    public Set<QualifiedName> getRemovedResources() {
+        return removedResources;
+    }
+
+    /**
+     * @return The subjects of all added and removed statements.
+     */
+    public Set<QualifiedName> getModifiedSubjects() {
+        final Set<QualifiedName> result = new HashSet<QualifiedName>();
+        for (Statement stmt : added) {
+            result.add(stmt.getSubject().getQualifiedName());
+        }
+        for (Statement stmt : removed) {
+            result.add(stmt.getSubject().getQualifiedName());
+        }
+        return result;
+    }
+
+    // ----------------------------------------------------
+
+    private static void index(final Map<QualifiedName, Set<Statement>> index, final QualifiedName key,
+                              final Statement stmt, final boolean add) {
+        Set<Statement> set = index.get(key);
+        if (add) {
+            if (set == null) {
+                set = new HashSet<Statement>();
+                index.put(key, set);
+            }
+            set.add(stmt);
+        } else if (set != null) {
+            set.remove(stmt);
+            if (set.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *  Sorted set of ids backed by a primitive long array. Each id may carry a numeric attribute,
+ *  the attribute array is only allocated when the first non zero attribute is set.
+ * </p>
+ */
+public class IdSet {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] ids = EMPTY;
+
+    private long[] attributes;
+
+    private int size;
+
+    // ----------------------------------------------------
+
+    /**
+     * Add an id without attribute.
+     * @param id The id.
+     * @return true if the id has not been contained before.
+     */
+    public boolean add(final long id) {
+        return add(id, TermDictionary.NONE);
+    }
+
+    /**
+     * Add an id with an attribute. The attribute of an already contained id will not be changed.
+     * @param id The id.
+     * @param attribute The attribute.
+     * @return true if the id has not been contained before.
+     */
+    public boolean add(final long id, final long attribute) {
+        int idx = Arrays.binarySearch(ids, 0, size, id);
+        if (idx >= 0) {
+            return false;
+        }
+        idx = -idx - 1;
+        if (size == ids.length) {
+            final int length = Math.max(2, size + (size >> 1) + 1);
+            ids = Arrays.copyOf(ids, length);
+            if (attributes != null) {
+                attributes = Arrays.copyOf(attributes, length);
+            }
+        }
+        if (attributes == null && attribute != TermDictionary.NONE) {
+            attributes = new long[ids.length];
+        }
+        System.arraycopy(ids, idx, ids, idx + 1, size - idx);
+        ids[idx] = id;
+        if (attributes != null) {
+            System.arraycopy(attributes, idx, attributes, idx + 1, size - idx);
+            attributes[idx] = attribute;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Remove an id.
+     * @param id The id.
+     * @return true if the id has been contained.
+     */
+    public boolean remove(final long id) {
+        final int idx = Arrays.binarySearch(ids, 0, size, id);
+        if (idx < 0) {
+            return false;
+        }
+        System.arraycopy(ids, idx + 1, ids, idx, size - idx - 1);
+        if (attributes != null) {
+            System.arraycopy(attributes, idx + 1, attributes, idx, size - idx - 1);
+        }
+        size--;
+        return true;
+    }
+
+    public boolean contains(final long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    // ----------------------------------------------------
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index The position in this set.
+     * @return The id at given position.
+     */
+    public long get(final int index) {
+        return ids[index];
+    }
+
+    /**
+     * @param index The position in this set.
+     * @return The attribute of the id at given position.
+     */
+    public long attributeAt(final int index) {
+        if (attributes == null) {
+            return TermDictionary.NONE;
+        }
+        return attributes[index];
+    }
+
+    /**
+     * @param id The id.
+     * @return The attribute of the id or {@link TermDictionary#NONE}.
+     */
+    public long attribute(final long id) {
+        final int idx = Arrays.binarySearch(ids, 0, size, id);
+        if (idx < 0) {
+            return TermDictionary.NONE;
+        }
+        return attributeAt(idx);
+    }
+
+    /**
+     * @return A modifiable copy of this set.
+     */
+    public IdSet copy() {
+        final IdSet copy = new IdSet();
+        copy.ids = Arrays.copyOf(ids, size);
+        if (attributes != null) {
+            copy.attributes = Arrays.copyOf(attributes, size);
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * @return A sorted copy of the ids.
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+}
@@ -0,0 +1,206 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ *  Open addressing hash map with primitive long keys, avoiding boxing and entry objects.
+ *  The key 0 ({@link TermDictionary#NONE}) is reserved and can not be used.
+ * </p>
+ *
+ * <p>
+ *  The map supports one writer and any number of concurrent readers, as long as the writer does not
+ *  remove entries: the slots are atomic arrays, the value of a new entry is set before it's key and a
+ *  resized table is published as a whole. A reader having read a key thus sees the value set before it,
+ *  fully constructed. A reader may miss entries put concurrently, but will never see a wrong value.
+ * </p>
+ */
+public class LongMap<V> {
+
+    private static final long FREE = TermDictionary.NONE;
+
+    private volatile Table table;
+
+    private volatile int size;
+
+    // ----------------------------------------------------
+
+    public LongMap() {
+        this(4);
+    }
+
+    /**
+     * Constructor.
+     * @param capacity The initial capacity, will be rounded to a power of two.
+     */
+    public LongMap(final int capacity) {
+        this.table = new Table(Integer.highestOneBit(Math.max(4, capacity) - 1) << 1);
+    }
+
+    // ----------------------------------------------------
+
+    @SuppressWarnings("unchecked")
+    public V get(final long key) {
+        final Table t = table;
+        final int idx = t.indexOf(key);
+        if (idx < 0) {
+            return null;
+        }
+        return (V) t.values.get(idx);
+    }
+
+    public boolean containsKey(final long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Put a value, null values are not allowed.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final long key, final V value) {
+        if (key == FREE || value == null) {
+            throw new IllegalArgumentException("Key " + FREE + " and null values are not allowed.");
+        }
+        Table t = table;
+        final int idx = t.indexOf(key);
+        if (idx >= 0) {
+            final V old = (V) t.values.get(idx);
+            t.values.set(idx, value);
+            return old;
+        }
+        if ((size + 1) * 2 > t.keys.length()) {
+            t = resize(t, t.keys.length() * 2);
+        }
+        t.insert(key, value);
+        size++;
+        return null;
+    }
+
+    /**
+     * Remove an entry. Not safe in presence of concurrent readers.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final long key) {
+        final Table t = table;
+        int i = t.indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        final V old = (V) t.values.get(i);
+        final int mask = t.keys.length() - 1;
+        // shift back following entries of the same probe sequence
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (t.keys.get(j) == FREE) {
+                break;
+            }
+            final int home = t.slot(t.keys.get(j));
+            final boolean stays = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+            if (!stays) {
+                t.keys.set(i, t.keys.get(j));
+                t.values.set(i, t.values.get(j));
+                i = j;
+            }
+        }
+        t.keys.set(i, FREE);
+        t.values.set(i, null);
+        size--;
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The keys of this map in undefined order.
+     */
+    public long[] keys() {
+        final Table t = table;
+        long[] result = new long[size];
+        int pos = 0;
+        for (int i = 0; i < t.keys.length(); i++) {
+            final long key = t.keys.get(i);
+            if (key != FREE && t.values.get(i) != null) {
+                if (pos == result.length) {
+                    result = Arrays.copyOf(result, pos + 8);
+                }
+                result[pos++] = key;
+            }
+        }
+        return pos == result.length ? result : Arrays.copyOf(result, pos);
+    }
+
+    @Override
+    public String toString() {
+        return "LongMap" + Arrays.toString(keys());
+    }
+
+    // ----------------------------------------------------
+
+    private Table resize(final Table old, final int length) {
+        final Table t = new Table(length);
+        for (int i = 0; i < old.keys.length(); i++) {
+            final long key = old.keys.get(i);
+            if (key != FREE) {
+                t.insert(key, old.values.get(i));
+            }
+        }
+        table = t;
+        return t;
+    }
+
+    // ----------------------------------------------------
+
+    private static final class Table {
+
+        private final AtomicLongArray keys;
+
+        private final AtomicReferenceArray<Object> values;
+
+        private Table(final int length) {
+            this.keys = new AtomicLongArray(length);
+            this.values = new AtomicReferenceArray<Object>(length);
+        }
+
+        private int indexOf(final long key) {
+            if (key == FREE) {
+                return -1;
+            }
+            final int mask = keys.length() - 1;
+            int i = slot(key);
+            long k;
+            while ((k = keys.get(i)) != FREE) {
+                if (k == key) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void insert(final long key, final Object value) {
+            int i = slot(key);
+            while (keys.get(i) != FREE) {
+                i = (i + 1) & (keys.length() - 1);
+            }
+            // the key publishes the value
+            values.set(i, value);
+            keys.set(i, key);
+        }
+
+        private int slot(final long key) {
+            final long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & (keys.length() - 1);
+        }
+
+    }
+
+}
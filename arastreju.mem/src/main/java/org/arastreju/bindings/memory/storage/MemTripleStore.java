@@ -0,0 +1,731 @@
+package org.arastreju.bindings.memory.storage;
+
+import static org.arastreju.bindings.memory.storage.TermDictionary.NONE;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.context.SimpleContextID;
+import org.arastreju.sge.eh.ArastrejuRuntimeException;
+import org.arastreju.sge.eh.ErrorCodes;
+import org.arastreju.sge.model.DetachedStatement;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.StatementMetaInfo;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.query.QueryExpression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ *  Gate wide store of all resources and statements of the memory binding.
+ *  All terms are encoded by a {@link TermDictionary}, the statements are kept as triples of ids
+ *  in three indexes:
+ *  <ul>
+ *      <li>SPO: subject -&gt; predicate -&gt; objects (with the statement's contexts as attribute)</li>
+ *      <li>POS: predicate -&gt; object -&gt; subjects</li>
+ *      <li>OSP: object -&gt; subject -&gt; predicates</li>
+ *  </ul>
+ * </p>
+ *
+ * <p>
+ *  The string values of value terms and the simple names of resource terms are tokenized into two
+ *  {@link TextIndex}es. These are built on the first text query and then kept up to date with the dictionary.
+ * </p>
+ *
+ * <p>
+ *  Statements are only decoded to resource IDs and values on access. Thus no attached or detached
+ *  node will be referenced by the store.
+ * </p>
+ *
+ * <p>
+ *  The store is multi versioned: writers are serialized and each write or committed {@link ChangeSet}
+ *  creates a new version, which is published atomically. Readers never block, they read the version
+ *  current at their start, or the version of their transaction's snapshot (see {@link #pin()}).
+ *  The readers of a version are counted in stripes, so concurrent readers do not contend.
+ * </p>
+ *
+ * <p>
+ *  With an attached {@link WriteAheadLog} each version is logged before it is applied. The writer waits
+ *  for the log sync after releasing the store, so concurrent commits are synced together. A version may
+ *  thus become visible to readers shortly before it is durable.
+ * </p>
+ */
+public class MemTripleStore implements TripleStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemTripleStore.class);
+
+    private final TermDictionary dictionary;
+
+    private final ResourceIndex resources;
+
+    private final TripleIndex spo;
+
+    private final TripleIndex pos;
+
+    private final TripleIndex osp;
+
+    private final TextIndex values = new TextIndex();
+
+    private final TextIndex names = new TextIndex();
+
+    private final Object textLock = new Object();
+
+    private volatile int indexedTerms;
+
+    private final ConcurrentMap<Long, ReaderCount> readers = new ConcurrentHashMap<Long, ReaderCount>();
+
+    private volatile long version;
+
+    private volatile int size;
+
+    private final Object checkpointLock = new Object();
+
+    private final AtomicBoolean checkpointing = new AtomicBoolean();
+
+    private volatile WriteAheadLog log;
+
+    private File snapshot;
+
+    // ----------------------------------------------------
+
+    /**
+     * Constructor for an empty store.
+     */
+    public MemTripleStore() {
+        this(new TermDictionary(), new ResourceIndex(), new TripleIndex(), new TripleIndex(), new TripleIndex(), 0);
+    }
+
+    /**
+     * Constructor for a store based on a snapshot.
+     */
+    MemTripleStore(final TermDictionary dictionary, final ResourceIndex resources,
+                   final TripleIndex spo, final TripleIndex pos, final TripleIndex osp, final int size) {
+        this.dictionary = dictionary;
+        this.resources = resources;
+        this.spo = spo;
+        this.pos = pos;
+        this.osp = osp;
+        this.size = size;
+    }
+
+    // -- VERSIONS ----------------------------------------
+
+    /**
+     * Pin the current version, which will be kept readable until it is unpinned.
+     * @return The pinned version.
+     */
+    public long pin() {
+        while (true) {
+            final long v = version;
+            ReaderCount count = readers.get(v);
+            if (count == null) {
+                final ReaderCount created = new ReaderCount();
+                count = readers.putIfAbsent(v, created);
+                if (count == null) {
+                    count = created;
+                }
+            }
+            // a closed count has been discarded by the writer
+            if (count.acquire()) {
+                if (version == v) {
+                    return v;
+                }
+                count.release();
+            }
+        }
+    }
+
+    /**
+     * Release a pinned version.
+     * @param v The version.
+     */
+    public void unpin(final long v) {
+        final ReaderCount count = readers.get(v);
+        if (count != null) {
+            count.release();
+        }
+    }
+
+    /**
+     * @return The current version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    // -- READ --------------------------------------------
+
+    @Override
+    public boolean contains(final QualifiedName qn) {
+        final long v = pin();
+        try {
+            return contains(qn, v);
+        } finally {
+            unpin(v);
+        }
+    }
+
+    @Override
+    public Set<Statement> getAssociations(final QualifiedName subject) {
+        final long v = pin();
+        try {
+            return getAssociations(subject, v);
+        } finally {
+            unpin(v);
+        }
+    }
+
+    @Override
+    public Set<Statement> getIncomingStatements(final QualifiedName object) {
+        final long v = pin();
+        try {
+            return getIncomingStatements(object, v);
+        } finally {
+            unpin(v);
+        }
+    }
+
+    @Override
+    public Set<QualifiedName> getSubjects(final ResourceID predicate, final SemanticNode object) {
+        final long v = pin();
+        try {
+            return getSubjects(predicate, object, v);
+        } finally {
+            unpin(v);
+        }
+    }
+
+    @Override
+    public List<QualifiedName> query(final QueryExpression exp) {
+        final long v = pin();
+        try {
+            return query(exp, v);
+        } finally {
+            unpin(v);
+        }
+    }
+
+    /**
+     * @return The qualified names of all resources in the current version.
+     */
+    public List<QualifiedName> getResources() {
+        final long v = pin();
+        try {
+            return decode(resources.ids(v));
+        } finally {
+            unpin(v);
+        }
+    }
+
+    /**
+     * @return The number of statements in the current version.
+     */
+    public int size() {
+        return size;
+    }
+
+    // -- VERSIONED READ ----------------------------------
+
+    /**
+     * Check if there is a resource with given qualified name in a pinned version.
+     */
+    public boolean contains(final QualifiedName qn, final long v) {
+        final long id = dictionary.id(qn);
+        return id != NONE && resources.contains(id, v);
+    }
+
+    /**
+     * Check if a statement is contained in a pinned version.
+     */
+    public boolean contains(final Statement stmt, final long v) {
+        final long s = dictionary.id(stmt.getSubject().getQualifiedName());
+        final long p = dictionary.id(stmt.getPredicate().getQualifiedName());
+        final long o = dictionary.id(term(stmt.getObject()));
+        return s != NONE && p != NONE && o != NONE && spo.contains(s, p, o, v);
+    }
+
+    /**
+     * Get all statements of a pinned version where the given resource is the subject (SPO).
+     */
+    public Set<Statement> getAssociations(final QualifiedName subject, final long v) {
+        final long s = dictionary.id(subject);
+        final LongMap<IdSet> byPredicate = spo.get(s, v);
+        if (byPredicate == null) {
+            return Collections.emptySet();
+        }
+        final Set<Statement> result = new HashSet<Statement>();
+        for (long p : byPredicate.keys()) {
+            final IdSet objects = byPredicate.get(p);
+            for (int i = 0; i < objects.size(); i++) {
+                result.add(decode(s, p, objects.get(i), objects.attributeAt(i)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get all statements of a pinned version where the given resource is the object (OSP).
+     */
+    public Set<Statement> getIncomingStatements(final QualifiedName object, final long v) {
+        final long o = dictionary.id(object);
+        final LongMap<IdSet> bySubject = osp.get(o, v);
+        if (bySubject == null) {
+            return Collections.emptySet();
+        }
+        final Set<Statement> result = new HashSet<Statement>();
+        for (long s : bySubject.keys()) {
+            final IdSet predicates = bySubject.get(s);
+            for (int i = 0; i < predicates.size(); i++) {
+                final long p = predicates.get(i);
+                result.add(decode(s, p, o, spo.attribute(s, p, o, v)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get all subjects of a pinned version having the given predicate/object combination (POS).
+     */
+    public Set<QualifiedName> getSubjects(final ResourceID predicate, final SemanticNode object, final long v) {
+        final long p = dictionary.id(predicate.getQualifiedName());
+        final long o = dictionary.id(term(object));
+        final IdSet subjects = pos.get(p, o, v);
+        if (subjects == null) {
+            return Collections.emptySet();
+        }
+        final Set<QualifiedName> result = new HashSet<QualifiedName>();
+        for (int i = 0; i < subjects.size(); i++) {
+            result.add((QualifiedName) dictionary.term(subjects.get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Evaluate a query against the indexes of a pinned version.
+     * @return The matching resources in the order of their ids.
+     */
+    public List<QualifiedName> query(final QueryExpression exp, final long v) {
+        return decode(new QueryEvaluator(dictionary, resources, pos, osp, this, v).evaluate(exp));
+    }
+
+    // -- TEXT INDEX --------------------------------------
+
+    /**
+     * @return The index of the string values of all value terms.
+     */
+    TextIndex getValueIndex() {
+        indexTerms();
+        return values;
+    }
+
+    /**
+     * @return The index of the simple names of all resource terms.
+     */
+    TextIndex getNameIndex() {
+        indexTerms();
+        return names;
+    }
+
+    // -- WRITE -------------------------------------------
+
+    @Override
+    public void register(final QualifiedName qn) {
+        final ChangeSet changes = new ChangeSet();
+        changes.register(qn);
+        final long position;
+        synchronized (this) {
+            position = log(changes);
+            begin();
+            resources.add(dictionary.encode(qn));
+            publish();
+        }
+        sync(position);
+    }
+
+    @Override
+    public boolean addStatement(final Statement stmt) {
+        final ChangeSet changes = new ChangeSet();
+        changes.add(stmt, false);
+        final long position;
+        final boolean added;
+        synchronized (this) {
+            position = log(changes);
+            begin();
+            added = add(stmt);
+            publish();
+        }
+        sync(position);
+        return added;
+    }
+
+    @Override
+    public boolean removeStatement(final Statement stmt) {
+        final ChangeSet changes = new ChangeSet();
+        changes.remove(stmt, true);
+        final long position;
+        final boolean removed;
+        synchronized (this) {
+            position = log(changes);
+            begin();
+            removed = remove(stmt);
+            publish();
+        }
+        sync(position);
+        return removed;
+    }
+
+    @Override
+    public void remove(final QualifiedName qn) {
+        final ChangeSet changes = new ChangeSet();
+        changes.remove(qn);
+        final long position;
+        synchronized (this) {
+            position = log(changes);
+            begin();
+            removeResource(qn);
+            publish();
+        }
+        sync(position);
+    }
+
+    /**
+     * Apply the changes of a transaction as one new version. The commit fails if a statement
+     * of one of the modified subjects has been changed since the transaction's snapshot.
+     * If a log is attached this method returns after the changes have been synced to the log.
+     * @param changes The changes.
+     * @param snapshot The version the transaction has been based on.
+     */
+    public void commit(final ChangeSet changes, final long snapshot) {
+        final long position;
+        synchronized (this) {
+            for (QualifiedName subject : changes.getModifiedSubjects()) {
+                if (spo.lastModified(dictionary.id(subject)) > snapshot) {
+                    throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_CONSISTENCY_FAILURE,
+                            "Concurrent modification of resource " + subject);
+                }
+            }
+            position = log(changes);
+            apply(changes);
+        }
+        sync(position);
+    }
+
+    // -- PERSISTENCE -------------------------------------
+
+    /**
+     * Log all further writes to the given log. Whenever the log indicates a checkpoint, a compacted
+     * snapshot is written in the background and the log segments contained in it are deleted.
+     * @param log The write ahead log.
+     * @param snapshot The snapshot file.
+     */
+    public void attachLog(final WriteAheadLog log, final File snapshot) {
+        synchronized (checkpointLock) {
+            this.snapshot = snapshot;
+            this.log = log;
+        }
+    }
+
+    /**
+     * Write a snapshot of the current version and delete the log segments contained in it.
+     * Writers are only blocked while a new log segment is started.
+     */
+    public void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            if (log == null) {
+                return;
+            }
+            final List<File> obsolete;
+            final long v;
+            synchronized (this) {
+                obsolete = log.rotate();
+                v = pin();
+            }
+            try {
+                SnapshotFile.write(snapshot, dictionary, resources, spo, pos, osp, v);
+            } finally {
+                unpin(v);
+            }
+            log.delete(obsolete);
+        }
+    }
+
+    /**
+     * Write a final snapshot and close the attached log, if any.
+     */
+    public void closeLog() throws IOException {
+        synchronized (checkpointLock) {
+            if (log == null) {
+                return;
+            }
+            checkpoint();
+            log.close();
+            log = null;
+        }
+    }
+
+    /**
+     * Write a snapshot of the current version of this store, which can later be opened by
+     * {@link SnapshotFile#open(File)}.
+     * @param file The snapshot file.
+     */
+    public void writeSnapshot(final File file) throws IOException {
+        final long v = pin();
+        try {
+            SnapshotFile.write(file, dictionary, resources, spo, pos, osp, v);
+        } finally {
+            unpin(v);
+        }
+    }
+
+    /**
+     * Apply changes as one new version, without conflict check and logging, e.g. on replay of the log.
+     * @param changes The changes.
+     */
+    synchronized void apply(final ChangeSet changes) {
+        begin();
+        for (Statement stmt : changes.getRemoved()) {
+            remove(stmt);
+        }
+        for (QualifiedName qn : changes.getRemovedResources()) {
+            removeResource(qn);
+        }
+        for (QualifiedName qn : changes.getRegistered()) {
+            resources.add(dictionary.encode(qn));
+        }
+        for (Statement stmt : changes.getAdded()) {
+            add(stmt);
+        }
+        publish();
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Append the changes to the log, to be called by the writer before applying them.
+     * @return The log position to be synced or -1 if there is no log.
+     */
+    private long log(final ChangeSet changes) {
+        final WriteAheadLog current = log;
+        if (current == null) {
+            return -1;
+        }
+        try {
+            return current.append(changes);
+        } catch (IOException e) {
+            throw new ArastrejuRuntimeException(ErrorCodes.GRAPH_WRITE_ERROR, "Could not append to log.", e);
+        }
+    }
+
+    /**
+     * Wait for the log to be synced up to the given position, outside the writer lock to allow group commits.
+     */
+    private void sync(final long position) {
+        final WriteAheadLog current = log;
+        if (position < 0 || current == null) {
+            return;
+        }
+        try {
+            current.sync(position);
+        } catch (IOException e) {
+            throw new ArastrejuRuntimeException(ErrorCodes.GRAPH_WRITE_ERROR, "Could not sync log.", e);
+        }
+        if (current.isCheckpointDue() && checkpointing.compareAndSet(false, true)) {
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        checkpoint();
+                    } catch (IOException e) {
+                        LOGGER.error("Checkpoint failed.", e);
+                    } finally {
+                        checkpointing.set(false);
+                    }
+                }
+            }, "arastreju-mem-checkpoint");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Add the terms appended to the dictionary since the last call to the text indexes.
+     * Readers do not block writers, as terms are never changed once they are appended.
+     */
+    private void indexTerms() {
+        if (indexedTerms == dictionary.size()) {
+            return;
+        }
+        synchronized (textLock) {
+            final int count = dictionary.size();
+            for (int id = indexedTerms + 1; id <= count; id++) {
+                final Object term = dictionary.term(id);
+                if (term instanceof QualifiedName) {
+                    names.add(id, ((QualifiedName) term).getSimpleName());
+                } else if (term instanceof SemanticNode) {
+                    values.add(id, ((SemanticNode) term).asValue().getStringValue());
+                }
+            }
+            indexedTerms = count;
+        }
+    }
+
+    private void begin() {
+        final long next = version + 1;
+        final long oldest = oldestReader();
+        resources.prepare(next, oldest);
+        spo.prepare(next, oldest);
+        pos.prepare(next, oldest);
+        osp.prepare(next, oldest);
+    }
+
+    private void publish() {
+        version = version + 1;
+    }
+
+    /**
+     * Determine the oldest pinned version, discarding the counters no longer in use.
+     */
+    private long oldestReader() {
+        long oldest = version;
+        for (Map.Entry<Long, ReaderCount> entry : readers.entrySet()) {
+            final ReaderCount count = entry.getValue();
+            if (count.close()) {
+                readers.remove(entry.getKey(), count);
+            } else {
+                oldest = Math.min(oldest, entry.getKey());
+            }
+        }
+        return oldest;
+    }
+
+    private boolean add(final Statement stmt) {
+        final long s = dictionary.encode(stmt.getSubject().getQualifiedName());
+        final long p = dictionary.encode(stmt.getPredicate().getQualifiedName());
+        final long o = dictionary.encode(term(stmt.getObject()));
+        if (!spo.add(s, p, o, contexts(stmt.getContexts()))) {
+            return false;
+        }
+        resources.add(s);
+        pos.add(p, o, s, NONE);
+        osp.add(o, s, p, NONE);
+        if (stmt.getObject().isResourceNode()) {
+            resources.add(o);
+        }
+        size++;
+        return true;
+    }
+
+    private boolean remove(final Statement stmt) {
+        final long s = dictionary.id(stmt.getSubject().getQualifiedName());
+        final long p = dictionary.id(stmt.getPredicate().getQualifiedName());
+        final long o = dictionary.id(term(stmt.getObject()));
+        return remove(s, p, o);
+    }
+
+    private boolean remove(final long s, final long p, final long o) {
+        if (s == NONE || p == NONE || o == NONE || !spo.remove(s, p, o)) {
+            return false;
+        }
+        pos.remove(p, o, s);
+        osp.remove(o, s, p);
+        size--;
+        return true;
+    }
+
+    private void removeResource(final QualifiedName qn) {
+        final long id = dictionary.id(qn);
+        if (id == NONE) {
+            return;
+        }
+        final LongMap<IdSet> outgoing = spo.get(id, TripleIndex.LATEST);
+        if (outgoing != null) {
+            for (long p : outgoing.keys()) {
+                for (long o : outgoing.get(p).toArray()) {
+                    remove(id, p, o);
+                }
+            }
+        }
+        final LongMap<IdSet> incoming = osp.get(id, TripleIndex.LATEST);
+        if (incoming != null) {
+            for (long s : incoming.keys()) {
+                for (long p : incoming.get(s).toArray()) {
+                    remove(s, p, id);
+                }
+            }
+        }
+        resources.remove(id);
+    }
+
+    private List<QualifiedName> decode(final long[] ids) {
+        final List<QualifiedName> result = new ArrayList<QualifiedName>(ids.length);
+        for (long id : ids) {
+            result.add((QualifiedName) dictionary.term(id));
+        }
+        return result;
+    }
+
+    private Statement decode(final long s, final long p, final long o, final long ctx) {
+        final Object object = dictionary.term(o);
+        final SemanticNode node;
+        if (object instanceof QualifiedName) {
+            node = SNOPS.id((QualifiedName) object);
+        } else {
+            node = (SemanticNode) object;
+        }
+        return new DetachedStatement(
+                SNOPS.id((QualifiedName) dictionary.term(s)),
+                SNOPS.id((QualifiedName) dictionary.term(p)),
+                node,
+                StatementMetaInfo.of(contexts(ctx)));
+    }
+
+    /**
+     * Resources are encoded by their qualified name, values by themselves.
+     */
+    private Object term(final SemanticNode node) {
+        if (node.isResourceNode()) {
+            return ((ResourceID) node).getQualifiedName();
+        } else {
+            return node.asValue();
+        }
+    }
+
+    /**
+     * Each distinct set of contexts is encoded as one term, a list of context IDs with the contexts'
+     * qualified names, as the given contexts may be attached nodes.
+     */
+    private long contexts(final Context[] contexts) {
+        if (contexts == null || contexts.length == 0) {
+            return NONE;
+        }
+        final List<Context> ids = new ArrayList<Context>(contexts.length);
+        for (Context ctx : contexts) {
+            ids.add(new SimpleContextID(ctx.getQualifiedName()));
+        }
+        return dictionary.encode(ids);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Context[] contexts(final long id) {
+        if (id == NONE) {
+            return StatementMetaInfo.NO_CTX;
+        }
+        final List<Context> contexts = (List<Context>) dictionary.term(id);
+        return contexts.toArray(new Context[contexts.size()]);
+    }
+
+}
@@ -0,0 +1,413 @@
+package org.arastreju.bindings.memory.storage;
+
+import static org.arastreju.bindings.memory.storage.TermDictionary.NONE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.query.QueryException;
+import org.arastreju.sge.query.QueryExpression;
+import org.arastreju.sge.query.QueryOperator;
+import org.arastreju.sge.query.QueryParam;
+
+/**
+ * <p>
+ *  Evaluates a query expression against the indexes of one version of the {@link MemTripleStore}.
+ *  Each sub expression results in a sorted array of resource ids:
+ *  <ul>
+ *      <li>field: the subjects of the POS index for the predicate and the matching objects</li>
+ *      <li>relation: the subjects of the OSP index for the matching object resources</li>
+ *      <li>value: the subjects of the OSP index for the value objects found in the {@link TextIndex}</li>
+ *      <li>URI: the matching resource ids, found in the {@link TextIndex} of simple names unless
+ *      the term is a full URI</li>
+ *  </ul>
+ *  AND intersects the results of it's children, starting with the smallest one. Negated children of an AND
+ *  are subtracted from the intersection, only a NOT without positive siblings requires all resource ids.
+ * </p>
+ *
+ * <p>
+ *  Terms may contain the wildcards '*' and '?'. Fields and relations match resources by their URI
+ *  and values by their string value. Value and URI terms are full-text queries: each token of the term
+ *  has to match a token of the string value or simple name, ignoring case.
+ * </p>
+ */
+public class QueryEvaluator {
+
+    private final TermDictionary dictionary;
+
+    private final ResourceIndex resources;
+
+    private final TripleIndex pos;
+
+    private final TripleIndex osp;
+
+    private final MemTripleStore store;
+
+    private final long version;
+
+    private long[] all;
+
+    // ----------------------------------------------------
+
+    QueryEvaluator(final TermDictionary dictionary, final ResourceIndex resources,
+                   final TripleIndex pos, final TripleIndex osp, final MemTripleStore store, final long version) {
+        this.dictionary = dictionary;
+        this.resources = resources;
+        this.pos = pos;
+        this.osp = osp;
+        this.store = store;
+        this.version = version;
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * @return The sorted ids of all resources matching the expression.
+     */
+    public long[] evaluate(final QueryExpression exp) {
+        switch (exp.getOperator()) {
+        case AND:
+            return and(exp.getChildren());
+        case OR:
+            return or(exp.getChildren());
+        case NOT:
+            return SortedIds.difference(all(), or(exp.getChildren()));
+        default:
+            return leaf(exp.getQueryParam());
+        }
+    }
+
+    /**
+     * Check if a single resource matches the expression, e.g. a resource modified in a transaction.
+     * @param exp The expression.
+     * @param qn The qualified name of the resource.
+     * @param associations The statements of the resource.
+     * @return true if the resource matches.
+     */
+    public static boolean matches(final QueryExpression exp, final QualifiedName qn, final Collection<Statement> associations) {
+        switch (exp.getOperator()) {
+        case AND:
+            for (QueryExpression child : exp.getChildren()) {
+                if (!matches(child, qn, associations)) {
+                    return false;
+                }
+            }
+            return true;
+        case OR:
+            for (QueryExpression child : exp.getChildren()) {
+                if (matches(child, qn, associations)) {
+                    return true;
+                }
+            }
+            return false;
+        case NOT:
+            for (QueryExpression child : exp.getChildren()) {
+                if (matches(child, qn, associations)) {
+                    return false;
+                }
+            }
+            return true;
+        default:
+            return matches(exp.getQueryParam(), qn, associations);
+        }
+    }
+
+    // ----------------------------------------------------
+
+    private long[] and(final List<QueryExpression> children) {
+        final List<long[]> positive = new ArrayList<long[]>();
+        final List<QueryExpression> negative = new ArrayList<QueryExpression>();
+        for (QueryExpression child : children) {
+            if (child.getOperator() == QueryOperator.NOT) {
+                negative.addAll(child.getChildren());
+            } else {
+                final long[] ids = evaluate(child);
+                if (ids.length == 0) {
+                    return SortedIds.EMPTY;
+                }
+                positive.add(ids);
+            }
+        }
+        long[] result;
+        if (positive.isEmpty()) {
+            result = all();
+        } else {
+            long[][] sets = positive.toArray(new long[positive.size()][]);
+            Arrays.sort(sets, new Comparator<long[]>() {
+                @Override
+                public int compare(long[] a, long[] b) {
+                    return a.length < b.length ? -1 : (a.length == b.length ? 0 : 1);
+                }
+            });
+            result = sets[0];
+            for (int i = 1; i < sets.length && result.length > 0; i++) {
+                result = SortedIds.intersect(result, sets[i]);
+            }
+        }
+        if (result.length > 0 && !negative.isEmpty()) {
+            result = SortedIds.difference(result, or(negative));
+        }
+        return result;
+    }
+
+    private long[] or(final List<QueryExpression> children) {
+        long[] union = SortedIds.EMPTY;
+        for (QueryExpression child : children) {
+            union = SortedIds.union(union, evaluate(child));
+        }
+        return union;
+    }
+
+    private long[] leaf(final QueryParam param) {
+        switch (param.getOperator()) {
+        case EQUALS:
+            return field(param.getName(), param.getValue());
+        case HAS_VALUE:
+            return value(String.valueOf(param.getValue()));
+        case HAS_RELATION:
+            return relation(String.valueOf(param.getValue()));
+        case HAS_URI:
+            return uri(String.valueOf(param.getValue()));
+        default:
+            throw new QueryException("Unsupported query parameter: " + param);
+        }
+    }
+
+    private long[] field(final String name, final Object value) {
+        final long p = dictionary.id(new QualifiedName(name));
+        if (p == NONE) {
+            return SortedIds.EMPTY;
+        }
+        final QualifiedName resource = resource(value);
+        if (resource != null) {
+            final IdSet subjects = pos.get(p, dictionary.id(resource), version);
+            return subjects != null ? subjects.toArray() : SortedIds.EMPTY;
+        }
+        final TermPattern pattern = new TermPattern(String.valueOf(value));
+        final LongMap<IdSet> objects = pos.get(p, version);
+        if (objects == null) {
+            return SortedIds.EMPTY;
+        }
+        final Collector collector = new Collector();
+        for (long o : objects.keys()) {
+            if (pattern.matches(dictionary.term(o))) {
+                collector.add(objects.get(o));
+            }
+        }
+        return collector.toSortedIds();
+    }
+
+    private long[] value(final String term) {
+        final Collector collector = new Collector();
+        for (long o : store.getValueIndex().find(term)) {
+            collector.addKeys(osp.get(o, version));
+        }
+        return collector.toSortedIds();
+    }
+
+    private long[] relation(final String term) {
+        final TermPattern pattern = new TermPattern(term);
+        final Collector collector = new Collector();
+        if (pattern.isExact()) {
+            collector.addKeys(osp.get(dictionary.id(new QualifiedName(term)), version));
+        } else {
+            for (long o : all()) {
+                if (pattern.matches(dictionary.term(o))) {
+                    collector.addKeys(osp.get(o, version));
+                }
+            }
+        }
+        return collector.toSortedIds();
+    }
+
+    private long[] uri(final String term) {
+        if (!isURI(term)) {
+            final Collector collector = new Collector();
+            for (long id : store.getNameIndex().find(term)) {
+                if (resources.contains(id, version)) {
+                    collector.add(id);
+                }
+            }
+            return collector.toSortedIds();
+        }
+        final TermPattern pattern = new TermPattern(term);
+        if (pattern.isExact()) {
+            final long id = dictionary.id(new QualifiedName(term));
+            if (id != NONE && resources.contains(id, version)) {
+                return new long[] { id };
+            }
+            return SortedIds.EMPTY;
+        }
+        final Collector collector = new Collector();
+        for (long id : all()) {
+            if (pattern.matches(dictionary.term(id))) {
+                collector.add(id);
+            }
+        }
+        return collector.toSortedIds();
+    }
+
+    private long[] all() {
+        if (all == null) {
+            all = resources.ids(version);
+        }
+        return all;
+    }
+
+    // ----------------------------------------------------
+
+    private static boolean matches(final QueryParam param, final QualifiedName qn, final Collection<Statement> associations) {
+        final String term = String.valueOf(param.getValue());
+        switch (param.getOperator()) {
+        case EQUALS:
+            final QualifiedName predicate = new QualifiedName(param.getName());
+            final QualifiedName resource = resource(param.getValue());
+            final TermPattern pattern = resource != null ? new TermPattern(resource.toURI()) : new TermPattern(term);
+            for (Statement stmt : associations) {
+                if (predicate.equals(stmt.getPredicate().getQualifiedName()) && pattern.matches(stmt.getObject())) {
+                    return true;
+                }
+            }
+            return false;
+        case HAS_VALUE:
+            for (Statement stmt : associations) {
+                if (stmt.getObject().isValueNode() && TextIndex.matches(term, stmt.getObject().asValue().getStringValue())) {
+                    return true;
+                }
+            }
+            return false;
+        case HAS_RELATION:
+            final TermPattern relation = new TermPattern(term);
+            for (Statement stmt : associations) {
+                if (stmt.getObject().isResourceNode() && relation.matches(stmt.getObject())) {
+                    return true;
+                }
+            }
+            return false;
+        case HAS_URI:
+            if (isURI(term)) {
+                return new TermPattern(term).matches(qn);
+            }
+            return TextIndex.matches(term, qn.getSimpleName());
+        default:
+            throw new QueryException("Unsupported query parameter: " + param);
+        }
+    }
+
+    /**
+     * @return true if the term of a URI param denotes a full URI, not only a simple name.
+     */
+    private static boolean isURI(final String term) {
+        return term.indexOf(':') >= 0 || term.indexOf('/') >= 0 || term.indexOf('#') >= 0;
+    }
+
+    /**
+     * @return The qualified name if the value of a field param denotes a resource, otherwise null.
+     */
+    private static QualifiedName resource(final Object value) {
+        if (value instanceof ResourceID) {
+            return ((ResourceID) value).getQualifiedName();
+        } else if (value instanceof QualifiedName) {
+            return (QualifiedName) value;
+        }
+        return null;
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Exact or wildcard match of a term against the URI of a resource or the string value of a value.
+     */
+    private static class TermPattern {
+
+        private final String term;
+
+        private final Pattern regex;
+
+        private TermPattern(final String term) {
+            this.term = term;
+            if (term.indexOf('*') < 0 && term.indexOf('?') < 0) {
+                this.regex = null;
+            } else {
+                final StringBuilder sb = new StringBuilder();
+                int start = 0;
+                for (int i = 0; i < term.length(); i++) {
+                    final char c = term.charAt(i);
+                    if (c == '*' || c == '?') {
+                        if (i > start) {
+                            sb.append(Pattern.quote(term.substring(start, i)));
+                        }
+                        sb.append(c == '*' ? ".*" : ".");
+                        start = i + 1;
+                    }
+                }
+                if (start < term.length()) {
+                    sb.append(Pattern.quote(term.substring(start)));
+                }
+                this.regex = Pattern.compile(sb.toString(), Pattern.DOTALL);
+            }
+        }
+
+        private boolean isExact() {
+            return regex == null;
+        }
+
+        private boolean matches(final Object object) {
+            final String s;
+            if (object instanceof QualifiedName) {
+                s = ((QualifiedName) object).toURI();
+            } else if (object instanceof ResourceID) {
+                s = ((ResourceID) object).getQualifiedName().toURI();
+            } else if (object instanceof SemanticNode && ((SemanticNode) object).isValueNode()) {
+                s = ((SemanticNode) object).asValue().getStringValue();
+            } else {
+                return false;
+            }
+            return regex == null ? term.equals(s) : regex.matcher(s).matches();
+        }
+    }
+
+    /**
+     * Collects ids of several sets to be sorted once.
+     */
+    private static class Collector {
+
+        private long[] ids = new long[16];
+
+        private int size;
+
+        private void add(final long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private void add(final IdSet set) {
+            for (int i = 0; i < set.size(); i++) {
+                add(set.get(i));
+            }
+        }
+
+        private void addKeys(final LongMap<?> map) {
+            if (map != null) {
+                for (long key : map.keys()) {
+                    add(key);
+                }
+            }
+        }
+
+        private long[] toSortedIds() {
+            return SortedIds.of(ids, size);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ *  Striped count of the readers of one version of the {@link MemTripleStore}. Each thread increments
+ *  and decrements its own stripe, which is padded to a cache line of it's own, so concurrent readers
+ *  of the same version do not contend on one counter.
+ * </p>
+ *
+ * <p>
+ *  A count not in use any more is closed by the writer. A reader first increments it's stripe and
+ *  then checks if the count has been closed, the writer first closes the count and then checks if there
+ *  are readers. Thus either the reader backs off or the writer sees the reader.
+ * </p>
+ */
+class ReaderCount {
+
+    private static final int STRIPES = 32;
+
+    /**
+     * Distance of two stripes in longs, one cache line.
+     */
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    private volatile boolean closed;
+
+    // ----------------------------------------------------
+
+    /**
+     * Register a reader.
+     * @return false if the count has been closed, the reader has to retry with a new count.
+     */
+    boolean acquire() {
+        final int cell = cell();
+        cells.incrementAndGet(cell);
+        if (closed) {
+            cells.decrementAndGet(cell);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Unregister a reader.
+     */
+    void release() {
+        cells.decrementAndGet(cell());
+    }
+
+    /**
+     * Try to close the count, to be called by the writer only.
+     * @return true if there have been no readers and the count is closed now, false if it is still in use.
+     */
+    boolean close() {
+        closed = true;
+        if (sum() == 0) {
+            return true;
+        }
+        closed = false;
+        return false;
+    }
+
+    // ----------------------------------------------------
+
+    private long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private static int cell() {
+        final long id = Thread.currentThread().getId();
+        final int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((hash >>> 16) & (STRIPES - 1)) * PADDING;
+    }
+
+}
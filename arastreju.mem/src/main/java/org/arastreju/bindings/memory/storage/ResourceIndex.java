@@ -0,0 +1,168 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <p>
+ *  Multi version set of the ids of all known resources. Like the {@link TripleIndex} it may be based on a
+ *  {@link SortedRun} of a snapshot, changes are kept on the heap as chains of versioned states.
+ * </p>
+ */
+public class ResourceIndex {
+
+    private final LongMap<State> states = new LongMap<State>(1024);
+
+    private final SortedRun base;
+
+    private long pending;
+
+    private long oldest;
+
+    // ----------------------------------------------------
+
+    public ResourceIndex() {
+        this(new SortedRun(1));
+    }
+
+    public ResourceIndex(final SortedRun base) {
+        this.base = base;
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Prepare the modifications of the writer.
+     * @param version The version to be created.
+     * @param oldestReader The oldest version still in use by a reader.
+     */
+    public void prepare(final long version, final long oldestReader) {
+        this.pending = version;
+        this.oldest = oldestReader;
+    }
+
+    public void add(final long id) {
+        set(id, true);
+    }
+
+    public void remove(final long id) {
+        set(id, false);
+    }
+
+    public boolean contains(final long id, final long version) {
+        State state = states.get(id);
+        while (state != null && state.version > version) {
+            state = state.older;
+        }
+        if (state != null) {
+            return state.exists;
+        }
+        return base.contains(id);
+    }
+
+    /**
+     * @return All ids of the given version in sorted order.
+     */
+    public long[] ids(final long version) {
+        final long[] modified = states.keys();
+        Arrays.sort(modified);
+        final long[] result = new long[(int) base.size() + modified.length];
+        int count = 0;
+        long record = 0;
+        int next = 0;
+        while (record < base.size() || next < modified.length) {
+            final long fromBase = record < base.size() ? base.get(record, 0) : Long.MAX_VALUE;
+            final long id;
+            if (next < modified.length && modified[next] <= fromBase) {
+                id = modified[next++];
+                if (id == fromBase) {
+                    record++;
+                }
+            } else {
+                id = fromBase;
+                record++;
+            }
+            if (contains(id, version)) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Write all ids of the given version in sorted order.
+     * @param out The output.
+     * @param version The version to be written.
+     * @return The number of ids written.
+     */
+    public long write(final DataOutput out, final long version) throws IOException {
+        final long[] modified = states.keys();
+        Arrays.sort(modified);
+        long count = 0;
+        long record = 0;
+        int next = 0;
+        while (record < base.size() || next < modified.length) {
+            final long fromBase = record < base.size() ? base.get(record, 0) : Long.MAX_VALUE;
+            final long id;
+            if (next < modified.length && modified[next] <= fromBase) {
+                id = modified[next++];
+                if (id == fromBase) {
+                    record++;
+                }
+            } else {
+                id = fromBase;
+                record++;
+            }
+            if (contains(id, version)) {
+                out.writeLong(id);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // ----------------------------------------------------
+
+    private void set(final long id, final boolean exists) {
+        final State head = states.get(id);
+        if (contains(id, TripleIndex.LATEST) == exists) {
+            return;
+        }
+        if (head != null && head.version == pending) {
+            states.put(id, new State(pending, exists, head.older));
+            return;
+        }
+        if (head != null) {
+            State needed = head;
+            while (needed != null && needed.version > oldest) {
+                needed = needed.older;
+            }
+            if (needed != null) {
+                needed.older = null;
+            }
+        }
+        states.put(id, new State(pending, exists, head));
+    }
+
+    // ----------------------------------------------------
+
+    private static final class State {
+
+        private final long version;
+
+        private final boolean exists;
+
+        private volatile State older;
+
+        private State(final long version, final boolean exists, final State older) {
+            this.version = version;
+            this.exists = exists;
+            this.older = older;
+        }
+
+    }
+
+}
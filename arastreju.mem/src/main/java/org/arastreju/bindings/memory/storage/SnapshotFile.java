@@ -0,0 +1,177 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>
+ *  Snapshot of a {@link MemTripleStore} in a single file. The file contains the term dictionary followed by
+ *  the sorted runs of the resource ids and the SPO, POS and OSP indexes:
+ *  <pre>
+ *      MAGIC FORMAT DICTIONARY RESOURCES SPO POS OSP TRAILER
+ *  </pre>
+ *  The trailer holds offset and record count of each run, followed by the magic number.
+ * </p>
+ *
+ * <p>
+ *  On opening a snapshot only the dictionary is read to the heap, the runs are memory mapped.
+ *  Thus a store can serve queries right after opening its snapshot.
+ * </p>
+ */
+public final class SnapshotFile {
+
+    private static final long MAGIC = 0x4152415353544F52L;
+
+    private static final int FORMAT = 2;
+
+    private static final int RUNS = 4;
+
+    // ----------------------------------------------------
+
+    private SnapshotFile() {
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Write a snapshot of the given version. The file is first written to a temporary file and then renamed,
+     * so an existing snapshot will only be replaced by a complete one. Where the rename does not replace an
+     * existing file, the old snapshot is deleted first; the complete temporary file is then recovered by
+     * {@link #recover(File)}.
+     */
+    static void write(final File file, final TermDictionary dictionary, final ResourceIndex resources,
+                      final TripleIndex spo, final TripleIndex pos, final TripleIndex osp,
+                      final long version) throws IOException {
+        final File tmp = new File(file.getPath() + ".tmp");
+        final FileOutputStream fos = new FileOutputStream(tmp);
+        try {
+            final FileChannel channel = fos.getChannel();
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, 1 << 16));
+            out.writeLong(MAGIC);
+            out.writeInt(FORMAT);
+            dictionary.write(out);
+
+            final long[] trailer = new long[RUNS * 2];
+            out.flush();
+            trailer[0] = channel.position();
+            trailer[1] = resources.write(out, version);
+            out.flush();
+            trailer[2] = channel.position();
+            trailer[3] = spo.write(out, 4, version);
+            out.flush();
+            trailer[4] = channel.position();
+            trailer[5] = pos.write(out, 3, version);
+            out.flush();
+            trailer[6] = channel.position();
+            trailer[7] = osp.write(out, 3, version);
+
+            for (long value : trailer) {
+                out.writeLong(value);
+            }
+            out.writeLong(MAGIC);
+            out.flush();
+            fos.getFD().sync();
+        } finally {
+            fos.close();
+        }
+        // atomic replacement on POSIX file systems
+        if (tmp.renameTo(file)) {
+            return;
+        }
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Could not replace snapshot " + file);
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not rename snapshot " + tmp + " to " + file);
+        }
+    }
+
+    /**
+     * Recover a snapshot, whose writer crashed after deleting the old file but before renaming the new one.
+     * @param file The snapshot file.
+     * @return true if the complete temporary file has been renamed to the missing snapshot file.
+     */
+    public static boolean recover(final File file) throws IOException {
+        final File tmp = new File(file.getPath() + ".tmp");
+        if (file.exists() || !tmp.exists() || !isComplete(tmp)) {
+            return false;
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not recover snapshot " + tmp + " to " + file);
+        }
+        return true;
+    }
+
+    /**
+     * Open a snapshot.
+     * @param file The snapshot file.
+     * @return The store based on the snapshot.
+     */
+    public static MemTripleStore open(final File file) throws IOException {
+        final TermDictionary dictionary;
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        try {
+            if (in.readLong() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            final int format = in.readInt();
+            if (format != FORMAT) {
+                throw new IOException("Unsupported snapshot format " + format + ": " + file);
+            }
+            dictionary = TermDictionary.read(in);
+        } finally {
+            in.close();
+        }
+
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final long[] trailer = new long[RUNS * 2];
+            raf.seek(raf.length() - (trailer.length + 1) * 8);
+            for (int i = 0; i < trailer.length; i++) {
+                trailer[i] = raf.readLong();
+            }
+            if (raf.readLong() != MAGIC) {
+                throw new IOException("Incomplete snapshot file: " + file);
+            }
+            final FileChannel channel = raf.getChannel();
+            final SortedRun spo = new SortedRun(channel, trailer[2], trailer[3], 4);
+            return new MemTripleStore(dictionary,
+                    new ResourceIndex(new SortedRun(channel, trailer[0], trailer[1], 1)),
+                    new TripleIndex(spo),
+                    new TripleIndex(new SortedRun(channel, trailer[4], trailer[5], 3)),
+                    new TripleIndex(new SortedRun(channel, trailer[6], trailer[7], 3)),
+                    (int) spo.size());
+        } finally {
+            // the mappings remain valid after closing the file
+            raf.close();
+        }
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * A file is complete, if it starts and ends with the magic number. The trailer is written last and
+     * the file is synced before it is renamed.
+     */
+    private static boolean isComplete(final File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            if (raf.length() < 12 + (RUNS * 2 + 1) * 8 || raf.readLong() != MAGIC || raf.readInt() != FORMAT) {
+                return false;
+            }
+            raf.seek(raf.length() - 8);
+            return raf.readLong() == MAGIC;
+        } finally {
+            raf.close();
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *  Set operations on sorted arrays of distinct ids, as used by the query evaluation.
+ *  Intersections of sets with very different sizes use binary search in the larger set,
+ *  otherwise both sets are merged in one pass.
+ * </p>
+ */
+public final class SortedIds {
+
+    public static final long[] EMPTY = new long[0];
+
+    /**
+     * Size ratio from which on the smaller set is searched in the larger one instead of merging them.
+     */
+    private static final int GALLOP_RATIO = 32;
+
+    // ----------------------------------------------------
+
+    private SortedIds() {
+    }
+
+    // ----------------------------------------------------
+
+    public static long[] intersect(final long[] a, final long[] b) {
+        if (a.length > b.length) {
+            return intersect(b, a);
+        }
+        final long[] result = new long[a.length];
+        int count = 0;
+        if (a.length * GALLOP_RATIO < b.length) {
+            int from = 0;
+            for (long id : a) {
+                final int idx = Arrays.binarySearch(b, from, b.length, id);
+                if (idx >= 0) {
+                    result[count++] = id;
+                    from = idx + 1;
+                } else {
+                    from = -idx - 1;
+                }
+                if (from == b.length) {
+                    break;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    result[count++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return trim(result, count);
+    }
+
+    public static long[] union(final long[] a, final long[] b) {
+        if (a.length == 0) {
+            return b;
+        } else if (b.length == 0) {
+            return a;
+        }
+        final long[] result = new long[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[count++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[count++] = b[j++];
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        while (i < a.length) {
+            result[count++] = a[i++];
+        }
+        while (j < b.length) {
+            result[count++] = b[j++];
+        }
+        return trim(result, count);
+    }
+
+    /**
+     * @return All ids of a not contained in b.
+     */
+    public static long[] difference(final long[] a, final long[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return a;
+        }
+        final long[] result = new long[a.length];
+        int count = 0;
+        int j = 0;
+        for (long id : a) {
+            while (j < b.length && b[j] < id) {
+                j++;
+            }
+            if (j == b.length || b[j] != id) {
+                result[count++] = id;
+            }
+        }
+        return trim(result, count);
+    }
+
+    /**
+     * Sort an array of ids and remove duplicates.
+     */
+    public static long[] of(final long[] ids, final int length) {
+        final long[] sorted = Arrays.copyOf(ids, length);
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (count == 0 || sorted[count - 1] != sorted[i]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return trim(sorted, count);
+    }
+
+    // ----------------------------------------------------
+
+    private static long[] trim(final long[] ids, final int count) {
+        if (count == ids.length) {
+            return ids;
+        } else if (count == 0) {
+            return EMPTY;
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+}
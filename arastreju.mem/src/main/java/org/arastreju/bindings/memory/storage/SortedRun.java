@@ -0,0 +1,137 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>
+ *  Read only run of sorted records of fixed width, each column being a long id. The run is memory mapped
+ *  from a snapshot file, thus it lives outside of the java heap. Files larger than 2GB are mapped in chunks.
+ * </p>
+ */
+public class SortedRun {
+
+    private static final int CHUNK_SHIFT = 27;
+
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final ByteBuffer[] chunks;
+
+    private final long size;
+
+    private final int width;
+
+    // ----------------------------------------------------
+
+    /**
+     * Create an empty run.
+     * @param width The number of columns.
+     */
+    public SortedRun(final int width) {
+        this.chunks = new ByteBuffer[0];
+        this.size = 0;
+        this.width = width;
+    }
+
+    /**
+     * Map a run from a file.
+     * @param channel The file channel.
+     * @param offset The byte offset of the first record.
+     * @param size The number of records.
+     * @param width The number of columns.
+     */
+    public SortedRun(final FileChannel channel, final long offset, final long size, final int width) throws IOException {
+        this.size = size;
+        this.width = width;
+        final long longs = size * width;
+        this.chunks = new ByteBuffer[(int) ((longs + CHUNK_MASK) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < chunks.length; i++) {
+            final long start = (long) i << CHUNK_SHIFT;
+            final long length = Math.min(CHUNK_MASK + 1, longs - start);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + start * 8, length * 8);
+        }
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * @return The number of records.
+     */
+    public long size() {
+        return size;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    /**
+     * @param record The index of the record.
+     * @param column The column.
+     * @return The id.
+     */
+    public long get(final long record, final int column) {
+        final long idx = record * width + column;
+        return chunks[(int) (idx >>> CHUNK_SHIFT)].getLong((int) (idx & CHUNK_MASK) << 3);
+    }
+
+    /**
+     * Find the first record whose leading columns are not less than the given key.
+     * @param key The values of the leading columns.
+     * @return The index of the record, or {@link #size()} if there is none.
+     */
+    public long lowerBound(final long... key) {
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            final long mid = (low + high) >>> 1;
+            if (compare(mid, key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Find the first record whose leading columns are greater than the given key.
+     * @param key The values of the leading columns.
+     * @return The index of the record, or {@link #size()} if there is none.
+     */
+    public long upperBound(final long... key) {
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            final long mid = (low + high) >>> 1;
+            if (compare(mid, key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return true if there is a record starting with the given key.
+     */
+    public boolean contains(final long... key) {
+        final long idx = lowerBound(key);
+        return idx < size && compare(idx, key) == 0;
+    }
+
+    // ----------------------------------------------------
+
+    private int compare(final long record, final long[] key) {
+        for (int i = 0; i < key.length; i++) {
+            final long value = get(record, i);
+            if (value != key[i]) {
+                return value < key[i] ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,129 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.context.SimpleContextID;
+import org.arastreju.sge.model.ElementaryDataType;
+import org.arastreju.sge.model.nodes.SNValue;
+import org.arastreju.sge.model.nodes.ValueNode;
+import org.arastreju.sge.naming.QualifiedName;
+
+/**
+ * <p>
+ *  Binary encoding of the terms of a {@link TermDictionary}: qualified names, values and context sets.
+ * </p>
+ */
+public final class TermCodec {
+
+    private static final byte RESOURCE = 1;
+
+    private static final byte VALUE = 2;
+
+    private static final byte CONTEXTS = 3;
+
+    // ----------------------------------------------------
+
+    private TermCodec() {
+    }
+
+    // ----------------------------------------------------
+
+    public static void write(final DataOutput out, final Object term) throws IOException {
+        if (term instanceof QualifiedName) {
+            out.writeByte(RESOURCE);
+            writeString(out, ((QualifiedName) term).toURI());
+        } else if (term instanceof ValueNode) {
+            final ValueNode value = (ValueNode) term;
+            out.writeByte(VALUE);
+            out.writeUTF(value.getDataType().name());
+            switch (value.getDataType()) {
+            case DATE:
+            case TIME_OF_DAY:
+            case TIMESTAMP:
+                writeString(out, String.valueOf(value.getTimeValue().getTime()));
+                break;
+            default:
+                writeString(out, value.getStringValue());
+            }
+            out.writeUTF(value.getLocale() != null ? value.getLocale().toString() : "");
+        } else if (term instanceof List) {
+            final List<?> contexts = (List<?>) term;
+            out.writeByte(CONTEXTS);
+            out.writeInt(contexts.size());
+            for (Object ctx : contexts) {
+                writeString(out, ((Context) ctx).toURI());
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported term: " + term);
+        }
+    }
+
+    public static Object read(final DataInput in) throws IOException {
+        final byte kind = in.readByte();
+        switch (kind) {
+        case RESOURCE:
+            return new QualifiedName(readString(in));
+        case VALUE:
+            final ElementaryDataType type = ElementaryDataType.valueOf(in.readUTF());
+            final String value = readString(in);
+            final Locale locale = locale(in.readUTF());
+            switch (type) {
+            case DATE:
+            case TIME_OF_DAY:
+            case TIMESTAMP:
+                return SNValue.create(type, new Date(Long.parseLong(value)), locale);
+            default:
+                return SNValue.create(type, value, locale);
+            }
+        case CONTEXTS:
+            final int size = in.readInt();
+            final List<Context> contexts = new ArrayList<Context>(size);
+            for (int i = 0; i < size; i++) {
+                contexts.add(new SimpleContextID(new QualifiedName(readString(in))));
+            }
+            return contexts;
+        default:
+            throw new IOException("Unknown term kind: " + kind);
+        }
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Strings are written as UTF-8 with an int length, as {@link DataOutput#writeUTF(String)} is limited to 64k.
+     */
+    private static void writeString(final DataOutput out, final String s) throws IOException {
+        final byte[] bytes = s.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInput in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    private static Locale locale(final String s) {
+        if (s.length() == 0) {
+            return null;
+        }
+        final String[] parts = s.split("_", 3);
+        switch (parts.length) {
+        case 1:
+            return new Locale(parts[0]);
+        case 2:
+            return new Locale(parts[0], parts[1]);
+        default:
+            return new Locale(parts[0], parts[1], parts[2]);
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ *  Dictionary mapping each term (qualified names of resources, values, context sets) to a numeric id.
+ *  Every term is held exactly once, the indexes only refer to the ids.
+ * </p>
+ *
+ * <p>
+ *  Ids start with 1 and are never reused, {@link #NONE} denotes an unknown term.
+ *  New terms are encoded by the single writer of the store, lookups may be done concurrently.
+ * </p>
+ */
+public class TermDictionary {
+
+    public static final long NONE = 0;
+
+    private final Map<Object, Long> ids = new ConcurrentHashMap<Object, Long>();
+
+    private volatile Object[] terms = new Object[1024];
+
+    private volatile int next = 1;
+
+    // ----------------------------------------------------
+
+    /**
+     * Get the id of a known term.
+     * @param term The term.
+     * @return The id or {@link #NONE} if the term is unknown.
+     */
+    public long id(final Object term) {
+        final Long id = ids.get(term);
+        if (id == null) {
+            return NONE;
+        }
+        return id;
+    }
+
+    /**
+     * Get the id of a term, a new id will be assigned to an unknown term.
+     * @param term The term.
+     * @return The id.
+     */
+    public long encode(final Object term) {
+        final Long existing = ids.get(term);
+        if (existing != null) {
+            return existing;
+        }
+        return append(term);
+    }
+
+    /**
+     * Get the term for an id.
+     * @param id The id.
+     * @return The term or null.
+     */
+    public Object term(final long id) {
+        final Object[] current = terms;
+        if (id <= NONE || id >= current.length) {
+            return null;
+        }
+        return current[(int) id];
+    }
+
+    /**
+     * @return The number of terms.
+     */
+    public int size() {
+        return next - 1;
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Write all terms in the order of their ids. Terms appended concurrently are not written.
+     * @param out The output.
+     */
+    public void write(final DataOutput out) throws IOException {
+        final int count = next;
+        final Object[] current = terms;
+        out.writeInt(count - 1);
+        for (int i = 1; i < count; i++) {
+            TermCodec.write(out, current[i]);
+        }
+    }
+
+    /**
+     * Read a dictionary written by {@link #write(DataOutput)}, the terms keep their ids.
+     * @param in The input.
+     * @return The dictionary.
+     */
+    public static TermDictionary read(final DataInput in) throws IOException {
+        final TermDictionary dictionary = new TermDictionary();
+        final int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            dictionary.append(TermCodec.read(in));
+        }
+        return dictionary;
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Assign the next id, even if an equal term is already known.
+     */
+    private long append(final Object term) {
+        final int id = next;
+        if (id == terms.length) {
+            terms = Arrays.copyOf(terms, terms.length * 2);
+        }
+        terms[id] = term;
+        next = id + 1;
+        if (!ids.containsKey(term)) {
+            ids.put(term, (long) id);
+        }
+        return id;
+    }
+
+}
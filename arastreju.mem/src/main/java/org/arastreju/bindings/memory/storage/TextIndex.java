@@ -0,0 +1,244 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ *  Inverted index from lower case tokens to the ids of the terms containing them. The tokens are kept
+ *  sorted, so a prefix query only visits the tokens starting with the prefix.
+ * </p>
+ *
+ * <p>
+ *  A query consists of one or more tokens, which all have to be contained in a matching text. A query token
+ *  may contain the wildcards '*' and '?', a trailing '*' denotes a prefix.
+ * </p>
+ *
+ * <p>
+ *  Terms are never removed from the {@link TermDictionary}, so neither from this index. Term ids not used
+ *  in a version of the store simply have no statements in this version. As terms are only added by the
+ *  single writer and in ascending order of their ids, the postings of a token are sorted append only arrays,
+ *  which can be read without locking.
+ * </p>
+ */
+public class TextIndex {
+
+    private final ConcurrentNavigableMap<String, Postings> tokens = new ConcurrentSkipListMap<String, Postings>();
+
+    // ----------------------------------------------------
+
+    /**
+     * Index a text. To be called by the writer for ascending ids only.
+     * @param id The id of the term.
+     * @param text The text of the term.
+     */
+    public void add(final long id, final String text) {
+        for (String token : tokenize(text)) {
+            Postings postings = tokens.get(token);
+            if (postings == null) {
+                postings = new Postings();
+                tokens.put(token, postings);
+            }
+            postings.add(id);
+        }
+    }
+
+    /**
+     * Find the ids of all terms matching a query.
+     * @param query The query.
+     * @return The sorted ids.
+     */
+    public long[] find(final String query) {
+        final List<String> queryTokens = tokenize(query, true);
+        if (queryTokens.isEmpty()) {
+            return SortedIds.EMPTY;
+        }
+        long[] result = null;
+        for (String token : queryTokens) {
+            final long[] ids = find(new TokenPattern(token));
+            result = result == null ? ids : SortedIds.intersect(result, ids);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check if a text matches a query, without using the index.
+     * @param query The query.
+     * @param text The text.
+     * @return true if each query token matches a token of the text.
+     */
+    public static boolean matches(final String query, final String text) {
+        final List<String> queryTokens = tokenize(query, true);
+        if (queryTokens.isEmpty()) {
+            return false;
+        }
+        final List<String> textTokens = tokenize(text);
+        for (String token : queryTokens) {
+            final TokenPattern pattern = new TokenPattern(token);
+            boolean found = false;
+            for (String candidate : textTokens) {
+                if (pattern.matches(candidate)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The distinct lower case tokens of a text.
+     */
+    public static List<String> tokenize(final String text) {
+        return tokenize(text, false);
+    }
+
+    // ----------------------------------------------------
+
+    private long[] find(final TokenPattern pattern) {
+        final Map<String, Postings> candidates;
+        if (pattern.exact) {
+            final Postings postings = tokens.get(pattern.prefix);
+            if (postings == null) {
+                return SortedIds.EMPTY;
+            }
+            // the size has to be read before the ids, which may be replaced by a grown array
+            final int size = postings.size;
+            return Arrays.copyOf(postings.ids, size);
+        } else if (pattern.prefix.length() == 0) {
+            candidates = tokens;
+        } else {
+            candidates = tokens.subMap(pattern.prefix, pattern.prefix + Character.MAX_VALUE);
+        }
+        long[] collected = new long[16];
+        int count = 0;
+        for (Map.Entry<String, Postings> entry : candidates.entrySet()) {
+            if (pattern.isPrefix() || pattern.matches(entry.getKey())) {
+                final Postings postings = entry.getValue();
+                final int size = postings.size;
+                final long[] ids = postings.ids;
+                if (count + size > collected.length) {
+                    collected = Arrays.copyOf(collected, Math.max(collected.length * 2, count + size));
+                }
+                System.arraycopy(ids, 0, collected, count, size);
+                count += size;
+            }
+        }
+        return SortedIds.of(collected, count);
+    }
+
+    private static List<String> tokenize(final String text, final boolean wildcards) {
+        final List<String> result = new ArrayList<String>();
+        if (text == null) {
+            return result;
+        }
+        final String lower = text.toLowerCase(Locale.ENGLISH);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            final boolean tokenChar = i < lower.length() && isTokenChar(lower.charAt(i), wildcards);
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                final String token = lower.substring(start, i);
+                if (!result.contains(token)) {
+                    result.add(token);
+                }
+                start = -1;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isTokenChar(final char c, final boolean wildcards) {
+        return Character.isLetterOrDigit(c) || (wildcards && (c == '*' || c == '?'));
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * A query token: the literal prefix up to the first wildcard and a pattern for the rest, if any.
+     */
+    private static class TokenPattern {
+
+        private final String prefix;
+
+        private final Pattern regex;
+
+        private final boolean exact;
+
+        private TokenPattern(final String token) {
+            int wildcard = token.length();
+            for (int i = 0; i < token.length(); i++) {
+                if (token.charAt(i) == '*' || token.charAt(i) == '?') {
+                    wildcard = i;
+                    break;
+                }
+            }
+            this.prefix = token.substring(0, wildcard);
+            this.exact = wildcard == token.length();
+            if (exact) {
+                this.regex = Pattern.compile(Pattern.quote(token));
+            } else if (wildcard == token.length() - 1 && token.charAt(wildcard) == '*') {
+                this.regex = null;
+            } else {
+                final StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < token.length(); i++) {
+                    final char c = token.charAt(i);
+                    if (c == '*') {
+                        sb.append(".*");
+                    } else if (c == '?') {
+                        sb.append('.');
+                    } else {
+                        sb.append(Pattern.quote(String.valueOf(c)));
+                    }
+                }
+                this.regex = Pattern.compile(sb.toString());
+            }
+        }
+
+        private boolean isPrefix() {
+            return regex == null;
+        }
+
+        private boolean matches(final String token) {
+            if (regex == null) {
+                return token.startsWith(prefix);
+            }
+            return regex.matcher(token).matches();
+        }
+    }
+
+    /**
+     * Sorted, append only ids of the terms containing a token.
+     */
+    private static class Postings {
+
+        private volatile long[] ids = new long[2];
+
+        private volatile int size;
+
+        private void add(final long id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            size++;
+        }
+    }
+
+}
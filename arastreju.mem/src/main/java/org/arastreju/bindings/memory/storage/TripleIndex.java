@@ -0,0 +1,324 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <p>
+ *  Multi version index of dictionary encoded triples in one particular order (e.g. SPO). The triples are
+ *  kept in a tree of three levels: first id -&gt; second id -&gt; sorted set of third ids.
+ * </p>
+ *
+ * <p>
+ *  The sets of the third level are never modified once they are published. A writer creates a copy for its
+ *  version, which is linked to the older ones. A reader walks this chain to the newest set not newer than its
+ *  version. Versions no longer needed by any reader are pruned by the writer.
+ * </p>
+ *
+ * <p>
+ *  The index may be based on a {@link SortedRun} of a snapshot, representing the state before the first
+ *  version. Sets not modified since the snapshot are read directly from the base.
+ * </p>
+ */
+public class TripleIndex {
+
+    /**
+     * Version to read including the pending changes of the writer.
+     */
+    public static final long LATEST = Long.MAX_VALUE;
+
+    private final LongMap<Branch> branches = new LongMap<Branch>(1024);
+
+    private final SortedRun base;
+
+    private long pending;
+
+    private long oldest;
+
+    // ----------------------------------------------------
+
+    /**
+     * Constructor for an index without base.
+     */
+    public TripleIndex() {
+        this(new SortedRun(4));
+    }
+
+    /**
+     * Constructor.
+     * @param base The base run with three or four (including the attribute) columns.
+     */
+    public TripleIndex(final SortedRun base) {
+        this.base = base;
+    }
+
+    // -- WRITE -------------------------------------------
+
+    /**
+     * Prepare the modifications of the writer.
+     * @param version The version to be created.
+     * @param oldestReader The oldest version still in use by a reader.
+     */
+    public void prepare(final long version, final long oldestReader) {
+        this.pending = version;
+        this.oldest = oldestReader;
+    }
+
+    /**
+     * Add a triple in the pending version.
+     * @return true if the triple has not been contained before.
+     */
+    public boolean add(final long first, final long second, final long third, final long attribute) {
+        if (contains(first, second, third, LATEST)) {
+            return false;
+        }
+        return modifiable(first, second).add(third, attribute);
+    }
+
+    /**
+     * Remove a triple in the pending version.
+     * @return true if the triple has been contained.
+     */
+    public boolean remove(final long first, final long second, final long third) {
+        if (!contains(first, second, third, LATEST)) {
+            return false;
+        }
+        return modifiable(first, second).remove(third);
+    }
+
+    /**
+     * @return The last version in which the branch of the given first id has been modified.
+     */
+    public long lastModified(final long first) {
+        final Branch branch = branches.get(first);
+        return branch != null ? branch.version : 0;
+    }
+
+    // -- READ --------------------------------------------
+
+    public boolean contains(final long first, final long second, final long third, final long version) {
+        final IdSet level3 = get(first, second, version);
+        return level3 != null && level3.contains(third);
+    }
+
+    /**
+     * @return The second level of the given first id or null. Must not be modified.
+     */
+    public LongMap<IdSet> get(final long first, final long version) {
+        final LongMap<IdSet> level2 = load(first);
+        final Branch branch = branches.get(first);
+        if (branch != null) {
+            for (long second : branch.leaves.keys()) {
+                final Leaf leaf = visible(branch.leaves.get(second), version);
+                if (leaf == null) {
+                    continue;
+                }
+                if (leaf.ids.isEmpty()) {
+                    level2.remove(second);
+                } else {
+                    level2.put(second, leaf.ids);
+                }
+            }
+        }
+        return level2.isEmpty() ? null : level2;
+    }
+
+    /**
+     * @return The third level of the given first and second ids or null. Must not be modified.
+     */
+    public IdSet get(final long first, final long second, final long version) {
+        final Branch branch = branches.get(first);
+        if (branch != null) {
+            final Leaf leaf = visible(branch.leaves.get(second), version);
+            if (leaf != null) {
+                return leaf.ids.isEmpty() ? null : leaf.ids;
+            }
+        }
+        return load(first, second);
+    }
+
+    /**
+     * @return The attribute of the given triple.
+     */
+    public long attribute(final long first, final long second, final long third, final long version) {
+        final IdSet level3 = get(first, second, version);
+        if (level3 == null) {
+            return TermDictionary.NONE;
+        }
+        return level3.attribute(third);
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Write all triples of the given version in sorted order as records of the given width.
+     * @param out The output.
+     * @param width 3 for plain triples, 4 to include the attribute.
+     * @param version The version to be written.
+     * @return The number of records written.
+     */
+    public long write(final DataOutput out, final int width, final long version) throws IOException {
+        final long[] modified = branches.keys();
+        Arrays.sort(modified);
+        long count = 0;
+        long record = 0;
+        int next = 0;
+        while (record < base.size() || next < modified.length) {
+            final long baseFirst = record < base.size() ? base.get(record, 0) : Long.MAX_VALUE;
+            if (next < modified.length && modified[next] <= baseFirst) {
+                final long first = modified[next++];
+                count += write(out, first, get(first, version), width);
+                if (first == baseFirst) {
+                    record = base.upperBound(first);
+                }
+            } else {
+                final long to = base.upperBound(baseFirst);
+                for (; record < to; record++) {
+                    out.writeLong(base.get(record, 0));
+                    out.writeLong(base.get(record, 1));
+                    out.writeLong(base.get(record, 2));
+                    if (width > 3) {
+                        out.writeLong(attribute(record));
+                    }
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // ----------------------------------------------------
+
+    private long write(final DataOutput out, final long first, final LongMap<IdSet> level2, final int width) throws IOException {
+        if (level2 == null) {
+            return 0;
+        }
+        final long[] seconds = level2.keys();
+        Arrays.sort(seconds);
+        long count = 0;
+        for (long second : seconds) {
+            final IdSet level3 = level2.get(second);
+            for (int i = 0; i < level3.size(); i++) {
+                out.writeLong(first);
+                out.writeLong(second);
+                out.writeLong(level3.get(i));
+                if (width > 3) {
+                    out.writeLong(level3.attributeAt(i));
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the set of the pending version, copying the latest one on first access.
+     */
+    private IdSet modifiable(final long first, final long second) {
+        Branch branch = branches.get(first);
+        if (branch == null) {
+            branch = new Branch();
+            branches.put(first, branch);
+        }
+        final Leaf head = branch.leaves.get(second);
+        if (head != null && head.version == pending) {
+            return head.ids;
+        }
+        final IdSet latest;
+        if (head != null) {
+            latest = head.ids;
+            prune(head);
+        } else {
+            final IdSet loaded = load(first, second);
+            latest = loaded != null ? loaded : new IdSet();
+        }
+        final Leaf leaf = new Leaf(pending, latest.copy(), head);
+        branch.leaves.put(second, leaf);
+        branch.version = pending;
+        return leaf.ids;
+    }
+
+    /**
+     * Cut off all versions older than the one visible to the oldest reader.
+     */
+    private void prune(final Leaf head) {
+        final Leaf needed = visible(head, oldest);
+        if (needed != null) {
+            needed.older = null;
+        }
+    }
+
+    private static Leaf visible(final Leaf head, final long version) {
+        Leaf leaf = head;
+        while (leaf != null && leaf.version > version) {
+            leaf = leaf.older;
+        }
+        return leaf;
+    }
+
+    /**
+     * Copy the branch of the given first id from the base.
+     */
+    private LongMap<IdSet> load(final long first) {
+        final LongMap<IdSet> level2 = new LongMap<IdSet>();
+        final long to = base.upperBound(first);
+        for (long i = base.lowerBound(first); i < to; i++) {
+            final long second = base.get(i, 1);
+            IdSet level3 = level2.get(second);
+            if (level3 == null) {
+                level3 = new IdSet();
+                level2.put(second, level3);
+            }
+            level3.add(base.get(i, 2), attribute(i));
+        }
+        return level2;
+    }
+
+    /**
+     * Copy the set of the given first and second ids from the base.
+     */
+    private IdSet load(final long first, final long second) {
+        final long from = base.lowerBound(first, second);
+        final long to = base.upperBound(first, second);
+        if (from == to) {
+            return null;
+        }
+        final IdSet level3 = new IdSet();
+        for (long i = from; i < to; i++) {
+            level3.add(base.get(i, 2), attribute(i));
+        }
+        return level3;
+    }
+
+    private long attribute(final long record) {
+        return base.width() > 3 ? base.get(record, 3) : TermDictionary.NONE;
+    }
+
+    // ----------------------------------------------------
+
+    private static final class Branch {
+
+        private final LongMap<Leaf> leaves = new LongMap<Leaf>();
+
+        private volatile long version;
+
+    }
+
+    private static final class Leaf {
+
+        private final long version;
+
+        private final IdSet ids;
+
+        private volatile Leaf older;
+
+        private Leaf(final long version, final IdSet ids, final Leaf older) {
+            this.version = version;
+            this.ids = ids;
+            this.older = older;
+        }
+
+    }
+
+}
@@ -0,0 +1,82 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.util.List;
+import java.util.Set;
+
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.query.QueryExpression;
+
+/**
+ * <p>
+ *  Access to the resources and statements of the memory binding, either directly on the {@link MemTripleStore}
+ *  or through a transaction.
+ * </p>
+ */
+public interface TripleStore {
+
+    /**
+     * Check if there is a resource with given qualified name.
+     * @param qn The qualified name.
+     * @return true if the resource exists.
+     */
+    boolean contains(QualifiedName qn);
+
+    /**
+     * Register a resource, even if it has no statements.
+     * @param qn The qualified name of the resource.
+     */
+    void register(QualifiedName qn);
+
+    /**
+     * Get all statements where the given resource is the subject.
+     * @param subject The subject.
+     * @return The statements.
+     */
+    Set<Statement> getAssociations(QualifiedName subject);
+
+    /**
+     * Get all statements where the given resource is the object.
+     * @param object The object.
+     * @return The statements.
+     */
+    Set<Statement> getIncomingStatements(QualifiedName object);
+
+    /**
+     * Get all subjects having the given predicate/object combination.
+     * @param predicate The predicate.
+     * @param object The object, either a resource or a value.
+     * @return The subjects.
+     */
+    Set<QualifiedName> getSubjects(ResourceID predicate, SemanticNode object);
+
+    /**
+     * Find all resources matching a query expression.
+     * @param exp The root expression of the query.
+     * @return The qualified names of the matching resources.
+     */
+    List<QualifiedName> query(QueryExpression exp);
+
+    /**
+     * Add a statement. Subject and resource object will be registered implicitly.
+     * @param stmt The statement.
+     * @return true if the statement has not been contained before.
+     */
+    boolean addStatement(Statement stmt);
+
+    /**
+     * Remove a statement.
+     * @param stmt The statement.
+     * @return true if the statement has been contained.
+     */
+    boolean removeStatement(Statement stmt);
+
+    /**
+     * Remove the resource and all statements where it is subject or object.
+     * @param qn The qualified name of the resource.
+     */
+    void remove(QualifiedName qn);
+
+}
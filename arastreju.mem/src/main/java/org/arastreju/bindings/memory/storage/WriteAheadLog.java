@@ -0,0 +1,391 @@
+package org.arastreju.bindings.memory.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.model.DetachedStatement;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.StatementMetaInfo;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.naming.QualifiedName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ *  Append only log of the changes applied to a {@link MemTripleStore}. Each version of the store is logged as
+ *  one record holding it's {@link ChangeSet}:
+ *  <pre>
+ *      LENGTH CRC32 REMOVED REMOVED_RESOURCES REGISTERED ADDED
+ *  </pre>
+ *  The records are appended to an in memory buffer. The buffer is written to the current segment file with
+ *  a single write and optionally forced to disk (group commit): the first writer waiting for it's record
+ *  becomes the leader and syncs the records of all writers that arrived in the meantime.
+ * </p>
+ *
+ * <p>
+ *  The log is divided into segments. On a checkpoint a new segment is started, the older segments can be
+ *  deleted as soon as a snapshot containing their changes has been written. All operations of a record
+ *  set the state of a statement or resource, so replaying a segment already contained in the snapshot
+ *  does no harm. A torn record at the end of a segment (crash during write) ends the replay of that segment.
+ * </p>
+ */
+public class WriteAheadLog {
+
+    public static final String SEGMENT_PREFIX = "wal-";
+
+    public static final String SEGMENT_SUFFIX = ".log";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    private final File directory;
+
+    private final boolean fsync;
+
+    private final long groupCommitDelay;
+
+    private final long checkpointSize;
+
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+
+    private FileOutputStream segment;
+
+    private int segmentNumber;
+
+    private long appended;
+
+    private long written;
+
+    private long segmentSize;
+
+    private boolean syncing;
+
+    private IOException failure;
+
+    // ----------------------------------------------------
+
+    /**
+     * Constructor. Appends will go to a new segment following the existing ones.
+     * @param directory The directory of the segment files.
+     * @param fsync Flag indicating if synced records shall be forced to disk.
+     * @param groupCommitDelay Time in milliseconds a leader waits for further records before syncing.
+     * @param checkpointSize The size in bytes of the segments written since the last checkpoint,
+     *          that indicates a new checkpoint.
+     */
+    public WriteAheadLog(final File directory, final boolean fsync, final long groupCommitDelay,
+                         final long checkpointSize) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.groupCommitDelay = groupCommitDelay;
+        this.checkpointSize = checkpointSize;
+        final List<File> existing = segments();
+        if (!existing.isEmpty()) {
+            segmentNumber = number(existing.get(existing.size() - 1));
+        }
+        openSegment();
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Append a record to the buffer. The record will be written by the next {@link #sync(long)}.
+     * @param changes The changes of one version.
+     * @return The position of the record's end, to be passed to {@link #sync(long)}.
+     */
+    public long append(final ChangeSet changes) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        final DataOutputStream payload = new DataOutputStream(bytes);
+        writeStatements(payload, changes.getRemoved());
+        writeResources(payload, changes.getRemovedResources());
+        writeResources(payload, changes.getRegistered());
+        writeStatements(payload, changes.getAdded());
+        payload.flush();
+        final byte[] record = bytes.toByteArray();
+        final CRC32 crc = new CRC32();
+        crc.update(record);
+        synchronized (this) {
+            final DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(record.length);
+            out.writeInt((int) crc.getValue());
+            out.write(record);
+            out.flush();
+            appended += record.length + 8;
+            return appended;
+        }
+    }
+
+    /**
+     * Wait until all records up to the given position have been written to the segment file.
+     * @param position The position returned by {@link #append(ChangeSet)}.
+     */
+    public void sync(final long position) throws IOException {
+        synchronized (this) {
+            while (syncing && written < position) {
+                await();
+            }
+            if (failure != null) {
+                throw new IOException("Log is unusable after a failed write.", failure);
+            }
+            if (written >= position) {
+                return;
+            }
+            syncing = true;
+        }
+        if (groupCommitDelay > 0) {
+            try {
+                Thread.sleep(groupCommitDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        final byte[] data;
+        final long target;
+        final FileChannel channel;
+        synchronized (this) {
+            data = buffer.toByteArray();
+            buffer = new ByteArrayOutputStream(Math.max(1 << 16, data.length));
+            target = appended;
+            channel = segment.getChannel();
+        }
+        try {
+            write(channel, data);
+        } catch (IOException e) {
+            synchronized (this) {
+                // the records of the failed write are lost, so no later sync may succeed
+                failure = e;
+                syncing = false;
+                notifyAll();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            written = target;
+            segmentSize += data.length;
+            syncing = false;
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return true if the segments written since the last checkpoint exceed the checkpoint size.
+     */
+    public synchronized boolean isCheckpointDue() {
+        return segmentSize >= checkpointSize;
+    }
+
+    /**
+     * Start a new segment. All records appended so far are written to the current segment before.
+     * @return The segments to be deleted after the next snapshot has been written.
+     */
+    public synchronized List<File> rotate() throws IOException {
+        while (syncing) {
+            await();
+        }
+        write(segment.getChannel(), buffer.toByteArray());
+        buffer.reset();
+        written = appended;
+        segment.close();
+        final List<File> obsolete = segments();
+        openSegment();
+        return obsolete;
+    }
+
+    /**
+     * Delete segments obsoleted by a snapshot.
+     * @param obsolete The segments returned by {@link #rotate()}.
+     */
+    public void delete(final List<File> obsolete) {
+        for (File file : obsolete) {
+            if (!file.delete()) {
+                LOGGER.warn("Could not delete obsolete log segment {}.", file);
+            }
+        }
+    }
+
+    /**
+     * Replay all records of the segments preceding the current one.
+     * @param store The store to apply the records to.
+     * @return The number of replayed records.
+     */
+    public int replay(final MemTripleStore store) throws IOException {
+        int count = 0;
+        for (File file : segments()) {
+            if (number(file) < segmentNumber) {
+                count += replay(file, store);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Write all buffered records and close the current segment.
+     */
+    public synchronized void close() throws IOException {
+        while (syncing) {
+            await();
+        }
+        write(segment.getChannel(), buffer.toByteArray());
+        buffer.reset();
+        written = appended;
+        segment.close();
+    }
+
+    // ----------------------------------------------------
+
+    private int replay(final File file, final MemTripleStore store) throws IOException {
+        final DataInputStream in = new DataInputStream(new FileInputStream(file));
+        int count = 0;
+        try {
+            while (true) {
+                final byte[] record;
+                final int crc;
+                try {
+                    final int length = in.readInt();
+                    crc = in.readInt();
+                    if (length < 0 || length > file.length()) {
+                        throw new EOFException();
+                    }
+                    record = new byte[length];
+                    in.readFully(record);
+                } catch (EOFException e) {
+                    break;
+                }
+                final CRC32 check = new CRC32();
+                check.update(record);
+                if ((int) check.getValue() != crc) {
+                    LOGGER.warn("Corrupt record in log segment {}, skipping the rest of the segment.", file);
+                    break;
+                }
+                store.apply(read(new DataInputStream(new ByteArrayInputStream(record))));
+                count++;
+            }
+        } finally {
+            in.close();
+        }
+        return count;
+    }
+
+    private ChangeSet read(final DataInputStream in) throws IOException {
+        final ChangeSet changes = new ChangeSet();
+        readStatements(in, changes.getRemoved());
+        readResources(in, changes.getRemovedResources());
+        readResources(in, changes.getRegistered());
+        readStatements(in, changes.getAdded());
+        return changes;
+    }
+
+    private void writeStatements(final DataOutputStream out, final Collection<Statement> statements) throws IOException {
+        out.writeInt(statements.size());
+        for (Statement stmt : statements) {
+            TermCodec.write(out, stmt.getSubject().getQualifiedName());
+            TermCodec.write(out, stmt.getPredicate().getQualifiedName());
+            if (stmt.getObject().isResourceNode()) {
+                TermCodec.write(out, ((ResourceID) stmt.getObject()).getQualifiedName());
+            } else {
+                TermCodec.write(out, stmt.getObject().asValue());
+            }
+            final Context[] contexts = stmt.getContexts();
+            TermCodec.write(out, contexts != null ? Arrays.asList(contexts) : new ArrayList<Context>(0));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readStatements(final DataInputStream in, final Collection<Statement> target) throws IOException {
+        final int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            final QualifiedName subject = (QualifiedName) TermCodec.read(in);
+            final QualifiedName predicate = (QualifiedName) TermCodec.read(in);
+            final Object object = TermCodec.read(in);
+            final List<Context> contexts = (List<Context>) TermCodec.read(in);
+            final SemanticNode node;
+            if (object instanceof QualifiedName) {
+                node = SNOPS.id((QualifiedName) object);
+            } else {
+                node = (SemanticNode) object;
+            }
+            target.add(new DetachedStatement(SNOPS.id(subject), SNOPS.id(predicate), node,
+                    StatementMetaInfo.of(contexts.toArray(new Context[contexts.size()]))));
+        }
+    }
+
+    private void writeResources(final DataOutputStream out, final Collection<QualifiedName> qns) throws IOException {
+        out.writeInt(qns.size());
+        for (QualifiedName qn : qns) {
+            TermCodec.write(out, qn);
+        }
+    }
+
+    private void readResources(final DataInputStream in, final Collection<QualifiedName> target) throws IOException {
+        final int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            target.add((QualifiedName) TermCodec.read(in));
+        }
+    }
+
+    private void write(final FileChannel channel, final byte[] data) throws IOException {
+        final ByteBuffer bb = ByteBuffer.wrap(data);
+        while (bb.hasRemaining()) {
+            channel.write(bb);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    private void openSegment() throws IOException {
+        segmentNumber++;
+        segment = new FileOutputStream(new File(directory, String.format("%s%08d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX)));
+        segmentSize = 0;
+    }
+
+    private void await() throws InterruptedIOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for log sync.");
+        }
+    }
+
+    /**
+     * @return The existing segments ordered by their number.
+     */
+    private List<File> segments() {
+        final File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.getName().startsWith(SEGMENT_PREFIX) && file.getName().endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        if (files == null) {
+            return new ArrayList<File>();
+        }
+        Arrays.sort(files);
+        return new ArrayList<File>(Arrays.asList(files));
+    }
+
+    private static int number(final File segment) {
+        final String name = segment.getName();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+}
@@ -0,0 +1,228 @@
+package org.arastreju.bindings.memory.tx;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.arastreju.bindings.memory.conversation.MemConversationContext;
+import org.arastreju.bindings.memory.storage.ChangeSet;
+import org.arastreju.bindings.memory.storage.MemTripleStore;
+import org.arastreju.bindings.memory.storage.QueryEvaluator;
+import org.arastreju.bindings.memory.storage.TripleStore;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.persistence.TransactionControl;
+import org.arastreju.sge.query.QueryExpression;
+
+/**
+ * <p>
+ *  Snapshot isolated transaction on the {@link MemTripleStore}. The transaction reads the version of the
+ *  store current at it's begin, all changes are buffered in a {@link ChangeSet} and will be published
+ *  atomically on commit. Thus the transaction never blocks readers nor is blocked by writers.
+ * </p>
+ */
+public class MemTransaction implements TransactionControl, TripleStore {
+
+    private final MemTripleStore store;
+
+    private final MemConversationContext context;
+
+    private final ChangeSet changes = new ChangeSet();
+
+    private final long snapshot;
+
+    private boolean active = true;
+
+    private boolean succeeded;
+
+    private boolean failed;
+
+    // ----------------------------------------------------
+
+    /**
+     * Constructor.
+     * @param store The store.
+     * @param context The conversation context to be reset on rollback.
+     */
+    public MemTransaction(final MemTripleStore store, final MemConversationContext context) {
+        this.store = store;
+        this.context = context;
+        this.snapshot = store.pin();
+    }
+
+    // -- TransactionControl ------------------------------
+
+    @Override
+    public void success() {
+        succeeded = true;
+    }
+
+    @Override
+    public void fail() {
+        failed = true;
+    }
+
+    @Override
+    public void finish() {
+        if (!active) {
+            return;
+        }
+        if (succeeded && !failed) {
+            commit();
+        } else {
+            rollback();
+        }
+    }
+
+    @Override
+    public void commit() {
+        assertActive();
+        try {
+            if (!changes.isEmpty()) {
+                store.commit(changes, snapshot);
+            }
+        } catch (RuntimeException e) {
+            close();
+            context.reset();
+            throw e;
+        }
+        close();
+    }
+
+    @Override
+    public void rollback() {
+        assertActive();
+        close();
+        context.reset();
+    }
+
+    @Override
+    public void flush() {
+        // the changes are visible within this transaction anyway
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    // -- TripleStore -------------------------------------
+
+    @Override
+    public boolean contains(final QualifiedName qn) {
+        if (changes.getRemovedResources().contains(qn)) {
+            return false;
+        }
+        return changes.getRegistered().contains(qn) || store.contains(qn, snapshot);
+    }
+
+    @Override
+    public void register(final QualifiedName qn) {
+        changes.register(qn);
+    }
+
+    @Override
+    public Set<Statement> getAssociations(final QualifiedName subject) {
+        final Set<Statement> result = new HashSet<Statement>(store.getAssociations(subject, snapshot));
+        result.removeAll(changes.getRemoved());
+        result.addAll(changes.getAdded(subject));
+        return result;
+    }
+
+    @Override
+    public Set<Statement> getIncomingStatements(final QualifiedName object) {
+        final Set<Statement> result = new HashSet<Statement>(store.getIncomingStatements(object, snapshot));
+        result.removeAll(changes.getRemoved());
+        result.addAll(changes.getAddedIncoming(object));
+        return result;
+    }
+
+    @Override
+    public Set<QualifiedName> getSubjects(final ResourceID predicate, final SemanticNode object) {
+        final Set<QualifiedName> result = new HashSet<QualifiedName>(store.getSubjects(predicate, object, snapshot));
+        for (Statement stmt : changes.getRemoved()) {
+            if (matches(stmt, predicate, object)) {
+                result.remove(stmt.getSubject().getQualifiedName());
+            }
+        }
+        for (Statement stmt : changes.getAdded()) {
+            if (matches(stmt, predicate, object)) {
+                result.add(stmt.getSubject().getQualifiedName());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<QualifiedName> query(final QueryExpression exp) {
+        final List<QualifiedName> result = new ArrayList<QualifiedName>(store.query(exp, snapshot));
+        if (changes.isEmpty()) {
+            return result;
+        }
+        // resources modified in this transaction are checked against their current statements
+        final Set<QualifiedName> modified = changes.getModifiedSubjects();
+        modified.addAll(changes.getRegistered());
+        modified.addAll(changes.getRemovedResources());
+        result.removeAll(modified);
+        for (QualifiedName qn : modified) {
+            if (contains(qn) && QueryEvaluator.matches(exp, qn, getAssociations(qn))) {
+                result.add(qn);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean addStatement(final Statement stmt) {
+        assertActive();
+        if (changes.getAdded().contains(stmt)) {
+            return false;
+        }
+        final boolean existing = store.contains(stmt, snapshot);
+        final boolean removed = changes.getRemoved().contains(stmt);
+        changes.add(stmt, existing);
+        return !existing || removed;
+    }
+
+    @Override
+    public boolean removeStatement(final Statement stmt) {
+        assertActive();
+        final boolean added = changes.getAdded().contains(stmt);
+        final boolean existing = store.contains(stmt, snapshot) && !changes.getRemoved().contains(stmt);
+        changes.remove(stmt, existing);
+        return added || existing;
+    }
+
+    @Override
+    public void remove(final QualifiedName qn) {
+        assertActive();
+        for (Statement stmt : getAssociations(qn)) {
+            removeStatement(stmt);
+        }
+        for (Statement stmt : getIncomingStatements(qn)) {
+            removeStatement(stmt);
+        }
+        changes.remove(qn);
+    }
+
+    // ----------------------------------------------------
+
+    private boolean matches(final Statement stmt, final ResourceID predicate, final SemanticNode object) {
+        return predicate.equals(stmt.getPredicate()) && object.equals(stmt.getObject());
+    }
+
+    private void close() {
+        active = false;
+        store.unpin(snapshot);
+    }
+
+    private void assertActive() {
+        if (!active) {
+            throw new IllegalStateException("Transaction has already been finished.");
+        }
+    }
+
+}
@@ -1,12 +1,19 @@
 package org.arastreju.bindings.memory.tx;
 
-import de.lichtflut.infra.exceptions.NotYetImplementedException;
+import org.arastreju.bindings.memory.conversation.MemConversationContext;
+import org.arastreju.bindings.memory.storage.MemTripleStore;
 import org.arastreju.sge.persistence.TransactionControl;
 import org.arastreju.sge.persistence.TxProvider;
 
 /**
  * <p>
- * DESCRITPION.
+ *  Provider of snapshot isolated transactions on the memory store. Nested transactions take part in the
+ *  outer transaction.
+ * </p>
+ * <p/>
+ * <p>
+ *  The current transaction is bound to the thread which has begun it, so threads sharing one conversation
+ *  do not read or write within each other's transactions.
  * </p>
  * <p/>
  * <p>
@@ -17,13 +24,66 @@ import org.arastreju.sge.persistence.TxProvider;
  */
 public class MemTransactionProvider extends TxProvider {
 
+    private final MemTripleStore store;
+
+    private final MemConversationContext context;
+
+    private final ThreadLocal<MemTransaction> current = new ThreadLocal<MemTransaction>();
+
+    // ----------------------------------------------------
+
+    public MemTransactionProvider(MemTripleStore store, MemConversationContext context) {
+        this.store = store;
+        this.context = context;
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * @return The current transaction of the calling thread or null.
+     */
+    public MemTransaction getCurrent() {
+        final MemTransaction tx = current.get();
+        if (tx == null) {
+            return null;
+        }
+        if (!tx.isActive()) {
+            current.remove();
+            return null;
+        }
+        return tx;
+    }
+
+    /**
+     * Begin a new transaction if the calling thread has not already one open.
+     * @return An active transaction.
+     */
     @Override
-    protected TransactionControl newTx() {
-        throw new NotYetImplementedException();
+    public TransactionControl begin() {
+        final MemTransaction tx = getCurrent();
+        if (tx == null) {
+            return newTx();
+        } else {
+            return newSubTx(tx);
+        }
     }
 
+    /**
+     * Check if there is a transaction running in the calling thread.
+     * @return true if there is a transaction.
+     */
     @Override
-    protected TransactionControl newSubTx(TransactionControl parent) {
-        throw new NotYetImplementedException();
+    public boolean inTransaction() {
+        return getCurrent() != null;
     }
+
+    // ----------------------------------------------------
+
+    @Override
+    protected TransactionControl newTx() {
+        final MemTransaction tx = new MemTransaction(store, context);
+        current.set(tx);
+        return tx;
+    }
+
 }
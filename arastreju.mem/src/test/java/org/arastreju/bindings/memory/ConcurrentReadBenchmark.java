@@ -0,0 +1,156 @@
+package org.arastreju.bindings.memory;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.arastreju.bindings.memory.storage.MemTripleStore;
+import org.arastreju.sge.ModelingConversation;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.context.PhysicalDomain;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+
+/**
+ * <p>
+ *  Contention benchmark for concurrent readers of one memory gate. Each thread either starts it's own
+ *  conversation or all threads share one conversation, and resolves random resources and reads their
+ *  associations. The throughput is measured for 1, 2, 4, ... threads up to the given maximum.
+ * </p>
+ *
+ * <p>
+ *  All resources are sub classes of one type, so before that the time of reverse lookups of this hub with
+ *  one incoming statement per resource is reported.
+ * </p>
+ *
+ * <p>
+ *  Not a test case, run it with:
+ *  <pre>
+ *  java ... org.arastreju.bindings.memory.ConcurrentReadBenchmark [maxThreads] [resources] [seconds] [shared]
+ *  </pre>
+ * </p>
+ */
+public class ConcurrentReadBenchmark {
+
+    private final MemGate gate;
+
+    private final QualifiedName[] names;
+
+    private final QualifiedName type = new QualifiedName("http://q#", "Type");
+
+    private final boolean shared;
+
+    // ----------------------------------------------------
+
+    public static void main(String[] args) throws InterruptedException {
+        final int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        final int resources = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        final int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        final boolean shared = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        final ConcurrentReadBenchmark benchmark = new ConcurrentReadBenchmark(resources, shared);
+        System.out.println("cores: " + Runtime.getRuntime().availableProcessors() + ", resources: " + resources
+                + ", shared conversation: " + shared);
+        System.out.printf("hub lookup   avg: %8.3fms%n", benchmark.hubLookup(100));
+        benchmark.run(1, 1);
+        double base = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            final double throughput = benchmark.run(threads, seconds);
+            if (threads == 1) {
+                base = throughput;
+            }
+            System.out.printf("threads: %3d   ops/s: %12.0f   speedup: %5.2f%n", threads, throughput, throughput / base);
+        }
+    }
+
+    // ----------------------------------------------------
+
+    public ConcurrentReadBenchmark(final int resources, final boolean shared) {
+        this.gate = new MemGate(new MemTripleStore(), new PhysicalDomain("benchmark"));
+        this.shared = shared;
+        this.names = new QualifiedName[resources];
+        final ModelingConversation mc = gate.startConversation();
+        for (int i = 0; i < resources; i++) {
+            names[i] = new QualifiedName("http://q#", "R" + i);
+            final ResourceNode node = mc.resolve(new SimpleResourceID(names[i]));
+            SNOPS.associate(node, RDFS.LABEL, new SNText("Resource " + i));
+            SNOPS.associate(node, RDFS.SUB_CLASS_OF, new SimpleResourceID(type));
+        }
+        mc.close();
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * @return The average milliseconds of finding the statements linking to the common type.
+     */
+    public double hubLookup(final int lookups) {
+        final ModelingConversation mc = gate.startConversation();
+        final SimpleResourceID hub = new SimpleResourceID(type);
+        try {
+            mc.findIncomingStatements(hub);
+            final long start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                if (mc.findIncomingStatements(hub).size() != names.length) {
+                    throw new IllegalStateException("Unexpected incoming statements of " + type);
+                }
+            }
+            return (System.nanoTime() - start) / 1e6 / lookups;
+        } finally {
+            mc.close();
+        }
+    }
+
+    /**
+     * @return The number of read operations per second.
+     */
+    public double run(final int threads, final int seconds) throws InterruptedException {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong operations = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final ModelingConversation common = gate.startConversation();
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final ModelingConversation mc = shared ? common : gate.startConversation();
+                    final Random random = new Random(seed);
+                    long count = 0;
+                    try {
+                        start.await();
+                        while (running.get()) {
+                            final ResourceNode node = mc.findResource(names[random.nextInt(names.length)]);
+                            if (node.getAssociations().size() != 2) {
+                                throw new IllegalStateException("Unexpected associations of " + node);
+                            }
+                            count++;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        if (!shared) {
+                            mc.close();
+                        }
+                        operations.addAndGet(count);
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        final long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        done.await();
+        final double elapsed = (System.nanoTime() - begin) / 1e9;
+        common.close();
+        return operations.get() / elapsed;
+    }
+
+}
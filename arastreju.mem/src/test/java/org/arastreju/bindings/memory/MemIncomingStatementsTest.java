@@ -0,0 +1,20 @@
+package org.arastreju.bindings.memory;
+
+import org.arastreju.bindings.memory.storage.MemTripleStore;
+import org.arastreju.sge.ArastrejuGate;
+import org.arastreju.sge.context.PhysicalDomain;
+import org.arastreju.sge.spi.AbstractIncomingStatementsTest;
+
+/**
+ * <p>
+ *  Contract test of incoming statements for the memory binding.
+ * </p>
+ */
+public class MemIncomingStatementsTest extends AbstractIncomingStatementsTest {
+
+    @Override
+    protected ArastrejuGate createGate() {
+        return new MemGate(new MemTripleStore(), new PhysicalDomain("test"));
+    }
+
+}
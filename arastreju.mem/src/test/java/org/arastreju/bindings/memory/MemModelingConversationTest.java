@@ -1,5 +1,30 @@
 package org.arastreju.bindings.memory;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.arastreju.bindings.memory.storage.MemTripleStore;
+import org.arastreju.sge.ModelingConversation;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.context.PhysicalDomain;
+import org.arastreju.sge.context.SimpleContextID;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.Before;
 import org.junit.Test;
 
 /**
@@ -15,9 +40,168 @@ import org.junit.Test;
  */
 public class MemModelingConversationTest {
 
+    private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+    private final QualifiedName qnVehicle = new QualifiedName("http://q#", "Vehicle");
+    private final QualifiedName qnBike = new QualifiedName("http://q#", "Bike");
+
+    private MemTripleStore store;
+
+    private MemGate gate;
+
+    // ----------------------------------------------------
+
+    @Before
+    public void setUp() {
+        store = new MemTripleStore();
+        gate = new MemGate(store, new PhysicalDomain("test"));
+    }
+
+    // ----------------------------------------------------
+
+    @Test
+    public void testResolveAndFind() {
+        ModelingConversation mc = gate.startConversation();
+        assertNull(mc.findResource(qnCar));
+
+        ResourceNode car = mc.resolve(new SimpleResourceID(qnCar));
+        assertNotNull(car);
+        assertTrue(car.isAttached());
+
+        ResourceNode found = mc.findResource(qnCar);
+        assertNotNull(found);
+        assertEquals(car, found);
+        assertNotNull(gate.startConversation().findResource(qnCar));
+    }
+
+    @Test
+    public void testAttachCascading() {
+        ResourceNode car = new SNResource(qnCar);
+        ResourceNode vehicle = new SNResource(qnVehicle);
+        car.addAssociation(RDFS.SUB_CLASS_OF, vehicle);
+        vehicle.addAssociation(RDFS.SUB_CLASS_OF, car);
+
+        ModelingConversation mc = gate.startConversation();
+        mc.attach(car);
+
+        assertTrue(car.isAttached());
+        assertEquals(2, store.size());
+
+        ResourceNode found = gate.startConversation().findResource(qnVehicle);
+        assertNotNull(found);
+        assertEquals(car, SNOPS.singleObject(found, RDFS.SUB_CLASS_OF));
+        assertTrue(SNOPS.singleObject(found, RDFS.SUB_CLASS_OF).asResource().isAttached());
+    }
+
+    @Test
+    public void testValues() {
+        ModelingConversation mc = gate.startConversation();
+        ResourceNode car = mc.resolve(new SimpleResourceID(qnCar));
+        SNOPS.associate(car, RDFS.LABEL, new SNText("a car"));
+
+        ResourceNode found = gate.startConversation().findResource(qnCar);
+        assertEquals("a car", SNOPS.string(SNOPS.singleObject(found, RDFS.LABEL)));
+        assertTrue(store.getSubjects(RDFS.LABEL, new SNText("a car")).contains(qnCar));
+    }
+
+    @Test
+    public void testContexts() {
+        Context ctx1 = new SimpleContextID("http://q#", "ctx1");
+        Context ctx2 = new SimpleContextID("http://q#", "ctx2");
+
+        ModelingConversation mc = gate.startConversation();
+        ResourceNode car = mc.resolve(new SimpleResourceID(qnCar));
+        SNOPS.associate(car, RDF.TYPE, RDFS.CLASS, ctx1, ctx2);
+        SNOPS.associate(car, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle));
+
+        ResourceNode found = gate.startConversation().findResource(qnCar);
+        Statement typed = SNOPS.singleAssociation(found, RDF.TYPE);
+        assertEquals(2, typed.getContexts().length);
+        assertEquals(0, SNOPS.singleAssociation(found, RDFS.SUB_CLASS_OF).getContexts().length);
+
+        Statement incoming = mc.findIncomingStatements(RDFS.CLASS).iterator().next();
+        assertEquals(2, incoming.getContexts().length);
+    }
+
+    @Test
+    public void testIncomingStatements() {
+        ModelingConversation mc = gate.startConversation();
+        ResourceNode car = mc.resolve(new SimpleResourceID(qnCar));
+        ResourceNode bike = mc.resolve(new SimpleResourceID(qnBike));
+        SNOPS.associate(car, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle));
+        SNOPS.associate(bike, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle));
+        SNOPS.associate(bike, RDF.TYPE, RDFS.CLASS);
+
+        assertEquals(2, mc.findIncomingStatements(new SimpleResourceID(qnVehicle)).size());
+        assertEquals(1, mc.findIncomingStatements(RDFS.CLASS).size());
+        assertEquals(0, mc.findIncomingStatements(car).size());
+
+        SNOPS.remove(car, RDFS.SUB_CLASS_OF);
+        assertEquals(1, mc.findIncomingStatements(new SimpleResourceID(qnVehicle)).size());
+    }
+
     @Test
-    public void placeholder() {
+    public void testRemove() {
+        ModelingConversation mc = gate.startConversation();
+        ResourceNode car = mc.resolve(new SimpleResourceID(qnCar));
+        ResourceNode vehicle = mc.resolve(new SimpleResourceID(qnVehicle));
+        SNOPS.associate(car, RDFS.SUB_CLASS_OF, vehicle);
+        SNOPS.associate(vehicle, RDF.TYPE, RDFS.CLASS);
+
+        mc.remove(vehicle);
 
+        assertNull(mc.findResource(qnVehicle));
+        assertTrue(car.getAssociations().isEmpty());
+        assertEquals(0, store.size());
+        assertTrue(gate.startConversation().findResource(qnCar).getAssociations().isEmpty());
+    }
+
+    @Test
+    public void testDetachAndReset() {
+        ModelingConversation mc = gate.startConversation();
+        ResourceNode car = mc.resolve(new SimpleResourceID(qnCar));
+        SNOPS.associate(car, RDF.TYPE, RDFS.CLASS);
+
+        mc.detach(car);
+        assertFalse(car.isAttached());
+        SNOPS.associate(car, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle));
+        assertEquals(2, car.getAssociations().size());
+        assertEquals(1, store.size());
+
+        mc.reset(car);
+        assertEquals(1, car.getAssociations().size());
+    }
+
+    @Test
+    public void testConcurrentConversation() throws InterruptedException {
+        final ModelingConversation mc = gate.startConversation();
+        final int threads = 8;
+        final int perThread = 200;
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        final Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * perThread;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < perThread; i++) {
+                            final ResourceNode car = mc.resolve(new SimpleResourceID(qnCar));
+                            SNOPS.associate(car, RDFS.LABEL, new SNText("Car " + (offset + i)));
+                            car.getAssociations().size();
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertEquals(threads * perThread, mc.findResource(qnCar).getAssociations().size());
+        assertEquals(threads * perThread, gate.startConversation().findResource(qnCar).getAssociations().size());
     }
 
 }
@@ -0,0 +1,208 @@
+package org.arastreju.bindings.memory.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.arastreju.bindings.memory.MemGate;
+import org.arastreju.sge.ModelingConversation;
+import org.arastreju.sge.Organizer;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.context.PhysicalDomain;
+import org.arastreju.sge.model.ElementaryDataType;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNValue;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.Namespace;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.persistence.TransactionControl;
+import org.arastreju.sge.query.Query;
+import org.arastreju.sge.query.QueryResult;
+import org.arastreju.sge.query.SortCriteria;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for {@link MemQueryBuilder}.
+ * </p>
+ */
+public class MemQueryBuilderTest {
+
+    private final QualifiedName qnVehicle = new QualifiedName("http://q#", "Vehicle");
+    private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+    private final QualifiedName qnBike = new QualifiedName("http://q#", "Bike");
+    private final QualifiedName qnTruck = new QualifiedName("http://q#", "Truck");
+    private final QualifiedName qnPlant = new QualifiedName("http://other#", "Plant");
+
+    private MemGate gate;
+
+    private ModelingConversation mc;
+
+    // ----------------------------------------------------
+
+    @Before
+    public void setUp() {
+        gate = new MemGate(new PhysicalDomain("test"));
+        mc = gate.startConversation();
+        create(qnCar, "Car", qnVehicle);
+        create(qnBike, "Bike", qnVehicle);
+        create(qnTruck, "Truck", qnVehicle);
+        create(qnPlant, "Plant", null);
+        SNOPS.associate(mc.resolve(new SimpleResourceID(qnTruck)), RDF.TYPE, RDFS.CLASS);
+    }
+
+    // ----------------------------------------------------
+
+    @Test
+    public void testField() {
+        assertResult(mc.createQuery().addField(RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle)), qnCar, qnBike, qnTruck);
+        assertResult(mc.createQuery().addField(RDFS.LABEL, "Car"), qnCar);
+        assertResult(mc.createQuery().addField(RDFS.LABEL, "B*"), qnBike);
+        assertResult(mc.createQuery().addField(RDFS.LABEL, "unknown"));
+        assertResult(mc.createQuery().addField(RDFS.COMMENT, "Car"));
+    }
+
+    @Test
+    public void testAndOrNot() {
+        assertResult(mc.createQuery()
+                .addField(RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle))
+                .and()
+                .addField(RDF.TYPE, RDFS.CLASS),
+                qnTruck);
+
+        assertResult(mc.createQuery()
+                .beginOr()
+                    .addField(RDFS.LABEL, "Car")
+                    .addField(RDFS.LABEL, "Plant")
+                .end(),
+                qnCar, qnPlant);
+
+        assertResult(mc.createQuery()
+                .addField(RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle))
+                .and()
+                .not().addField(RDFS.LABEL, "Bike"),
+                qnCar, qnTruck);
+
+        final Set<QualifiedName> notLabeled = names(mc.createQuery().not().addField(RDFS.LABEL, "*").getResult());
+        assertTrue(notLabeled.contains(qnVehicle));
+        assertTrue(notLabeled.contains(RDFS.CLASS.getQualifiedName()));
+        assertEquals(2, notLabeled.size());
+    }
+
+    @Test
+    public void testUriValueAndRelation() {
+        assertResult(mc.createQuery().addURI(qnCar.toURI()), qnCar);
+        assertResult(mc.createQuery().addURI("http://other#*"), qnPlant);
+        assertResult(mc.createQuery().addValue("Tr?ck"), qnTruck);
+        assertResult(mc.createQuery().addRelation(qnVehicle.toURI()), qnCar, qnBike, qnTruck);
+    }
+
+    @Test
+    public void testFullText() {
+        final QualifiedName qnRacer = new QualifiedName("http://q#", "RaceCar");
+        create(qnRacer, "Fast racing car", qnCar);
+        assertResult(mc.createQuery().addValue("car"), qnCar, qnRacer);
+        assertResult(mc.createQuery().addValue("RAC*"), qnRacer);
+        assertResult(mc.createQuery().addValue("fast car"), qnRacer);
+        assertResult(mc.createQuery().addValue("slow car"));
+        assertResult(mc.createQuery().addURI("race*"), qnRacer);
+        assertResult(mc.createQuery().addURI("Plant"), qnPlant);
+
+        SNOPS.remove(mc.findResource(qnRacer), RDFS.LABEL);
+        assertResult(mc.createQuery().addValue("rac*"));
+
+        final TransactionControl tx = mc.beginTransaction();
+        create(new QualifiedName("http://q#", "Boat"), "Racing boat", qnVehicle);
+        assertResult(mc.createQuery().addValue("rac*"), new QualifiedName("http://q#", "Boat"));
+        assertResult(gate.startConversation().createQuery().addValue("rac*"));
+        tx.fail();
+        tx.finish();
+    }
+
+    @Test
+    public void testSorting() {
+        final Query query = mc.createQuery().addField(RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle));
+        query.setSortCriteria(new SortCriteria(RDFS.LABEL.getQualifiedName().toURI()));
+        final List<ResourceNode> result = query.getResult().toList();
+        assertEquals(qnBike, result.get(0).getQualifiedName());
+        assertEquals(qnCar, result.get(1).getQualifiedName());
+        assertEquals(qnTruck, result.get(2).getQualifiedName());
+    }
+
+    @Test
+    public void testNumericSorting() {
+        final ResourceNode weight = mc.resolve(new SimpleResourceID("http://q#", "weight"));
+        SNOPS.associate(mc.findResource(qnTruck), weight, new SNValue(ElementaryDataType.INTEGER, 100));
+        SNOPS.associate(mc.findResource(qnCar), weight, new SNValue(ElementaryDataType.INTEGER, 10));
+        SNOPS.associate(mc.findResource(qnBike), weight, new SNValue(ElementaryDataType.INTEGER, 9));
+        final Query query = mc.createQuery().addField(RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle));
+        query.setSortCriteria(new SortCriteria(weight.toURI()));
+        final List<ResourceNode> result = query.getResult().toList();
+        assertEquals(qnBike, result.get(0).getQualifiedName());
+        assertEquals(qnCar, result.get(1).getQualifiedName());
+        assertEquals(qnTruck, result.get(2).getQualifiedName());
+    }
+
+    @Test
+    public void testWithinTransaction() {
+        final TransactionControl tx = mc.beginTransaction();
+        SNOPS.remove(mc.findResource(qnCar), RDFS.SUB_CLASS_OF);
+        create(new QualifiedName("http://q#", "Boat"), "Boat", qnVehicle);
+
+        assertResult(mc.createQuery().addField(RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle)),
+                qnBike, qnTruck, new QualifiedName("http://q#", "Boat"));
+        assertResult(gate.startConversation().createQuery().addField(RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle)),
+                qnCar, qnBike, qnTruck);
+        tx.fail();
+        tx.finish();
+    }
+
+    @Test
+    public void testOrganizer() {
+        final Organizer organizer = gate.getOrganizer();
+        organizer.registerNamespace("http://q#", "q");
+        organizer.registerNamespace("http://q#", "qq");
+        organizer.registerContext(new QualifiedName("http://q#", "ctx"));
+
+        assertEquals(1, organizer.getNamespaces().size());
+        final Namespace ns = organizer.getNamespaces().iterator().next();
+        assertEquals("qq", ns.getPrefix());
+        assertEquals(1, organizer.getContexts().size());
+        assertResult(mc.createQuery().addField(RDF.TYPE, Aras.CONTEXT), new QualifiedName("http://q#", "ctx"));
+    }
+
+    // ----------------------------------------------------
+
+    private void create(QualifiedName qn, String label, QualifiedName superClass) {
+        final ResourceNode node = mc.resolve(new SimpleResourceID(qn));
+        SNOPS.associate(node, RDFS.LABEL, new SNText(label));
+        if (superClass != null) {
+            SNOPS.associate(node, RDFS.SUB_CLASS_OF, new SimpleResourceID(superClass));
+        }
+    }
+
+    private void assertResult(Query query, QualifiedName... expected) {
+        final Set<QualifiedName> names = names(query.getResult());
+        assertEquals(expected.length, names.size());
+        for (QualifiedName qn : expected) {
+            assertTrue("missing " + qn + " in " + names, names.contains(qn));
+        }
+    }
+
+    private Set<QualifiedName> names(QueryResult result) {
+        final Set<QualifiedName> names = new HashSet<QualifiedName>();
+        for (ResourceNode node : result) {
+            names.add(node.getQualifiedName());
+        }
+        return names;
+    }
+
+}
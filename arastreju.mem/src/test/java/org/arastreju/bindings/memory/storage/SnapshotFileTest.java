@@ -0,0 +1,150 @@
+package org.arastreju.bindings.memory.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Locale;
+
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.context.SimpleContextID;
+import org.arastreju.sge.model.DetachedStatement;
+import org.arastreju.sge.model.ElementaryDataType;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.SNValue;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for snapshots of the {@link MemTripleStore}.
+ * </p>
+ */
+public class SnapshotFileTest {
+
+    private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+    private final QualifiedName qnVehicle = new QualifiedName("http://q#", "Vehicle");
+    private final QualifiedName qnBike = new QualifiedName("http://q#", "Bike");
+
+    private File file;
+
+    // ----------------------------------------------------
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("aras-snapshot", ".aras");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    // ----------------------------------------------------
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Context ctx = new SimpleContextID("http://q#", "ctx");
+        MemTripleStore store = new MemTripleStore();
+        store.addStatement(stmt(qnCar, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle), ctx));
+        store.addStatement(stmt(qnBike, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle)));
+        store.addStatement(stmt(qnCar, RDFS.LABEL, new SNText("Auto", Locale.GERMAN)));
+        store.addStatement(stmt(qnCar, RDFS.COMMENT, new SNValue(ElementaryDataType.DECIMAL, new BigDecimal("1.5"))));
+        store.addStatement(stmt(qnCar, RDFS.COMMENT, new SNValue(ElementaryDataType.TIMESTAMP, new Date(1000))));
+        store.register(new QualifiedName("http://q#", "Lonely"));
+        store.writeSnapshot(file);
+
+        MemTripleStore reopened = SnapshotFile.open(file);
+        assertEquals(5, reopened.size());
+        assertEquals(store.getAssociations(qnCar), reopened.getAssociations(qnCar));
+        assertEquals(2, reopened.getIncomingStatements(qnVehicle).size());
+        assertTrue(reopened.getSubjects(RDFS.LABEL, new SNText("Auto", Locale.GERMAN)).contains(qnCar));
+        assertTrue(reopened.contains(new QualifiedName("http://q#", "Lonely")));
+
+        for (Statement stmt : reopened.getAssociations(qnCar)) {
+            if (stmt.getPredicate().equals(RDFS.SUB_CLASS_OF)) {
+                assertEquals(ctx, stmt.getContexts()[0]);
+            }
+        }
+    }
+
+    @Test
+    public void testChangesOnSnapshot() throws Exception {
+        MemTripleStore store = new MemTripleStore();
+        store.addStatement(stmt(qnCar, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle)));
+        store.addStatement(stmt(qnBike, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle)));
+        store.addStatement(stmt(qnBike, RDF.TYPE, RDFS.CLASS));
+        store.writeSnapshot(file);
+
+        MemTripleStore reopened = SnapshotFile.open(file);
+        assertFalse(reopened.addStatement(stmt(qnCar, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle))));
+        assertTrue(reopened.removeStatement(stmt(qnCar, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle))));
+        assertTrue(reopened.getAssociations(qnCar).isEmpty());
+        assertEquals(1, reopened.getIncomingStatements(qnVehicle).size());
+
+        reopened.remove(qnBike);
+        assertFalse(reopened.contains(qnBike));
+        assertTrue(reopened.addStatement(stmt(qnCar, RDF.TYPE, RDFS.CLASS)));
+        assertEquals(1, reopened.size());
+        reopened.writeSnapshot(file);
+
+        MemTripleStore again = SnapshotFile.open(file);
+        assertEquals(1, again.size());
+        assertFalse(again.contains(qnBike));
+        assertEquals(1, again.getAssociations(qnCar).size());
+        assertEquals(1, again.getIncomingStatements(RDFS.CLASS.getQualifiedName()).size());
+        assertTrue(again.getIncomingStatements(qnVehicle).isEmpty());
+    }
+
+    @Test
+    public void testRecover() throws Exception {
+        MemTripleStore store = new MemTripleStore();
+        store.addStatement(stmt(qnCar, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle)));
+        store.writeSnapshot(file);
+
+        // a complete temporary file is recovered only if the snapshot is missing
+        final File tmp = new File(file.getPath() + ".tmp");
+        assertTrue(file.renameTo(tmp));
+        assertTrue(SnapshotFile.recover(file));
+        assertFalse(tmp.exists());
+        assertEquals(1, SnapshotFile.open(file).size());
+        assertFalse(SnapshotFile.recover(file));
+
+        // an incomplete one is not
+        final File other = File.createTempFile("aras-snapshot", ".aras");
+        final File otherTmp = new File(other.getPath() + ".tmp");
+        try {
+            assertTrue(other.delete());
+            final RandomAccessFile raf = new RandomAccessFile(otherTmp, "rw");
+            try {
+                raf.write(new byte[256]);
+            } finally {
+                raf.close();
+            }
+            assertFalse(SnapshotFile.recover(other));
+            assertFalse(other.exists());
+        } finally {
+            otherTmp.delete();
+            other.delete();
+        }
+    }
+
+    // ----------------------------------------------------
+
+    private Statement stmt(QualifiedName subject, ResourceID predicate, SemanticNode object, Context... contexts) {
+        return new DetachedStatement(new SimpleResourceID(subject), predicate, object, contexts);
+    }
+
+}
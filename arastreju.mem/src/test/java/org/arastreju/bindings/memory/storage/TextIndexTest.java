@@ -0,0 +1,59 @@
+package org.arastreju.bindings.memory.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for {@link TextIndex}.
+ * </p>
+ */
+public class TextIndexTest {
+
+    private TextIndex index;
+
+    // ----------------------------------------------------
+
+    @Before
+    public void setUp() {
+        index = new TextIndex();
+        index.add(1, "Foo Fighters");
+        index.add(2, "football club");
+        index.add(3, "The Fool, the Foo and the Bar");
+        index.add(4, "bar");
+    }
+
+    // ----------------------------------------------------
+
+    @Test
+    public void testTokens() {
+        assertArrayEquals(new long[] { 1, 3 }, index.find("foo"));
+        assertArrayEquals(new long[] { 1, 3 }, index.find("FOO"));
+        assertArrayEquals(new long[] { 3, 4 }, index.find("bar"));
+        assertArrayEquals(new long[] { 3 }, index.find("foo bar"));
+        assertArrayEquals(new long[0], index.find("baz"));
+        assertArrayEquals(new long[0], index.find(""));
+    }
+
+    @Test
+    public void testWildcards() {
+        assertArrayEquals(new long[] { 1, 2, 3 }, index.find("foo*"));
+        assertArrayEquals(new long[] { 2 }, index.find("foot*"));
+        assertArrayEquals(new long[] { 3 }, index.find("fo?l"));
+        assertArrayEquals(new long[] { 2 }, index.find("*ball"));
+        assertArrayEquals(new long[] { 2 }, index.find("club foo*"));
+    }
+
+    @Test
+    public void testMatches() {
+        assertTrue(TextIndex.matches("foo*", "Football"));
+        assertTrue(TextIndex.matches("fighters foo", "Foo Fighters"));
+        assertFalse(TextIndex.matches("fighters bar", "Foo Fighters"));
+        assertFalse(TextIndex.matches("*", null));
+    }
+
+}
@@ -0,0 +1,192 @@
+package org.arastreju.bindings.memory.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.context.SimpleContextID;
+import org.arastreju.sge.model.DetachedStatement;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for the {@link WriteAheadLog} of the {@link MemTripleStore}.
+ * </p>
+ */
+public class WriteAheadLogTest {
+
+    private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+    private final QualifiedName qnVehicle = new QualifiedName("http://q#", "Vehicle");
+    private final QualifiedName qnBike = new QualifiedName("http://q#", "Bike");
+
+    private File dir;
+
+    private File snapshot;
+
+    // ----------------------------------------------------
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile("aras-wal", "");
+        dir.delete();
+        dir.mkdirs();
+        snapshot = new File(dir, "snapshot.aras");
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    // ----------------------------------------------------
+
+    @Test
+    public void testReplayAfterCrash() throws Exception {
+        Context ctx = new SimpleContextID("http://q#", "ctx");
+        MemTripleStore store = open();
+        store.addStatement(stmt(qnCar, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle), ctx));
+        store.addStatement(stmt(qnBike, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle)));
+        store.addStatement(stmt(qnCar, RDFS.LABEL, new SNText("Auto", Locale.GERMAN)));
+        store.removeStatement(stmt(qnBike, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle)));
+        store.register(new QualifiedName("http://q#", "Lonely"));
+
+        ChangeSet changes = new ChangeSet();
+        changes.add(stmt(qnBike, RDF.TYPE, RDFS.CLASS), false);
+        changes.remove(qnCar);
+        store.commit(changes, store.getVersion());
+
+        // no snapshot, no close: everything has to be recovered from the log
+        assertFalse(snapshot.exists());
+        MemTripleStore recovered = open();
+        assertEquals(1, recovered.size());
+        assertFalse(recovered.contains(qnCar));
+        assertTrue(recovered.contains(new QualifiedName("http://q#", "Lonely")));
+        assertEquals(store.getAssociations(qnBike), recovered.getAssociations(qnBike));
+        assertTrue(recovered.getIncomingStatements(qnVehicle).isEmpty());
+    }
+
+    @Test
+    public void testTornRecord() throws Exception {
+        MemTripleStore store = open();
+        store.addStatement(stmt(qnCar, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle)));
+        store.addStatement(stmt(qnBike, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle)));
+
+        final List<File> segments = segments();
+        final FileOutputStream out = new FileOutputStream(segments.get(segments.size() - 1), true);
+        out.write(new byte[] {0, 0, 1, 0, 42, 42});
+        out.close();
+
+        MemTripleStore recovered = open();
+        assertEquals(2, recovered.size());
+        recovered.addStatement(stmt(qnBike, RDF.TYPE, RDFS.CLASS));
+
+        MemTripleStore again = open();
+        assertEquals(3, again.size());
+    }
+
+    @Test
+    public void testCheckpoint() throws Exception {
+        MemTripleStore store = open();
+        store.addStatement(stmt(qnCar, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle)));
+        store.checkpoint();
+        store.addStatement(stmt(qnBike, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle)));
+
+        assertTrue(snapshot.exists());
+        assertEquals(1, segments().size());
+
+        MemTripleStore recovered = open();
+        assertEquals(2, recovered.size());
+        assertEquals(2, recovered.getIncomingStatements(qnVehicle).size());
+        // the replayed segment has been compacted into the snapshot
+        assertTrue(segments().isEmpty());
+
+        recovered.closeLog();
+        MemTripleStore reopened = SnapshotFile.open(snapshot);
+        assertEquals(2, reopened.size());
+    }
+
+    @Test
+    public void testGroupCommit() throws Exception {
+        final MemTripleStore store = open();
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 100; i++) {
+                        final QualifiedName qn = new QualifiedName("http://q#", "Res-" + thread + "-" + i);
+                        store.addStatement(stmt(qn, RDF.TYPE, RDFS.CLASS));
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        MemTripleStore recovered = open();
+        assertEquals(400, recovered.size());
+        assertEquals(400, recovered.getIncomingStatements(RDFS.CLASS.getQualifiedName()).size());
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Open the store like the gate factory does.
+     */
+    private MemTripleStore open() throws Exception {
+        final MemTripleStore store = snapshot.exists() ? SnapshotFile.open(snapshot) : new MemTripleStore();
+        final WriteAheadLog log = new WriteAheadLog(dir, false, 0, Long.MAX_VALUE);
+        final int replayed = log.replay(store);
+        store.attachLog(log, snapshot);
+        if (replayed > 0) {
+            store.checkpoint();
+        }
+        return store;
+    }
+
+    private List<File> segments() {
+        final List<File> result = new ArrayList<File>();
+        for (File file : dir.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(WriteAheadLog.SEGMENT_PREFIX);
+            }
+        })) {
+            if (file.length() > 0) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    private Statement stmt(QualifiedName subject, ResourceID predicate, SemanticNode object, Context... contexts) {
+        return new DetachedStatement(new SimpleResourceID(subject), predicate, object, contexts);
+    }
+
+}
@@ -0,0 +1,178 @@
+package org.arastreju.bindings.memory.tx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.arastreju.bindings.memory.MemGate;
+import org.arastreju.bindings.memory.storage.MemTripleStore;
+import org.arastreju.sge.ModelingConversation;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.context.PhysicalDomain;
+import org.arastreju.sge.eh.ArastrejuRuntimeException;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.persistence.TransactionControl;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for the snapshot isolated transactions of the memory binding.
+ * </p>
+ */
+public class MemTransactionTest {
+
+    private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+    private final QualifiedName qnVehicle = new QualifiedName("http://q#", "Vehicle");
+
+    private MemTripleStore store;
+
+    private MemGate gate;
+
+    // ----------------------------------------------------
+
+    @Before
+    public void setUp() {
+        store = new MemTripleStore();
+        gate = new MemGate(store, new PhysicalDomain("test"));
+    }
+
+    // ----------------------------------------------------
+
+    @Test
+    public void testCommitPublishesAtomically() {
+        ModelingConversation mc = gate.startConversation();
+        TransactionControl tx = mc.beginTransaction();
+        ResourceNode car = mc.resolve(new SimpleResourceID(qnCar));
+        SNOPS.associate(car, RDF.TYPE, RDFS.CLASS);
+        SNOPS.associate(car, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle));
+
+        assertEquals(0, store.size());
+        assertNull(gate.startConversation().findResource(qnCar));
+        assertEquals(2, mc.findResource(qnCar).getAssociations().size());
+
+        tx.success();
+        tx.finish();
+
+        assertFalse(tx.isActive());
+        assertEquals(2, store.size());
+        assertEquals(2, gate.startConversation().findResource(qnCar).getAssociations().size());
+    }
+
+    @Test
+    public void testRollback() {
+        ModelingConversation mc = gate.startConversation();
+        ResourceNode car = mc.resolve(new SimpleResourceID(qnCar));
+        SNOPS.associate(car, RDF.TYPE, RDFS.CLASS);
+
+        TransactionControl tx = mc.beginTransaction();
+        SNOPS.associate(car, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle));
+        SNOPS.remove(car, RDF.TYPE);
+        mc.resolve(new SimpleResourceID(qnVehicle));
+        assertEquals(1, car.getAssociations().size());
+        tx.fail();
+        tx.finish();
+
+        assertEquals(1, store.size());
+        assertEquals(1, car.getAssociations().size());
+        assertEquals(RDFS.CLASS, SNOPS.singleObject(car, RDF.TYPE));
+        assertNull(mc.findResource(qnVehicle));
+    }
+
+    @Test
+    public void testSnapshotIsolation() {
+        ModelingConversation reader = gate.startConversation();
+        TransactionControl tx = reader.beginTransaction();
+        assertNull(reader.findResource(qnCar));
+
+        ModelingConversation writer = gate.startConversation();
+        ResourceNode car = writer.resolve(new SimpleResourceID(qnCar));
+        SNOPS.associate(car, RDFS.LABEL, new SNText("a car"));
+        assertEquals(1, store.size());
+
+        assertNull(reader.findResource(qnCar));
+        tx.finish();
+        assertNotNull(reader.findResource(qnCar));
+    }
+
+    @Test
+    public void testPinnedVersion() {
+        ModelingConversation mc = gate.startConversation();
+        ResourceNode car = mc.resolve(new SimpleResourceID(qnCar));
+        SNOPS.associate(car, RDFS.LABEL, new SNText("first"));
+
+        final long version = store.pin();
+        try {
+            for (int i = 0; i < 10; i++) {
+                SNOPS.assure(car, RDFS.LABEL, new SNText("label " + i));
+            }
+            assertEquals(1, store.getAssociations(qnCar, version).size());
+            assertEquals("first", SNOPS.string(store.getAssociations(qnCar, version).iterator().next().getObject()));
+            assertTrue(store.getSubjects(RDFS.LABEL, new SNText("first"), version).contains(qnCar));
+            assertTrue(store.getSubjects(RDFS.LABEL, new SNText("first")).isEmpty());
+        } finally {
+            store.unpin(version);
+        }
+        assertEquals("label 9", SNOPS.string(SNOPS.singleObject(car, RDFS.LABEL)));
+    }
+
+    @Test
+    public void testConflict() {
+        ModelingConversation mc = gate.startConversation();
+        mc.resolve(new SimpleResourceID(qnCar));
+
+        ModelingConversation mc1 = gate.startConversation();
+        ModelingConversation mc2 = gate.startConversation();
+        TransactionControl tx1 = mc1.beginTransaction();
+        TransactionControl tx2 = mc2.beginTransaction();
+        SNOPS.associate(mc1.findResource(qnCar), RDFS.LABEL, new SNText("one"));
+        SNOPS.associate(mc2.findResource(qnCar), RDFS.LABEL, new SNText("two"));
+
+        tx1.success();
+        tx1.finish();
+        tx2.success();
+        try {
+            tx2.finish();
+            fail("Expected conflict.");
+        } catch (ArastrejuRuntimeException e) {
+            assertFalse(tx2.isActive());
+        }
+
+        assertEquals(1, store.size());
+        assertEquals("one", SNOPS.string(SNOPS.singleObject(mc2.findResource(qnCar), RDFS.LABEL)));
+    }
+
+    @Test
+    public void testTransactionBoundToThread() throws Exception {
+        final ModelingConversation mc = gate.startConversation();
+        final TransactionControl tx = mc.beginTransaction();
+        SNOPS.associate(mc.resolve(new SimpleResourceID(qnCar)), RDF.TYPE, RDFS.CLASS);
+
+        // another thread of the same conversation writes outside of the transaction
+        final Thread other = new Thread() {
+            @Override
+            public void run() {
+                SNOPS.associate(mc.resolve(new SimpleResourceID(qnVehicle)), RDF.TYPE, RDFS.CLASS);
+            }
+        };
+        other.start();
+        other.join();
+
+        assertEquals(1, store.size());
+        assertTrue(store.contains(qnVehicle));
+        assertFalse(store.contains(qnCar));
+
+        tx.success();
+        tx.finish();
+        assertEquals(2, store.size());
+    }
+
+}
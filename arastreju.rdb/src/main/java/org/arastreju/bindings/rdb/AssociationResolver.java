@@ -0,0 +1,201 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.arastreju.bindings.rdb.jdbc.NodeCodec;
+import org.arastreju.bindings.rdb.jdbc.TableOperations;
+import org.arastreju.sge.model.DetachedStatement;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.persistence.ResourceResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ *  Loads the associations of several resources of one conversation with one query per chunk of subjects,
+ *  instead of one query per resource.
+ * </p>
+ *
+ * <p>
+ *  The resource objects of loaded statements are resolved in the conversation and remembered as neighbours.
+ *  When a single resource has to be resolved, up to 'prefetch' unresolved neighbours are loaded with it,
+ *  so a traversal of the graph, e.g. by a GraphTraverser or Walker, needs one query per level of the
+ *  graph instead of one per resource.
+ * </p>
+ */
+public class AssociationResolver {
+
+	public static final int DEFAULT_PREFETCH = 100;
+
+	private final Logger logger = LoggerFactory.getLogger(AssociationResolver.class);
+
+	private final RdbConversationContext ctx;
+	private final ResourceResolver resolver;
+	private final int prefetch;
+
+	private final Set<QualifiedName> neighbours = new LinkedHashSet<QualifiedName>();
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param ctx The conversation context.
+	 * @param resolver The resolver of the resource objects.
+	 * @param prefetch The maximum number of neighbours loaded with a resource, 0 for none.
+	 */
+	public AssociationResolver(RdbConversationContext ctx, ResourceResolver resolver, int prefetch) {
+		this.ctx = ctx;
+		this.resolver = resolver;
+		this.prefetch = prefetch;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Load the associations of all given resources not resolved yet.
+	 * @param ids The resources.
+	 */
+	public void resolve(Collection<? extends ResourceID> ids) {
+		final Map<Long, RdbAssosiationKeeper> keepers = new LinkedHashMap<Long, RdbAssosiationKeeper>();
+		for (ResourceID id : ids) {
+			final RdbAssosiationKeeper keeper = keeper(id.getQualifiedName());
+			if (!keeper.isResolved()) {
+				keepers.put(NodeCodec.id(id.getQualifiedName()), keeper);
+			}
+		}
+		load(keepers);
+	}
+
+	/**
+	 * Load the associations of a keeper and of up to 'prefetch' unresolved neighbours.
+	 * @param keeper The keeper to be resolved.
+	 */
+	void resolve(RdbAssosiationKeeper keeper) {
+		final Map<Long, RdbAssosiationKeeper> keepers = new LinkedHashMap<Long, RdbAssosiationKeeper>();
+		keepers.put(NodeCodec.id(keeper.getID().getQualifiedName()), keeper);
+		final Iterator<QualifiedName> it = neighbours.iterator();
+		while (it.hasNext() && keepers.size() <= prefetch) {
+			final QualifiedName qn = it.next();
+			it.remove();
+			final RdbAssosiationKeeper neighbour = (RdbAssosiationKeeper) ctx.getCache().get(qn);
+			if (neighbour != null && !neighbour.isResolved()) {
+				keepers.put(NodeCodec.id(qn), neighbour);
+			}
+		}
+		load(keepers);
+	}
+
+	// ----------------------------------------------------
+
+	private void load(Map<Long, RdbAssosiationKeeper> keepers) {
+		if (keepers.isEmpty()) {
+			return;
+		}
+		// pending inserts have to be visible
+		ctx.getInsertBatch().flush();
+		final StatementCache cache = ctx.getStatementCache();
+		final Map<Long, List<Statement>> statements = new HashMap<Long, List<Statement>>();
+		final List<ResourceID> missing = new ArrayList<ResourceID>(keepers.size());
+		for (Map.Entry<Long, RdbAssosiationKeeper> entry : keepers.entrySet()) {
+			final List<Statement> cached = cache.get(entry.getKey());
+			if (cached != null) {
+				statements.put(entry.getKey(), cached);
+			} else {
+				missing.add(entry.getValue().getID());
+			}
+		}
+		if (!missing.isEmpty()) {
+			load(missing, statements);
+		}
+		for (Map.Entry<Long, RdbAssosiationKeeper> entry : keepers.entrySet()) {
+			final List<Statement> loaded = statements.get(entry.getKey());
+			entry.getValue().addResolved(loaded != null ? attach(loaded) : Collections.<Statement>emptyList());
+		}
+	}
+
+	/**
+	 * Load the statements of the subjects from the database and add them to the gate's cache.
+	 * Within a transaction they are not cached, as they may contain uncommitted statements.
+	 */
+	private void load(List<ResourceID> subjects, Map<Long, List<Statement>> statements) {
+		final StatementCache cache = ctx.getStatementCache();
+		final long stamp = cache.stamp();
+		final Map<Long, List<Statement>> loaded;
+		final boolean shared = !ctx.isBound();
+		final Connection con = ctx.getConnection();
+		try {
+			loaded = TableOperations.selectStatements(con, ctx.getSchema(), subjects);
+		} finally {
+			ctx.close(con);
+		}
+		logger.debug("Loaded associations of " + subjects.size() + " resources");
+		for (ResourceID subject : subjects) {
+			final long id = NodeCodec.id(subject.getQualifiedName());
+			List<Statement> list = loaded.get(id);
+			if (list == null) {
+				list = Collections.emptyList();
+			}
+			statements.put(id, list);
+			if (shared) {
+				cache.put(id, list, stamp);
+			}
+		}
+	}
+
+	/**
+	 * Replace the resource objects by the nodes of this conversation, which become neighbours.
+	 */
+	private List<Statement> attach(List<Statement> loaded) {
+		final List<Statement> result = new ArrayList<Statement>(loaded.size());
+		for (Statement stmt : loaded) {
+			final SemanticNode object = stmt.getObject();
+			if (object.isResourceNode()) {
+				final QualifiedName qn = ((ResourceID) object).getQualifiedName();
+				final ResourceNode node = resolver.resolve((ResourceID) object);
+				if (!((RdbAssosiationKeeper) ctx.getCache().get(qn)).isResolved()) {
+					addNeighbour(qn);
+				}
+				result.add(new DetachedStatement(stmt.getSubject(), stmt.getPredicate(), node, stmt.getContexts()));
+			} else {
+				result.add(stmt);
+			}
+		}
+		return result;
+	}
+
+	private void addNeighbour(QualifiedName qn) {
+		if (prefetch <= 0) {
+			return;
+		}
+		neighbours.add(qn);
+		// the oldest neighbours are dropped
+		final Iterator<QualifiedName> it = neighbours.iterator();
+		while (neighbours.size() > prefetch * 10 && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	private RdbAssosiationKeeper keeper(QualifiedName qn) {
+		resolver.resolve(new SimpleResourceID(qn));
+		return (RdbAssosiationKeeper) ctx.getCache().get(qn);
+	}
+
+}
@@ -12,7 +12,15 @@ import org.arastreju.sge.naming.QualifiedName;
 
 /**
  * <p>
- *  [DESCRIPTION]
+ *  The association keepers of one conversation, so all nodes of a resource share one keeper.
+ *  The statements loaded from the database are cached for all conversations of a gate by the
+ *  {@link StatementCache}.
+ * </p>
+ *
+ * <p>
+ *  The cache is not bounded: a keeper is kept until the conversation is closed, as the nodes handed out
+ *  by the conversation share it. So each resource resolved in a conversation, e.g. each node of an iterated
+ *  query result, stays in memory as long as the conversation.
  * </p>
  *
  * <p>
@@ -35,12 +43,24 @@ public class Cache {
 			data.put(id, keeper);
 	}
 	
+	public AssociationKeeper get(QualifiedName id){
+		return data.get(id);
+	}
+	
 	public boolean contains(QualifiedName id){
 		return data.containsKey(id);
 	}
 	
+	public void remove(QualifiedName id){
+		data.remove(id);
+	}
+	
 	public void remove(AssociationKeeper keeper){
-		data.remove(keeper);
+		data.values().remove(keeper);
+	}
+	
+	public void clear(){
+		data.clear();
 	}
 	
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb;
+
+import java.io.File;
+
+/**
+ * <p>
+ *  Embedded databases, running in the JVM of the gate, so no database server is needed, e.g. for tests
+ *  and benchmarks. The database is stored in a directory or, if none is given, kept in memory until the
+ *  JVM exits.
+ * </p>
+ *
+ * <p>
+ *  The driver of the database has to be on the classpath: com.h2database:h2 or org.apache.derby:derby.
+ * </p>
+ */
+public enum EmbeddedDatabase {
+
+	H2("org.h2.Driver", "jdbc:h2:file:%s", "jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1", "sa"),
+	DERBY("org.apache.derby.jdbc.EmbeddedDriver", "jdbc:derby:%s;create=true", "jdbc:derby:memory:%s;create=true", "aras");
+
+	private final String driver;
+	private final String fileUrl;
+	private final String memoryUrl;
+	private final String user;
+
+	private EmbeddedDatabase(String driver, String fileUrl, String memoryUrl, String user) {
+		this.driver = driver;
+		this.fileUrl = fileUrl;
+		this.memoryUrl = memoryUrl;
+		this.user = user;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param name The name of the database, case is ignored.
+	 * @return The database or null if the name is empty.
+	 * @throws IllegalArgumentException if there is no such database.
+	 */
+	public static EmbeddedDatabase forName(String name) {
+		if (name == null || name.trim().length() == 0) {
+			return null;
+		}
+		return valueOf(name.trim().toUpperCase());
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @return The class name of the JDBC driver.
+	 */
+	public String driver() {
+		return driver;
+	}
+
+	/**
+	 * @return The default user.
+	 */
+	public String user() {
+		return user;
+	}
+
+	/**
+	 * @param directory The directory containing the database files, null for an in-memory database.
+	 * @param db The name of the database.
+	 * @return The JDBC URL, the database is created if it does not exist.
+	 */
+	public String url(String directory, String db) {
+		if (directory == null || directory.trim().length() == 0) {
+			return String.format(memoryUrl, db);
+		}
+		return String.format(fileUrl, new File(directory.trim(), db).getAbsolutePath());
+	}
+
+}
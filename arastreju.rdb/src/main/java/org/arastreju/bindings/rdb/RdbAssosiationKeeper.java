@@ -5,27 +5,12 @@
 
 package org.arastreju.bindings.rdb;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Collection;
 import java.util.Set;
 
-import org.arastreju.bindings.rdb.jdbc.Column;
-import org.arastreju.bindings.rdb.jdbc.TableOperations;
-import org.arastreju.sge.SNOPS;
-import org.arastreju.sge.model.ElementaryDataType;
 import org.arastreju.sge.model.ResourceID;
 import org.arastreju.sge.model.Statement;
 import org.arastreju.sge.model.associations.AbstractAssociationKeeper;
-import org.arastreju.sge.model.nodes.SNResource;
-import org.arastreju.sge.model.nodes.SNValue;
-import org.arastreju.sge.model.nodes.SemanticNode;
-import org.arastreju.sge.model.nodes.ValueNode;
-import org.arastreju.sge.naming.QualifiedName;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,11 +32,25 @@ public class RdbAssosiationKeeper extends AbstractAssociationKeeper {
 	
 	private final ResourceID id;
 	private RdbConversationContext ctx;
+	private final AssociationResolver resolver;
+	private boolean loaded;
 
-	public RdbAssosiationKeeper(ResourceID id, RdbConversationContext ctx) {
+	public RdbAssosiationKeeper(ResourceID id, RdbConversationContext ctx, AssociationResolver resolver) {
 		super();
 		this.id = id;
 		this.ctx = ctx;
+		this.resolver = resolver;
+	}
+
+	public ResourceID getID() {
+		return id;
+	}
+
+	/**
+	 * @return true if the associations have been loaded from the database.
+	 */
+	public boolean isResolved() {
+		return loaded;
 	}
 
 	public Set<Statement> getAssociationsForRemoval() {
@@ -65,80 +64,51 @@ public class RdbAssosiationKeeper extends AbstractAssociationKeeper {
 	@Override
 	public void addAssociation(final Statement assoc) {
 		if (!getAssociations().contains(assoc)) {
-			
 			super.addAssociation(assoc);
-			
-			HashMap<String, String> inserts = new HashMap<String, String>();
-			inserts.put(Column.SUBJECT.value(), assoc.getSubject().toURI());
-			inserts.put(Column.PREDICATE.value(), assoc.getPredicate().toURI());
-			SemanticNode object = assoc.getObject();
-			if(object.isResourceNode()){
-				inserts.put(Column.OBJECT.value(), assoc.getObject().asResource().toURI());
-				inserts.put(Column.TYPE.value(), ElementaryDataType.RESOURCE.toString());
-			}
-			else{
-				
-				ValueNode vNode = assoc.getObject().asValue();
-				
-				inserts.put(Column.TYPE.value(), vNode.getDataType().toString());
-				inserts.put(Column.OBJECT.value(), vNode.getStringValue());
-			}
-				
-			
-			TableOperations.insert(ctx.getConnectionProvider().getConnection(), ctx.getTable(), inserts);
+			ctx.getInsertBatch().add(assoc);
 		}
 	}
 
 	@Override
 	public boolean removeAssociation(final Statement assoc) {
-//		if(rdb.deleteAssoc(assoc)){
-//			return super.removeAssociation(assoc);
-//		}
-		return false;
+		if (!super.removeAssociation(assoc)) {
+			return false;
+		}
+		// drops a pending insert, in a group commit transaction the delete is sent on commit
+		ctx.getInsertBatch().delete(assoc);
+		return true;
 	}
 
 	@Override
 	protected void resolveAssociations() {
-		HashMap<String, String> conditions = new HashMap<String, String>();
-		conditions.put(Column.SUBJECT.value(), id.toURI());
-		ArrayList<Map<String, String>> stms = TableOperations.select(ctx.getConnectionProvider().getConnection(), ctx.getTable(), conditions);
-		for (Map<String, String> map : stms) {
-			ResourceID subject = SNOPS.id(new QualifiedName(map.get(Column.SUBJECT.value())));
-			ResourceID predicate = SNOPS.id(new QualifiedName(map.get(Column.PREDICATE.value())));
-			
-			String sObj = map.get(Column.OBJECT.value());
-			SemanticNode object = null;
-			
-			ElementaryDataType type = ElementaryDataType.valueOf(map.get(Column.TYPE.value().trim()));
-			
-			switch(type){
-				case RESOURCE:
-					QualifiedName qn = new QualifiedName(sObj);
-					ResourceID id = SNOPS.id(qn);
-					object = new SNResource(qn);
-					break;
-				case INTEGER:
-					object = new SNValue(type, new BigInteger(sObj));
-					break;
-				case DECIMAL:
-					object = new SNValue(type, new BigDecimal(sObj));
-					break;
-				case DATE:
-					object = new SNValue(type, new Date(Long.parseLong(sObj)));
-					break;
-				case BOOLEAN:
-					boolean b = false;
-					if(sObj.equals("1"))
-						b = true;
-					object = new SNValue(type, b);
-					break;
-				default:
-					object = new SNValue(type, sObj);
-					break;
-			}
-		}
+		resolver.resolve(this);
+	}
+
+	/**
+	 * Set the associations loaded by the {@link AssociationResolver}.
+	 */
+	void addResolved(Collection<Statement> statements) {
+		getAssociationsDirectly().addAll(statements);
+		markResolved();
+		loaded = true;
+		logger.debug("Resolved " + statements.size() + " associations of " + id);
+	}
+
+	/**
+	 * Remove an association, which has been deleted in the database already.
+	 */
+	void forget(Statement stmt) {
+		getAssociationsDirectly().remove(stmt);
+	}
 
+	/**
+	 * The resource has been deleted in the database, it has no associations anymore.
+	 */
+	void clear() {
+		getAssociationsDirectly().clear();
+		markResolved();
+		loaded = true;
 	}
 	
 
-}
\ No newline at end of file
+}
@@ -7,8 +7,16 @@ package org.arastreju.bindings.rdb;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Vector;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.arastreju.sge.eh.ArastrejuRuntimeException;
+import org.arastreju.sge.eh.ErrorCodes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,6 +26,14 @@ import org.slf4j.LoggerFactory;
  * </p>
  *
  * <p>
+ *  The pool is bounded: if all connections are in use {@link #getConnection()} blocks until one is
+ *  returned by {@link #close(Connection)}, or fails after the acquire timeout. Idle connections are
+ *  validated before they are handed out again, and closed after the max idle time by a background
+ *  thread, which also logs connections held longer than the leak threshold, with the thread which acquired them.
+ *  The stack trace of the acquiring code is only recorded if leak tracing is enabled, as it is costly.
+ * </p>
+ *
+ * <p>
  * 	Created 23.07.2012
  * </p>
  *
@@ -25,10 +41,20 @@ import org.slf4j.LoggerFactory;
  */
 
 public class RdbConnectionProvider {
-	
+
+	public static final long DEFAULT_ACQUIRE_TIMEOUT = 30000;
+	public static final long DEFAULT_MAX_IDLE_TIME = 10 * 60 * 1000;
+	public static final long DEFAULT_LEAK_THRESHOLD = 5 * 60 * 1000;
+
+	/**
+	 * Idle connections are validated if they have not been used for this time.
+	 */
+	private static final long VALIDATION_INTERVAL = 5000;
+	private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
 	private Logger logger = LoggerFactory
 			.getLogger(RdbConnectionProvider.class);
-	
+
 	private final String driver;
 	private final String user;
 	private final String pass;
@@ -36,12 +62,27 @@ public class RdbConnectionProvider {
 	private final String table;
 
 	private final int max_cons;
-	
-	private Vector<Connection> usedCons;
-	private Vector<Connection> cons;
-	
+
+	private final Semaphore permits;
+	private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<PooledConnection>();
+	private final Map<Connection, PooledConnection> used = new ConcurrentHashMap<Connection, PooledConnection>();
+
+	private volatile long acquireTimeout = DEFAULT_ACQUIRE_TIMEOUT;
+	private volatile long maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+	private volatile long leakThreshold = DEFAULT_LEAK_THRESHOLD;
+	private volatile boolean leakTracing;
+
+	private final AtomicLong acquired = new AtomicLong();
+	private final AtomicLong created = new AtomicLong();
+	private final AtomicLong waitTime = new AtomicLong();
+	private final AtomicLong timeouts = new AtomicLong();
+	private final AtomicLong leaks = new AtomicLong();
+
+	private final Thread housekeeper;
+	private volatile boolean shutdown;
+
 	// ----------------------------------------------------
-	
+
 	public RdbConnectionProvider(String driver, String user, String pass,
 			String url, String table, int max_cons) {
 		super();
@@ -51,74 +92,319 @@ public class RdbConnectionProvider {
 		this.url = url;
 		this.table = table;
 		this.max_cons = max_cons;
-		
-		usedCons = new Vector<Connection>();
-		cons = new Vector<Connection>();
+		this.permits = new Semaphore(max_cons, true);
+
+		loadDriver();
+
+		housekeeper = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while (!shutdown) {
+					try {
+						Thread.sleep(Math.max(1000, Math.min(maxIdleTime, leakThreshold) / 4));
+					} catch (InterruptedException e) {
+						return;
+					}
+					evictIdle();
+					detectLeaks();
+				}
+			}
+		}, "arastreju-rdb-pool-" + table);
+		housekeeper.setDaemon(true);
+		housekeeper.start();
 	}
-	
+
 	// ----------------------------------------------------
-	
+
+	/**
+	 * Get a connection from the pool, which has to be returned by {@link #close(Connection)}.
+	 * Blocks while all connections are in use.
+	 * @return A valid connection.
+	 * @throws ArastrejuRuntimeException if no connection got available within the acquire timeout.
+	 */
 	public Connection getConnection() {
-		Connection con = null;
-		if (usedSize()+poolSize()+1 > max_cons) {
-			logger.info("maximun is reached! "+getLogInfo());
-			return con;
-		} else if (cons.size() > 0) {
-			con = cons.lastElement();
-			cons.remove(con);
-			usedCons.add(con);
-			logger.debug("returned pooled connection "+getLogInfo());
-			return con;
+		if (shutdown) {
+			throw new IllegalStateException("Connection pool has been shut down.");
+		}
+		final long start = System.nanoTime();
+		try {
+			if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+				timeouts.incrementAndGet();
+				throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR,
+						"No connection available within " + acquireTimeout + "ms " + getLogInfo());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "Interrupted while waiting for a connection.", e);
+		} finally {
+			waitTime.addAndGet(System.nanoTime() - start);
+		}
+		try {
+			PooledConnection pooled = nextValidIdle();
+			if (pooled == null) {
+				pooled = new PooledConnection(createCon());
+				logger.info("Connection created " + getLogInfo());
+			} else {
+				logger.debug("returned pooled connection "+getLogInfo());
+			}
+			pooled.acquire(leakTracing);
+			used.put(pooled.con, pooled);
+			acquired.incrementAndGet();
+			return pooled.con;
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
 		}
-		con = createCon();
-		usedCons.addElement(con);
-		logger.info("Connection created " + getLogInfo());
-		return con;
 	}
 
+	/**
+	 * Return a connection to the pool. Closed connections are discarded.
+	 * @param con The connection obtained by {@link #getConnection()}.
+	 */
 	public void close(Connection con) {
-		usedCons.remove(con);
-		cons.add(con);
+		if (con == null) {
+			return;
+		}
+		final PooledConnection pooled = used.remove(con);
+		if (pooled == null) {
+			logger.warn("Returned connection does not belong to the pool " + getLogInfo());
+			return;
+		}
+		if (shutdown || isClosed(con)) {
+			closeQuietly(con);
+		} else {
+			pooled.release();
+			idle.addFirst(pooled);
+		}
+		permits.release();
 		logger.debug("Connection pooled " + getLogInfo());
 	}
 
-	private Connection createCon() {
+	/**
+	 * Close all idle connections and stop pooling. Connections still in use are closed when they are returned.
+	 */
+	public void shutdown() {
+		shutdown = true;
+		housekeeper.interrupt();
+		PooledConnection pooled;
+		while ((pooled = idle.pollFirst()) != null) {
+			closeQuietly(pooled.con);
+		}
+		logger.info("Connection pool shut down " + getLogInfo());
+	}
 
-		Connection con = null;
+	// -- CONFIGURATION -----------------------------------
 
-		try {
-			Class.forName(driver);
-			con = DriverManager.getConnection(url, user, pass);
-			con.setAutoCommit(true);
-		} catch (ClassNotFoundException e) {
-			System.out.println("cant load driver "+driver);
-			logger.debug("Cann't load Driver "+driver);
-		} catch (SQLException e) {
-			e.printStackTrace();
-		}
-		return con;
+	/**
+	 * @param millis The maximum time to wait for a connection.
+	 */
+	public void setAcquireTimeout(long millis) {
+		this.acquireTimeout = millis;
+	}
 
+	/**
+	 * @param millis Idle connections are closed after this time.
+	 */
+	public void setMaxIdleTime(long millis) {
+		this.maxIdleTime = millis;
 	}
 
-	private String getLogInfo() {
-		return "[used:" + usedCons.size() + ",pooled:" + cons.size() + ",max:"
-				+ max_cons + "]";
+	/**
+	 * @param millis Connections held longer are reported as possible leaks.
+	 */
+	public void setLeakThreshold(long millis) {
+		this.leakThreshold = millis;
 	}
 
+	/**
+	 * @param enabled If true the stack trace of each acquire is recorded and logged with a possible leak.
+	 */
+	public void setLeakTracing(boolean enabled) {
+		this.leakTracing = enabled;
+	}
+
+	// -- METRICS -----------------------------------------
+
 	public int maxSize() {
 		return max_cons;
 	}
 
+	/**
+	 * @return The number of connections in use.
+	 */
 	public int usedSize() {
-		return usedCons.size();
+		return used.size();
 	}
 
+	/**
+	 * @return The number of idle connections.
+	 */
 	public int poolSize() {
-		return cons.size();
+		return idle.size();
 	}
-	
+
+	/**
+	 * @return The number of threads waiting for a connection.
+	 */
+	public int waitingSize() {
+		return permits.getQueueLength();
+	}
+
+	/**
+	 * @return The number of connections handed out since creation of the pool.
+	 */
+	public long getAcquiredCount() {
+		return acquired.get();
+	}
+
+	/**
+	 * @return The number of physical connections opened since creation of the pool.
+	 */
+	public long getCreatedCount() {
+		return created.get();
+	}
+
+	/**
+	 * @return The total time in milliseconds threads have waited for a connection.
+	 */
+	public long getWaitTime() {
+		return TimeUnit.NANOSECONDS.toMillis(waitTime.get());
+	}
+
+	/**
+	 * @return The number of requests failed because of the acquire timeout.
+	 */
+	public long getTimeoutCount() {
+		return timeouts.get();
+	}
+
+	/**
+	 * @return The number of connections detected to be held longer than the leak threshold.
+	 */
+	public long getLeakCount() {
+		return leaks.get();
+	}
+
 	public String getTable(){
 		return table;
 	}
-	
+
+	// ----------------------------------------------------
+
+	private PooledConnection nextValidIdle() {
+		PooledConnection pooled;
+		while ((pooled = idle.pollFirst()) != null) {
+			if (System.currentTimeMillis() - pooled.lastUsed < VALIDATION_INTERVAL || isValid(pooled.con)) {
+				return pooled;
+			}
+			logger.info("Discarding invalid connection " + getLogInfo());
+			closeQuietly(pooled.con);
+		}
+		return null;
+	}
+
+	/**
+	 * Close the connections idle for longer than the max idle time, the least recently used are at the end.
+	 */
+	private void evictIdle() {
+		final long now = System.currentTimeMillis();
+		PooledConnection pooled;
+		while ((pooled = idle.pollLast()) != null) {
+			if (now - pooled.lastUsed < maxIdleTime) {
+				idle.addLast(pooled);
+				return;
+			}
+			closeQuietly(pooled.con);
+			logger.debug("Evicted idle connection " + getLogInfo());
+		}
+	}
+
+	private void detectLeaks() {
+		final long now = System.currentTimeMillis();
+		for (PooledConnection pooled : used.values()) {
+			if (!pooled.reported && now - pooled.acquiredAt > leakThreshold) {
+				pooled.reported = true;
+				leaks.incrementAndGet();
+				logger.warn("Connection held for " + (now - pooled.acquiredAt) + "ms by thread '" + pooled.acquiredIn
+						+ "', possible leak " + getLogInfo(), pooled.acquiredBy);
+			}
+		}
+	}
+
+	private void loadDriver() {
+		try {
+			Class.forName(driver);
+		} catch (ClassNotFoundException e) {
+			logger.error("Cann't load Driver "+driver);
+		}
+	}
+
+	private Connection createCon() {
+		try {
+			final Connection con = DriverManager.getConnection(url, user, pass);
+			con.setAutoCommit(true);
+			created.incrementAndGet();
+			return con;
+		} catch (SQLException e) {
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "Could not connect to " + url, e);
+		}
+	}
+
+	private boolean isValid(Connection con) {
+		try {
+			return con.isValid(VALIDATION_TIMEOUT_SECONDS);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private boolean isClosed(Connection con) {
+		try {
+			return con.isClosed();
+		} catch (SQLException e) {
+			return true;
+		}
+	}
+
+	private void closeQuietly(Connection con) {
+		try {
+			con.close();
+		} catch (SQLException e) {
+			logger.debug("Error on closing connection: " + e.getMessage());
+		}
+	}
+
+	private String getLogInfo() {
+		return "[used:" + usedSize() + ",pooled:" + poolSize() + ",waiting:" + waitingSize() + ",max:"
+				+ max_cons + "]";
+	}
+
+	// ----------------------------------------------------
+
+	private static class PooledConnection {
+
+		private final Connection con;
+		private volatile long lastUsed = System.currentTimeMillis();
+		private volatile long acquiredAt;
+		private volatile String acquiredIn;
+		private volatile Throwable acquiredBy;
+		private volatile boolean reported;
+
+		private PooledConnection(Connection con) {
+			this.con = con;
+		}
+
+		private void acquire(boolean trace) {
+			acquiredAt = System.currentTimeMillis();
+			acquiredIn = Thread.currentThread().getName();
+			acquiredBy = trace ? new Throwable("Connection acquired here") : null;
+			reported = false;
+		}
+
+		private void release() {
+			lastUsed = System.currentTimeMillis();
+			acquiredBy = null;
+		}
+	}
+
 }
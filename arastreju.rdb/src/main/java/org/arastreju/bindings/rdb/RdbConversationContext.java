@@ -3,6 +3,11 @@
  */
 package org.arastreju.bindings.rdb;
 
+import java.sql.Connection;
+
+import org.arastreju.bindings.rdb.jdbc.InsertBatch;
+import org.arastreju.bindings.rdb.jdbc.Schema;
+import org.arastreju.bindings.rdb.query.RdbQueryResult;
 import org.arastreju.bindings.rdb.tx.JdbcTxProvider;
 import org.arastreju.sge.context.Context;
 import org.arastreju.sge.persistence.TxProvider;
@@ -22,43 +27,139 @@ import org.arastreju.sge.spi.abstracts.AbstractConversationContext;
 public class RdbConversationContext extends AbstractConversationContext {
 	
 	private RdbConnectionProvider connectionProvider;
-	private String table;
+	private final Schema schema;
 	private Cache cache = new Cache();
+	private final InsertBatch insertBatch;
+	private final int prefetch;
+	private final int fetchSize;
+	private final StatementCache statementCache;
+	private final JdbcTxProvider txProvider;
+	
+	private Connection txConnection;
 	
 	// ----------------------------------------------------
 	
-	public RdbConversationContext(RdbConnectionProvider connectionProvider, String table) {
-		this.connectionProvider = connectionProvider;
-		this.table=table;
+	public RdbConversationContext(RdbGate gate) {
+		this.connectionProvider = gate.getConnectionProvider();
+		this.schema = gate.getSchema();
+		this.statementCache = gate.getStatementCache();
+		this.insertBatch = new InsertBatch(connectionProvider, schema, statementCache, gate.getBatchSize());
+		this.prefetch = gate.getPrefetch();
+		this.fetchSize = gate.getFetchSize();
+		this.txProvider = new JdbcTxProvider(this, gate.getGroupCommit());
 	}
 
-    public RdbConversationContext(RdbConnectionProvider connectionProvider, String table,
-                                  Context primaryContext, Context... readContexts) {
+    public RdbConversationContext(RdbGate gate, Context primaryContext, Context... readContexts) {
         super(primaryContext, readContexts);
-        this.connectionProvider = connectionProvider;
-        this.table=table;
+        this.connectionProvider = gate.getConnectionProvider();
+        this.schema = gate.getSchema();
+        this.statementCache = gate.getStatementCache();
+        this.insertBatch = new InsertBatch(connectionProvider, schema, statementCache, gate.getBatchSize());
+        this.prefetch = gate.getPrefetch();
+        this.fetchSize = gate.getFetchSize();
+        this.txProvider = new JdbcTxProvider(this, gate.getGroupCommit());
     }
 	
 	// ----------------------------------------------------
 	
 	@Override
 	public TxProvider getTxProvider() {
-		return new JdbcTxProvider();
+		return txProvider;
 	}
 
 	@Override
 	protected void clearCaches() {
+		try {
+			insertBatch.close();
+		} finally {
+			cache.clear();
+		}
+	}
+	
+	/**
+	 * Pending inserts are sent in batches, see {@link InsertBatch}.
+	 * Outside of a transaction they are sent when the batch is full or before the next read.
+	 */
+	public InsertBatch getInsertBatch() {
+		return insertBatch;
+	}
+	
+	/**
+	 * @return The maximum number of neighbours loaded with a resource, see {@link AssociationResolver}.
+	 */
+	public int getPrefetch() {
+		return prefetch;
+	}
+	
+	/**
+	 * @return The number of rows fetched at once while iterating a query result, see {@link RdbQueryResult}.
+	 */
+	public int getFetchSize() {
+		return fetchSize;
 	}
 	
 	public RdbConnectionProvider getConnectionProvider() {
 		return connectionProvider;
 	}
 	
-	public String getTable(){
-		return table;
+	public Schema getSchema(){
+		return schema;
+	}
+	
+	/**
+	 * @return The statements cached for all conversations of the gate.
+	 */
+	public StatementCache getStatementCache() {
+		return statementCache;
 	}
 	
 	public Cache getCache(){
 		return cache;
 	}
+	
+	// -- CONNECTIONS -------------------------------------
+	
+	/**
+	 * Get the connection for reading and writing. Within a transaction this is the connection of the
+	 * transaction, so uncommitted statements are visible, otherwise a connection of the pool.
+	 * @return The connection, to be returned by {@link #close(Connection)}.
+	 */
+	public Connection getConnection() {
+		if (txConnection != null) {
+			return txConnection;
+		}
+		return connectionProvider.getConnection();
+	}
+	
+	/**
+	 * Return a connection obtained by {@link #getConnection()}.
+	 */
+	public void close(Connection con) {
+		if (con != txConnection) {
+			connectionProvider.close(con);
+		}
+	}
+	
+	/**
+	 * @return true if this conversation reads and writes on the connection of a transaction.
+	 */
+	public boolean isBound() {
+		return txConnection != null;
+	}
+	
+	/**
+	 * Bind the conversation to the connection of a transaction.
+	 */
+	public void bind(Connection con) {
+		this.txConnection = con;
+		insertBatch.bind(con);
+	}
+	
+	/**
+	 * Release the connection of a finished transaction.
+	 */
+	public void unbind() {
+		this.txConnection = null;
+		insertBatch.bind(null);
+	}
 }
@@ -17,36 +17,54 @@ package org.arastreju.bindings.rdb;
  */
 
 
+import org.arastreju.bindings.rdb.jdbc.Schema;
+import org.arastreju.bindings.rdb.tx.GroupCommit;
 import org.arastreju.sge.ModelingConversation;
 import org.arastreju.sge.Organizer;
 import org.arastreju.sge.context.Context;
 import org.arastreju.sge.context.DomainIdentifier;
 import org.arastreju.sge.spi.abstracts.AbstractArastrejuGate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class RdbGate extends AbstractArastrejuGate {
 
+	private final Logger logger = LoggerFactory.getLogger(RdbGate.class);
+
 	private RdbConnectionProvider connectionProvider;
+	private final Schema schema;
+	private final int batchSize;
+	private final int prefetch;
+	private final int fetchSize;
+	private final StatementCache statementCache;
+	private final GroupCommit groupCommit;
 	
 	// ----------------------------------------------------
 	
-	protected RdbGate(RdbConnectionProvider connectionProvider, DomainIdentifier identifier) {
+	protected RdbGate(RdbConnectionProvider connectionProvider, DomainIdentifier identifier, Schema schema,
+			int batchSize, int prefetch, int fetchSize, int maxCachedStatements, boolean groupCommit) {
 		super(identifier);
 		this.connectionProvider = connectionProvider;
+		this.schema = schema;
+		this.batchSize = batchSize;
+		this.prefetch = prefetch;
+		this.fetchSize = fetchSize;
+		this.statementCache = new StatementCache(maxCachedStatements);
+		this.groupCommit = groupCommit ? new GroupCommit(connectionProvider) : null;
 	}
 	
 	// ----------------------------------------------------
 	
 	@Override
 	public ModelingConversation startConversation() {
-		RdbConversationContext ctx = new RdbConversationContext(connectionProvider,getDomainIdentifier().getStorage());
+		RdbConversationContext ctx = new RdbConversationContext(this);
 		initContext(ctx);
 		return new RdbModelingConversation(ctx);
 	}
 
     @Override
     public ModelingConversation startConversation(Context primary, Context... readContexts) {
-        RdbConversationContext ctx = new RdbConversationContext(connectionProvider, getDomainIdentifier().getStorage(),
-                primary, readContexts);
+        RdbConversationContext ctx = new RdbConversationContext(this, primary, readContexts);
         return new RdbModelingConversation(ctx);
     }
 
@@ -56,10 +74,44 @@ public class RdbGate extends AbstractArastrejuGate {
 		return null;
 	}
 
+	RdbConnectionProvider getConnectionProvider() {
+		return connectionProvider;
+	}
+
+	Schema getSchema() {
+		return schema;
+	}
+
+	int getBatchSize() {
+		return batchSize;
+	}
+
+	int getPrefetch() {
+		return prefetch;
+	}
+
+	int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * @return The second level cache shared by the conversations of this gate.
+	 */
+	public StatementCache getStatementCache() {
+		return statementCache;
+	}
+
+	/**
+	 * @return The group commit of all conversations, or null if each transaction commits itself.
+	 */
+	public GroupCommit getGroupCommit() {
+		return groupCommit;
+	}
+
 	@Override
 	public void close() {
-		// TODO Auto-generated method stub
-
+		logger.info("Closing gate, " + statementCache);
+		connectionProvider.shutdown();
 	}
 
 }
@@ -19,6 +19,11 @@ package org.arastreju.bindings.rdb;
 import java.sql.Connection;
 
 import org.arastreju.bindings.rdb.jdbc.DBOperations;
+import org.arastreju.bindings.rdb.jdbc.Dialect;
+import org.arastreju.bindings.rdb.jdbc.InsertBatch;
+import org.arastreju.bindings.rdb.jdbc.LegacyMigration;
+import org.arastreju.bindings.rdb.jdbc.Schema;
+import org.arastreju.bindings.rdb.query.RdbQueryResult;
 import org.arastreju.sge.ArastrejuGate;
 import org.arastreju.sge.ArastrejuProfile;
 import org.arastreju.sge.context.DomainIdentifier;
@@ -32,7 +37,19 @@ public class RdbGateFactory extends ArastrejuGateFactory {
 	private final String USER = "org.arastreju.bindings.rdb.dbUser";
 	private final String PASS = "org.arastreju.bindings.rdb.dbPass";
 	private final String PROTOCOL = "org.arastreju.bindings.rdb.protocol";
-	private final int MAX_CONNECTIONS = 10;
+	private final String EMBEDDED = "org.arastreju.bindings.rdb.embedded";
+	private final String BATCH_SIZE = "org.arastreju.bindings.rdb.batchSize";
+	private final String PREFETCH = "org.arastreju.bindings.rdb.prefetch";
+	private final String FETCH_SIZE = "org.arastreju.bindings.rdb.query.fetchSize";
+	private final String CACHE_MAX_STATEMENTS = "org.arastreju.bindings.rdb.cache.maxStatements";
+	private final String GROUP_COMMIT = "org.arastreju.bindings.rdb.tx.groupCommit";
+	private final String MAX_CONNECTIONS = "org.arastreju.bindings.rdb.pool.maxConnections";
+	private final String ACQUIRE_TIMEOUT = "org.arastreju.bindings.rdb.pool.acquireTimeout";
+	private final String MAX_IDLE_TIME = "org.arastreju.bindings.rdb.pool.maxIdleTime";
+	private final String LEAK_THRESHOLD = "org.arastreju.bindings.rdb.pool.leakThreshold";
+	private final String LEAK_TRACING = "org.arastreju.bindings.rdb.pool.leakTracing";
+	private final int DEFAULT_MAX_CONNECTIONS = 10;
+	private final String DEFAULT_DB = "arasDB";
 	
 	// ----------------------------------------------------
 	
@@ -49,20 +66,65 @@ public class RdbGateFactory extends ArastrejuGateFactory {
 		
 		ArastrejuProfile profile = getProfile();
 		
+		String driver = profile.getProperty(DRIVER);
+		String user = profile.getProperty(USER);
+		String pass = profile.getProperty(PASS);
+		String url;
+		EmbeddedDatabase embedded = EmbeddedDatabase.forName(profile.getProperty(EMBEDDED));
+		if (embedded != null) {
+			if (driver == null) {
+				driver = embedded.driver();
+			}
+			if (user == null) {
+				user = embedded.user();
+				pass = "";
+			}
+			String db = profile.getProperty(DB) != null ? profile.getProperty(DB) : DEFAULT_DB;
+			url = embedded.url(profile.getProperty(ArastrejuProfile.ARAS_STORE_DIRECTORY), db);
+		} else {
+			url = profile.getProperty(PROTOCOL)+profile.getProperty(DB);
+		}
+		
 		RdbConnectionProvider provider = new RdbConnectionProvider(
-				profile.getProperty(DRIVER),
-				profile.getProperty(USER),
-				profile.getProperty(PASS),
-				profile.getProperty(PROTOCOL)+profile.getProperty(DB),
+				driver,
+				user,
+				pass,
+				url,
 				storageName,
-				MAX_CONNECTIONS);
+				(int) longProperty(MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS));
+		provider.setAcquireTimeout(longProperty(ACQUIRE_TIMEOUT, RdbConnectionProvider.DEFAULT_ACQUIRE_TIMEOUT));
+		provider.setMaxIdleTime(longProperty(MAX_IDLE_TIME, RdbConnectionProvider.DEFAULT_MAX_IDLE_TIME));
+		provider.setLeakThreshold(longProperty(LEAK_THRESHOLD, RdbConnectionProvider.DEFAULT_LEAK_THRESHOLD));
+		provider.setLeakTracing(Boolean.parseBoolean(profile.getProperty(LEAK_TRACING)));
+		
+		int batchSize = (int) longProperty(BATCH_SIZE, InsertBatch.DEFAULT_BATCH_SIZE);
+		int prefetch = (int) longProperty(PREFETCH, AssociationResolver.DEFAULT_PREFETCH);
+		int fetchSize = (int) longProperty(FETCH_SIZE, RdbQueryResult.DEFAULT_FETCH_SIZE);
+		int maxCachedStatements = (int) longProperty(CACHE_MAX_STATEMENTS, StatementCache.DEFAULT_MAX_STATEMENTS);
+		boolean groupCommit = Boolean.parseBoolean(profile.getProperty(GROUP_COMMIT));
 		
+		Schema schema;
 		Connection con = provider.getConnection();
-		if(!DBOperations.tableExists(con, storageName))
-			DBOperations.createTable(con, storageName);
-		provider.close(con);
+		try {
+			schema = new Schema(storageName, Dialect.of(con));
+			if(!DBOperations.tableExists(con, schema.statements()))
+				DBOperations.createSchema(con, schema);
+			new LegacyMigration(provider, schema, batchSize).migrate(con);
+		} finally {
+			provider.close(con);
+		}
 		
-		return new RdbGate(provider, identifier);
+		return new RdbGate(provider, identifier, schema, batchSize, prefetch, fetchSize, maxCachedStatements, groupCommit);
+	}
+	
+	// ----------------------------------------------------
+	
+	private long longProperty(String key, long defaultValue) {
+		final String value = getProfile().getProperty(key);
+		if (value == null || value.trim().length() == 0) {
+			return defaultValue;
+		}
+		return Long.parseLong(value.trim());
 	}
 
 }
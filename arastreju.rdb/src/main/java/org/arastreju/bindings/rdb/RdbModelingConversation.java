@@ -16,21 +16,30 @@ package org.arastreju.bindings.rdb;
  */
 
 import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Set;
 
-import de.lichtflut.infra.exceptions.NotYetImplementedException;
+import org.arastreju.bindings.rdb.jdbc.InsertBatch;
+import org.arastreju.bindings.rdb.jdbc.NodeCodec;
+import org.arastreju.bindings.rdb.jdbc.TableOperations;
+import org.arastreju.bindings.rdb.query.RdbQueryBuilder;
+import org.arastreju.sge.SNOPS;
 import org.arastreju.sge.model.ResourceID;
 import org.arastreju.sge.model.Statement;
 import org.arastreju.sge.model.associations.AssociationKeeper;
 import org.arastreju.sge.model.nodes.ResourceNode;
 import org.arastreju.sge.model.nodes.SNResource;
 import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.persistence.ResourceResolver;
 import org.arastreju.sge.query.Query;
 import org.arastreju.sge.spi.abstracts.AbstractModelingConversation;
 
-public class RdbModelingConversation extends AbstractModelingConversation {
+public class RdbModelingConversation extends AbstractModelingConversation implements ResourceResolver {
 
 	private RdbConversationContext context;
+	private final AssociationResolver associationResolver;
 	private Field assocKeeperField;
 	
 	// ----------------------------------------------------
@@ -38,6 +47,7 @@ public class RdbModelingConversation extends AbstractModelingConversation {
 	public RdbModelingConversation(RdbConversationContext conversationContext) {
 		super(conversationContext);
 		context = conversationContext;
+		associationResolver = new AssociationResolver(conversationContext, this, conversationContext.getPrefetch());
 		try {
 			assocKeeperField = SNResource.class.getDeclaredField("associationKeeper");
 			assocKeeperField.setAccessible(true);
@@ -53,40 +63,44 @@ public class RdbModelingConversation extends AbstractModelingConversation {
 	
 	@Override
 	public Query createQuery() {
-		// TODO Auto-generated method stub
-		return null;
+		return new RdbQueryBuilder(context, this, associationResolver);
 	}
 
+	/**
+	 * A resource exists, if it is the subject of at least one statement.
+	 */
 	@Override
 	public ResourceNode findResource(QualifiedName qn) {
-		// TODO Auto-generated method stub
-		return null;
+		final ResourceNode node = resolve(SNOPS.id(qn));
+		if (node.getAssociations().isEmpty()) {
+			return null;
+		}
+		return node;
 	}
 
 	@Override
 	public ResourceNode resolve(ResourceID resourceID) {
-		// TODO Auto-generated method stub
-		return null;
+		if (resourceID instanceof ResourceNode) {
+			final ResourceNode node = (ResourceNode) resourceID;
+			attach(node);
+			return node;
+		}
+		final QualifiedName qn = resourceID.getQualifiedName();
+		final SNResource node = new SNResource(qn);
+		setAssociationKeeper(node, getKeeper(qn));
+		return node;
 	}
 
 	@Override
 	public void attach(ResourceNode node) {
 		if(node.isAttached())
 			return;
-		if(context.getCache().contains(node.getQualifiedName()));
-			//merge
-		else{
-			Set<Statement> copy = node.getAssociations();
-			RdbAssosiationKeeper keeper = new RdbAssosiationKeeper(node, context);
-			setAssociationKeeper(node, keeper);
-
-			for (Statement smt : copy) {
-				keeper.addAssociation(smt);
-			}
-
-			context.getCache().add(node.getQualifiedName(), keeper);
+		final Set<Statement> copy = new HashSet<Statement>(node.getAssociations());
+		final AssociationKeeper keeper = getKeeper(node.getQualifiedName());
+		setAssociationKeeper(node, keeper);
+		for (Statement smt : copy) {
+			keeper.addAssociation(smt);
 		}
-			
 	}
 
 	@Override
@@ -101,10 +115,30 @@ public class RdbModelingConversation extends AbstractModelingConversation {
 
 	}
 
+	/**
+	 * Delete all statements of the resource and all statements referring to it with two deletes,
+	 * instead of one per statement. The nodes of this conversation are updated accordingly.
+	 */
 	@Override
 	public void remove(ResourceID id) {
-		// TODO Auto-generated method stub
-
+		final QualifiedName qn = id.getQualifiedName();
+		final Set<Statement> incoming = findIncomingStatements(id);
+		final InsertBatch batch = context.getInsertBatch();
+		// drops pending inserts, in a group commit transaction the deletes are sent on commit
+		batch.deleteResource(NodeCodec.id(qn));
+		for (Statement stmt : incoming) {
+			final QualifiedName subject = stmt.getSubject().getQualifiedName();
+			final RdbAssosiationKeeper keeper = (RdbAssosiationKeeper) context.getCache().get(subject);
+			if (keeper != null) {
+				keeper.forget(stmt);
+			}
+			batch.deleted(NodeCodec.id(subject));
+		}
+		final RdbAssosiationKeeper keeper = (RdbAssosiationKeeper) context.getCache().get(qn);
+		if (keeper != null) {
+			keeper.clear();
+			context.getCache().remove(qn);
+		}
 	}
 
 	@Override
@@ -113,6 +147,28 @@ public class RdbModelingConversation extends AbstractModelingConversation {
 
 	}
 	
+	/**
+	 * Load the associations of several resources at once, instead of one query per resource.
+	 * @param ids The resources to be resolved.
+	 */
+	public void prefetch(Collection<? extends ResourceID> ids) {
+		associationResolver.resolve(ids);
+	}
+	
+	// ----------------------------------------------------
+	
+	/**
+	 * The keepers are shared by all nodes of the same resource in this conversation.
+	 */
+	private AssociationKeeper getKeeper(final QualifiedName qn) {
+		AssociationKeeper keeper = context.getCache().get(qn);
+		if (keeper == null) {
+			keeper = new RdbAssosiationKeeper(SNOPS.id(qn), context, associationResolver);
+			context.getCache().add(qn, keeper);
+		}
+		return keeper;
+	}
+	
 	private void setAssociationKeeper(final ResourceNode node,
 			final AssociationKeeper ak) {
 		final ResourceNode resource = node.asResource();
@@ -128,9 +184,19 @@ public class RdbModelingConversation extends AbstractModelingConversation {
 		}
 	}
 
+    /**
+     * Uses the index on the object column, see {@link TableOperations#selectIncoming}.
+     */
     @Override
     public Set<Statement> findIncomingStatements(ResourceID object) {
-        throw new NotYetImplementedException();
+        // pending inserts have to be visible
+        context.getInsertBatch().flush();
+        final Connection con = context.getConnection();
+        try {
+            return new HashSet<Statement>(TableOperations.selectIncoming(con, context.getSchema(), object));
+        } finally {
+            context.close(con);
+        }
     }
 
 }
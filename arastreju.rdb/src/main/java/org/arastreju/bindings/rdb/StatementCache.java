@@ -0,0 +1,225 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.arastreju.sge.model.Statement;
+
+/**
+ * <p>
+ *  Second level cache of one gate, shared by all it's conversations: the statements loaded for a subject,
+ *  keyed by the node id of the subject. The statements are detached, each conversation resolves the objects
+ *  itself, so frequently used nodes, e.g. of the ontology, are loaded only once from the database.
+ * </p>
+ *
+ * <p>
+ *  The cache is bounded by the total number of statements. It is divided into segments, each an LRU map
+ *  guarded by it's own lock, the least recently used subjects of a segment are evicted first.
+ * </p>
+ *
+ * <p>
+ *  Subjects are invalidated when statements are written for them. To prevent a conversation from caching
+ *  statements read before a concurrent write, {@link #put(long, List, long)} is ignored if there has been
+ *  any invalidation since the given stamp.
+ * </p>
+ */
+public class StatementCache {
+
+	public static final int DEFAULT_MAX_STATEMENTS = 100000;
+
+	private static final int SEGMENTS = 16;
+
+	private final Segment[] segments = new Segment[SEGMENTS];
+
+	private final AtomicLong invalidations = new AtomicLong();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param maxStatements The maximum number of statements kept, 0 disables the cache.
+	 */
+	public StatementCache(int maxStatements) {
+		final int segmentWeight = maxStatements / SEGMENTS;
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment(segmentWeight);
+		}
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param subject The node id of the subject.
+	 * @return The statements of the subject or null if not cached.
+	 */
+	public List<Statement> get(long subject) {
+		final List<Statement> result = segment(subject).get(subject);
+		if (result != null) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+		}
+		return result;
+	}
+
+	/**
+	 * @return The stamp to be passed to {@link #put(long, List, long)}, to be taken before reading from the database.
+	 */
+	public long stamp() {
+		return invalidations.get();
+	}
+
+	/**
+	 * Cache the statements of a subject, unless any subject has been invalidated since the stamp was taken.
+	 * @param subject The node id of the subject.
+	 * @param statements The statements of the subject, not to be modified afterwards.
+	 * @param stamp The stamp taken before the statements have been read.
+	 */
+	public void put(long subject, List<Statement> statements, long stamp) {
+		if (stamp != invalidations.get()) {
+			return;
+		}
+		segment(subject).put(subject, Collections.unmodifiableList(statements), stamp);
+	}
+
+	/**
+	 * Remove a subject, whose statements have been changed.
+	 * @param subject The node id of the subject.
+	 */
+	public void invalidate(long subject) {
+		invalidations.incrementAndGet();
+		segment(subject).remove(subject);
+	}
+
+	/**
+	 * Remove all subjects.
+	 */
+	public void clear() {
+		invalidations.incrementAndGet();
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	// -- STATISTICS --------------------------------------
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	public long getInvalidationCount() {
+		return invalidations.get();
+	}
+
+	/**
+	 * @return The number of subjects cached.
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * @return The number of statements cached.
+	 */
+	public long weight() {
+		long weight = 0;
+		for (Segment segment : segments) {
+			weight += segment.weight();
+		}
+		return weight;
+	}
+
+	@Override
+	public String toString() {
+		return "StatementCache[subjects:" + size() + ",statements:" + weight() + ",hits:" + hits + ",misses:" + misses
+				+ ",evictions:" + evictions + ",invalidations:" + invalidations + "]";
+	}
+
+	// ----------------------------------------------------
+
+	private Segment segment(long subject) {
+		final int hash = (int) (subject ^ (subject >>> 32));
+		return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+	}
+
+	// ----------------------------------------------------
+
+	private class Segment {
+
+		private final int maxWeight;
+
+		private final LinkedHashMap<Long, List<Statement>> map = new LinkedHashMap<Long, List<Statement>>(64, 0.75f, true);
+
+		private long weight;
+
+		private Segment(int maxWeight) {
+			this.maxWeight = maxWeight;
+		}
+
+		private synchronized List<Statement> get(long subject) {
+			return map.get(subject);
+		}
+
+		private synchronized void put(long subject, List<Statement> statements, long stamp) {
+			// an empty list is cached as well, it's weight is one
+			final int size = Math.max(1, statements.size());
+			if (size > maxWeight || stamp != invalidations.get()) {
+				return;
+			}
+			final List<Statement> previous = map.put(subject, statements);
+			if (previous != null) {
+				weight -= Math.max(1, previous.size());
+			}
+			weight += size;
+			final Iterator<List<Statement>> it = map.values().iterator();
+			while (weight > maxWeight && it.hasNext()) {
+				weight -= Math.max(1, it.next().size());
+				it.remove();
+				evictions.incrementAndGet();
+			}
+		}
+
+		private synchronized void remove(long subject) {
+			final List<Statement> previous = map.remove(subject);
+			if (previous != null) {
+				weight -= Math.max(1, previous.size());
+			}
+		}
+
+		private synchronized void clear() {
+			map.clear();
+			weight = 0;
+		}
+
+		private synchronized int size() {
+			return map.size();
+		}
+
+		private synchronized long weight() {
+			return weight;
+		}
+	}
+
+}
@@ -5,7 +5,8 @@ package org.arastreju.bindings.rdb.jdbc;
 
 /**
  * <p>
- *  [DESCRIPTION]
+ *  The columns of the statement and node tables, see {@link Schema}.
+ *  The type column only exists in the statement table of the original schema.
  * </p>
  *
  * <p>
@@ -20,7 +21,14 @@ public enum Column {
 	SUBJECT("sub"),
 	PREDICATE("pre"),
 	OBJECT("obj"),
-	TYPE("type");
+	CONTEXT("ctx"),
+	TYPE("type"),
+	ID("id"),
+	KIND("kind"),
+	LOCALE("locale"),
+	VALUE("val"),
+	LONG_VALUE("lval"),
+	NUMBER("num");
 	
 	private final String val;
 	
@@ -32,4 +40,17 @@ public enum Column {
 		return val;
 	}
 	
+	/**
+	 * @param value The column name.
+	 * @return The column with the given name.
+	 */
+	public static Column forValue(String value){
+		for (Column column : values()) {
+			if (column.val.equals(value)) {
+				return column;
+			}
+		}
+		throw new IllegalArgumentException("Unknown column: " + value);
+	}
+	
 }
@@ -6,6 +6,7 @@ package org.arastreju.bindings.rdb.jdbc;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -26,53 +27,80 @@ import org.arastreju.sge.eh.ErrorCodes;
 
 public class DBOperations {
 	
-	public static void createTable(Connection con, String tableName){
-		
-		String fieldType = "varchar(255)";
-		String ws = " ";
-		String de = ", ";
-		StringBuilder sb = new StringBuilder("CREATE TABLE ");
-		sb.append(tableName);
-		sb.append('(');
-		sb.append(ws);
-		
-		for(Column col : Column.values()){
-			sb.append(col.value());
-			sb.append(ws);
-			sb.append(fieldType);
-			sb.append(de);
+	/**
+	 * Create the tables and indexes of the given schema.
+	 */
+	public static void createSchema(Connection con, Schema schema){
+		Statement smt = null;
+		try {
+			smt = con.createStatement();
+			for (String ddl : schema.createStatements()) {
+				smt.execute(ddl);
+			}
+		} catch (SQLException e) {
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL Error:"+e.getMessage(), e);
+		} finally {
+			close(smt);
 		}
-		
-		sb.setCharAt(sb.length()-1, ';');
-		sb.setCharAt(sb.length()-2, ')');
-		
-		System.out.println(sb.toString());
-		
+	}
+	
+	public static void renameTable(Connection con, Dialect dialect, String from, String to){
+		Statement smt = null;
 		try {
-			Statement smt = con.createStatement();
-			smt.execute(sb.toString());
+			smt = con.createStatement();
+			smt.execute(dialect.renameTable(from, to));
 		} catch (SQLException e) {
-			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL Error:"+e.getMessage());
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL Error:"+e.getMessage(), e);
+		} finally {
+			close(smt);
 		}
 	}
 	
 	public static void deleteTable(Connection con, String tablename){
+		Statement smt = null;
 		try {
-			Statement smt = con.createStatement();
-			smt.execute("DROP TABLE "+tablename+";");
+			smt = con.createStatement();
+			smt.execute("DROP TABLE "+SQLQueryBuilder.identifier(tablename));
 		} catch (SQLException e) {
 			e.printStackTrace();
+		} finally {
+			close(smt);
 		}
 		
 	}
 	
+	/**
+	 * Databases differ in the case they store unquoted table names in, so all are checked.
+	 */
 	public static boolean tableExists(Connection con, String name){
 		try {
 			DatabaseMetaData meta = con.getMetaData();
-			return meta.getTables(null, null, name, null).next();
+			for (String candidate : new String[] { name, name.toUpperCase(), name.toLowerCase() }) {
+				ResultSet rs = meta.getTables(null, null, candidate, null);
+				try {
+					if (rs.next()) {
+						return true;
+					}
+				} finally {
+					rs.close();
+				}
+			}
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
 		return false;
 	}
+	
+	// ----------------------------------------------------
+	
+	private static void close(Statement smt){
+		if (smt == null) {
+			return;
+		}
+		try {
+			smt.close();
+		} catch (SQLException e) {
+			// ignore
+		}
+	}
 }
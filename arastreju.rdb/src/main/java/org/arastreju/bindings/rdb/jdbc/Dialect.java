@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.arastreju.sge.eh.ArastrejuRuntimeException;
+import org.arastreju.sge.eh.ErrorCodes;
+
+/**
+ * <p>
+ *  The SQL differences of the supported databases.
+ * </p>
+ */
+public enum Dialect {
+
+	MYSQL("LONGTEXT", "RENAME TABLE %s TO %s", " LIMIT %2$d OFFSET %1$d"),
+	H2("CLOB", "ALTER TABLE %s RENAME TO %s", " LIMIT %2$d OFFSET %1$d"),
+	DERBY("CLOB", "RENAME TABLE %s TO %s", " OFFSET %d ROWS FETCH NEXT %d ROWS ONLY"),
+	GENERIC("CLOB", "ALTER TABLE %s RENAME TO %s", " OFFSET %d ROWS FETCH NEXT %d ROWS ONLY");
+
+	private final String clobType;
+	private final String renameTable;
+	private final String page;
+
+	private Dialect(String clobType, String renameTable, String page) {
+		this.clobType = clobType;
+		this.renameTable = renameTable;
+		this.page = page;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param con A connection to the database.
+	 * @return The dialect of the database.
+	 */
+	public static Dialect of(Connection con) {
+		try {
+			final String product = con.getMetaData().getDatabaseProductName().toLowerCase();
+			if (product.contains("mysql")) {
+				return MYSQL;
+			} else if (product.contains("h2")) {
+				return H2;
+			} else if (product.contains("derby")) {
+				return DERBY;
+			}
+			return GENERIC;
+		} catch (SQLException e) {
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+		}
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @return The type of unbounded character columns.
+	 */
+	public String clobType() {
+		return clobType;
+	}
+
+	/**
+	 * @return The statement renaming a table.
+	 */
+	public String renameTable(String from, String to) {
+		return String.format(renameTable, SQLQueryBuilder.identifier(from), SQLQueryBuilder.identifier(to));
+	}
+
+	/**
+	 * @param offset The number of rows skipped.
+	 * @param max The maximum number of rows.
+	 * @return The clause appended to a query to select one page of the rows.
+	 */
+	public String page(int offset, int max) {
+		return String.format(page, offset, max);
+	}
+
+}
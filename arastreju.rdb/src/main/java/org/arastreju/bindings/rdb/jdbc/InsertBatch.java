@@ -0,0 +1,601 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb.jdbc;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.arastreju.bindings.rdb.RdbConnectionProvider;
+import org.arastreju.bindings.rdb.StatementCache;
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.eh.ArastrejuRuntimeException;
+import org.arastreju.sge.eh.ErrorCodes;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.SemanticNode;
+
+/**
+ * <p>
+ *  Collects the statements to be inserted by one conversation and sends them in JDBC batches.
+ *  The batch is sent when it's size is reached, on commit of a transaction, before rows are read
+ *  and when the conversation is closed.
+ * </p>
+ *
+ * <p>
+ *  Deletes drop the matching pending rows and are executed at once, on the bound connection if there is one.
+ *  While the batch is deferred they are queued and executed before the inserts, when the batch is sent
+ *  on the connection of the transaction.
+ * </p>
+ *
+ * <p>
+ *  On flush the nodes not known yet are looked up in the node table and the missing ones are inserted,
+ *  then the rows of the statement table not existing yet are inserted. A node found for an id is compared with
+ *  the node to be written, if they differ the ids collide and the flush fails instead of merging both nodes. If a batch fails nevertheless,
+ *  as rows have been inserted concurrently, the rows are inserted one by one, skipping duplicates.
+ *  Within a transaction the batch and each single insert are wrapped in a savepoint, as some databases,
+ *  e.g. PostgreSQL, abort the whole transaction on a failed statement.
+ * </p>
+ *
+ * <p>
+ *  A pooled connection is only held while a batch is sent. All values are passed as parameters,
+ *  never as part of the SQL. Within a transaction the batch is sent on the connection of the transaction
+ *  and the subjects written are invalidated in the cache again, when the transaction is completed.
+ * </p>
+ */
+public class InsertBatch {
+
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	/**
+	 * Maximum number of parameters of one 'IN (...)' lookup.
+	 */
+	private static final int LOOKUP_CHUNK = 100;
+
+	/**
+	 * Number of node ids remembered to exist in the node table.
+	 */
+	private static final int KNOWN_NODES = 10000;
+
+	private static final Column[] NODE_COLUMNS = {
+		Column.ID, Column.KIND, Column.LOCALE, Column.VALUE, Column.LONG_VALUE, Column.NUMBER };
+
+	private static final Column[] EXISTING_COLUMNS = {
+		Column.ID, Column.KIND, Column.LOCALE, Column.VALUE, Column.LONG_VALUE };
+
+	private static final Column[] STATEMENT_COLUMNS = { Column.SUBJECT, Column.PREDICATE, Column.OBJECT, Column.CONTEXT };
+
+	private final RdbConnectionProvider provider;
+	private final Schema schema;
+	private final StatementCache cache;
+	private final int batchSize;
+
+	private final List<long[]> rows = new ArrayList<long[]>();
+	private final List<long[]> deletes = new ArrayList<long[]>();
+	private final List<Long> deletedResources = new ArrayList<Long>();
+	private final Map<Long, SemanticNode> nodes = new LinkedHashMap<Long, SemanticNode>();
+	private final Set<Long> written = new HashSet<Long>();
+
+	private Connection bound;
+	private boolean deferred;
+
+	private final Map<Long, SemanticNode> known = new LinkedHashMap<Long, SemanticNode>(256, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, SemanticNode> eldest) {
+			return size() > KNOWN_NODES;
+		}
+	};
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param provider The connection provider.
+	 * @param schema The schema.
+	 * @param cache The cache, whose subjects are invalidated when rows are sent, may be null.
+	 * @param batchSize The number of rows sent at once.
+	 */
+	public InsertBatch(RdbConnectionProvider provider, Schema schema, StatementCache cache, int batchSize) {
+		this.provider = provider;
+		this.schema = schema;
+		this.cache = cache;
+		this.batchSize = batchSize;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Add a statement to the batch, the batch will be sent if it's size is reached.
+	 * A statement with several contexts results in one row per context.
+	 */
+	public void add(Statement stmt) {
+		final long sub = node(stmt.getSubject());
+		final long pre = node(stmt.getPredicate());
+		final long obj = node(stmt.getObject());
+		final Context[] contexts = stmt.getContexts();
+		if (contexts == null || contexts.length == 0) {
+			rows.add(new long[] { sub, pre, obj, NodeCodec.NONE });
+		} else {
+			for (Context ctx : contexts) {
+				rows.add(new long[] { sub, pre, obj, node(ctx) });
+			}
+		}
+		if (rows.size() >= batchSize && !deferred) {
+			flush();
+		}
+	}
+
+	/**
+	 * Delete a statement with all it's contexts. A pending insert of the statement is dropped.
+	 * The delete is executed at once, or queued if the batch is deferred.
+	 */
+	public void delete(Statement stmt) {
+		final long sub = NodeCodec.id(stmt.getSubject());
+		final long pre = NodeCodec.id(stmt.getPredicate());
+		final long obj = NodeCodec.id(stmt.getObject());
+		final Iterator<long[]> it = rows.iterator();
+		while (it.hasNext()) {
+			final long[] row = it.next();
+			if (row[0] == sub && row[1] == pre && row[2] == obj) {
+				it.remove();
+			}
+		}
+		deletes.add(new long[] { sub, pre, obj });
+		deleted(sub);
+		if (!deferred) {
+			flush();
+		}
+	}
+
+	/**
+	 * Delete all statements with the given node as subject or object. Pending inserts of such statements
+	 * are dropped. The delete is executed at once, or queued if the batch is deferred.
+	 * The subjects of the incoming statements have to be passed to {@link #deleted(long)}.
+	 */
+	public void deleteResource(long id) {
+		final Iterator<long[]> it = rows.iterator();
+		while (it.hasNext()) {
+			final long[] row = it.next();
+			if (row[0] == id || row[2] == id) {
+				it.remove();
+			}
+		}
+		deletedResources.add(id);
+		deleted(id);
+		if (!deferred) {
+			flush();
+		}
+	}
+
+	/**
+	 * Invalidate a subject, whose statements have been deleted. Within a transaction it is invalidated again,
+	 * when the transaction is completed, as other conversations may cache the state before the commit meanwhile.
+	 */
+	public void deleted(long subject) {
+		if (cache == null) {
+			return;
+		}
+		cache.invalidate(subject);
+		if (bound != null || deferred) {
+			written.add(subject);
+		}
+	}
+
+	/**
+	 * Send all pending deletes and rows to the database, on the bound connection if there is one.
+	 * If the batch is deferred nothing is sent.
+	 */
+	public void flush() {
+		if (isEmpty() || deferred) {
+			return;
+		}
+		if (bound != null) {
+			flush(bound);
+			return;
+		}
+		final Connection con = provider.getConnection();
+		try {
+			flush(con);
+		} finally {
+			provider.close(con);
+		}
+	}
+
+	/**
+	 * Send all pending deletes and rows to the database, using the given connection.
+	 * The deletes are executed first, as a statement deleted and added again has a pending row.
+	 */
+	public void flush(Connection con) {
+		if (isEmpty()) {
+			return;
+		}
+		try {
+			deleteStatements(con);
+			if (!rows.isEmpty()) {
+				insertNodes(con);
+				insertStatements(con);
+			}
+		} catch (SQLException e) {
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+		} finally {
+			// also on failure, some rows may have been written
+			invalidate();
+			rows.clear();
+			nodes.clear();
+			deletes.clear();
+			deletedResources.clear();
+		}
+	}
+
+	/**
+	 * Bind the batch to the connection of a transaction, rows are sent on this connection until unbound.
+	 * @param con The connection or null to unbind.
+	 */
+	public void bind(Connection con) {
+		this.bound = con;
+	}
+
+	/**
+	 * While deferred the rows are only sent by {@link #flush(Connection)}, e.g. all at once on commit.
+	 */
+	public void setDeferred(boolean deferred) {
+		this.deferred = deferred;
+	}
+
+	/**
+	 * To be called when the transaction, in which rows have been sent or deleted, has been committed or rolled back.
+	 * The subjects written or deleted are invalidated in the cache again, as other conversations may have cached the state
+	 * before the commit meanwhile.
+	 * @param committed false if the transaction has been rolled back.
+	 */
+	public void completed(boolean committed) {
+		if (!committed) {
+			rolledBack();
+		}
+		if (cache != null) {
+			for (Long subject : written) {
+				cache.invalidate(subject);
+			}
+		}
+		written.clear();
+	}
+
+	/**
+	 * To be called when sent rows have been rolled back, e.g. to a savepoint.
+	 */
+	public void rolledBack() {
+		// nodes inserted within the transaction are gone
+		known.clear();
+	}
+
+	/**
+	 * Drop all pending rows and deletes, which have not been sent yet.
+	 */
+	public void discard() {
+		rows.clear();
+		nodes.clear();
+		deletes.clear();
+		deletedResources.clear();
+	}
+
+	/**
+	 * Send all pending rows.
+	 */
+	public void close() {
+		flush();
+	}
+
+	/**
+	 * @return The number of rows not sent yet.
+	 */
+	public int getPending() {
+		return rows.size();
+	}
+
+	// ----------------------------------------------------
+
+	private boolean isEmpty() {
+		return rows.isEmpty() && deletes.isEmpty() && deletedResources.isEmpty();
+	}
+
+	private void invalidate() {
+		if (cache == null) {
+			return;
+		}
+		for (long[] row : rows) {
+			cache.invalidate(row[0]);
+			if (bound != null || deferred) {
+				written.add(row[0]);
+			}
+		}
+	}
+
+	private long node(SemanticNode node) {
+		final long id = NodeCodec.id(node);
+		SemanticNode existing = known.get(id);
+		if (existing == null) {
+			existing = nodes.get(id);
+		}
+		if (existing == null) {
+			nodes.put(id, node);
+		} else if (!NodeCodec.matches(node, existing)) {
+			throw collision(id, node, NodeCodec.lexical(existing));
+		}
+		return id;
+	}
+
+	private ArastrejuRuntimeException collision(long id, SemanticNode node, String existing) {
+		return new ArastrejuRuntimeException(ErrorCodes.GENERAL_CONSISTENCY_FAILURE,
+				"Node id " + id + " of '" + NodeCodec.lexical(node) + "' collides with '" + existing + "'.");
+	}
+
+	private void deleteStatements(Connection con) throws SQLException {
+		if (!deletes.isEmpty()) {
+			final PreparedStatement delete = con.prepareStatement(SQLQueryBuilder.createPreparedDelete(
+					schema.statements(), Column.SUBJECT, Column.PREDICATE, Column.OBJECT));
+			try {
+				for (long[] row : deletes) {
+					bindRow(delete, row);
+					delete.addBatch();
+				}
+				delete.executeBatch();
+			} finally {
+				delete.close();
+			}
+		}
+		for (Column column : new Column[] { Column.SUBJECT, Column.OBJECT }) {
+			if (deletedResources.isEmpty()) {
+				return;
+			}
+			final PreparedStatement delete = con.prepareStatement(
+					SQLQueryBuilder.createPreparedDelete(schema.statements(), column));
+			try {
+				for (Long id : deletedResources) {
+					delete.setLong(1, id);
+					delete.addBatch();
+				}
+				delete.executeBatch();
+			} finally {
+				delete.close();
+			}
+		}
+	}
+
+	/**
+	 * Insert the nodes of the pending rows, which do not exist in the node table.
+	 */
+	private void insertNodes(Connection con) throws SQLException {
+		removeExisting(con);
+		if (nodes.isEmpty()) {
+			return;
+		}
+		final PreparedStatement insert = con.prepareStatement(
+				SQLQueryBuilder.createPreparedInsert(schema.nodes(), NODE_COLUMNS));
+		try {
+			for (Map.Entry<Long, SemanticNode> entry : nodes.entrySet()) {
+				bindNode(insert, entry.getKey(), entry.getValue());
+				insert.addBatch();
+			}
+			final Savepoint savepoint = savepoint(con);
+			try {
+				insert.executeBatch();
+				release(con, savepoint);
+			} catch (BatchUpdateException e) {
+				// a node has been inserted concurrently, insert one by one
+				rollback(con, savepoint, e);
+				for (Map.Entry<Long, SemanticNode> entry : nodes.entrySet()) {
+					bindNode(insert, entry.getKey(), entry.getValue());
+					executeIgnoringDuplicate(con, insert);
+				}
+			}
+		} finally {
+			insert.close();
+		}
+		for (Map.Entry<Long, SemanticNode> entry : nodes.entrySet()) {
+			known.put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Remove the nodes already existing from the pending nodes. The existing row has to represent the same node,
+	 * otherwise two nodes have the same id.
+	 */
+	private void removeExisting(Connection con) throws SQLException {
+		final List<Long> ids = new ArrayList<Long>(nodes.keySet());
+		for (int offset = 0; offset < ids.size(); offset += LOOKUP_CHUNK) {
+			final List<Long> chunk = ids.subList(offset, Math.min(offset + LOOKUP_CHUNK, ids.size()));
+			final PreparedStatement select = con.prepareStatement(
+					SQLQueryBuilder.createPreparedSelectIn(schema.nodes(), EXISTING_COLUMNS, Column.ID, chunk.size()));
+			try {
+				for (int i = 0; i < chunk.size(); i++) {
+					select.setLong(i + 1, chunk.get(i));
+				}
+				final ResultSet rs = select.executeQuery();
+				while (rs.next()) {
+					final long id = rs.getLong(1);
+					final String overflow = rs.getString(5);
+					final String lexical = overflow != null ? overflow : rs.getString(4);
+					final SemanticNode node = nodes.remove(id);
+					if (!NodeCodec.matches(node, rs.getString(2), rs.getString(3), lexical)) {
+						throw collision(id, node, lexical);
+					}
+					known.put(id, node);
+				}
+				rs.close();
+			} finally {
+				select.close();
+			}
+		}
+	}
+
+	private void insertStatements(Connection con) throws SQLException {
+		removeExistingRows(con);
+		if (rows.isEmpty()) {
+			return;
+		}
+		final PreparedStatement insert = con.prepareStatement(
+				SQLQueryBuilder.createPreparedInsert(schema.statements(), STATEMENT_COLUMNS));
+		try {
+			for (long[] row : rows) {
+				bindRow(insert, row);
+				insert.addBatch();
+			}
+			final Savepoint savepoint = savepoint(con);
+			try {
+				insert.executeBatch();
+				release(con, savepoint);
+			} catch (BatchUpdateException e) {
+				// some statements have been inserted concurrently, insert one by one
+				rollback(con, savepoint, e);
+				for (long[] row : rows) {
+					bindRow(insert, row);
+					executeIgnoringDuplicate(con, insert);
+				}
+			}
+		} finally {
+			insert.close();
+		}
+	}
+
+	private void bindNode(PreparedStatement insert, long id, SemanticNode node) throws SQLException {
+		final String lexical = NodeCodec.lexical(node);
+		final String locale = NodeCodec.locale(node);
+		insert.setLong(1, id);
+		insert.setString(2, NodeCodec.kind(node));
+		if (locale != null) {
+			insert.setString(3, locale);
+		} else {
+			insert.setNull(3, Types.VARCHAR);
+		}
+		insert.setString(4, NodeCodec.truncate(lexical));
+		final String overflow = NodeCodec.overflow(lexical);
+		if (overflow != null) {
+			insert.setString(5, overflow);
+		} else {
+			insert.setNull(5, Types.CLOB);
+		}
+		final Double number = NodeCodec.number(node);
+		if (number != null && !number.isInfinite()) {
+			insert.setDouble(6, number);
+		} else {
+			insert.setNull(6, Types.DOUBLE);
+		}
+	}
+
+	private void bindRow(PreparedStatement insert, long[] row) throws SQLException {
+		for (int i = 0; i < row.length; i++) {
+			insert.setLong(i + 1, row[i]);
+		}
+	}
+
+	/**
+	 * Remove the rows already existing in the statement table and duplicates from the pending rows.
+	 */
+	private void removeExistingRows(Connection con) throws SQLException {
+		final Set<Row> pending = new LinkedHashSet<Row>();
+		final Set<Long> subjects = new LinkedHashSet<Long>();
+		for (long[] row : rows) {
+			pending.add(new Row(row));
+			subjects.add(row[0]);
+		}
+		final List<Long> ids = new ArrayList<Long>(subjects);
+		for (int offset = 0; offset < ids.size() && !pending.isEmpty(); offset += LOOKUP_CHUNK) {
+			final List<Long> chunk = ids.subList(offset, Math.min(offset + LOOKUP_CHUNK, ids.size()));
+			final PreparedStatement select = con.prepareStatement(
+					SQLQueryBuilder.createPreparedSelectIn(schema.statements(), STATEMENT_COLUMNS, Column.SUBJECT, chunk.size()));
+			try {
+				for (int i = 0; i < chunk.size(); i++) {
+					select.setLong(i + 1, chunk.get(i));
+				}
+				final ResultSet rs = select.executeQuery();
+				while (rs.next()) {
+					pending.remove(new Row(new long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4) }));
+				}
+				rs.close();
+			} finally {
+				select.close();
+			}
+		}
+		rows.clear();
+		for (Row row : pending) {
+			rows.add(row.values);
+		}
+	}
+
+	/**
+	 * Execute a single insert, a violated unique constraint (SQL state class 23) is ignored.
+	 */
+	private void executeIgnoringDuplicate(Connection con, PreparedStatement insert) throws SQLException {
+		final Savepoint savepoint = savepoint(con);
+		try {
+			insert.executeUpdate();
+			release(con, savepoint);
+		} catch (SQLException e) {
+			if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+				throw e;
+			}
+			rollback(con, savepoint, e);
+		}
+	}
+
+	/**
+	 * @return A savepoint, if the connection is within a transaction, otherwise null.
+	 */
+	private Savepoint savepoint(Connection con) throws SQLException {
+		return con.getAutoCommit() ? null : con.setSavepoint();
+	}
+
+	private void release(Connection con, Savepoint savepoint) throws SQLException {
+		if (savepoint != null) {
+			con.releaseSavepoint(savepoint);
+		}
+	}
+
+	private void rollback(Connection con, Savepoint savepoint, SQLException cause) throws SQLException {
+		if (savepoint == null) {
+			return;
+		}
+		try {
+			con.rollback(savepoint);
+		} catch (SQLException e) {
+			throw cause;
+		}
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * A row of the statement table as key.
+	 */
+	private static final class Row {
+
+		private final long[] values;
+
+		private Row(long[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Row && Arrays.equals(values, ((Row) obj).values);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(values);
+		}
+	}
+
+}
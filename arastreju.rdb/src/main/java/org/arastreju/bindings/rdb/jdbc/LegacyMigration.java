@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Date;
+
+import org.arastreju.bindings.rdb.RdbConnectionProvider;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.eh.ArastrejuRuntimeException;
+import org.arastreju.sge.eh.ErrorCodes;
+import org.arastreju.sge.model.DetachedStatement;
+import org.arastreju.sge.model.ElementaryDataType;
+import org.arastreju.sge.model.nodes.SNValue;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.naming.QualifiedName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ *  Migration of the original schema, one table [storage] with the varchar columns sub, pre, obj and type,
+ *  to the tables of {@link Schema}. The rows are copied in batches and the original table is renamed to
+ *  {@link Schema#legacy()} afterwards, so it is kept but not migrated again.
+ * </p>
+ */
+public class LegacyMigration {
+
+	private final Logger logger = LoggerFactory.getLogger(LegacyMigration.class);
+
+	private final RdbConnectionProvider provider;
+	private final Schema schema;
+	private final int batchSize;
+
+	// ----------------------------------------------------
+
+	public LegacyMigration(RdbConnectionProvider provider, Schema schema, int batchSize) {
+		this.provider = provider;
+		this.schema = schema;
+		this.batchSize = batchSize;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Copy the statements of the original table, if it exists, and rename it.
+	 * @param con The connection used for reading and writing.
+	 * @return The number of statements migrated.
+	 */
+	public int migrate(Connection con) {
+		if (!DBOperations.tableExists(con, schema.getStorage())) {
+			return 0;
+		}
+		logger.info("Migrating table " + schema.getStorage() + " to the tables " + schema.nodes() + " and " + schema.statements());
+		// the batch is sent explicitly on this connection, never by the batch itself
+		final InsertBatch batch = new InsertBatch(provider, schema, null, Integer.MAX_VALUE);
+		int count = 0;
+		Statement select = null;
+		try {
+			select = con.createStatement();
+			final ResultSet rs = select.executeQuery("SELECT " + Column.SUBJECT.value() + ", " + Column.PREDICATE.value() + ", "
+					+ Column.OBJECT.value() + ", " + Column.TYPE.value() + " FROM " + schema.getStorage());
+			while (rs.next()) {
+				batch.add(new DetachedStatement(
+						SNOPS.id(new QualifiedName(rs.getString(1))),
+						SNOPS.id(new QualifiedName(rs.getString(2))),
+						object(rs.getString(3), rs.getString(4))));
+				if (++count % batchSize == 0) {
+					batch.flush(con);
+				}
+			}
+			rs.close();
+			batch.flush(con);
+		} catch (SQLException e) {
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+		} finally {
+			close(select);
+		}
+		DBOperations.renameTable(con, schema.getDialect(), schema.getStorage(), schema.legacy());
+		logger.info("Migrated " + count + " statements, original table renamed to " + schema.legacy());
+		return count;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Points in time have been stored as milliseconds or as formatted string, other values as string.
+	 */
+	private SemanticNode object(String value, String typeName) {
+		final ElementaryDataType type = ElementaryDataType.valueOf(typeName.trim());
+		switch (type) {
+		case RESOURCE:
+			return SNOPS.id(new QualifiedName(value));
+		case DATE:
+		case TIME_OF_DAY:
+		case TIMESTAMP:
+			try {
+				return new SNValue(type, new Date(Long.parseLong(value)));
+			} catch (NumberFormatException e) {
+				return new SNValue(type, value);
+			}
+		default:
+			return new SNValue(type, value);
+		}
+	}
+
+	private void close(Statement stm) {
+		if (stm == null) {
+			return;
+		}
+		try {
+			stm.close();
+		} catch (SQLException e) {
+			// ignore
+		}
+	}
+
+}
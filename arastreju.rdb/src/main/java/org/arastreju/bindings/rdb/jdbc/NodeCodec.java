@@ -0,0 +1,244 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb.jdbc;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Locale;
+
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.model.ElementaryDataType;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.nodes.SNValue;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.model.nodes.ValueNode;
+import org.arastreju.sge.naming.QualifiedName;
+
+/**
+ * <p>
+ *  Encoding of resources and values as rows of the node table. A node is represented by it's kind
+ *  (RESOURCE or the data type of a value), it's locale and it's lexical form: the URI of a resource,
+ *  the milliseconds of a point in time or the string value of other values.
+ * </p>
+ *
+ * <p>
+ *  The id of a node is the 64 bit prefix of the MD5 hash of it's representation. Thus every connection
+ *  can compute the ids of the nodes to be written or queried without a lookup in the database, and two
+ *  conversations writing the same node will write the same row. As the prefix may collide, the rows found
+ *  for an id are compared with the node by {@link #matches(SemanticNode, String, String, String)} before the
+ *  id is trusted. The digest is kept per thread.
+ * </p>
+ */
+public final class NodeCodec {
+
+	/**
+	 * The id used for 'no context'.
+	 */
+	public static final long NONE = 0;
+
+	public static final String RESOURCE = ElementaryDataType.RESOURCE.name();
+
+	private static final ThreadLocal<MessageDigest> DIGEST = new ThreadLocal<MessageDigest>() {
+		@Override
+		protected MessageDigest initialValue() {
+			return md5();
+		}
+	};
+
+	// ----------------------------------------------------
+
+	private NodeCodec() {
+	}
+
+	// ----------------------------------------------------
+
+	public static long id(QualifiedName qn) {
+		return id(RESOURCE, null, qn.toURI());
+	}
+
+	public static long id(SemanticNode node) {
+		return id(kind(node), locale(node), lexical(node));
+	}
+
+	public static long id(String kind, String locale, String lexical) {
+		final MessageDigest digest = DIGEST.get();
+		digest.reset();
+		digest.update(bytes(kind));
+		digest.update((byte) 0);
+		if (locale != null) {
+			digest.update(bytes(locale));
+		}
+		digest.update((byte) 0);
+		final byte[] hash = digest.digest(bytes(lexical));
+		long id = 0;
+		for (int i = 0; i < 8; i++) {
+			id = (id << 8) | (hash[i] & 0xFF);
+		}
+		return id == NONE ? 1 : id;
+	}
+
+	/**
+	 * Check if a node has the given representation, e.g. the one of the row found for it's id.
+	 * @return false if the node differs in kind, locale or lexical form, i.e. the ids collide.
+	 */
+	public static boolean matches(SemanticNode node, String kind, String locale, String lexical) {
+		if (kind == null || !kind(node).equals(kind.trim())) {
+			return false;
+		}
+		final String own = locale(node);
+		if (own == null ? locale != null && locale.length() > 0 : !own.equals(locale)) {
+			return false;
+		}
+		return lexical(node).equals(lexical);
+	}
+
+	/**
+	 * @return true if both nodes have the same representation and thus the same id.
+	 */
+	public static boolean matches(SemanticNode node, SemanticNode other) {
+		return node == other || matches(node, kind(other), locale(other), lexical(other));
+	}
+
+	// ----------------------------------------------------
+
+	public static String kind(SemanticNode node) {
+		if (node.isResourceNode()) {
+			return RESOURCE;
+		}
+		return node.asValue().getDataType().name();
+	}
+
+	public static String locale(SemanticNode node) {
+		if (node.isResourceNode() || node.asValue().getLocale() == null) {
+			return null;
+		}
+		return node.asValue().getLocale().toString();
+	}
+
+	public static String lexical(SemanticNode node) {
+		if (node.isResourceNode()) {
+			return ((ResourceID) node).getQualifiedName().toURI();
+		}
+		final ValueNode value = node.asValue();
+		switch (value.getDataType()) {
+		case DATE:
+		case TIME_OF_DAY:
+		case TIMESTAMP:
+			if (value.getValue() instanceof Date) {
+				return String.valueOf(value.getTimeValue().getTime());
+			}
+			return value.getStringValue();
+		default:
+			return value.getStringValue();
+		}
+	}
+
+	/**
+	 * The sort key of numbers and points in time, so they are not sorted by their lexical form.
+	 * @return The numeric value of an integer or decimal, the milliseconds of a point in time,
+	 * 			or null for other nodes and values which can not be converted.
+	 */
+	public static Double number(SemanticNode node) {
+		if (node.isResourceNode()) {
+			return null;
+		}
+		final ValueNode value = node.asValue();
+		try {
+			switch (value.getDataType()) {
+			case INTEGER:
+				return value.getIntegerValue().doubleValue();
+			case DECIMAL:
+				return value.getDecimalValue().doubleValue();
+			case DATE:
+			case TIME_OF_DAY:
+			case TIMESTAMP:
+				if (value.getValue() instanceof Date) {
+					return (double) value.getTimeValue().getTime();
+				}
+				return null;
+			default:
+				return null;
+			}
+		} catch (NumberFormatException e) {
+			return null;
+		} catch (ClassCastException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return A resource ID or a value.
+	 */
+	public static SemanticNode decode(String kind, String locale, String lexical) {
+		final ElementaryDataType type = ElementaryDataType.valueOf(kind.trim());
+		switch (type) {
+		case RESOURCE:
+			return SNOPS.id(new QualifiedName(lexical));
+		case DATE:
+		case TIME_OF_DAY:
+		case TIMESTAMP:
+			try {
+				return SNValue.create(type, new Date(Long.parseLong(lexical)), locale(locale));
+			} catch (NumberFormatException e) {
+				// a value which could not be converted to a point in time
+				return new SNValue(type, lexical, locale(locale));
+			}
+		default:
+			return SNValue.create(type, lexical, locale(locale));
+		}
+	}
+
+	/**
+	 * @return The value to be stored in the indexed column, truncated to it's length.
+	 */
+	public static String truncate(String lexical) {
+		if (lexical.length() <= Schema.VALUE_LENGTH) {
+			return lexical;
+		}
+		return lexical.substring(0, Schema.VALUE_LENGTH);
+	}
+
+	/**
+	 * @return The value to be stored in the overflow column, or null if it fits into the indexed column.
+	 */
+	public static String overflow(String lexical) {
+		return lexical.length() > Schema.VALUE_LENGTH ? lexical : null;
+	}
+
+	// ----------------------------------------------------
+
+	private static Locale locale(String s) {
+		if (s == null || s.length() == 0) {
+			return null;
+		}
+		final String[] parts = s.split("_", 3);
+		switch (parts.length) {
+		case 1:
+			return new Locale(parts[0]);
+		case 2:
+			return new Locale(parts[0], parts[1]);
+		default:
+			return new Locale(parts[0], parts[1], parts[2]);
+		}
+	}
+
+	private static byte[] bytes(String s) {
+		try {
+			return s.getBytes("UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static MessageDigest md5() {
+		try {
+			return MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
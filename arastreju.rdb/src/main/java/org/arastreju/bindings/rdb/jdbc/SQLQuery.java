@@ -0,0 +1,447 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.query.QueryException;
+import org.arastreju.sge.query.QueryExpression;
+import org.arastreju.sge.query.QueryParam;
+import org.arastreju.sge.query.SortCriteria;
+
+/**
+ * <p>
+ *  A query expression compiled to one SQL statement selecting the URIs of the matching resources,
+ *  so the filtering is done by the database. The candidates are all subjects of the statement table,
+ *  each leaf of the expression becomes an EXISTS sub query on the statement table:
+ *  <ul>
+ *  	<li>field: a statement with the predicate and the resource or a matching value as object</li>
+ *  	<li>relation: a statement with a matching resource as object</li>
+ *  	<li>value: a statement with a value as object, containing each token of the term</li>
+ *  	<li>URI: the URI of the subject itself</li>
+ *  </ul>
+ *  AND, OR and NOT are translated to the corresponding SQL operators.
+ * </p>
+ *
+ * <p>
+ *  Terms may contain the wildcards '*' and '?', which are translated to LIKE patterns. Fields and relations
+ *  match the URI of resources or the value exactly. Value terms and URI terms not denoting a full URI
+ *  are full-text queries: each token has to be contained in the value or URI, ignoring case.
+ * </p>
+ *
+ * <p>
+ *  Resources are sorted by the smallest value of each predicate of the sort criteria: numbers and points in
+ *  time by their numeric value before all other values by their lexical form, resources without a value
+ *  come last. Finally they are sorted by their ID, so the order is stable. A page of the result is
+ *  selected by the database, see {@link #getSQL(int, int)}.
+ * </p>
+ */
+public class SQLQuery {
+
+	private static final char ESCAPE = '!';
+
+	private static final String LIKE = " LIKE ? ESCAPE '" + ESCAPE + "'";
+
+	private final Schema schema;
+
+	private final StringBuilder sql = new StringBuilder();
+
+	private final List<Object> parameters = new ArrayList<Object>();
+
+	private final String order;
+
+	private int aliases;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Compile the expression.
+	 * @param schema The schema.
+	 * @param root The root of the query expression.
+	 * @param sort The sort criteria, may be null.
+	 */
+	public SQLQuery(Schema schema, QueryExpression root, SortCriteria sort) {
+		this.schema = schema;
+		sql.append("SELECT r.").append(Column.VALUE.value()).append(", r.").append(Column.LONG_VALUE.value());
+		sql.append(" FROM ").append(schema.nodes()).append(" r");
+		this.order = order(sort);
+		sql.append(" WHERE r.").append(Column.KIND.value()).append(" = ?");
+		parameters.add(NodeCodec.RESOURCE);
+		sql.append(" AND EXISTS (SELECT 1 FROM ").append(schema.statements()).append(" a WHERE a.")
+			.append(Column.SUBJECT.value()).append(" = r.").append(Column.ID.value()).append(")");
+		sql.append(" AND ");
+		expression(root);
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @return The SQL statement, all values are parameters.
+	 */
+	public String getSQL() {
+		return sql + order;
+	}
+
+	/**
+	 * @param offset The number of resources skipped.
+	 * @param max The maximum number of resources.
+	 * @return The SQL statement selecting one page of the result.
+	 */
+	public String getSQL(int offset, int max) {
+		return sql + order + schema.getDialect().page(offset, max);
+	}
+
+	/**
+	 * @return The SQL statement counting the resources, with the same parameters as the query.
+	 * 	The order is omitted, as it is not allowed in derived tables by all databases.
+	 */
+	public String getCountSQL() {
+		return "SELECT COUNT(*) FROM (" + sql + ") c";
+	}
+
+	/**
+	 * @return The parameters, Strings and Longs.
+	 */
+	public List<Object> getParameters() {
+		return Collections.unmodifiableList(parameters);
+	}
+
+	/**
+	 * Set the parameters of a statement prepared with {@link #getSQL()}.
+	 */
+	public void bind(PreparedStatement stmt) throws SQLException {
+		for (int i = 0; i < parameters.size(); i++) {
+			final Object param = parameters.get(i);
+			if (param instanceof Long) {
+				stmt.setLong(i + 1, (Long) param);
+			} else {
+				stmt.setString(i + 1, (String) param);
+			}
+		}
+	}
+
+	/**
+	 * @return The URI of a result row, given the values of the columns val and lval.
+	 */
+	public static String uri(String value, String longValue) {
+		return longValue != null ? longValue : value;
+	}
+
+	@Override
+	public String toString() {
+		return getSQL() + " " + parameters;
+	}
+
+	// ----------------------------------------------------
+
+	private void expression(QueryExpression exp) {
+		switch (exp.getOperator()) {
+		case AND:
+			junction(exp.getChildren(), " AND ", "1 = 1");
+			break;
+		case OR:
+			junction(exp.getChildren(), " OR ", "1 = 0");
+			break;
+		case NOT:
+			sql.append("NOT ");
+			junction(exp.getChildren(), " OR ", "1 = 0");
+			break;
+		default:
+			leaf(exp.getQueryParam());
+		}
+	}
+
+	private void junction(List<QueryExpression> children, String operator, String empty) {
+		if (children.isEmpty()) {
+			sql.append(empty);
+			return;
+		}
+		sql.append('(');
+		for (int i = 0; i < children.size(); i++) {
+			if (i > 0) {
+				sql.append(operator);
+			}
+			expression(children.get(i));
+		}
+		sql.append(')');
+	}
+
+	private void leaf(QueryParam param) {
+		final String term = String.valueOf(param.getValue());
+		switch (param.getOperator()) {
+		case EQUALS:
+			field(param.getName(), param.getValue());
+			break;
+		case HAS_VALUE:
+			value(term);
+			break;
+		case HAS_RELATION:
+			relation(term);
+			break;
+		case HAS_URI:
+			uri(term);
+			break;
+		default:
+			throw new QueryException("Unsupported query parameter: " + param);
+		}
+	}
+
+	private void field(String name, Object value) {
+		final QualifiedName resource = resource(value);
+		final String s = "s" + (++aliases);
+		final String o = "o" + aliases;
+		if (resource != null) {
+			exists(s, null);
+			sql.append(" AND ").append(s).append('.').append(Column.PREDICATE.value()).append(" = ?");
+			sql.append(" AND ").append(s).append('.').append(Column.OBJECT.value()).append(" = ?)");
+			parameters.add(NodeCodec.id(new QualifiedName(name)));
+			parameters.add(NodeCodec.id(resource));
+		} else {
+			exists(s, o);
+			sql.append(" AND ").append(s).append('.').append(Column.PREDICATE.value()).append(" = ?");
+			parameters.add(NodeCodec.id(new QualifiedName(name)));
+			sql.append(" AND ");
+			match(o, String.valueOf(value));
+			sql.append(')');
+		}
+	}
+
+	private void value(String term) {
+		final String s = "s" + (++aliases);
+		final String o = "o" + aliases;
+		exists(s, o);
+		sql.append(" AND ").append(o).append('.').append(Column.KIND.value()).append(" <> ?");
+		parameters.add(NodeCodec.RESOURCE);
+		sql.append(" AND ");
+		text(o, term);
+		sql.append(')');
+	}
+
+	private void relation(String term) {
+		final String s = "s" + (++aliases);
+		final String o = "o" + aliases;
+		if (!hasWildcard(term)) {
+			exists(s, null);
+			sql.append(" AND ").append(s).append('.').append(Column.OBJECT.value()).append(" = ?)");
+			parameters.add(NodeCodec.id(new QualifiedName(term)));
+		} else {
+			exists(s, o);
+			sql.append(" AND ").append(o).append('.').append(Column.KIND.value()).append(" = ?");
+			parameters.add(NodeCodec.RESOURCE);
+			sql.append(" AND ");
+			match(o, term);
+			sql.append(')');
+		}
+	}
+
+	private void uri(String term) {
+		if (!isURI(term)) {
+			text("r", term);
+		} else if (!hasWildcard(term)) {
+			sql.append("r.").append(Column.ID.value()).append(" = ?");
+			parameters.add(NodeCodec.id(new QualifiedName(term)));
+		} else {
+			match("r", term);
+		}
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Open an EXISTS sub query for statements of the candidate, optionally joining the object node.
+	 * The sub query has to be closed by the caller.
+	 */
+	private void exists(String stmt, String object) {
+		sql.append("EXISTS (SELECT 1 FROM ").append(schema.statements()).append(' ').append(stmt);
+		if (object != null) {
+			sql.append(" JOIN ").append(schema.nodes()).append(' ').append(object).append(" ON ")
+				.append(object).append('.').append(Column.ID.value()).append(" = ")
+				.append(stmt).append('.').append(Column.OBJECT.value());
+		}
+		sql.append(" WHERE ").append(stmt).append('.').append(Column.SUBJECT.value())
+			.append(" = r.").append(Column.ID.value());
+	}
+
+	/**
+	 * Exact or wildcard match of the complete lexical form of a node.
+	 */
+	private void match(String node, String term) {
+		final String val = node + "." + Column.VALUE.value();
+		final String lval = node + "." + Column.LONG_VALUE.value();
+		if (!hasWildcard(term) && term.length() <= Schema.VALUE_LENGTH) {
+			sql.append('(').append(val).append(" = ? AND ").append(lval).append(" IS NULL)");
+			parameters.add(term);
+		} else if (!hasWildcard(term)) {
+			// CLOBs can not be compared with '=' in every database
+			sql.append('(').append(val).append(" = ? AND ").append(lval).append(LIKE).append(')');
+			parameters.add(NodeCodec.truncate(term));
+			parameters.add(escape(term));
+		} else {
+			sql.append("((").append(lval).append(" IS NULL AND ").append(val).append(LIKE).append(") OR ")
+				.append(lval).append(LIKE).append(')');
+			parameters.add(pattern(term));
+			parameters.add(pattern(term));
+		}
+	}
+
+	/**
+	 * Case insensitive match of each token of the term.
+	 */
+	private void text(String node, String term) {
+		final List<String> tokens = tokenize(term);
+		if (tokens.isEmpty()) {
+			sql.append("1 = 0");
+			return;
+		}
+		sql.append('(');
+		for (int i = 0; i < tokens.size(); i++) {
+			if (i > 0) {
+				sql.append(" AND ");
+			}
+			// the indexed value is a prefix of the long value
+			sql.append("(LOWER(").append(node).append('.').append(Column.VALUE.value()).append(')').append(LIKE)
+				.append(" OR LOWER(").append(node).append('.').append(Column.LONG_VALUE.value()).append(')').append(LIKE)
+				.append(')');
+			final String pattern = "%" + pattern(tokens.get(i)) + "%";
+			parameters.add(pattern);
+			parameters.add(pattern);
+		}
+		sql.append(')');
+	}
+
+	/**
+	 * @return The ORDER BY clause, by the sort criteria and the ID.
+	 */
+	private String order(SortCriteria sort) {
+		final StringBuilder order = new StringBuilder();
+		if (sort != null) {
+			sortJoins(sort, order);
+		}
+		order.append(order.length() == 0 ? " ORDER BY " : ", ").append("r.").append(Column.ID.value());
+		return order.toString();
+	}
+
+	/**
+	 * One derived table per sort column, with the smallest numeric and the smallest other value of the
+	 * predicate per subject.
+	 */
+	private void sortJoins(SortCriteria sort, StringBuilder order) {
+		final String[] columns = sort.getColumns();
+		for (int i = 0; i < columns.length; i++) {
+			final String k = "k" + i;
+			sql.append(" LEFT JOIN (SELECT ks.").append(Column.SUBJECT.value()).append(", MIN(ko.")
+				.append(Column.NUMBER.value()).append(") n, MIN(CASE WHEN ko.").append(Column.NUMBER.value())
+				.append(" IS NULL THEN ko.").append(Column.VALUE.value()).append(" END) v FROM ").append(schema.statements()).append(" ks JOIN ")
+				.append(schema.nodes()).append(" ko ON ko.").append(Column.ID.value()).append(" = ks.")
+				.append(Column.OBJECT.value()).append(" WHERE ks.").append(Column.PREDICATE.value()).append(" = ? GROUP BY ks.")
+				.append(Column.SUBJECT.value()).append(") ").append(k).append(" ON ").append(k).append('.')
+				.append(Column.SUBJECT.value()).append(" = r.").append(Column.ID.value());
+			parameters.add(NodeCodec.id(new QualifiedName(columns[i])));
+			order.append(i == 0 ? " ORDER BY " : ", ");
+			// explicitly, as databases differ in the order of nulls
+			order.append("CASE WHEN ").append(k).append(".n IS NULL THEN 1 ELSE 0 END, ").append(k).append(".n, ");
+			order.append("CASE WHEN ").append(k).append(".v IS NULL THEN 1 ELSE 0 END, ").append(k).append(".v");
+		}
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Translate the wildcards '*' and '?' to a LIKE pattern, escaping the LIKE wildcards of the term.
+	 */
+	static String pattern(String term) {
+		final StringBuilder sb = new StringBuilder(term.length() + 8);
+		for (int i = 0; i < term.length(); i++) {
+			final char c = term.charAt(i);
+			switch (c) {
+			case '*':
+				sb.append('%');
+				break;
+			case '?':
+				sb.append('_');
+				break;
+			case '%':
+			case '_':
+			case ESCAPE:
+				sb.append(ESCAPE).append(c);
+				break;
+			default:
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Escape the LIKE wildcards of a term to be matched exactly.
+	 */
+	static String escape(String term) {
+		final StringBuilder sb = new StringBuilder(term.length() + 8);
+		for (int i = 0; i < term.length(); i++) {
+			final char c = term.charAt(i);
+			if (c == '%' || c == '_' || c == ESCAPE) {
+				sb.append(ESCAPE);
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Split a full-text term into lower case tokens of letters, digits and wildcards.
+	 */
+	static List<String> tokenize(String term) {
+		final List<String> tokens = new ArrayList<String>();
+		final String lower = term.toLowerCase(Locale.ENGLISH);
+		int start = -1;
+		for (int i = 0; i <= lower.length(); i++) {
+			final boolean tokenChar = i < lower.length() && isTokenChar(lower.charAt(i));
+			if (tokenChar && start < 0) {
+				start = i;
+			} else if (!tokenChar && start >= 0) {
+				final String token = lower.substring(start, i);
+				if (!tokens.contains(token)) {
+					tokens.add(token);
+				}
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+
+	private static boolean isTokenChar(char c) {
+		return Character.isLetterOrDigit(c) || c == '*' || c == '?';
+	}
+
+	private static boolean hasWildcard(String term) {
+		return term.indexOf('*') >= 0 || term.indexOf('?') >= 0;
+	}
+
+	/**
+	 * @return true if the term of a URI param denotes a full URI, not only a simple name.
+	 */
+	private static boolean isURI(String term) {
+		return term.indexOf(':') >= 0 || term.indexOf('/') >= 0 || term.indexOf('#') >= 0;
+	}
+
+	/**
+	 * @return The qualified name if the value of a field param denotes a resource, otherwise null.
+	 */
+	private static QualifiedName resource(Object value) {
+		if (value instanceof ResourceID) {
+			return ((ResourceID) value).getQualifiedName();
+		} else if (value instanceof QualifiedName) {
+			return (QualifiedName) value;
+		}
+		return null;
+	}
+
+}
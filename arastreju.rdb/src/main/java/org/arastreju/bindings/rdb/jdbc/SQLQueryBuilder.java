@@ -29,14 +29,115 @@ public class SQLQueryBuilder {
 	private static final String sp = " ";
 	private static final String and = "AND";
 
+	/**
+	 * Creates a parameterized insert statement for a {@link java.sql.PreparedStatement},
+	 * with one '?' placeholder per column.
+	 * @param table The table.
+	 * @param columns The columns to be set, in the order of the parameters.
+	 * @return The statement as {@link String}
+	 */
+	public static String createPreparedInsert(String table, Column... columns){
+		StringBuilder query = new StringBuilder("INSERT INTO ");
+		StringBuilder values = new StringBuilder(" VALUES(");
+		query.append(identifier(table)).append(bo);
+		for (Column column : columns) {
+			query.append(column.value()).append(dim);
+			values.append('?').append(dim);
+		}
+		query.setCharAt(query.length()-1, ')');
+		values.setCharAt(values.length()-1, ')');
+		return query.append(values).toString();
+	}
+
+	/**
+	 * Creates a parameterized select statement for a {@link java.sql.PreparedStatement},
+	 * with one '?' placeholder per condition column.
+	 * @param table The table.
+	 * @param conditions The columns to be compared for equality, in the order of the parameters.
+	 * @return The statement as {@link String}
+	 */
+	public static String createPreparedSelect(String table, Column... conditions){
+		StringBuilder query = new StringBuilder("SELECT * FROM ").append(identifier(table));
+		for (int i = 0; i < conditions.length; i++) {
+			query.append(i == 0 ? " WHERE " : sp + and + sp);
+			query.append(conditions[i].value()).append("=?");
+		}
+		return query.toString();
+	}
+
+	/**
+	 * Creates a parameterized delete statement for a {@link java.sql.PreparedStatement},
+	 * with one '?' placeholder per condition column.
+	 * @param table The table.
+	 * @param conditions The columns to be compared for equality, in the order of the parameters.
+	 * @return The statement as {@link String}
+	 */
+	public static String createPreparedDelete(String table, Column... conditions){
+		StringBuilder query = new StringBuilder("DELETE FROM ").append(identifier(table));
+		for (int i = 0; i < conditions.length; i++) {
+			query.append(i == 0 ? " WHERE " : sp + and + sp);
+			query.append(conditions[i].value()).append("=?");
+		}
+		return query.toString();
+	}
+
+	/**
+	 * Creates a parameterized select of one column for a {@link java.sql.PreparedStatement},
+	 * with the given number of '?' placeholders in an 'IN (...)' condition.
+	 * @param table The table.
+	 * @param select The column to be selected.
+	 * @param in The column to be compared.
+	 * @param count The number of parameters.
+	 * @return The statement as {@link String}
+	 */
+	public static String createPreparedSelectIn(String table, Column select, Column in, int count){
+		return createPreparedSelectIn(table, new Column[] { select }, in, count);
+	}
+
+	/**
+	 * Creates a parameterized select of several columns for a {@link java.sql.PreparedStatement},
+	 * with the given number of '?' placeholders in an 'IN (...)' condition.
+	 * @param table The table.
+	 * @param select The columns to be selected.
+	 * @param in The column to be compared.
+	 * @param count The number of parameters.
+	 * @return The statement as {@link String}
+	 */
+	public static String createPreparedSelectIn(String table, Column[] select, Column in, int count){
+		StringBuilder query = new StringBuilder("SELECT ");
+		for (int i = 0; i < select.length; i++) {
+			query.append(i == 0 ? "" : ", ").append(select[i].value());
+		}
+		query.append(" FROM ").append(identifier(table));
+		query.append(" WHERE ").append(in.value()).append(" IN ").append(bo);
+		for (int i = 0; i < count; i++) {
+			query.append(i == 0 ? "?" : ",?");
+		}
+		return query.append(bc).toString();
+	}
+
+	/**
+	 * Table names can not be passed as parameters, so only plain identifiers are accepted.
+	 * @param name The name of a table.
+	 * @return The name.
+	 */
+	public static String identifier(String name){
+		if (name == null || !name.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+			throw new IllegalArgumentException("Not a valid table name: " + name);
+		}
+		return name;
+	}
+
 	/**
 	 * Creates an insert query with the given parameters.
+	 * @deprecated Values are not escaped, use {@link #createPreparedInsert(String, Column...)}.
 	 * @param sub Subject
 	 * @param pre Predicate
 	 * @param obj Object
 	 * @param type Type
 	 * @return The query as {@link String}
 	 */
+	@Deprecated
 	public static String createInsert(String table, Map<String, String> columns){
 
 		StringBuilder query = new StringBuilder("INSERT INTO ");
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb.jdbc;
+
+/**
+ * <p>
+ *  The tables of one storage (domain):
+ *  <ul>
+ *  	<li>[storage]_node: dictionary of all resources and values, keyed by a 64 bit hash id, see {@link NodeCodec}.
+ *  	Values longer than {@link #VALUE_LENGTH} are stored completely in the CLOB column 'lval',
+ *  	column 'val' always holds the (truncated) value to be indexed. Numbers and points in time have their
+ *  	numeric value in column 'num' as sort key, see {@link NodeCodec}.</li>
+ *  	<li>[storage]_stmt: one row per statement and context, with the ids of subject, predicate, object
+ *  	and context (0 for none). The primary key (sub, pre, obj, ctx) and the indexes (pre, obj, sub)
+ *  	and (obj, sub, pre) cover the lookups by subject, by predicate and object and by object.</li>
+ *  </ul>
+ * </p>
+ */
+public class Schema {
+
+	public static final int VALUE_LENGTH = 190;
+
+	private final String storage;
+	private final Dialect dialect;
+
+	// ----------------------------------------------------
+
+	public Schema(String storage, Dialect dialect) {
+		this.storage = SQLQueryBuilder.identifier(storage);
+		this.dialect = dialect;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @return The name of the storage, which is the name of the table of the original schema.
+	 */
+	public String getStorage() {
+		return storage;
+	}
+
+	public Dialect getDialect() {
+		return dialect;
+	}
+
+	/**
+	 * @return The node dictionary table.
+	 */
+	public String nodes() {
+		return storage + "_node";
+	}
+
+	/**
+	 * @return The statement table.
+	 */
+	public String statements() {
+		return storage + "_stmt";
+	}
+
+	/**
+	 * @return The name the table of the original schema is renamed to after migration.
+	 */
+	public String legacy() {
+		return storage + "_legacy";
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @return The statements creating the tables and indexes.
+	 */
+	public String[] createStatements() {
+		return new String[] {
+			"CREATE TABLE " + nodes() + " (" +
+				Column.ID.value() + " BIGINT NOT NULL, " +
+				Column.KIND.value() + " VARCHAR(16) NOT NULL, " +
+				Column.LOCALE.value() + " VARCHAR(32), " +
+				Column.VALUE.value() + " VARCHAR(" + VALUE_LENGTH + ") NOT NULL, " +
+				Column.LONG_VALUE.value() + " " + dialect.clobType() + ", " +
+				Column.NUMBER.value() + " DOUBLE PRECISION, " +
+				"PRIMARY KEY (" + Column.ID.value() + "))",
+			"CREATE INDEX " + nodes() + "_val ON " + nodes() + " (" + Column.VALUE.value() + ")",
+			"CREATE TABLE " + statements() + " (" +
+				Column.SUBJECT.value() + " BIGINT NOT NULL, " +
+				Column.PREDICATE.value() + " BIGINT NOT NULL, " +
+				Column.OBJECT.value() + " BIGINT NOT NULL, " +
+				Column.CONTEXT.value() + " BIGINT NOT NULL, " +
+				"PRIMARY KEY (" + Column.SUBJECT.value() + ", " + Column.PREDICATE.value() + ", " +
+					Column.OBJECT.value() + ", " + Column.CONTEXT.value() + "))",
+			"CREATE INDEX " + statements() + "_pos ON " + statements() + " (" +
+				Column.PREDICATE.value() + ", " + Column.OBJECT.value() + ", " + Column.SUBJECT.value() + ")",
+			"CREATE INDEX " + statements() + "_osp ON " + statements() + " (" +
+				Column.OBJECT.value() + ", " + Column.SUBJECT.value() + ", " + Column.PREDICATE.value() + ")"
+		};
+	}
+
+}
@@ -4,21 +4,32 @@
 
 package org.arastreju.bindings.rdb.jdbc;
 
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.context.SimpleContextID;
 import org.arastreju.sge.eh.ArastrejuRuntimeException;
 import org.arastreju.sge.eh.ErrorCodes;
+import org.arastreju.sge.model.DetachedStatement;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.naming.QualifiedName;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * <p>
- *  Database relatet operations witch work on an specific table.
+ *  Database relatet operations witch work on the tables of a {@link Schema}.
  * </p>
  *
  * <p>
@@ -29,43 +40,249 @@ import java.util.Map;
  */
 
 public class TableOperations {
-	
-	public static void insert(Connection con, String table, Map<String, String> columns){
-		Statement stm = createStatement(con);
-		try {
-			stm.execute(SQLQueryBuilder.createInsert(table, columns));
-		} catch (SQLException e) {
-			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage());
+
+	/**
+	 * Maximum number of subjects of one 'IN (...)' query.
+	 */
+	private static final int IN_CHUNK = 100;
+
+	/**
+	 * Select the statements of a subject. The rows of one statement in several contexts are merged.
+	 * @param con The connection.
+	 * @param schema The schema.
+	 * @param subject The subject.
+	 * @return The statements.
+	 */
+	public static List<org.arastreju.sge.model.Statement> selectStatements(Connection con, Schema schema, ResourceID subject){
+		final List<org.arastreju.sge.model.Statement> result =
+				selectStatements(con, schema, Collections.singleton(subject)).get(NodeCodec.id(subject.getQualifiedName()));
+		return result != null ? result : new ArrayList<org.arastreju.sge.model.Statement>(0);
+	}
+
+	/**
+	 * Select the statements of several subjects with one query per chunk of subjects.
+	 * The rows of one statement in several contexts are merged.
+	 * @param con The connection.
+	 * @param schema The schema.
+	 * @param subjects The subjects.
+	 * @return The statements by node id of the subject, subjects without statements are missing.
+	 */
+	public static Map<Long, List<org.arastreju.sge.model.Statement>> selectStatements(Connection con, Schema schema,
+			Collection<? extends ResourceID> subjects){
+		final Map<Long, ResourceID> ids = new LinkedHashMap<Long, ResourceID>();
+		for (ResourceID subject : subjects) {
+			ids.put(NodeCodec.id(subject.getQualifiedName()), subject);
 		}
+		final Map<String, Row> rows = new LinkedHashMap<String, Row>();
+		final List<Long> keys = new ArrayList<Long>(ids.keySet());
+		for (int offset = 0; offset < keys.size(); offset += IN_CHUNK) {
+			final List<Long> chunk = keys.subList(offset, Math.min(offset + IN_CHUNK, keys.size()));
+			PreparedStatement stm = prepare(con, createStatementSelect(schema, chunk.size()));
+			try {
+				for (int i = 0; i < chunk.size(); i++) {
+					stm.setLong(i + 1, chunk.get(i));
+				}
+				ResultSet rs = stm.executeQuery();
+				while(rs.next()){
+					final String key = rs.getLong(1) + ":" + rs.getLong(2) + ":" + rs.getLong(7);
+					Row row = rows.get(key);
+					if (row == null) {
+						row = new Row(rs.getLong(1), node(rs, 3), node(rs, 8));
+						rows.put(key, row);
+					}
+					if (rs.getLong(12) != NodeCodec.NONE) {
+						row.contexts.add(new SimpleContextID(new QualifiedName(lexical(rs, 13))));
+					}
+				}
+				rs.close();
+			} catch (SQLException e) {
+				throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+			} finally {
+				close(stm);
+			}
+		}
+		final Map<Long, List<org.arastreju.sge.model.Statement>> result = new HashMap<Long, List<org.arastreju.sge.model.Statement>>();
+		for (Row row : rows.values()) {
+			List<org.arastreju.sge.model.Statement> statements = result.get(row.subject);
+			if (statements == null) {
+				statements = new ArrayList<org.arastreju.sge.model.Statement>();
+				result.put(row.subject, statements);
+			}
+			statements.add(new DetachedStatement(ids.get(row.subject), (ResourceID) row.predicate, row.object,
+					row.contexts.toArray(new Context[row.contexts.size()])));
+		}
+		return result;
 	}
-	
-	public static ArrayList<Map<String, String>> select(Connection con, String table, Map<String, String> conditions){
-		Statement stm = createStatement(con);
-		ArrayList<Map<String, String>> result = new ArrayList<Map<String,String>>();
+
+	/**
+	 * Select the statements with the given resource as object, using the index on object, subject, predicate.
+	 * The rows of one statement in several contexts are merged.
+	 * @param con The connection.
+	 * @param schema The schema.
+	 * @param object The object.
+	 * @return The statements.
+	 */
+	public static List<org.arastreju.sge.model.Statement> selectIncoming(Connection con, Schema schema, ResourceID object){
+		final Map<String, Row> rows = new LinkedHashMap<String, Row>();
+		PreparedStatement stm = prepare(con, createIncomingSelect(schema));
 		try {
-			ResultSet rs = stm.executeQuery(SQLQueryBuilder.createSelect(table, conditions));
-			ResultSetMetaData meta;
+			stm.setLong(1, NodeCodec.id(object.getQualifiedName()));
+			ResultSet rs = stm.executeQuery();
 			while(rs.next()){
-				meta = rs.getMetaData();
-				HashMap<String, String> temp = new HashMap<String, String>();
-				for (int i = 0; i < meta.getColumnCount(); i++) {
-					temp.put(meta.getColumnLabel(i+1), rs.getString(i+1));
+				final String key = rs.getLong(1) + ":" + rs.getLong(2);
+				Row row = rows.get(key);
+				if (row == null) {
+					row = new Row(rs.getLong(1), node(rs, 3), object);
+					row.subjectURI = lexical(rs, 7);
+					rows.put(key, row);
+				}
+				if (rs.getLong(9) != NodeCodec.NONE) {
+					row.contexts.add(new SimpleContextID(new QualifiedName(lexical(rs, 10))));
 				}
-				result.add(temp);
 			}
+			rs.close();
 		} catch (SQLException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+		} finally {
+			close(stm);
+		}
+		final List<org.arastreju.sge.model.Statement> result = new ArrayList<org.arastreju.sge.model.Statement>(rows.size());
+		for (Row row : rows.values()) {
+			result.add(new DetachedStatement(new SimpleResourceID(new QualifiedName(row.subjectURI)), (ResourceID) row.predicate,
+					row.object, row.contexts.toArray(new Context[row.contexts.size()])));
 		}
 		return result;
 	}
-	
-	private static Statement createStatement(Connection con){
+
+	/**
+	 * Delete a statement in all contexts.
+	 * @param con The connection.
+	 * @param schema The schema.
+	 * @param stmt The statement.
+	 */
+	public static void deleteStatement(Connection con, Schema schema, org.arastreju.sge.model.Statement stmt){
+		PreparedStatement stm = prepare(con, SQLQueryBuilder.createPreparedDelete(schema.statements(),
+				Column.SUBJECT, Column.PREDICATE, Column.OBJECT));
+		try {
+			stm.setLong(1, NodeCodec.id(stmt.getSubject()));
+			stm.setLong(2, NodeCodec.id(stmt.getPredicate()));
+			stm.setLong(3, NodeCodec.id(stmt.getObject()));
+			stm.executeUpdate();
+		} catch (SQLException e) {
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+		} finally {
+			close(stm);
+		}
+	}
+
+	/**
+	 * Delete all statements with the given resource as subject or object.
+	 * @param con The connection.
+	 * @param schema The schema.
+	 * @param resource The resource.
+	 */
+	public static void deleteResource(Connection con, Schema schema, ResourceID resource){
+		final long id = NodeCodec.id(resource.getQualifiedName());
+		for (Column column : new Column[] { Column.SUBJECT, Column.OBJECT }) {
+			PreparedStatement stm = prepare(con, SQLQueryBuilder.createPreparedDelete(schema.statements(), column));
+			try {
+				stm.setLong(1, id);
+				stm.executeUpdate();
+			} catch (SQLException e) {
+				throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+			} finally {
+				close(stm);
+			}
+		}
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Columns: 1 sub, 2 pre, 3-6 predicate node, 7 obj, 8-11 object node, 12 ctx, 13-14 context URI.
+	 */
+	private static String createStatementSelect(Schema schema, int subjects){
+		final String s = "s.", p = "p.", o = "o.", c = "c.";
+		final StringBuilder in = new StringBuilder();
+		for (int i = 0; i < subjects; i++) {
+			in.append(i == 0 ? "?" : ",?");
+		}
+		return "SELECT " + s + Column.SUBJECT.value() + ", " + s + Column.PREDICATE.value() + ", " + nodeColumns(p) + ", " +
+				s + Column.OBJECT.value() + ", " + nodeColumns(o) + ", " +
+				s + Column.CONTEXT.value() + ", " + c + Column.VALUE.value() + ", " + c + Column.LONG_VALUE.value() +
+				" FROM " + schema.statements() + " s" +
+				" JOIN " + schema.nodes() + " p ON " + p + Column.ID.value() + "=" + s + Column.PREDICATE.value() +
+				" JOIN " + schema.nodes() + " o ON " + o + Column.ID.value() + "=" + s + Column.OBJECT.value() +
+				" LEFT JOIN " + schema.nodes() + " c ON " + c + Column.ID.value() + "=" + s + Column.CONTEXT.value() +
+				" WHERE " + s + Column.SUBJECT.value() + " IN (" + in + ")";
+	}
+
+	/**
+	 * Columns: 1 sub, 2 pre, 3-6 predicate node, 7-8 subject URI, 9 ctx, 10-11 context URI.
+	 */
+	private static String createIncomingSelect(Schema schema){
+		final String s = "s.", p = "p.", n = "n.", c = "c.";
+		return "SELECT " + s + Column.SUBJECT.value() + ", " + s + Column.PREDICATE.value() + ", " + nodeColumns(p) + ", " +
+				n + Column.VALUE.value() + ", " + n + Column.LONG_VALUE.value() + ", " +
+				s + Column.CONTEXT.value() + ", " + c + Column.VALUE.value() + ", " + c + Column.LONG_VALUE.value() +
+				" FROM " + schema.statements() + " s" +
+				" JOIN " + schema.nodes() + " p ON " + p + Column.ID.value() + "=" + s + Column.PREDICATE.value() +
+				" JOIN " + schema.nodes() + " n ON " + n + Column.ID.value() + "=" + s + Column.SUBJECT.value() +
+				" LEFT JOIN " + schema.nodes() + " c ON " + c + Column.ID.value() + "=" + s + Column.CONTEXT.value() +
+				" WHERE " + s + Column.OBJECT.value() + " = ?";
+	}
+
+	private static String nodeColumns(String alias){
+		return alias + Column.KIND.value() + ", " + alias + Column.LOCALE.value() + ", " +
+				alias + Column.VALUE.value() + ", " + alias + Column.LONG_VALUE.value();
+	}
+
+	/**
+	 * Decode the node of the columns kind, locale, val, lval starting at the given index.
+	 */
+	private static SemanticNode node(ResultSet rs, int index) throws SQLException {
+		return NodeCodec.decode(rs.getString(index), rs.getString(index + 1), lexical(rs, index + 2));
+	}
+
+	/**
+	 * The complete value is in the overflow column if it is longer than the indexed column.
+	 */
+	private static String lexical(ResultSet rs, int index) throws SQLException {
+		final String overflow = rs.getString(index + 1);
+		return overflow != null ? overflow : rs.getString(index);
+	}
+
+	private static PreparedStatement prepare(Connection con, String sql){
 		try {
-			return con.createStatement();
+			return con.prepareStatement(sql);
 		} catch (SQLException e) {
-			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR);
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
 		}
 	}
-	
+
+	private static void close(Statement stm){
+		try {
+			stm.close();
+		} catch (SQLException e) {
+			// ignore
+		}
+	}
+
+	// ----------------------------------------------------
+
+	private static class Row {
+
+		private final long subject;
+		private final SemanticNode predicate;
+		private final SemanticNode object;
+		private final List<Context> contexts = new ArrayList<Context>();
+		private String subjectURI;
+
+		private Row(long subject, SemanticNode predicate, SemanticNode object) {
+			this.subject = subject;
+			this.predicate = predicate;
+			this.object = object;
+		}
+	}
+
 }
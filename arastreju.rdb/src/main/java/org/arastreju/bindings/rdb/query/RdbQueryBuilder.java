@@ -0,0 +1,65 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb.query;
+
+import org.arastreju.bindings.rdb.AssociationResolver;
+import org.arastreju.bindings.rdb.RdbConversationContext;
+import org.arastreju.bindings.rdb.jdbc.SQLQuery;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.persistence.ResourceResolver;
+import org.arastreju.sge.query.QueryBuilder;
+import org.arastreju.sge.query.QueryResult;
+import org.arastreju.sge.query.SimpleQueryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ *  Query builder of the RDB binding. The query expression is compiled to one SQL statement,
+ *  see {@link SQLQuery}, the matching resources are read in blocks and resolved in the conversation,
+ *  see {@link RdbQueryResult}.
+ * </p>
+ */
+public class RdbQueryBuilder extends QueryBuilder {
+
+	private final Logger logger = LoggerFactory.getLogger(RdbQueryBuilder.class);
+
+	private final RdbConversationContext context;
+
+	private final ResourceResolver resolver;
+
+	private final AssociationResolver associations;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param context The conversation context.
+	 * @param resolver The resolver for the resulting nodes.
+	 * @param associations The resolver of the associations of the resulting nodes.
+	 */
+	public RdbQueryBuilder(RdbConversationContext context, ResourceResolver resolver, AssociationResolver associations) {
+		this.context = context;
+		this.resolver = resolver;
+		this.associations = associations;
+	}
+
+	// ----------------------------------------------------
+
+	@Override
+	public QueryResult getResult() {
+		if (isEmpty()) {
+			return SimpleQueryResult.EMPTY;
+		}
+		final SQLQuery query = new SQLQuery(context.getSchema(), getRoot(), getSortCriteria());
+		logger.debug("Executing query " + query);
+		return new RdbQueryResult(context, resolver, associations, query, context.getFetchSize());
+	}
+
+	@Override
+	public ResourceNode getSingleNode() {
+		return getResult().getSingleNode();
+	}
+
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb.query;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.arastreju.bindings.rdb.AssociationResolver;
+import org.arastreju.bindings.rdb.RdbConversationContext;
+import org.arastreju.bindings.rdb.jdbc.SQLQuery;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.eh.ArastrejuRuntimeException;
+import org.arastreju.sge.eh.ErrorCodes;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.persistence.ResourceResolver;
+import org.arastreju.sge.query.QueryResult;
+
+/**
+ * <p>
+ *  Result of a {@link SQLQuery}. The rows are not loaded at once: the iterator reads the names of the
+ *  resulting resources in blocks of 'fetchSize', each block with a query of it's own, and loads the
+ *  associations of a block with one query of the {@link AssociationResolver}. So an iterator holds no
+ *  connection between the blocks and only one block of nodes. The pages selected by {@link #toList(int, int)}
+ *  and the size are queried from the database separately.
+ * </p>
+ *
+ * <p>
+ *  The blocks are selected by offset, in the stable order of {@link SQLQuery}, so the database skips the rows
+ *  of the previous blocks. Each call of {@link #iterator()} executes the query again.
+ * </p>
+ *
+ * <p>
+ *  The resolved nodes are kept in the cache of the conversation, like all nodes resolved in the conversation,
+ *  until it is closed. Iterating a large result therefore needs memory for each resulting node in the
+ *  conversation, a conversation of it's own should be used and closed afterwards.
+ * </p>
+ */
+public class RdbQueryResult implements QueryResult {
+
+	public static final int DEFAULT_FETCH_SIZE = 500;
+
+	private final RdbConversationContext context;
+	private final ResourceResolver resolver;
+	private final AssociationResolver associations;
+	private final SQLQuery query;
+	private final int fetchSize;
+
+	private int size = -1;
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param context The conversation context.
+	 * @param resolver The resolver of the resulting nodes.
+	 * @param associations The resolver of the associations of the resulting nodes.
+	 * @param query The query.
+	 * @param fetchSize The number of rows fetched at once while iterating, the default if not positive.
+	 */
+	public RdbQueryResult(RdbConversationContext context, ResourceResolver resolver,
+			AssociationResolver associations, SQLQuery query, int fetchSize) {
+		this.context = context;
+		this.resolver = resolver;
+		this.associations = associations;
+		this.query = query;
+		this.fetchSize = fetchSize > 0 ? fetchSize : DEFAULT_FETCH_SIZE;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<ResourceNode> iterator() {
+		return new Cursor();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		if (size < 0) {
+			size = count();
+		}
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<ResourceNode> toList() {
+		final List<ResourceNode> result = new ArrayList<ResourceNode>();
+		final Cursor cursor = new Cursor();
+		while (cursor.hasNext()) {
+			result.add(cursor.next());
+		}
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<ResourceNode> toList(int max) {
+		return toList(0, max);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<ResourceNode> toList(int offset, int max) {
+		if (max <= 0 || (size >= 0 && offset >= size)) {
+			return Collections.emptyList();
+		}
+		return resolve(page(Math.max(0, offset), max));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty() {
+		if (size >= 0) {
+			return size == 0;
+		}
+		return page(0, 1).isEmpty();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ResourceNode getSingleNode() {
+		final List<ResourceNode> nodes = toList(0, 2);
+		if (nodes.isEmpty()) {
+			return null;
+		} else if (nodes.size() > 1) {
+			throw new IllegalStateException("More than one result found.");
+		} else {
+			return nodes.get(0);
+		}
+	}
+
+	/**
+	 * Nothing to be released, the iterators hold no JDBC resources.
+	 */
+	@Override
+	public void close() {
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Resolve the nodes and load their associations with one query.
+	 */
+	private List<ResourceNode> resolve(List<QualifiedName> names) {
+		final List<ResourceID> ids = new ArrayList<ResourceID>(names.size());
+		for (QualifiedName qn : names) {
+			ids.add(SNOPS.id(qn));
+		}
+		associations.resolve(ids);
+		final List<ResourceNode> result = new ArrayList<ResourceNode>(names.size());
+		for (ResourceID id : ids) {
+			result.add(resolver.resolve(id));
+		}
+		return result;
+	}
+
+	private List<QualifiedName> page(int offset, int max) {
+		// pending inserts have to be visible
+		context.getInsertBatch().flush();
+		final List<QualifiedName> names = new ArrayList<QualifiedName>(Math.min(max, fetchSize));
+		final Connection con = context.getConnection();
+		try {
+			final PreparedStatement stmt = con.prepareStatement(query.getSQL(offset, max));
+			try {
+				query.bind(stmt);
+				final ResultSet rs = stmt.executeQuery();
+				while (rs.next()) {
+					names.add(new QualifiedName(SQLQuery.uri(rs.getString(1), rs.getString(2))));
+				}
+				rs.close();
+			} finally {
+				stmt.close();
+			}
+		} catch (SQLException e) {
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+		} finally {
+			context.close(con);
+		}
+		return names;
+	}
+
+	private int count() {
+		context.getInsertBatch().flush();
+		final Connection con = context.getConnection();
+		try {
+			final PreparedStatement stmt = con.prepareStatement(query.getCountSQL());
+			try {
+				query.bind(stmt);
+				final ResultSet rs = stmt.executeQuery();
+				final int count = rs.next() ? rs.getInt(1) : 0;
+				rs.close();
+				return count;
+			} finally {
+				stmt.close();
+			}
+		} catch (SQLException e) {
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+		} finally {
+			context.close(con);
+		}
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Iterator reading one block of resulting nodes at a time.
+	 */
+	private class Cursor implements Iterator<ResourceNode> {
+
+		private List<ResourceNode> block = Collections.emptyList();
+		private int position;
+		private int offset;
+		private boolean last;
+
+		@Override
+		public boolean hasNext() {
+			if (position >= block.size() && !last) {
+				read();
+			}
+			return position < block.size();
+		}
+
+		@Override
+		public ResourceNode next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return block.get(position++);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		private void read() {
+			final List<QualifiedName> names = page(offset, fetchSize);
+			offset += names.size();
+			last = names.size() < fetchSize;
+			block = resolve(names);
+			position = 0;
+		}
+	}
+
+}
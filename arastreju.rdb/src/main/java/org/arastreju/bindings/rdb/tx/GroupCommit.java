@@ -0,0 +1,200 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb.tx;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.arastreju.bindings.rdb.RdbConnectionProvider;
+import org.arastreju.bindings.rdb.jdbc.InsertBatch;
+import org.arastreju.sge.eh.ArastrejuRuntimeException;
+import org.arastreju.sge.eh.ErrorCodes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ *  Merges the commits of concurrent transactions of one gate into one database transaction.
+ * </p>
+ *
+ * <p>
+ *  A committing transaction queues it's insert batch. If no commit is running, it's thread becomes the leader:
+ *  it takes all queued batches, writes them on one connection and commits once. Transactions queued meanwhile
+ *  wait for the next leader, which is one of them. So under load many small transactions share one commit,
+ *  and the cost of syncing the log of the database, while a single transaction is committed as before.
+ * </p>
+ *
+ * <p>
+ *  If the group fails, it is rolled back and the error is thrown in each transaction of the group.
+ * </p>
+ */
+public class GroupCommit {
+
+	private final Logger logger = LoggerFactory.getLogger(GroupCommit.class);
+
+	private final RdbConnectionProvider provider;
+
+	private final Object lock = new Object();
+
+	private List<Member> queue = new ArrayList<Member>();
+
+	private boolean leading;
+
+	private long commits;
+	private long transactions;
+
+	// ----------------------------------------------------
+
+	public GroupCommit(RdbConnectionProvider provider) {
+		this.provider = provider;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Write and commit the batch, probably together with the batches of other transactions.
+	 * Blocks until the batch has been committed.
+	 * @param batch The insert batch of a transaction.
+	 * @throws ArastrejuRuntimeException if the group could not be committed.
+	 */
+	public void commit(InsertBatch batch) {
+		final Member member = new Member(batch);
+		final List<Member> group;
+		synchronized (lock) {
+			queue.add(member);
+			boolean interrupted = false;
+			while (leading && !member.done) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					// the batch is queued and will be committed, the interrupt is restored when done
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (member.done) {
+				member.check();
+				return;
+			}
+			leading = true;
+			group = queue;
+			queue = new ArrayList<Member>();
+		}
+		RuntimeException error = null;
+		try {
+			write(group);
+		} catch (RuntimeException e) {
+			error = e;
+		} finally {
+			synchronized (lock) {
+				for (Member m : group) {
+					m.error = error;
+					m.done = true;
+				}
+				commits++;
+				transactions += group.size();
+				leading = false;
+				lock.notifyAll();
+			}
+		}
+		member.check();
+	}
+
+	/**
+	 * @return The number of database commits.
+	 */
+	public long getCommitCount() {
+		synchronized (lock) {
+			return commits;
+		}
+	}
+
+	/**
+	 * @return The number of transactions committed.
+	 */
+	public long getTransactionCount() {
+		synchronized (lock) {
+			return transactions;
+		}
+	}
+
+	// ----------------------------------------------------
+
+	private void write(List<Member> group) {
+		Connection con = null;
+		boolean committed = false;
+		try {
+			con = provider.getConnection();
+			con.setAutoCommit(false);
+			for (Member member : group) {
+				member.batch.flush(con);
+			}
+			con.commit();
+			committed = true;
+			logger.debug("Committed " + group.size() + " transactions at once.");
+		} catch (SQLException e) {
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+		} finally {
+			if (!committed) {
+				rollback(con, group);
+			}
+			for (Member member : group) {
+				member.batch.completed(committed);
+			}
+			release(con);
+		}
+	}
+
+	private void rollback(Connection con, List<Member> group) {
+		for (Member member : group) {
+			member.batch.discard();
+		}
+		if (con == null) {
+			return;
+		}
+		try {
+			con.rollback();
+		} catch (SQLException e) {
+			// the original error is thrown
+		}
+	}
+
+	private void release(Connection con) {
+		if (con == null) {
+			return;
+		}
+		try {
+			con.setAutoCommit(true);
+		} catch (SQLException e) {
+			// the connection is checked by the pool
+		} finally {
+			provider.close(con);
+		}
+	}
+
+	// ----------------------------------------------------
+
+	private static class Member {
+
+		private final InsertBatch batch;
+
+		private boolean done;
+		private RuntimeException error;
+
+		private Member(InsertBatch batch) {
+			this.batch = batch;
+		}
+
+		private void check() {
+			if (error != null) {
+				throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "Group commit failed: " + error.getMessage(), error);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb.tx;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+import org.arastreju.bindings.rdb.RdbConversationContext;
+import org.arastreju.sge.eh.ArastrejuRuntimeException;
+import org.arastreju.sge.eh.ErrorCodes;
+import org.arastreju.sge.persistence.TransactionControl;
+
+/**
+ * <p>
+ *  Transaction nested in a {@link JdbcTransaction}, backed by a savepoint of it's connection.
+ *  If the sub transaction fails, only the statements written since it began are rolled back,
+ *  the enclosing transaction stays active.
+ * </p>
+ */
+public class JdbcSubTransaction implements TransactionControl {
+
+	private final RdbConversationContext ctx;
+	private final TransactionControl superTx;
+	private final Connection con;
+	private final Savepoint savepoint;
+
+	private boolean active = true;
+	private boolean failed;
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param ctx The conversation context.
+	 * @param superTx The enclosing transaction.
+	 * @param con The connection of the enclosing transaction.
+	 */
+	public JdbcSubTransaction(RdbConversationContext ctx, TransactionControl superTx, Connection con) {
+		this.ctx = ctx;
+		this.superTx = superTx;
+		this.con = con;
+		// the savepoint has to follow the inserts of the enclosing transaction
+		ctx.getInsertBatch().flush();
+		try {
+			this.savepoint = con.setSavepoint();
+		} catch (SQLException e) {
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+		}
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void success() {
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void fail() {
+		failed = true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void finish() {
+		if (!active) {
+			return;
+		}
+		if (failed) {
+			rollback();
+		} else {
+			commit();
+		}
+	}
+
+	/**
+	 * Release the savepoint, the statements are committed with the enclosing transaction.
+	 */
+	@Override
+	public void commit() {
+		if (!active) {
+			return;
+		}
+		active = false;
+		ctx.getInsertBatch().flush();
+		try {
+			con.releaseSavepoint(savepoint);
+		} catch (SQLException e) {
+			// not supported by all drivers, released with the enclosing transaction
+		}
+	}
+
+	/**
+	 * Roll back to the savepoint.
+	 */
+	@Override
+	public void rollback() {
+		if (!active) {
+			return;
+		}
+		active = false;
+		ctx.getInsertBatch().discard();
+		try {
+			con.rollback(savepoint);
+		} catch (SQLException e) {
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+		} finally {
+			ctx.getInsertBatch().rolledBack();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void flush() {
+		superTx.flush();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isActive() {
+		return active && superTx.isActive();
+	}
+
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.bindings.rdb.tx;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.arastreju.bindings.rdb.RdbConversationContext;
+import org.arastreju.sge.eh.ArastrejuRuntimeException;
+import org.arastreju.sge.eh.ErrorCodes;
+import org.arastreju.sge.persistence.TransactionControl;
+
+/**
+ * <p>
+ *  Transaction of a RDB conversation, bound to one pooled connection with auto commit turned off.
+ *  The conversation reads and writes on this connection until the transaction is finished, on commit
+ *  the pending inserts are sent and the database transaction is committed, on rollback the pending inserts
+ *  are dropped and the database transaction is rolled back.
+ * </p>
+ *
+ * <p>
+ *  With a {@link GroupCommit} no connection is held: the inserts and deletes are kept until commit and then
+ *  written together with those of concurrent transactions. Changes of such a transaction are not visible to
+ *  queries before the commit.
+ * </p>
+ *
+ * <p>
+ *  The state of the nodes in the conversation is not rolled back.
+ * </p>
+ */
+public class JdbcTransaction implements TransactionControl {
+
+	private final RdbConversationContext ctx;
+	private final GroupCommit groupCommit;
+	private final Connection con;
+
+	private boolean active = true;
+	private boolean failed;
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param ctx The conversation context.
+	 * @param groupCommit The group commit or null if the transaction commits itself.
+	 */
+	public JdbcTransaction(RdbConversationContext ctx, GroupCommit groupCommit) {
+		this.ctx = ctx;
+		this.groupCommit = groupCommit;
+		// inserts of the conversation sent before
+		ctx.getInsertBatch().flush();
+		if (groupCommit != null) {
+			this.con = null;
+			ctx.getInsertBatch().setDeferred(true);
+		} else {
+			this.con = ctx.getConnectionProvider().getConnection();
+			try {
+				con.setAutoCommit(false);
+			} catch (SQLException e) {
+				ctx.getConnectionProvider().close(con);
+				throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+			}
+			ctx.bind(con);
+		}
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void success() {
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void fail() {
+		failed = true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void finish() {
+		if (!active) {
+			return;
+		}
+		if (failed) {
+			rollback();
+		} else {
+			commit();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void commit() {
+		if (!active) {
+			return;
+		}
+		active = false;
+		if (groupCommit != null) {
+			try {
+				groupCommit.commit(ctx.getInsertBatch());
+			} finally {
+				ctx.getInsertBatch().setDeferred(false);
+			}
+			return;
+		}
+		try {
+			ctx.getInsertBatch().flush();
+			con.commit();
+			ctx.getInsertBatch().completed(true);
+		} catch (SQLException e) {
+			rollbackQuietly();
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+		} catch (RuntimeException e) {
+			rollbackQuietly();
+			throw e;
+		} finally {
+			release();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void rollback() {
+		if (!active) {
+			return;
+		}
+		active = false;
+		ctx.getInsertBatch().discard();
+		if (groupCommit != null) {
+			// nothing has been sent, the queued inserts and deletes are dropped
+			ctx.getInsertBatch().setDeferred(false);
+			ctx.getInsertBatch().completed(false);
+			return;
+		}
+		try {
+			con.rollback();
+		} catch (SQLException e) {
+			throw new ArastrejuRuntimeException(ErrorCodes.GENERAL_IO_ERROR, "SQL ERROR: "+e.getMessage(), e);
+		} finally {
+			ctx.getInsertBatch().completed(false);
+			release();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void flush() {
+		ctx.getInsertBatch().flush();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isActive() {
+		return active;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @return The connection of the transaction or null in group commit mode.
+	 */
+	Connection getConnection() {
+		return con;
+	}
+
+	private void rollbackQuietly() {
+		ctx.getInsertBatch().discard();
+		try {
+			con.rollback();
+		} catch (SQLException e) {
+			// the original error is thrown
+		}
+		ctx.getInsertBatch().completed(false);
+	}
+
+	private void release() {
+		ctx.unbind();
+		try {
+			con.setAutoCommit(true);
+		} catch (SQLException e) {
+			// the connection is checked by the pool
+		} finally {
+			ctx.getConnectionProvider().close(con);
+		}
+	}
+
+}
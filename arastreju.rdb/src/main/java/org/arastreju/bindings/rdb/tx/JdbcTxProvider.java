@@ -1,14 +1,56 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
 package org.arastreju.bindings.rdb.tx;
 
-import org.arastreju.sge.persistence.PseudoTransaction;
+import org.arastreju.bindings.rdb.RdbConversationContext;
+import org.arastreju.sge.persistence.SubTransaction;
 import org.arastreju.sge.persistence.TransactionControl;
 import org.arastreju.sge.persistence.TxProvider;
 
-public class JdbcTxProvider extends TxProvider{
+/**
+ * <p>
+ *  Provider of {@link JdbcTransaction}s, nested transactions are backed by savepoints.
+ * </p>
+ *
+ * <p>
+ * 	Created 03.12.2012
+ * </p>
+ *
+ * @author Raphael Esterle
+ */
+public class JdbcTxProvider extends TxProvider {
+
+	private final RdbConversationContext ctx;
+	private final GroupCommit groupCommit;
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param ctx The conversation context.
+	 * @param groupCommit The group commit of the gate or null.
+	 */
+	public JdbcTxProvider(RdbConversationContext ctx, GroupCommit groupCommit) {
+		this.ctx = ctx;
+		this.groupCommit = groupCommit;
+	}
+
+	// ----------------------------------------------------
 
 	@Override
 	protected TransactionControl newTx() {
-		return new PseudoTransaction();
+		return new JdbcTransaction(ctx, groupCommit);
+	}
+
+	/**
+	 * Without a connection of it's own, i.e. in group commit mode, a nested transaction is part of the enclosing one.
+	 */
+	@Override
+	protected TransactionControl newSubTx(TransactionControl parent) {
+		if (parent instanceof JdbcTransaction && ((JdbcTransaction) parent).getConnection() != null) {
+			return new JdbcSubTransaction(ctx, parent, ((JdbcTransaction) parent).getConnection());
+		}
+		return new SubTransaction(parent);
 	}
 
 }
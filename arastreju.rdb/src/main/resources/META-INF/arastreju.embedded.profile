@@ -0,0 +1,6 @@
+org.arastreju.gate-factory=org.arastreju.bindings.rdb.RdbGateFactory
+# h2 or derby, the driver has to be on the classpath
+org.arastreju.bindings.rdb.embedded=h2
+org.arastreju.bindings.rdb.db=arasDB
+# the database is kept in memory, unless a directory is given
+#org.arastreju.store.directory=
@@ -0,0 +1,43 @@
+package org.arastreju.rdb.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.arastreju.bindings.rdb.EmbeddedDatabase;
+import org.arastreju.sge.ArastrejuProfile;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for {@link EmbeddedDatabase} and the embedded profile.
+ * </p>
+ */
+public class EmbeddedDatabaseTest {
+
+	@Test
+	public void testForName() {
+		assertNull(EmbeddedDatabase.forName(null));
+		assertNull(EmbeddedDatabase.forName(" "));
+		assertEquals(EmbeddedDatabase.H2, EmbeddedDatabase.forName("h2"));
+		assertEquals(EmbeddedDatabase.DERBY, EmbeddedDatabase.forName("Derby "));
+	}
+
+	@Test
+	public void testUrl() {
+		assertEquals("jdbc:h2:mem:arasDB;DB_CLOSE_DELAY=-1", EmbeddedDatabase.H2.url(null, "arasDB"));
+		assertEquals("jdbc:derby:memory:arasDB;create=true", EmbeddedDatabase.DERBY.url("", "arasDB"));
+		final String path = new File("/tmp/aras", "arasDB").getAbsolutePath();
+		assertEquals("jdbc:h2:file:" + path, EmbeddedDatabase.H2.url("/tmp/aras", "arasDB"));
+		assertTrue(EmbeddedDatabase.DERBY.url("/tmp/aras", "arasDB").endsWith(";create=true"));
+	}
+
+	@Test
+	public void testProfile() {
+		final ArastrejuProfile profile = ArastrejuProfile.read("arastreju.embedded.profile");
+		assertEquals(EmbeddedDatabase.H2, EmbeddedDatabase.forName(profile.getProperty("org.arastreju.bindings.rdb.embedded")));
+	}
+
+}
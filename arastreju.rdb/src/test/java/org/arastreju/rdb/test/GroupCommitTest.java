@@ -0,0 +1,397 @@
+package org.arastreju.rdb.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.arastreju.bindings.rdb.RdbConnectionProvider;
+import org.arastreju.bindings.rdb.StatementCache;
+import org.arastreju.bindings.rdb.jdbc.Dialect;
+import org.arastreju.bindings.rdb.jdbc.InsertBatch;
+import org.arastreju.bindings.rdb.jdbc.NodeCodec;
+import org.arastreju.bindings.rdb.jdbc.Schema;
+import org.arastreju.bindings.rdb.tx.GroupCommit;
+import org.arastreju.rdb.test.RdbConnectionProviderTest.StubDriver;
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.eh.ArastrejuRuntimeException;
+import org.arastreju.sge.model.DetachedStatement;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.Statement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for {@link GroupCommit}, using the stub JDBC driver of {@link RdbConnectionProviderTest}.
+ * </p>
+ */
+public class GroupCommitTest {
+
+	static {
+		try {
+			DriverManager.registerDriver(new StubDriver());
+			DriverManager.registerDriver(new RecordingDriver());
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private RdbConnectionProvider provider;
+	private RdbConnectionProvider recording;
+	private Schema schema;
+
+	private final Statement car = new DetachedStatement(new SimpleResourceID("http://q#", "Car"), RDF.TYPE, RDFS.CLASS);
+	private final Statement bike = new DetachedStatement(new SimpleResourceID("http://q#", "Bike"), RDF.TYPE, RDFS.CLASS);
+
+	// ----------------------------------------------------
+
+	@Before
+	public void setUp() {
+		provider = new RdbConnectionProvider(StubDriver.class.getName(), "user", "pass", "jdbc:stub:test", "test", 4);
+		recording = new RdbConnectionProvider(RecordingDriver.class.getName(), "user", "pass", "jdbc:recording:test", "test", 4);
+		schema = new Schema("test", Dialect.GENERIC);
+		RecordingDriver.clear();
+	}
+
+	@After
+	public void tearDown() {
+		provider.shutdown();
+		recording.shutdown();
+	}
+
+	// ----------------------------------------------------
+
+	@Test
+	public void testSingleCommit() {
+		final GroupCommit groupCommit = new GroupCommit(provider);
+		groupCommit.commit(new InsertBatch(provider, schema, null, 10));
+		groupCommit.commit(new InsertBatch(provider, schema, null, 10));
+		assertEquals(2, groupCommit.getCommitCount());
+		assertEquals(2, groupCommit.getTransactionCount());
+		assertEquals(0, provider.usedSize());
+	}
+
+	@Test
+	public void testConcurrentCommits() throws InterruptedException {
+		final GroupCommit groupCommit = new GroupCommit(provider);
+		final int threads = 8;
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger committed = new AtomicInteger();
+		final List<Thread> running = new ArrayList<Thread>();
+		for (int i = 0; i < threads; i++) {
+			final Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int j = 0; j < 10; j++) {
+						groupCommit.commit(new InsertBatch(provider, schema, null, 10));
+						committed.incrementAndGet();
+					}
+				}
+			});
+			thread.start();
+			running.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : running) {
+			thread.join(10000);
+		}
+		assertEquals(threads * 10, committed.get());
+		assertEquals(threads * 10, groupCommit.getTransactionCount());
+		assertTrue(groupCommit.getCommitCount() <= groupCommit.getTransactionCount());
+		assertEquals(0, provider.usedSize());
+	}
+
+	@Test
+	public void testAddThenRemove() {
+		final GroupCommit groupCommit = new GroupCommit(recording);
+		final InsertBatch batch = new InsertBatch(recording, schema, null, 10);
+		batch.setDeferred(true);
+		batch.add(car);
+		batch.add(bike);
+		batch.delete(car);
+		assertEquals(1, batch.getPending());
+		// nothing is sent before the commit
+		assertTrue(RecordingDriver.log().isEmpty());
+
+		groupCommit.commit(batch);
+		final List<String> log = RecordingDriver.log();
+		final int delete = indexOf(log, "DELETE FROM");
+		final int insert = indexOf(log, "INSERT INTO " + schema.statements());
+		final int commit = log.indexOf("1: commit");
+		assertTrue(delete >= 0);
+		assertTrue(delete < insert);
+		assertTrue(insert < commit);
+		// the delete is executed on the connection of the group
+		assertTrue(log.get(delete).startsWith("1: "));
+		assertEquals(0, recording.usedSize());
+	}
+
+	@Test
+	public void testRollbackAfterRemove() {
+		final InsertBatch discarded = new InsertBatch(recording, schema, null, 10);
+		discarded.setDeferred(true);
+		discarded.delete(car);
+		// a rolled back transaction drops it's queued deletes
+		discarded.discard();
+		discarded.setDeferred(false);
+		discarded.flush();
+		assertTrue(RecordingDriver.log().isEmpty());
+
+		final GroupCommit groupCommit = new GroupCommit(recording);
+		final InsertBatch batch = new InsertBatch(recording, schema, null, 10);
+		batch.setDeferred(true);
+		batch.delete(car);
+		batch.add(bike);
+		RecordingDriver.failOn("INSERT INTO " + schema.statements());
+		try {
+			groupCommit.commit(batch);
+			fail("Expected failure of the group.");
+		} catch (ArastrejuRuntimeException e) {
+			// expected
+		}
+		final List<String> log = RecordingDriver.log();
+		final int delete = indexOf(log, "DELETE FROM");
+		assertTrue(delete >= 0);
+		assertTrue(log.get(delete).startsWith("1: "));
+		// the delete is rolled back with the group
+		assertTrue(log.contains("1: rollback"));
+		assertFalse(log.contains("1: commit"));
+		assertEquals(0, batch.getPending());
+	}
+
+	@Test
+	public void testBatchRetriedAfterSavepoint() {
+		final GroupCommit groupCommit = new GroupCommit(recording);
+		final InsertBatch batch = new InsertBatch(recording, schema, null, 10);
+		batch.setDeferred(true);
+		batch.add(car);
+		batch.add(bike);
+		RecordingDriver.failBatchOn("INSERT INTO " + schema.statements());
+
+		groupCommit.commit(batch);
+		final List<String> log = RecordingDriver.log();
+		final int rollback = log.indexOf("1: rollback to savepoint");
+		assertTrue(rollback >= 0);
+		// the rows are inserted one by one after the rollback to the savepoint
+		int inserts = 0;
+		for (String entry : log.subList(rollback, log.size())) {
+			if (entry.startsWith("1: INSERT INTO " + schema.statements())) {
+				inserts++;
+			}
+		}
+		assertEquals(2, inserts);
+		assertTrue(log.indexOf("1: commit") > rollback);
+	}
+
+	@Test
+	public void testDeletedSubjectInvalidatedOnCommit() {
+		final StatementCache cache = new StatementCache(1000);
+		final long subject = NodeCodec.id(car.getSubject());
+		final GroupCommit groupCommit = new GroupCommit(recording);
+		final InsertBatch batch = new InsertBatch(recording, schema, cache, 10);
+		batch.setDeferred(true);
+		batch.delete(car);
+
+		// another conversation caches the committed state before the delete
+		cache.put(subject, Collections.singletonList(car), cache.stamp());
+		assertNotNull(cache.get(subject));
+
+		groupCommit.commit(batch);
+		assertNull(cache.get(subject));
+	}
+
+	// ----------------------------------------------------
+
+	private int indexOf(List<String> log, String sql) {
+		for (int i = 0; i < log.size(); i++) {
+			if (log.get(i).contains(sql)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Driver creating connection stubs, which record the statements executed and the commits and rollbacks,
+	 * prefixed with the number of the connection.
+	 */
+	public static class RecordingDriver implements Driver {
+
+		private static final List<String> LOG = Collections.synchronizedList(new ArrayList<String>());
+
+		private static final AtomicInteger CONNECTIONS = new AtomicInteger();
+
+		private static volatile String failOn;
+
+		private static volatile String failBatchOn;
+
+		public static void clear() {
+			LOG.clear();
+			CONNECTIONS.set(0);
+			failOn = null;
+			failBatchOn = null;
+		}
+
+		public static void failOn(String sql) {
+			failOn = sql;
+		}
+
+		public static void failBatchOn(String sql) {
+			failBatchOn = sql;
+		}
+
+		public static List<String> log() {
+			synchronized (LOG) {
+				return new ArrayList<String>(LOG);
+			}
+		}
+
+		@Override
+		public Connection connect(String url, Properties info) throws SQLException {
+			if (!acceptsURL(url)) {
+				return null;
+			}
+			final int number = CONNECTIONS.incrementAndGet();
+			return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+					new InvocationHandler() {
+						private boolean closed;
+						private boolean autoCommit = true;
+
+						@Override
+						public Object invoke(Object proxy, Method method, Object[] args) {
+							final String name = method.getName();
+							if (name.equals("close")) {
+								closed = true;
+							} else if (name.equals("setAutoCommit")) {
+								autoCommit = (Boolean) args[0];
+							} else if (name.equals("getAutoCommit")) {
+								return autoCommit;
+							} else if (name.equals("setSavepoint")) {
+								return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Savepoint.class },
+										new InvocationHandler() {
+											@Override
+											public Object invoke(Object proxy, Method method, Object[] args) {
+												return null;
+											}
+										});
+							} else if (name.equals("rollback") && args != null) {
+								LOG.add(number + ": rollback to savepoint");
+							} else if (name.equals("isClosed")) {
+								return closed;
+							} else if (name.equals("isValid")) {
+								return !closed;
+							} else if (name.equals("hashCode")) {
+								return System.identityHashCode(proxy);
+							} else if (name.equals("equals")) {
+								return proxy == args[0];
+							} else if (name.equals("commit") || name.equals("rollback")) {
+								LOG.add(number + ": " + name);
+							} else if (name.equals("prepareStatement")) {
+								return statement(number, (String) args[0]);
+							}
+							return null;
+						}
+					});
+		}
+
+		private PreparedStatement statement(final int number, final String sql) {
+			return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, new InvocationHandler() {
+						private int batched;
+
+						@Override
+						public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+							final String name = method.getName();
+							if (name.startsWith("execute") && failOn != null && sql.contains(failOn)) {
+								throw new SQLException("Failed: " + sql, "08000");
+							} else if (name.equals("executeBatch") && failBatchOn != null && sql.contains(failBatchOn)) {
+								batched = 0;
+								throw new BatchUpdateException("Duplicate: " + sql, "23000", new int[0]);
+							} else if (name.equals("addBatch")) {
+								batched++;
+							} else if (name.equals("executeBatch")) {
+								LOG.add(number + ": " + sql);
+								final int[] result = new int[batched];
+								batched = 0;
+								return result;
+							} else if (name.equals("executeUpdate")) {
+								LOG.add(number + ": " + sql);
+								return 0;
+							} else if (name.equals("executeQuery")) {
+								return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ResultSet.class },
+										new InvocationHandler() {
+											@Override
+											public Object invoke(Object proxy, Method method, Object[] args) {
+												return method.getName().equals("next") ? Boolean.FALSE : null;
+											}
+										});
+							}
+							return null;
+						}
+					});
+		}
+
+		@Override
+		public boolean acceptsURL(String url) {
+			return url.startsWith("jdbc:recording:");
+		}
+
+		@Override
+		public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+			return new DriverPropertyInfo[0];
+		}
+
+		@Override
+		public int getMajorVersion() {
+			return 1;
+		}
+
+		@Override
+		public int getMinorVersion() {
+			return 0;
+		}
+
+		@Override
+		public boolean jdbcCompliant() {
+			return false;
+		}
+
+		public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+			throw new SQLFeatureNotSupportedException();
+		}
+	}
+
+}
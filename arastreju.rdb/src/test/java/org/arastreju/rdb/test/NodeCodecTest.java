@@ -0,0 +1,112 @@
+package org.arastreju.rdb.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.Locale;
+
+import org.arastreju.bindings.rdb.jdbc.Dialect;
+import org.arastreju.bindings.rdb.jdbc.NodeCodec;
+import org.arastreju.bindings.rdb.jdbc.Schema;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.model.ElementaryDataType;
+import org.arastreju.sge.model.nodes.SNValue;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for the encoding of nodes by {@link NodeCodec} and the tables of {@link Schema}.
+ * </p>
+ */
+public class NodeCodecTest {
+
+	private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+
+	@Test
+	public void testResource() {
+		final SemanticNode node = roundTrip(SNOPS.id(qnCar));
+		assertTrue(node.isResourceNode());
+		assertEquals(qnCar, node.asResource().getQualifiedName());
+		assertEquals(NodeCodec.id(qnCar), NodeCodec.id(SNOPS.id(qnCar)));
+	}
+
+	@Test
+	public void testValues() {
+		final SemanticNode text = roundTrip(new SNValue(ElementaryDataType.STRING, "Auto", Locale.GERMAN));
+		assertEquals("Auto", text.asValue().getStringValue());
+		assertEquals(Locale.GERMAN, text.asValue().getLocale());
+
+		final Date date = new Date(1354579200000L);
+		final SemanticNode timestamp = roundTrip(new SNValue(ElementaryDataType.TIMESTAMP, date));
+		assertEquals(date, timestamp.asValue().getTimeValue());
+	}
+
+	@Test
+	public void testIds() {
+		final long en = NodeCodec.id(new SNValue(ElementaryDataType.STRING, "Car", Locale.ENGLISH));
+		final long none = NodeCodec.id(new SNValue(ElementaryDataType.STRING, "Car"));
+		final long resource = NodeCodec.id(new QualifiedName("Car"));
+		assertFalse(en == none);
+		assertFalse(none == resource);
+		assertFalse(NodeCodec.NONE == en);
+	}
+
+	@Test
+	public void testMatches() {
+		final SNValue text = new SNValue(ElementaryDataType.STRING, "Car", Locale.ENGLISH);
+		assertTrue(NodeCodec.matches(text, "STRING", "en", "Car"));
+		assertTrue(NodeCodec.matches(text, new SNValue(ElementaryDataType.STRING, "Car", Locale.ENGLISH)));
+		assertFalse(NodeCodec.matches(text, "STRING", null, "Car"));
+		assertFalse(NodeCodec.matches(text, "STRING", "en", "Bike"));
+		assertFalse(NodeCodec.matches(text, NodeCodec.RESOURCE, "en", "Car"));
+		assertTrue(NodeCodec.matches(SNOPS.id(qnCar), NodeCodec.RESOURCE, "", qnCar.toURI()));
+		assertFalse(NodeCodec.matches(SNOPS.id(qnCar), SNOPS.id(new QualifiedName("http://q#", "Bike"))));
+	}
+
+	@Test
+	public void testLongValue() {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append("long value ");
+		}
+		final String value = sb.toString();
+		assertEquals(Schema.VALUE_LENGTH, NodeCodec.truncate(value).length());
+		assertEquals(value, NodeCodec.overflow(value));
+		assertNull(NodeCodec.overflow("short value"));
+	}
+
+	@Test
+	public void testNumbers() {
+		assertEquals(Double.valueOf(9), NodeCodec.number(new SNValue(ElementaryDataType.INTEGER, 9)));
+		assertEquals(Double.valueOf(10.5), NodeCodec.number(new SNValue(ElementaryDataType.DECIMAL, "10.5")));
+		final Date date = new Date(1354579200000L);
+		assertEquals(Double.valueOf(date.getTime()), NodeCodec.number(new SNValue(ElementaryDataType.TIMESTAMP, date)));
+		assertNull(NodeCodec.number(new SNValue(ElementaryDataType.STRING, "100")));
+		assertNull(NodeCodec.number(SNOPS.id(qnCar)));
+	}
+
+	@Test
+	public void testSchema() {
+		final Schema schema = new Schema("root", Dialect.MYSQL);
+		assertEquals("root_node", schema.nodes());
+		assertEquals("root_stmt", schema.statements());
+		final String[] ddl = schema.createStatements();
+		assertTrue(ddl[0].contains("lval LONGTEXT"));
+		assertTrue(ddl[0].contains("num DOUBLE PRECISION"));
+		assertTrue(ddl[2].contains("PRIMARY KEY (sub, pre, obj, ctx)"));
+		assertEquals("RENAME TABLE root TO root_legacy", Dialect.MYSQL.renameTable("root", schema.legacy()));
+		assertEquals("ALTER TABLE root RENAME TO root_legacy", Dialect.H2.renameTable("root", schema.legacy()));
+	}
+
+	// ----------------------------------------------------
+
+	private SemanticNode roundTrip(SemanticNode node) {
+		return NodeCodec.decode(NodeCodec.kind(node), NodeCodec.locale(node), NodeCodec.lexical(node));
+	}
+
+}
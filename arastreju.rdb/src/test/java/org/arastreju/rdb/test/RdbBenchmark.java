@@ -0,0 +1,268 @@
+package org.arastreju.rdb.test;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import org.arastreju.sge.Arastreju;
+import org.arastreju.sge.ArastrejuGate;
+import org.arastreju.sge.ModelingConversation;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.persistence.TransactionControl;
+import org.arastreju.sge.query.QueryResult;
+
+import de.lichtflut.infra.exceptions.NotYetImplementedException;
+
+/**
+ * <p>
+ *  Benchmark of the RDB binding, by default on the embedded in-memory database of 'arastreju.embedded.profile',
+ *  so schema and caching changes can be compared without a database server. A dataset of the given number of
+ *  triples is loaded, each resource has a type, a label and a link to another random resource. Then these
+ *  operations are measured, each with a new conversation per round of 100, so the conversation doesn't cache
+ *  everything:
+ *  <ul>
+ *  	<li>load: the resources are written in transactions of 10000 resources</li>
+ *  	<li>lookup: resolve a random resource and read it's associations</li>
+ *  	<li>incoming: find the statements linking to a random resource</li>
+ *  	<li>query: query the resources of a random type, read the first page and the size</li>
+ *  	<li>hub: find the statements linking to random resources, after a hub with {@link #HUB_EDGES} incoming
+ *  	statements has been added</li>
+ *  </ul>
+ * </p>
+ *
+ * <p>
+ *  Not a test case, run it with:
+ *  <pre>
+ *  java ... org.arastreju.rdb.test.RdbBenchmark [triples] [operations] [profile]
+ *  </pre>
+ *  e.g. with 1000000 or 10000000 triples. Properties 'org.arastreju.*' given as system properties override those
+ *  of the profile, e.g. -Dorg.arastreju.bindings.rdb.embedded=derby or -Dorg.arastreju.store.directory=/tmp/bench
+ *  for a database on disk.
+ * </p>
+ */
+public class RdbBenchmark {
+
+	private static final String NS = "http://benchmark.arastreju.org/";
+
+	private static final int TYPES = 10;
+
+	private static final int TX_SIZE = 10000;
+
+	private static final int ROUND = 100;
+
+	private static final int HUB_EDGES = 100000;
+
+	private static final ResourceID LINK = new SimpleResourceID(new QualifiedName(NS, "linksTo"));
+
+	private final ArastrejuGate gate;
+
+	private final int resources;
+
+	private final Random random = new Random(42);
+
+	// ----------------------------------------------------
+
+	public static void main(String[] args) {
+		final int triples = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		final int operations = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+		final String profile = args.length > 2 ? args[2] : "arastreju.embedded.profile";
+
+		final Properties overrides = new Properties();
+		for (Map.Entry<Object, Object> entry : System.getProperties().entrySet()) {
+			if (entry.getKey().toString().startsWith("org.arastreju.")) {
+				overrides.put(entry.getKey(), entry.getValue());
+			}
+		}
+		final ArastrejuGate gate = Arastreju.getInstance(profile, overrides).openMasterGate();
+		try {
+			final RdbBenchmark benchmark = new RdbBenchmark(gate, triples / 3);
+			System.out.println("profile: " + profile + ", triples: " + triples + ", operations: " + operations);
+			report("load", triples, benchmark.load());
+			report("lookup", operations, benchmark.lookup(operations));
+			report("incoming", operations, benchmark.incoming(operations));
+			report("query", operations / 10, benchmark.query(operations / 10));
+			report("hub", operations, benchmark.hub(operations));
+		} finally {
+			gate.close();
+		}
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param gate The gate.
+	 * @param resources The number of resources, each with three triples.
+	 */
+	public RdbBenchmark(ArastrejuGate gate, int resources) {
+		this.gate = gate;
+		this.resources = resources;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Load the dataset.
+	 * @return The elapsed nanoseconds.
+	 */
+	public long load() {
+		final long start = System.nanoTime();
+		for (int offset = 0; offset < resources; offset += TX_SIZE) {
+			final ModelingConversation mc = gate.startConversation();
+			final TransactionControl tx = mc.beginTransaction();
+			try {
+				for (int i = offset; i < Math.min(offset + TX_SIZE, resources); i++) {
+					final ResourceNode node = mc.resolve(resource(i));
+					SNOPS.associate(node, RDF.TYPE, type(i % TYPES));
+					SNOPS.associate(node, RDFS.LABEL, new SNText("Resource " + i));
+					SNOPS.associate(node, LINK, resource(random.nextInt(resources)));
+				}
+				tx.success();
+			} finally {
+				tx.finish();
+				mc.close();
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Resolve random resources and read their associations.
+	 * @return The elapsed nanoseconds.
+	 */
+	public long lookup(int operations) {
+		final long start = System.nanoTime();
+		ModelingConversation mc = null;
+		for (int i = 0; i < operations; i++) {
+			if (i % ROUND == 0) {
+				mc = renew(mc);
+			}
+			final ResourceNode node = mc.findResource(resource(random.nextInt(resources)).getQualifiedName());
+			if (node == null || node.getAssociations().size() != 3) {
+				throw new IllegalStateException("Unexpected associations of " + node);
+			}
+		}
+		close(mc);
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Find the statements linking to random resources.
+	 * @return The elapsed nanoseconds, or -1 if not supported by the binding.
+	 */
+	public long incoming(int operations) {
+		final long start = System.nanoTime();
+		ModelingConversation mc = null;
+		try {
+			for (int i = 0; i < operations; i++) {
+				if (i % ROUND == 0) {
+					mc = renew(mc);
+				}
+				mc.findIncomingStatements(resource(random.nextInt(resources)));
+			}
+		} catch (NotYetImplementedException e) {
+			return -1;
+		} finally {
+			close(mc);
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Query the resources of random types, reading the first page and the size of the result.
+	 * @return The elapsed nanoseconds.
+	 */
+	public long query(int operations) {
+		final long start = System.nanoTime();
+		ModelingConversation mc = null;
+		for (int i = 0; i < operations; i++) {
+			if (i % ROUND == 0) {
+				mc = renew(mc);
+			}
+			final QueryResult result = mc.createQuery().addField(RDF.TYPE, type(random.nextInt(TYPES))).getResult();
+			try {
+				result.toList(0, 20);
+				result.size();
+			} finally {
+				result.close();
+			}
+		}
+		close(mc);
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Add a hub with {@link #HUB_EDGES} incoming statements, then find the statements linking to random
+	 * resources and to the hub.
+	 * @return The elapsed nanoseconds of the lookups, or -1 if not supported by the binding.
+	 */
+	public long hub(int operations) {
+		final ResourceID hub = new SimpleResourceID(new QualifiedName(NS, "Hub"));
+		for (int offset = 0; offset < HUB_EDGES; offset += TX_SIZE) {
+			final ModelingConversation mc = gate.startConversation();
+			final TransactionControl tx = mc.beginTransaction();
+			try {
+				for (int i = offset; i < Math.min(offset + TX_SIZE, HUB_EDGES); i++) {
+					SNOPS.associate(mc.resolve(resource(i % resources)), LINK, hub);
+				}
+				tx.success();
+			} finally {
+				tx.finish();
+				mc.close();
+			}
+		}
+		final int edges = Math.min(HUB_EDGES, resources);
+		final ModelingConversation reader = gate.startConversation();
+		try {
+			final long hubStart = System.nanoTime();
+			final int found = reader.findIncomingStatements(hub).size();
+			if (found != edges) {
+				throw new IllegalStateException("Unexpected incoming statements of hub: " + found);
+			}
+			report("hub (all)", 1, System.nanoTime() - hubStart);
+		} catch (NotYetImplementedException e) {
+			return -1;
+		} finally {
+			reader.close();
+		}
+		return incoming(operations);
+	}
+
+	// ----------------------------------------------------
+
+	private ModelingConversation renew(ModelingConversation mc) {
+		close(mc);
+		return gate.startConversation();
+	}
+
+	private void close(ModelingConversation mc) {
+		if (mc != null) {
+			mc.close();
+		}
+	}
+
+	private static ResourceID resource(int i) {
+		return new SimpleResourceID(new QualifiedName(NS, "R" + i));
+	}
+
+	private static ResourceID type(int i) {
+		return new SimpleResourceID(new QualifiedName(NS, "Type" + i));
+	}
+
+	private static void report(String name, int operations, long nanos) {
+		if (nanos < 0) {
+			System.out.printf("%-10s not supported%n", name);
+			return;
+		}
+		final double seconds = nanos / 1e9;
+		System.out.printf("%-10s ops: %10d   time: %8.2fs   ops/s: %12.0f   avg: %8.3fms%n",
+				name, operations, seconds, operations / seconds, seconds * 1000 / operations);
+	}
+
+}
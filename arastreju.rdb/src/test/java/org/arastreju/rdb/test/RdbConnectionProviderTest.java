@@ -0,0 +1,177 @@
+package org.arastreju.rdb.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import org.arastreju.bindings.rdb.RdbConnectionProvider;
+import org.arastreju.sge.eh.ArastrejuRuntimeException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for the connection pool {@link RdbConnectionProvider}, using a stub JDBC driver.
+ * </p>
+ */
+public class RdbConnectionProviderTest {
+
+	private static final StubDriver DRIVER = new StubDriver();
+
+	static {
+		try {
+			DriverManager.registerDriver(DRIVER);
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private RdbConnectionProvider provider;
+
+	// ----------------------------------------------------
+
+	@Before
+	public void setUp() {
+		provider = new RdbConnectionProvider(StubDriver.class.getName(), "user", "pass", "jdbc:stub:test", "test", 2);
+		provider.setAcquireTimeout(100);
+	}
+
+	@After
+	public void tearDown() {
+		provider.shutdown();
+	}
+
+	// ----------------------------------------------------
+
+	@Test
+	public void testReuse() {
+		final Connection con = provider.getConnection();
+		assertEquals(1, provider.usedSize());
+		provider.close(con);
+		assertEquals(0, provider.usedSize());
+		assertEquals(1, provider.poolSize());
+		assertSame(con, provider.getConnection());
+		assertEquals(1, provider.getCreatedCount());
+		assertEquals(2, provider.getAcquiredCount());
+	}
+
+	@Test
+	public void testBoundedAndTimeout() {
+		provider.getConnection();
+		provider.getConnection();
+		try {
+			provider.getConnection();
+			fail("Expected timeout.");
+		} catch (ArastrejuRuntimeException e) {
+			assertEquals(1, provider.getTimeoutCount());
+		}
+	}
+
+	@Test
+	public void testBlocking() throws InterruptedException {
+		provider.setAcquireTimeout(5000);
+		final Connection first = provider.getConnection();
+		provider.getConnection();
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					return;
+				}
+				provider.close(first);
+			}
+		}).start();
+		assertSame(first, provider.getConnection());
+	}
+
+	@Test
+	public void testClosedConnectionDiscarded() throws SQLException {
+		final Connection con = provider.getConnection();
+		con.close();
+		provider.close(con);
+		assertEquals(0, provider.poolSize());
+		assertNotSame(con, provider.getConnection());
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Driver creating connection stubs, which only know if they are closed.
+	 */
+	public static class StubDriver implements Driver {
+
+		@Override
+		public Connection connect(String url, Properties info) throws SQLException {
+			if (!acceptsURL(url)) {
+				return null;
+			}
+			return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+					new InvocationHandler() {
+						private boolean closed;
+
+						@Override
+						public Object invoke(Object proxy, Method method, Object[] args) {
+							final String name = method.getName();
+							if (name.equals("close")) {
+								closed = true;
+							} else if (name.equals("isClosed")) {
+								return closed;
+							} else if (name.equals("isValid")) {
+								return !closed;
+							} else if (name.equals("hashCode")) {
+								return System.identityHashCode(proxy);
+							} else if (name.equals("equals")) {
+								return proxy == args[0];
+							}
+							return null;
+						}
+					});
+		}
+
+		@Override
+		public boolean acceptsURL(String url) {
+			return url.startsWith("jdbc:stub:");
+		}
+
+		@Override
+		public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+			return new DriverPropertyInfo[0];
+		}
+
+		@Override
+		public int getMajorVersion() {
+			return 1;
+		}
+
+		@Override
+		public int getMinorVersion() {
+			return 0;
+		}
+
+		@Override
+		public boolean jdbcCompliant() {
+			return false;
+		}
+
+		public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+			throw new SQLFeatureNotSupportedException();
+		}
+	}
+
+}
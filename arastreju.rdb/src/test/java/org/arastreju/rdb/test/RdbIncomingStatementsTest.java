@@ -0,0 +1,25 @@
+package org.arastreju.rdb.test;
+
+import java.util.Properties;
+
+import org.arastreju.sge.Arastreju;
+import org.arastreju.sge.ArastrejuGate;
+import org.arastreju.sge.spi.AbstractIncomingStatementsTest;
+
+/**
+ * <p>
+ *  Contract test of incoming statements for the RDB binding, on the embedded in-memory database.
+ * </p>
+ */
+public class RdbIncomingStatementsTest extends AbstractIncomingStatementsTest {
+
+	private static int databases;
+
+	@Override
+	protected ArastrejuGate createGate() {
+		final Properties properties = new Properties();
+		properties.setProperty("org.arastreju.bindings.rdb.db", "incoming" + (++databases));
+		return Arastreju.getInstance("arastreju.embedded.profile", properties).openMasterGate();
+	}
+
+}
@@ -0,0 +1,46 @@
+package org.arastreju.rdb.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.arastreju.bindings.rdb.jdbc.Column;
+import org.arastreju.bindings.rdb.jdbc.SQLQueryBuilder;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for the parameterized statements of {@link SQLQueryBuilder}.
+ * </p>
+ */
+public class SQLQueryBuilderTest {
+
+	@Test
+	public void testPreparedInsert() {
+		assertEquals("INSERT INTO root(sub,pre,obj,type) VALUES(?,?,?,?)",
+				SQLQueryBuilder.createPreparedInsert("root", Column.SUBJECT, Column.PREDICATE, Column.OBJECT, Column.TYPE));
+	}
+
+	@Test
+	public void testPreparedSelect() {
+		assertEquals("SELECT * FROM root WHERE sub=? AND pre=?",
+				SQLQueryBuilder.createPreparedSelect("root", Column.SUBJECT, Column.PREDICATE));
+		assertEquals("SELECT * FROM root", SQLQueryBuilder.createPreparedSelect("root"));
+	}
+
+	@Test
+	public void testPreparedSelectIn() {
+		assertEquals("SELECT id FROM root_node WHERE id IN (?,?,?)",
+				SQLQueryBuilder.createPreparedSelectIn("root_node", Column.ID, Column.ID, 3));
+	}
+
+	@Test
+	public void testPreparedDelete() {
+		assertEquals("DELETE FROM root_stmt WHERE sub=? AND pre=? AND obj=?",
+				SQLQueryBuilder.createPreparedDelete("root_stmt", Column.SUBJECT, Column.PREDICATE, Column.OBJECT));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidTable() {
+		SQLQueryBuilder.createPreparedInsert("root; DROP TABLE root", Column.SUBJECT);
+	}
+
+}
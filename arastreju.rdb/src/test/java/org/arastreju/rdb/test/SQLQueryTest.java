@@ -0,0 +1,98 @@
+package org.arastreju.rdb.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.arastreju.bindings.rdb.jdbc.Dialect;
+import org.arastreju.bindings.rdb.jdbc.NodeCodec;
+import org.arastreju.bindings.rdb.jdbc.SQLQuery;
+import org.arastreju.bindings.rdb.jdbc.Schema;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.query.FieldParam;
+import org.arastreju.sge.query.QueryException;
+import org.arastreju.sge.query.QueryExpression;
+import org.arastreju.sge.query.SortCriteria;
+import org.arastreju.sge.query.SubQuery;
+import org.arastreju.sge.query.UriParam;
+import org.arastreju.sge.query.ValueParam;
+import org.arastreju.sge.query.exp.AbstractQueryExpression;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for the compilation of query expressions by {@link SQLQuery}.
+ * </p>
+ */
+public class SQLQueryTest {
+
+	private final Schema schema = new Schema("root", Dialect.H2);
+
+	private final QualifiedName qnType = new QualifiedName("http://q#", "type");
+	private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+
+	@Test
+	public void testField() {
+		final SQLQuery query = new SQLQuery(schema, AbstractQueryExpression.leaf(new FieldParam(qnType, SNOPS.id(qnCar))), null);
+		assertEquals("SELECT r.val, r.lval FROM root_node r WHERE r.kind = ?" +
+				" AND EXISTS (SELECT 1 FROM root_stmt a WHERE a.sub = r.id)" +
+				" AND EXISTS (SELECT 1 FROM root_stmt s1 WHERE s1.sub = r.id AND s1.pre = ? AND s1.obj = ?) ORDER BY r.id",
+				query.getSQL());
+		assertEquals(Arrays.<Object>asList(NodeCodec.RESOURCE, NodeCodec.id(qnType), NodeCodec.id(qnCar)),
+				query.getParameters());
+	}
+
+	@Test
+	public void testJunctions() {
+		final QueryExpression and = AbstractQueryExpression.and();
+		and.add(AbstractQueryExpression.leaf(new FieldParam(qnType, "50%*")));
+		final QueryExpression not = AbstractQueryExpression.not();
+		not.add(AbstractQueryExpression.leaf(new UriParam(qnCar.toURI())));
+		and.add(not);
+		final SQLQuery query = new SQLQuery(schema, and, null);
+		assertTrue(query.getSQL(), query.getSQL().endsWith(" AND (EXISTS (SELECT 1 FROM root_stmt s1 JOIN root_node o1 ON o1.id = s1.obj" +
+				" WHERE s1.sub = r.id AND s1.pre = ? AND ((o1.lval IS NULL AND o1.val LIKE ? ESCAPE '!') OR o1.lval LIKE ? ESCAPE '!'))" +
+				" AND NOT (r.id = ?)) ORDER BY r.id"));
+		assertEquals(Arrays.<Object>asList(NodeCodec.RESOURCE, NodeCodec.id(qnType), "50!%%", "50!%%", NodeCodec.id(qnCar)),
+				query.getParameters());
+	}
+
+	@Test
+	public void testValue() {
+		final SQLQuery query = new SQLQuery(schema, AbstractQueryExpression.leaf(new ValueParam("Fast car*")), null);
+		assertEquals(Arrays.<Object>asList(NodeCodec.RESOURCE, NodeCodec.RESOURCE, "%fast%", "%fast%", "%car%%", "%car%%"),
+				query.getParameters());
+	}
+
+	@Test
+	public void testSort() {
+		final SQLQuery query = new SQLQuery(schema, AbstractQueryExpression.leaf(new UriParam("Car")),
+				new SortCriteria(qnType.toURI()));
+		assertTrue(query.getSQL(), query.getSQL().contains(" LEFT JOIN (SELECT ks.sub, MIN(ko.num) n," +
+				" MIN(CASE WHEN ko.num IS NULL THEN ko.val END) v FROM root_stmt ks JOIN root_node ko ON ko.id = ks.obj" +
+				" WHERE ks.pre = ? GROUP BY ks.sub) k0 ON k0.sub = r.id WHERE"));
+		assertTrue(query.getSQL().endsWith(" ORDER BY CASE WHEN k0.n IS NULL THEN 1 ELSE 0 END, k0.n," +
+				" CASE WHEN k0.v IS NULL THEN 1 ELSE 0 END, k0.v, r.id"));
+		assertEquals(NodeCodec.id(qnType), query.getParameters().get(0));
+	}
+
+	@Test
+	public void testPageAndCount() {
+		final SQLQuery query = new SQLQuery(schema, AbstractQueryExpression.leaf(new UriParam("Car")),
+				new SortCriteria(qnType.toURI()));
+		assertTrue(query.getSQL(20, 10), query.getSQL(20, 10).endsWith(" k0.v, r.id LIMIT 10 OFFSET 20"));
+		assertTrue(query.getCountSQL(), query.getCountSQL().startsWith("SELECT COUNT(*) FROM (SELECT r.val"));
+		assertFalse(query.getCountSQL(), query.getCountSQL().contains("ORDER BY"));
+		final SQLQuery derby = new SQLQuery(new Schema("root", Dialect.DERBY), AbstractQueryExpression.leaf(new UriParam("Car")), null);
+		assertTrue(derby.getSQL(0, 5).endsWith(" OFFSET 0 ROWS FETCH NEXT 5 ROWS ONLY"));
+	}
+
+	@Test(expected = QueryException.class)
+	public void testUnsupported() {
+		new SQLQuery(schema, AbstractQueryExpression.leaf(new SubQuery("x")), null);
+	}
+
+}
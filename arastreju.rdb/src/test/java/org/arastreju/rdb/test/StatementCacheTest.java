@@ -0,0 +1,77 @@
+package org.arastreju.rdb.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.arastreju.bindings.rdb.StatementCache;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.model.DetachedStatement;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for the second level cache {@link StatementCache}.
+ * </p>
+ */
+public class StatementCacheTest {
+
+	@Test
+	public void testGetAndPut() {
+		final StatementCache cache = new StatementCache(1600);
+		assertNull(cache.get(1));
+		cache.put(1, statements(3), cache.stamp());
+		cache.put(2, Collections.<Statement>emptyList(), cache.stamp());
+		assertEquals(3, cache.get(1).size());
+		assertNotNull(cache.get(2));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(4, cache.weight());
+	}
+
+	@Test
+	public void testInvalidation() {
+		final StatementCache cache = new StatementCache(1600);
+		cache.put(1, statements(1), cache.stamp());
+		final long stamp = cache.stamp();
+		cache.invalidate(1);
+		assertNull(cache.get(1));
+		// read before the write, must not be cached
+		cache.put(1, statements(1), stamp);
+		assertNull(cache.get(1));
+		cache.put(1, statements(2), cache.stamp());
+		assertEquals(2, cache.get(1).size());
+	}
+
+	@Test
+	public void testEviction() {
+		// 16 segments of 10 statements
+		final StatementCache cache = new StatementCache(160);
+		for (long subject = 0; subject < 1000; subject++) {
+			cache.put(subject, statements(5), cache.stamp());
+		}
+		assertTrue(cache.weight() <= 160);
+		assertTrue(cache.getEvictionCount() >= 1000 - 32);
+		cache.put(1000, statements(11), cache.stamp());
+		assertNull(cache.get(1000));
+	}
+
+	// ----------------------------------------------------
+
+	private List<Statement> statements(int count) {
+		final List<Statement> result = new ArrayList<Statement>();
+		for (int i = 0; i < count; i++) {
+			result.add(new DetachedStatement(SNOPS.id(new QualifiedName("http://q#s")), SNOPS.id(new QualifiedName("http://q#p")),
+					SNOPS.id(new QualifiedName("http://q#o" + i))));
+		}
+		return result;
+	}
+
+}
@@ -22,8 +22,9 @@ import org.arastreju.sge.context.VirtualDomain;
 import org.arastreju.sge.spi.ArastrejuGateFactory;
 
 import java.lang.reflect.Constructor;
-import java.util.HashMap;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * <p>
@@ -50,7 +51,7 @@ public final class Arastreju {
     private final ArastrejuGateFactory factory;
 	private final ArastrejuProfile profile;
 	
-	private static HashMap<String, DomainIdentifier> contextMap = new HashMap<String, DomainIdentifier>();
+	private static final ConcurrentMap<String, DomainIdentifier> contextMap = new ConcurrentHashMap<String, DomainIdentifier>();
 
 	// -----------------------------------------------------
 
@@ -124,7 +125,10 @@ public final class Arastreju {
         DomainIdentifier identifier = contextMap.get(ctxKey);
         if(identifier==null){
             identifier = createDomainIdentifier(domain);
-            contextMap.put(ctxKey, identifier);
+            final DomainIdentifier existing = contextMap.putIfAbsent(ctxKey, identifier);
+            if (existing != null) {
+                identifier = existing;
+            }
         }
         return factory.create(identifier);
     }
@@ -20,6 +20,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -29,7 +30,9 @@ import org.arastreju.sge.eh.ErrorCodes;
 import org.arastreju.sge.model.ResourceID;
 import org.arastreju.sge.model.SimpleResourceID;
 import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.associations.AssociationSet;
 import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
 import org.arastreju.sge.model.nodes.SemanticNode;
 import org.arastreju.sge.model.nodes.views.SNBoolean;
 import org.arastreju.sge.model.nodes.views.SNScalar;
@@ -119,14 +122,15 @@ public class SNOPS {
 	
 	// -- ASSOCIATIONS -------------------------------------
 
+    /**
+     * Get the associations corresponding to given predicate. To avoid the copy use the live view of
+     * {@link SNResource#getAssociations(ResourceID)}.
+     * @param subject The subject.
+     * @param predicate The predicate.
+     * @return New set of the matching associations.
+     */
     public static Set<Statement> associations(final ResourceNode subject, final ResourceID predicate) {
-        final Set<Statement> result = new HashSet<Statement>();
-        for (Statement assoc : subject.getAssociations()) {
-            if (predicate.equals(assoc.getPredicate())) {
-                result.add(assoc);
-            }
-        }
-        return result;
+        return new HashSet<Statement>(associationsOf(subject, predicate));
     }
 	
 	/**
@@ -136,12 +140,8 @@ public class SNOPS {
 	 * @return The first matching association or null.
 	 */
 	public static Statement fetchAssociation(final ResourceNode subject, final ResourceID predicate) {
-        for (Statement assoc : subject.getAssociations()) {
-            if (predicate.equals(assoc.getPredicate())) {
-                return assoc;
-            }
-        }
-        return null;
+        final Iterator<Statement> it = associationsOf(subject, predicate).iterator();
+        return it.hasNext() ? it.next() : null;
 	}
 	
 	/**
@@ -152,7 +152,7 @@ public class SNOPS {
 	 * @throws ArastrejuRuntimeException if more than one association of given predicate present.
 	 */
 	public static Statement singleAssociation(final ResourceNode subject, final ResourceID predicate) {
-		Set<Statement> associations = associations(subject, predicate);
+		Set<Statement> associations = associationsOf(subject, predicate);
 		if (associations.isEmpty()) {
 			return null;
 		} else if (associations.size() > 1) {
@@ -172,11 +172,11 @@ public class SNOPS {
      * @return The first matching object or null.
      */
     public static SemanticNode fetchObject(final ResourceNode subject, final ResourceID predicate) {
-        Set<Statement> associations = associations(subject, predicate);
-        if (associations.isEmpty()) {
+        final Statement association = fetchAssociation(subject, predicate);
+        if (association == null) {
             return null;
         } else {
-            return associations.iterator().next().getObject();
+            return association.getObject();
         }
     }
 
@@ -187,8 +187,8 @@ public class SNOPS {
      * @return The first matching object or null.
      */
     public static ResourceNode fetchObjectAsResource(final ResourceNode subject, final ResourceID predicate) {
-        for (Statement statement : subject.getAssociations()) {
-            if (predicate.equals(statement.getPredicate()) && statement.getObject().isResourceNode()) {
+        for (Statement statement : associationsOf(subject, predicate)) {
+            if (statement.getObject().isResourceNode()) {
                 return statement.getObject().asResource();
             }
         }
@@ -215,7 +215,7 @@ public class SNOPS {
 		if (subject == null) {
 			return Collections.emptySet();
 		}
-		return objects(associations(subject, predicate));
+		return objects(associationsOf(subject, predicate));
 	}
 
     public static Set<ResourceNode> objectsAsResources(final ResourceNode subject, final ResourceID predicate){
@@ -223,8 +223,8 @@ public class SNOPS {
             return Collections.emptySet();
         }
         final Set<ResourceNode> result = new HashSet<ResourceNode>();
-        for (Statement assoc : subject.getAssociations()) {
-            if (assoc.getPredicate().equals(predicate) && assoc.getObject().isResourceNode()) {
+        for (Statement assoc : associationsOf(subject, predicate)) {
+            if (assoc.getObject().isResourceNode()) {
                 result.add(assoc.getObject().asResource());
             }
         }
@@ -252,7 +252,7 @@ public class SNOPS {
     // -- PREDICATES --------------------------------------
 	
 	public static Set<ResourceID> predicates(final ResourceNode subject, final ResourceID predicate){
-		return predicates(associations(subject, predicate));
+		return predicates(associationsOf(subject, predicate));
 	}
 
 
@@ -267,7 +267,7 @@ public class SNOPS {
     // -- SUBJECTS ----------------------------------------
 
     public static Set<ResourceID> subjects(final ResourceNode subject, final ResourceID predicate){
-        return subjects(associations(subject, predicate));
+        return subjects(associationsOf(subject, predicate));
     }
 	
 	public static Set<ResourceID> subjects(final Collection<Statement> assocs){
@@ -295,7 +295,8 @@ public class SNOPS {
 	 * @param contexts The contexts.
 	 */
 	public static Statement assure(final ResourceNode subject, final ResourceID predicate, final SemanticNode object, final Context... contexts){
-		final Set<Statement> all = associations(subject, predicate);
+		// copied, the associations of the predicate change below
+		final Set<Statement> all = new HashSet<Statement>(associationsOf(subject, predicate));
 		if (all.size() > 1) {
 			remove(subject, predicate);
 		}
@@ -345,7 +346,7 @@ public class SNOPS {
 	public static void assure(final ResourceNode subject, final ResourceID predicate, final Collection<? extends SemanticNode> objects, final Context... contexts){
 		final List<SemanticNode> existing = new ArrayList<SemanticNode>();
 		// 1st: remove no longer existing
-		for(Statement assoc: associations(subject, predicate)){
+		for(Statement assoc: new ArrayList<Statement>(associationsOf(subject, predicate))){
 			if (!objects.contains(assoc.getObject())){
 				subject.removeAssociation(assoc);
 			} else {
@@ -366,7 +367,7 @@ public class SNOPS {
 	 * @param predicate The predicate.
 	 */
 	public static void remove(final ResourceNode subject, ResourceID predicate) {
-		for(Statement assoc: associations(subject, predicate)) {
+		for(Statement assoc: new ArrayList<Statement>(associationsOf(subject, predicate))) {
 			subject.removeAssociation(assoc);
 		}
 	}
@@ -380,7 +381,7 @@ public class SNOPS {
 	 */
 	public static boolean remove(final ResourceNode subject, ResourceID predicate, SemanticNode object) {
 		boolean removed = false;
-		for(Statement assoc: associations(subject, predicate)) {
+		for(Statement assoc: new ArrayList<Statement>(associationsOf(subject, predicate))) {
 			if (assoc.getObject().equals(object)) {
 				subject.removeAssociation(assoc);	
 				removed = true;
@@ -388,5 +389,18 @@ public class SNOPS {
 		}
 		return removed;
 	}
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * The associations of given predicate, from the predicate index of plain resources. Other nodes,
+	 * e.g. views including inherited associations, are scanned.
+	 */
+	private static Set<Statement> associationsOf(final ResourceNode subject, final ResourceID predicate) {
+		if (subject instanceof SNResource) {
+			return ((SNResource) subject).getAssociations(predicate);
+		}
+		return AssociationSet.select(subject.getAssociations(), predicate);
+	}
 
 }
@@ -18,8 +18,10 @@ package org.arastreju.sge.io;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.List;
 
 import org.arastreju.sge.eh.ErrorCodes;
+import org.arastreju.sge.model.DefaultSemanticGraph;
 import org.arastreju.sge.model.SemanticGraph;
 import org.arastreju.sge.model.Statement;
 import org.openrdf.rio.RDFHandlerException;
@@ -87,7 +89,7 @@ public abstract class AbstractRioBinding implements SemanticGraphIO {
             }
             
             writer.startRDF();
-            for (Statement stmt : graph.getStatements()) {
+            for (Statement stmt : sorted(graph)) {
                 writer.handleStatement(new RioStatement(stmt));
             }
             writer.endRDF();
@@ -131,4 +133,14 @@ public abstract class AbstractRioBinding implements SemanticGraphIO {
     
     protected abstract RDFParserFactory parserFactory();
 
+    // ----------------------------------------------------
+
+    private List<Statement> sorted(final SemanticGraph graph) {
+        if (graph instanceof DefaultSemanticGraph) {
+            return ((DefaultSemanticGraph) graph).getSortedStatements();
+        } else {
+            return new DefaultSemanticGraph(graph.getStatements()).getSortedStatements();
+        }
+    }
+
 }
@@ -15,9 +15,7 @@
  */
 package org.arastreju.sge.io;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-
+import org.arastreju.sge.model.DateFormats;
 import org.arastreju.sge.model.ResourceID;
 import org.arastreju.sge.model.nodes.SemanticNode;
 import org.arastreju.sge.model.nodes.ValueNode;
@@ -41,11 +39,6 @@ import org.openrdf.model.impl.URIImpl;
  */
 public class RioStatement implements org.openrdf.model.Statement {
 	
-	private static DateFormat XML_DATE = new SimpleDateFormat("yyyy-MM-dd");
-	
-	@SuppressWarnings("unused")
-	private static DateFormat XML_TIME = new SimpleDateFormat("HH:mm:ss");
-
 	private final org.arastreju.sge.model.Statement arasStmt;
 
 	// -----------------------------------------------------
@@ -123,7 +116,7 @@ public class RioStatement implements org.openrdf.model.Statement {
 	}
 	
 	private String xmlDate(ValueNode value) {
-		return XML_DATE.format(value.getTimeValue());
+		return DateFormats.formatXmlDate(value.getTimeValue());
 	}
 	
 }
@@ -37,6 +37,8 @@ public class AbstractStatement implements Statement {
 	
 	private final StatementMetaInfo metaInfo;
 	
+	private final long created;
+	
 	private final int hash;
 	
 	// -----------------------------------------------------
@@ -50,7 +52,7 @@ public class AbstractStatement implements Statement {
 	 */
 	public AbstractStatement(final ResourceID subject, final ResourceID predicate,
 			final SemanticNode object, final Context... contexts) {
-		this(subject, predicate, object, new StatementMetaInfo(contexts));
+		this(subject, predicate, object, StatementMetaInfo.of(contexts));
 	}
 	
 	/**
@@ -66,6 +68,26 @@ public class AbstractStatement implements Statement {
 		this.predicate = predicate;
 		this.object = object;
 		this.metaInfo = metaInfo;
+		this.created = System.currentTimeMillis();
+		hash = calculateHash();
+	}
+	
+	/**
+	 * Creates a copy of a statement with another object, keeping it's meta information and time of creation.
+	 * @param stmt The statement.
+	 * @param object The object.
+	 */
+	protected AbstractStatement(final Statement stmt, final SemanticNode object) {
+		this.subject = stmt.getSubject();
+		this.predicate = stmt.getPredicate();
+		this.object = object;
+		if (stmt instanceof AbstractStatement) {
+			this.metaInfo = ((AbstractStatement) stmt).metaInfo;
+			this.created = ((AbstractStatement) stmt).created;
+		} else {
+			this.metaInfo = stmt.getMetaInfo();
+			this.created = System.currentTimeMillis();
+		}
 		hash = calculateHash();
 	}
 	
@@ -104,7 +126,7 @@ public class AbstractStatement implements Statement {
 	 */
 	@Override
 	public StatementMetaInfo getMetaInfo() {
-		return metaInfo;
+		return metaInfo.createdAt(created);
 	}
 	
 	// -----------------------------------------------------
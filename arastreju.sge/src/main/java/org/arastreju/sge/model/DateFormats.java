@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.arastreju.sge.model;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * <p>
+ * 	Thread safe formatting and parsing of the temporal values of value nodes and RDF literals.
+ * </p>
+ * 
+ * <p>
+ * 	{@link SimpleDateFormat} may not be shared by several threads, so each thread uses it's own instance
+ * 	of a pattern, which is created once per thread and pattern instead of once per value.
+ * </p>
+ */
+public final class DateFormats {
+	
+	/**
+	 * The format of DATE, TIME_OF_DAY and TIMESTAMP values, e.g. 2012-12-07T14:30:00+0100.
+	 */
+	public static final String TIMESTAMP = "yyyy-MM-dd'T'HH:mm:ssZ";
+	
+	/**
+	 * The format of xsd:date literals, e.g. 2012-12-07.
+	 */
+	public static final String XML_DATE = "yyyy-MM-dd";
+	
+	private static final Pattern TIMESTAMP_FORMAT = new Pattern(TIMESTAMP);
+	
+	private static final Pattern XML_DATE_FORMAT = new Pattern(XML_DATE);
+	
+	// -----------------------------------------------------
+	
+	private DateFormats() {
+	}
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * @param date The date.
+	 * @return The date formatted as {@link #TIMESTAMP}.
+	 */
+	public static String formatTimestamp(final Date date) {
+		return TIMESTAMP_FORMAT.get().format(date);
+	}
+	
+	/**
+	 * @param value The date formatted as {@link #TIMESTAMP}.
+	 * @return The date.
+	 * @throws ParseException if the value does not match the format.
+	 */
+	public static Date parseTimestamp(final String value) throws ParseException {
+		return TIMESTAMP_FORMAT.get().parse(value);
+	}
+	
+	/**
+	 * @param date The date.
+	 * @return The date formatted as {@link #XML_DATE}.
+	 */
+	public static String formatXmlDate(final Date date) {
+		return XML_DATE_FORMAT.get().format(date);
+	}
+	
+	// -----------------------------------------------------
+	
+	private static class Pattern extends ThreadLocal<DateFormat> {
+		
+		private final String pattern;
+		
+		public Pattern(final String pattern) {
+			this.pattern = pattern;
+		}
+		
+		@Override
+		protected DateFormat initialValue() {
+			return new SimpleDateFormat(pattern);
+		}
+		
+	}
+	
+}
@@ -15,20 +15,21 @@
  */
 package org.arastreju.sge.model;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.arastreju.sge.SNOPS;
 import org.arastreju.sge.model.nodes.ResourceNode;
 import org.arastreju.sge.model.nodes.SemanticNode;
 import org.arastreju.sge.model.nodes.ValueNode;
 import org.arastreju.sge.naming.Namespace;
-import org.arastreju.sge.naming.SimpleNamespace;
 
 /**
  * <p>
@@ -36,6 +37,18 @@ import org.arastreju.sge.naming.SimpleNamespace;
  * </p>
  *
  * <p>
+ *  The statements are kept in a hash set and are iterated in the order of insertion, no longer sorted.
+ *  {@link #getSortedStatements()} returns them sorted by subject, predicate and object.
+ * </p>
+ *
+ * <p>
+ *  The sorted statements, nodes, subjects and namespaces are computed on demand and kept until the graph
+ *  is changed. They are returned as unmodifiable views, no longer as new sets. The namespaces are the shared
+ *  instances of {@link org.arastreju.sge.naming.QualifiedName#toNamespace()}, without prefix and unmodifiable.
+ *  The graph is not thread safe.
+ * </p>
+ *
+ * <p>
  * 	Created Jan 14, 2011
  * </p>
  *
@@ -43,7 +56,15 @@ import org.arastreju.sge.naming.SimpleNamespace;
  */
 public class DefaultSemanticGraph implements SemanticGraph {
 	
-	private final Set<Statement> statements = new TreeSet<Statement>(new StmtComparator());
+	private final Set<Statement> statements = new LinkedHashSet<Statement>();
+	
+	private List<Statement> sorted;
+	
+	private Set<SemanticNode> nodes;
+	
+	private Set<ResourceNode> subjects;
+	
+	private Set<Namespace> namespaces;
 	
 	// -----------------------------------------------------
 	
@@ -76,6 +97,19 @@ public class DefaultSemanticGraph implements SemanticGraph {
 		return Collections.unmodifiableSet(statements);
 	}
 
+	/**
+	 * Get all associations of this graph in a stable order, e.g. for serialization:
+	 * by subject, predicate and object.
+	 * @return Unmodifiable list of the sorted associations.
+	 */
+	public List<Statement> getSortedStatements() {
+		if (sorted == null) {
+			final List<Statement> list = new ArrayList<Statement>(statements);
+			Collections.sort(list, new StmtComparator());
+			sorted = Collections.unmodifiableList(list);
+		}
+		return sorted;
+	}
 
     /**
      * {@inheritDoc}
@@ -89,10 +123,13 @@ public class DefaultSemanticGraph implements SemanticGraph {
 	 * {@inheritDoc}
 	 */
 	public Set<SemanticNode> getNodes() {
-		final Set<SemanticNode> nodes = new HashSet<SemanticNode>();
-		for(Statement assoc : statements){
-			nodes.add(assoc.getSubject());
-			nodes.add(assoc.getObject());
+		if (nodes == null) {
+			final Set<SemanticNode> result = new HashSet<SemanticNode>();
+			for(Statement assoc : statements){
+				result.add(assoc.getSubject());
+				result.add(assoc.getObject());
+			}
+			nodes = Collections.unmodifiableSet(result);
 		}
 		return nodes;
 	}
@@ -101,9 +138,12 @@ public class DefaultSemanticGraph implements SemanticGraph {
 	 * {@inheritDoc}
 	 */
 	public Set<ResourceNode> getSubjects() {
-		final Set<ResourceNode> subjects = new HashSet<ResourceNode>();
-		for(Statement assoc : statements){
-			subjects.add(assoc.getSubject().asResource());
+		if (subjects == null) {
+			final Set<ResourceNode> result = new HashSet<ResourceNode>();
+			for(Statement assoc : statements){
+				result.add(assoc.getSubject().asResource());
+			}
+			subjects = Collections.unmodifiableSet(result);
 		}
 		return subjects;
 	}
@@ -112,11 +152,14 @@ public class DefaultSemanticGraph implements SemanticGraph {
 	 * {@inheritDoc}
 	 */
 	public Collection<Namespace> getNamespaces() {
-		final Set<Namespace> namespaces = new HashSet<Namespace>();
-		for (Statement assoc : statements) {
-			addNamespace(assoc.getSubject(), namespaces);
-			addNamespace(assoc.getPredicate(), namespaces);
-			addNamespace(assoc.getObject(), namespaces);
+		if (namespaces == null) {
+			final Set<Namespace> result = new HashSet<Namespace>();
+			for (Statement assoc : statements) {
+				addNamespace(assoc.getSubject(), result);
+				addNamespace(assoc.getPredicate(), result);
+				addNamespace(assoc.getObject(), result);
+			}
+			namespaces = Collections.unmodifiableSet(result);
 		}
 		return namespaces;
 	}
@@ -127,7 +170,9 @@ public class DefaultSemanticGraph implements SemanticGraph {
 	 * {@inheritDoc}
 	 */
 	public void addStatements(final Collection<? extends Statement> stmts) {
-		this.statements.addAll(stmts);
+		if (this.statements.addAll(stmts)) {
+			invalidate();
+		}
 	}
 	
 	/** 
@@ -135,7 +180,9 @@ public class DefaultSemanticGraph implements SemanticGraph {
 	 */
 	@Override
 	public void addStatement(Statement stmt) {
-		this.statements.add(stmt);
+		if (this.statements.add(stmt)) {
+			invalidate();
+		}
 	}
 	
 	/**
@@ -161,10 +208,16 @@ public class DefaultSemanticGraph implements SemanticGraph {
 	
 	// -----------------------------------------------------
 	
+	private void invalidate() {
+		sorted = null;
+		nodes = null;
+		subjects = null;
+		namespaces = null;
+	}
+	
 	private void addNamespace(final SemanticNode node, final Set<Namespace> targetSet){
 		if (node.isResourceNode() && !node.asResource().isBlankNode()){
-			targetSet.add(
-					new SimpleNamespace(node.asResource().getQualifiedName().getNamespace()));
+			targetSet.add(node.asResource().getQualifiedName().toNamespace());
 		} 
 	}
 	
@@ -214,8 +267,22 @@ public class DefaultSemanticGraph implements SemanticGraph {
 			return rn1.getQualifiedName().compareTo(rn2.getQualifiedName());
 		}
 		
+		/**
+		 * Values are ordered by datatype first, points in time are compared without formatting them.
+		 */
 		private int compare(ValueNode v1, ValueNode v2) {
-			return v1.getStringValue().compareTo(v2.getStringValue());
+			final int c = v1.getDataType().compareTo(v2.getDataType());
+			if (c != 0) {
+				return c;
+			}
+			switch (v1.getDataType()) {
+			case DATE:
+			case TIME_OF_DAY:
+			case TIMESTAMP:
+				return v1.getTimeValue().compareTo(v2.getTimeValue());
+			default:
+				return v1.getStringValue().compareTo(v2.getStringValue());
+			}
 		}
 		
 	}
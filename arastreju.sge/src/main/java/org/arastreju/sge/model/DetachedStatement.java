@@ -56,6 +56,15 @@ public class DetachedStatement extends AbstractStatement {
 	public DetachedStatement(ResourceID subject, ResourceID predicate, SemanticNode object, StatementMetaInfo metaInfo) {
 		super(subject, predicate, object, metaInfo);
 	}
+	
+	/**
+	 * Creates a copy of a statement with another object, keeping it's meta information and time of creation.
+	 * @param stmt The statement.
+	 * @param object The object.
+	 */
+	public DetachedStatement(final Statement stmt, final SemanticNode object) {
+		super(stmt, object);
+	}
 
 	
 	
@@ -40,8 +40,17 @@ public interface Statement extends Serializable {
 	
 	SemanticNode getObject();
 
+	/**
+	 * @return The contexts of this statement. The array may be shared and must not be modified.
+	 */
 	Context[] getContexts();
 	
+	/**
+	 * The meta info of statements created without a timestamp, e.g. when loaded from a store, is shared
+	 * per set of contexts, see {@link StatementMetaInfo#of(Context...)}. It's timestamp is set to the time of
+	 * creation of the statement when it is requested here.
+	 * @return The meta info.
+	 */
 	StatementMetaInfo getMetaInfo();
 	
 }
@@ -6,9 +6,14 @@ package org.arastreju.sge.model;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.arastreju.sge.context.Context;
+import org.arastreju.sge.context.SimpleContextID;
 import org.arastreju.sge.model.nodes.StatementOrigin;
+import org.arastreju.sge.naming.QualifiedName;
 
 /**
  * <p>
@@ -16,6 +21,12 @@ import org.arastreju.sge.model.nodes.StatementOrigin;
  * </p>
  *
  * <p>
+ *  Statements asserted without a timestamp share the instances of {@link #of(Context...)}, one per
+ *  set of contexts, instead of an own meta info, timestamp and copy of the contexts each. The statement
+ *  keeps it's time of creation and adds it as timestamp when it's meta info is requested.
+ * </p>
+ *
+ * <p>
  * 	Created May 4, 2012
  * </p>
  *
@@ -25,9 +36,20 @@ public class StatementMetaInfo implements Serializable, Cloneable {
 	
 	public static final Context[] NO_CTX = new Context[0];
 
+    private static final StatementMetaInfo NONE = lazy(new StatementMetaInfo(NO_CTX, null));
+
+    private static final int MAX_SHARED = 1000;
+
+    private static final ConcurrentMap<QualifiedName, StatementMetaInfo> sharedSingle =
+            new ConcurrentHashMap<QualifiedName, StatementMetaInfo>();
+
+    private static final ConcurrentMap<List<QualifiedName>, StatementMetaInfo> shared =
+            new ConcurrentHashMap<List<QualifiedName>, StatementMetaInfo>();
+
 	private final Context[] contexts;
     private final Date timestamp;
     private StatementOrigin origin;
+    private boolean lazyTimestamp;
 	
 	// ----------------------------------------------------
 
@@ -40,8 +62,10 @@ public class StatementMetaInfo implements Serializable, Cloneable {
         this.timestamp = timestamp;
         this.origin = origin;
 
-        if (contexts == null || (contexts.length == 1 && contexts[0] == null)) {
+        if (contexts == null || contexts.length == 0 || (contexts.length == 1 && contexts[0] == null)) {
             this.contexts = NO_CTX;
+        } else if (contexts.length == 1) {
+            this.contexts = new Context[] { contexts[0] };
         } else {
             for (Context ctx : contexts) {
                 if (ctx == null) {
@@ -74,6 +98,83 @@ public class StatementMetaInfo implements Serializable, Cloneable {
         this(null);
     }
 
+    /**
+     * Constructor for the meta info of a statement using a shared one.
+     * @param shared The shared meta info.
+     * @param timestamp The timestamp of the creation of the statement.
+     */
+    private StatementMetaInfo(StatementMetaInfo shared, Date timestamp) {
+        this.contexts = shared.contexts;
+        this.timestamp = timestamp;
+        this.origin = shared.origin;
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Get the shared meta info of asserted statements in the given contexts, without timestamp.
+     * Only sets of plain context IDs are shared, contexts being nodes are not kept beyond the statement.
+     * The shared instance is looked up before a new one is created, for a single context without allocation.
+     * @param contexts The contexts.
+     * @return The shared or, for rare sets of contexts, a new meta info.
+     */
+    public static StatementMetaInfo of(Context... contexts) {
+        if (contexts == null || contexts.length == 0 || (contexts.length == 1 && contexts[0] == null)) {
+            return NONE;
+        }
+        for (Context ctx : contexts) {
+            if (ctx == null || ctx.getClass() != SimpleContextID.class) {
+                return lazy(new StatementMetaInfo(contexts, null));
+            }
+        }
+        if (contexts.length == 1) {
+            final QualifiedName key = contexts[0].getQualifiedName();
+            final StatementMetaInfo existing = sharedSingle.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            return share(sharedSingle, key, lazy(new StatementMetaInfo(contexts, null)));
+        }
+        final QualifiedName[] key = new QualifiedName[contexts.length];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = contexts[i].getQualifiedName();
+        }
+        // the contexts are sorted by their qualified names
+        Arrays.sort(key);
+        final List<QualifiedName> keyList = Arrays.asList(key);
+        final StatementMetaInfo existing = shared.get(keyList);
+        if (existing != null) {
+            return existing;
+        }
+        return share(shared, keyList, lazy(new StatementMetaInfo(contexts, null)));
+    }
+
+    /**
+     * Get the meta info of a statement created at the given time. The shared meta info of
+     * {@link #of(Context...)} gets the time as timestamp, any other is returned as is.
+     * @param created The time of creation of the statement in milliseconds.
+     * @return The meta info of the statement.
+     */
+    public StatementMetaInfo createdAt(long created) {
+        if (!lazyTimestamp) {
+            return this;
+        }
+        return new StatementMetaInfo(this, new Date(created));
+    }
+
+    private static StatementMetaInfo lazy(StatementMetaInfo metaInfo) {
+        metaInfo.lazyTimestamp = true;
+        return metaInfo;
+    }
+
+    private static <K> StatementMetaInfo share(ConcurrentMap<K, StatementMetaInfo> map, K key, StatementMetaInfo created) {
+        if (sharedSingle.size() + shared.size() >= MAX_SHARED) {
+            return created;
+        }
+        final StatementMetaInfo raced = map.putIfAbsent(key, created);
+        return raced != null ? raced : created;
+    }
+
     // ----------------------------------------------------
 
     public StatementMetaInfo infer() {
@@ -99,14 +200,15 @@ public class StatementMetaInfo implements Serializable, Cloneable {
     // ----------------------------------------------------
 
 	/**
-	 * @return the contexts
+	 * @return The contexts. The array may be shared by several statements and must not be modified.
 	 */
 	public Context[] getContexts() {
 		return contexts;
 	}
 	
 	/**
-	 * @return the timestamp
+	 * @return the timestamp, null for the shared meta info of {@link #of(Context...)}. Statements using it
+	 * 			return their time of creation, see {@link #createdAt(long)}.
 	 */
 	public Date getTimestamp() {
 		return timestamp;
@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.arastreju.sge.model.ResourceID;
 import org.arastreju.sge.model.Statement;
 
 /**
@@ -35,7 +36,7 @@ import org.arastreju.sge.model.Statement;
  */
 public abstract class AbstractAssociationKeeper implements AssociationKeeper, Serializable {
 
-	private Set<Statement> associations;
+	private AssociationSet associations;
 	
 	private Set<Statement> removedAssociations;
 	
@@ -71,6 +72,16 @@ public abstract class AbstractAssociationKeeper implements AssociationKeeper, Se
 		}
 		return getAssociationsDirectly();
 	}
+	
+	/**
+	 * Get the associations with the given predicate, using the predicate index of {@link AssociationSet}
+	 * if the associations are kept in one.
+	 * @param predicate The predicate.
+	 * @return The resolved associations with the given predicate, not to be modified.
+	 */
+	public Set<Statement> getAssociations(final ResourceID predicate) {
+		return AssociationSet.select(getAssociations(), predicate);
+	}
 
     @Override
 	public void addAssociation(final Statement assoc) {
@@ -124,7 +135,7 @@ public abstract class AbstractAssociationKeeper implements AssociationKeeper, Se
 	
 	protected Set<Statement> getAssociationsDirectly() {
 		if (associations == null) {
-			associations = new HashSet<Statement>();
+			associations = new AssociationSet();
 		}
 		return associations;
 	}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.arastreju.sge.model.associations;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.naming.QualifiedName;
+
+/**
+ * <p>
+ * 	Set of the associations of one resource with a secondary index by predicate, so the associations
+ * 	of a predicate are found without scanning all associations. The index is maintained on every change
+ * 	of the set, including changes by it's iterator.
+ * </p>
+ * 
+ * <p>
+ * 	The concurrent variant never blocks readers, but a reader may see a statement in the set before it
+ * 	is visible in the index of it's predicate, or vice versa.
+ * </p>
+ */
+public class AssociationSet extends AbstractSet<Statement> implements Serializable {
+	
+	private final boolean concurrent;
+	
+	private final Set<Statement> statements;
+	
+	private final Map<QualifiedName, PredicateSet> byPredicate;
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * Creates a new set, not safe for concurrent use.
+	 */
+	public AssociationSet() {
+		this(false);
+	}
+	
+	/**
+	 * Creates a new set.
+	 * @param concurrent Flag indicating if the set may be changed and read by several threads.
+	 */
+	public AssociationSet(final boolean concurrent) {
+		this.concurrent = concurrent;
+		this.statements = newSet(concurrent);
+		if (concurrent) {
+			this.byPredicate = new ConcurrentHashMap<QualifiedName, PredicateSet>();
+		} else {
+			this.byPredicate = new HashMap<QualifiedName, PredicateSet>();
+		}
+	}
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * Get the associations with the given predicate. The result is a live view, it can not be modified.
+	 * @param predicate The predicate.
+	 * @return The associations.
+	 */
+	public Set<Statement> getAssociations(final ResourceID predicate) {
+		final PredicateSet result = byPredicate.get(predicate.getQualifiedName());
+		if (result == null) {
+			return Collections.emptySet();
+		}
+		return result;
+	}
+	
+	/**
+	 * Select the associations with the given predicate. The predicate index is used if the associations
+	 * are an association set, other sets are scanned.
+	 * @param associations The associations.
+	 * @param predicate The predicate.
+	 * @return The live view of the index or a new set of the matching associations.
+	 */
+	public static Set<Statement> select(final Set<Statement> associations, final ResourceID predicate) {
+		if (associations instanceof AssociationSet) {
+			return ((AssociationSet) associations).getAssociations(predicate);
+		}
+		final Set<Statement> result = new HashSet<Statement>();
+		for (Statement assoc : associations) {
+			if (predicate.equals(assoc.getPredicate())) {
+				result.add(assoc);
+			}
+		}
+		return result;
+	}
+	
+	// -----------------------------------------------------
+	
+	@Override
+	public boolean add(final Statement stmt) {
+		if (!statements.add(stmt)) {
+			return false;
+		}
+		bucket(stmt.getPredicate().getQualifiedName()).values.add(stmt);
+		return true;
+	}
+	
+	@Override
+	public boolean remove(final Object obj) {
+		if (!statements.remove(obj)) {
+			return false;
+		}
+		unindex((Statement) obj);
+		return true;
+	}
+	
+	@Override
+	public boolean contains(final Object obj) {
+		return statements.contains(obj);
+	}
+	
+	@Override
+	public void clear() {
+		statements.clear();
+		byPredicate.clear();
+	}
+	
+	@Override
+	public int size() {
+		return statements.size();
+	}
+	
+	@Override
+	public Iterator<Statement> iterator() {
+		final Iterator<Statement> it = statements.iterator();
+		return new Iterator<Statement>() {
+			
+			private Statement current;
+			
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+			
+			public Statement next() {
+				current = it.next();
+				return current;
+			}
+			
+			public void remove() {
+				it.remove();
+				unindex(current);
+			}
+		};
+	}
+	
+	// -----------------------------------------------------
+	
+	private void unindex(final Statement stmt) {
+		final PredicateSet bucket = byPredicate.get(stmt.getPredicate().getQualifiedName());
+		if (bucket != null) {
+			// empty buckets are kept, a concurrent add may just be using it
+			bucket.values.remove(stmt);
+		}
+	}
+	
+	private PredicateSet bucket(final QualifiedName predicate) {
+		PredicateSet bucket = byPredicate.get(predicate);
+		if (bucket == null) {
+			bucket = new PredicateSet(newSet(concurrent));
+			if (concurrent) {
+				final PredicateSet existing = ((ConcurrentMap<QualifiedName, PredicateSet>) byPredicate).putIfAbsent(predicate, bucket);
+				if (existing != null) {
+					bucket = existing;
+				}
+			} else {
+				byPredicate.put(predicate, bucket);
+			}
+		}
+		return bucket;
+	}
+	
+	private static Set<Statement> newSet(final boolean concurrent) {
+		if (concurrent) {
+			return Collections.newSetFromMap(new ConcurrentHashMap<Statement, Boolean>());
+		} else {
+			return new HashSet<Statement>();
+		}
+	}
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * Unmodifiable view of the associations of one predicate.
+	 */
+	private static class PredicateSet extends AbstractSet<Statement> implements Serializable {
+		
+		private final Set<Statement> values;
+		
+		public PredicateSet(final Set<Statement> values) {
+			this.values = values;
+		}
+		
+		@Override
+		public boolean contains(final Object obj) {
+			return values.contains(obj);
+		}
+		
+		@Override
+		public int size() {
+			return values.size();
+		}
+		
+		@Override
+		public Iterator<Statement> iterator() {
+			final Iterator<Statement> it = values.iterator();
+			return new Iterator<Statement>() {
+				public boolean hasNext() {
+					return it.hasNext();
+				}
+				public Statement next() {
+					return it.next();
+				}
+				public void remove() {
+					throw new UnsupportedOperationException("Associations of a predicate can not be modified.");
+				}
+			};
+		}
+	}
+	
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.arastreju.sge.model.nodes;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.Locale;
+
+import org.arastreju.sge.model.ElementaryDataType;
+import org.arastreju.sge.model.nodes.views.SNScalar;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.model.nodes.views.SNTimeSpec;
+
+import de.lichtflut.infra.Infra;
+
+/**
+ * <p>
+ * 	Base for value nodes keeping their value as primitive, see {@link SNValue#create(ElementaryDataType, Object, Locale)}.
+ * 	These nodes have no locale. They are equal to an {@link SNValue} of the same value and have the same hash code,
+ * 	so both kinds of nodes can be mixed in sets and statements. The boxed value is only created, when it is
+ * 	requested by one of the getters.
+ * </p>
+ */
+public abstract class PrimitiveValue implements ValueNode, Serializable {
+	
+	private final ElementaryDataType datatype;
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * Constructor.
+	 * @param datatype The datatype.
+	 */
+	protected PrimitiveValue(final ElementaryDataType datatype) {
+		this.datatype = datatype;
+	}
+	
+	// -----------------------------------------------------
+	
+	public ElementaryDataType getDataType() {
+		return datatype;
+	}
+	
+	public Locale getLocale() {
+		return null;
+	}
+	
+	public boolean isResourceNode() {
+		return false;
+	}
+	
+	public boolean isValueNode() {
+		return true;
+	}
+	
+	public ResourceNode asResource() {
+		throw new IllegalStateException("Not a resource: " + this);
+	}
+	
+	public ValueNode asValue() {
+		return this;
+	}
+	
+	// -----------------------------------------------------
+	
+	public Boolean getBooleanValue() {
+		throw new IllegalStateException("Not a boolean value: " + this + " (" + datatype + ")");
+	}
+	
+	public BigInteger getIntegerValue() {
+		throw new IllegalStateException("Not a numeric value: " + this + " (" + datatype + ")");
+	}
+	
+	public BigDecimal getDecimalValue() {
+		throw new IllegalStateException("Not a numeric value: " + this + " (" + datatype + ")");
+	}
+	
+	public Date getTimeValue() {
+		throw new IllegalStateException("Not a temporal value: " + this + " (" + datatype + ")");
+	}
+	
+	// -----------------------------------------------------
+	
+	public SNTimeSpec asTimeSpec() {
+		return new SNTimeSpec(toSNValue());
+	}
+	
+	public SNScalar asScalar() {
+		return new SNScalar(toSNValue());
+	}
+	
+	public SNText asText() {
+		return new SNText(toSNValue());
+	}
+	
+	// -----------------------------------------------------
+	
+	@Override
+	public String toString() {
+		return getStringValue();
+	}
+	
+	/**
+	 * Same as {@link SNValue#hashCode()}.
+	 */
+	@Override
+	public int hashCode() {
+		return hash(datatype, valueHash());
+	}
+	
+	/**
+	 * Same as {@link SNValue#equals(Object)}.
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (obj instanceof ValueNode) {
+			final ValueNode other = (ValueNode) obj;
+			return datatype == other.getDataType() && other.getLocale() == null 
+					&& Infra.equals(getValue(), other.getValue());
+		}
+		return false;
+	}
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * @return The hash code of the boxed value, as returned by {@link #getValue()}.
+	 */
+	protected abstract int valueHash();
+	
+	/**
+	 * @return An equal {@link SNValue}.
+	 */
+	protected SNValue toSNValue() {
+		return new SNValue(datatype, getValue());
+	}
+	
+	/**
+	 * The hash code of an {@link SNValue}.
+	 */
+	static int hash(final ElementaryDataType datatype, final int valueHash) {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((datatype == null) ? 0 : datatype.hashCode());
+		result = prime * result + valueHash;
+		return result;
+	}
+	
+	/**
+	 * Comparison of primitive longs, as {@link Long#compareTo(Long)} without boxing.
+	 */
+	static int compare(final long a, final long b) {
+		return (a < b) ? -1 : ((a == b) ? 0 : 1);
+	}
+	
+}
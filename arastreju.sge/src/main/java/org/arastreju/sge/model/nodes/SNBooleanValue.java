@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.arastreju.sge.model.nodes;
+
+import org.arastreju.sge.model.ElementaryDataType;
+
+/**
+ * <p>
+ * 	Boolean value. There are only the two instances {@link #TRUE} and {@link #FALSE}.
+ * </p>
+ */
+public final class SNBooleanValue extends PrimitiveValue {
+	
+	public static final SNBooleanValue TRUE = new SNBooleanValue(true);
+	
+	public static final SNBooleanValue FALSE = new SNBooleanValue(false);
+	
+	private final boolean value;
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * @param value The value.
+	 * @return The node of the value.
+	 */
+	public static SNBooleanValue valueOf(final boolean value) {
+		return value ? TRUE : FALSE;
+	}
+	
+	private SNBooleanValue(final boolean value) {
+		super(ElementaryDataType.BOOLEAN);
+		this.value = value;
+	}
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * @return The value as primitive.
+	 */
+	public boolean booleanValue() {
+		return value;
+	}
+	
+	public Object getValue() {
+		return getBooleanValue();
+	}
+	
+	public String getStringValue() {
+		return Boolean.toString(value);
+	}
+	
+	@Override
+	public Boolean getBooleanValue() {
+		return Boolean.valueOf(value);
+	}
+	
+	// -----------------------------------------------------
+	
+	public int compareTo(final ValueNode other) {
+		if (other instanceof SNBooleanValue) {
+			return (value == ((SNBooleanValue) other).value) ? 0 : (value ? 1 : -1);
+		}
+		return getBooleanValue().compareTo(other.getBooleanValue());
+	}
+	
+	@Override
+	public boolean equals(final Object obj) {
+		if (obj instanceof SNBooleanValue) {
+			return value == ((SNBooleanValue) obj).value;
+		}
+		return super.equals(obj);
+	}
+	
+	@Override
+	protected int valueHash() {
+		return value ? 1231 : 1237;
+	}
+	
+	/**
+	 * Keep the two instances unique on deserialization.
+	 */
+	private Object readResolve() {
+		return valueOf(value);
+	}
+	
+}
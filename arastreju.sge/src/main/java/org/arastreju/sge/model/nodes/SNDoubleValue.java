@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.arastreju.sge.model.nodes;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.arastreju.sge.model.ElementaryDataType;
+
+/**
+ * <p>
+ * 	Decimal value, which is exactly represented by a double, i.e. equal to <code>BigDecimal.valueOf(double)</code>.
+ * </p>
+ */
+public class SNDoubleValue extends PrimitiveValue {
+	
+	private final double value;
+	
+	private transient int hash;
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * Constructor.
+	 * @param value The value, must be finite.
+	 */
+	public SNDoubleValue(final double value) {
+		super(ElementaryDataType.DECIMAL);
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			throw new IllegalArgumentException("Not a decimal value: " + value);
+		}
+		// -0.0 and 0.0 are the same decimal
+		this.value = value == 0 ? 0.0 : value;
+	}
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * @return The value as primitive.
+	 */
+	public double doubleValue() {
+		return value;
+	}
+	
+	public Object getValue() {
+		return getDecimalValue();
+	}
+	
+	public String getStringValue() {
+		return getDecimalValue().toString();
+	}
+	
+	@Override
+	public BigDecimal getDecimalValue() {
+		return BigDecimal.valueOf(value);
+	}
+	
+	@Override
+	public BigInteger getIntegerValue() {
+		return BigInteger.valueOf((long) value);
+	}
+	
+	// -----------------------------------------------------
+	
+	public int compareTo(final ValueNode other) {
+		if (other instanceof SNDoubleValue) {
+			return Double.compare(value, ((SNDoubleValue) other).value);
+		}
+		return getDecimalValue().compareTo(other.getDecimalValue());
+	}
+	
+	@Override
+	public boolean equals(final Object obj) {
+		if (obj instanceof SNDoubleValue) {
+			return value == ((SNDoubleValue) obj).value;
+		}
+		return super.equals(obj);
+	}
+	
+	/**
+	 * The hash code of the BigDecimal depends on it's scale, it is computed once.
+	 */
+	@Override
+	protected int valueHash() {
+		int h = hash;
+		if (h == 0) {
+			h = getDecimalValue().hashCode();
+			hash = h;
+		}
+		return h;
+	}
+	
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.arastreju.sge.model.nodes;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.arastreju.sge.model.ElementaryDataType;
+
+/**
+ * <p>
+ * 	Integer value, which fits into a long.
+ * </p>
+ */
+public class SNLongValue extends PrimitiveValue {
+	
+	private static final long LONG_MASK = 0xffffffffL;
+	
+	private final long value;
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * Constructor.
+	 * @param value The value.
+	 */
+	public SNLongValue(final long value) {
+		super(ElementaryDataType.INTEGER);
+		this.value = value;
+	}
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * @return The value as primitive.
+	 */
+	public long longValue() {
+		return value;
+	}
+	
+	public Object getValue() {
+		return getIntegerValue();
+	}
+	
+	public String getStringValue() {
+		return Long.toString(value);
+	}
+	
+	@Override
+	public BigInteger getIntegerValue() {
+		return BigInteger.valueOf(value);
+	}
+	
+	@Override
+	public BigDecimal getDecimalValue() {
+		return BigDecimal.valueOf(value);
+	}
+	
+	// -----------------------------------------------------
+	
+	public int compareTo(final ValueNode other) {
+		if (other instanceof SNLongValue) {
+			return compare(value, ((SNLongValue) other).value);
+		}
+		return getIntegerValue().compareTo(other.getIntegerValue());
+	}
+	
+	@Override
+	public boolean equals(final Object obj) {
+		if (obj instanceof SNLongValue) {
+			return value == ((SNLongValue) obj).value;
+		}
+		return super.equals(obj);
+	}
+	
+	/**
+	 * The hash code of the BigInteger, computed from it's magnitude without creating it.
+	 */
+	@Override
+	protected int valueHash() {
+		if (value == Long.MIN_VALUE) {
+			return getIntegerValue().hashCode();
+		}
+		final long magnitude = Math.abs(value);
+		final int high = (int) (magnitude >>> 32);
+		int hash = 0;
+		if (high != 0) {
+			hash = (int) (high & LONG_MASK);
+		}
+		hash = (int) (31 * hash + (magnitude & LONG_MASK));
+		return hash * Long.signum(value);
+	}
+	
+}
@@ -19,7 +19,9 @@ import org.arastreju.sge.context.Context;
 import org.arastreju.sge.model.DetachedStatement;
 import org.arastreju.sge.model.ResourceID;
 import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.associations.AbstractAssociationKeeper;
 import org.arastreju.sge.model.associations.AssociationKeeper;
+import org.arastreju.sge.model.associations.AssociationSet;
 import org.arastreju.sge.model.associations.DetachedAssociationKeeper;
 import org.arastreju.sge.model.nodes.views.SNClass;
 import org.arastreju.sge.model.nodes.views.SNEntity;
@@ -60,7 +62,8 @@ public class SNResource implements ResourceNode, Serializable {
 	 * Default constructor for new unattached resource.
 	 */
 	public SNResource() {
-		this(QualifiedName.create(Namespace.UUID, UUID.randomUUID().toString()));
+		// random names are not interned, they would only fill the cache
+		this(new QualifiedName(Namespace.UUID, UUID.randomUUID().toString()));
 	}
 	
 	/**
@@ -133,6 +136,19 @@ public class SNResource implements ResourceNode, Serializable {
 	public Set<Statement> getAssociations() {
 		return Collections.unmodifiableSet(associationKeeper.getAssociations());
 	}
+	
+	/**
+	 * Get the associations of this node with the given predicate, using the predicate index of the
+	 * association keeper if it has one.
+	 * @param predicate The predicate.
+	 * @return Unmodifiable set of the associations.
+	 */
+	public Set<Statement> getAssociations(final ResourceID predicate) {
+		if (associationKeeper instanceof AbstractAssociationKeeper) {
+			return ((AbstractAssociationKeeper) associationKeeper).getAssociations(predicate);
+		}
+		return AssociationSet.select(associationKeeper.getAssociations(), predicate);
+	}
 
     @Override
 	public Statement addAssociation(ResourceID predicate, SemanticNode object, Context... ctx) {
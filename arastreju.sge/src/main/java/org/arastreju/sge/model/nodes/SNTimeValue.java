@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.arastreju.sge.model.nodes;
+
+import java.util.Date;
+
+import org.arastreju.sge.model.DateFormats;
+import org.arastreju.sge.model.ElementaryDataType;
+
+/**
+ * <p>
+ * 	Point in time, kept as milliseconds since the epoch. Each call of {@link #getTimeValue()} returns a new
+ * 	Date, so the value can't be changed by the caller.
+ * </p>
+ */
+public class SNTimeValue extends PrimitiveValue {
+	
+	private final long millis;
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * Constructor.
+	 * @param datatype DATE, TIME_OF_DAY or TIMESTAMP.
+	 * @param millis The milliseconds since the epoch.
+	 */
+	public SNTimeValue(final ElementaryDataType datatype, final long millis) {
+		super(datatype);
+		switch (datatype) {
+		case DATE:
+		case TIME_OF_DAY:
+		case TIMESTAMP:
+			break;
+		default:
+			throw new IllegalArgumentException("Not a temporal datatype: " + datatype);
+		}
+		this.millis = millis;
+	}
+	
+	// -----------------------------------------------------
+	
+	/**
+	 * @return The milliseconds since the epoch.
+	 */
+	public long getMillis() {
+		return millis;
+	}
+	
+	public Object getValue() {
+		return getTimeValue();
+	}
+	
+	public String getStringValue() {
+		return DateFormats.formatTimestamp(getTimeValue());
+	}
+	
+	@Override
+	public Date getTimeValue() {
+		return new Date(millis);
+	}
+	
+	// -----------------------------------------------------
+	
+	public int compareTo(final ValueNode other) {
+		if (other instanceof SNTimeValue) {
+			return compare(millis, ((SNTimeValue) other).millis);
+		}
+		return compare(millis, other.getTimeValue().getTime());
+	}
+	
+	@Override
+	public boolean equals(final Object obj) {
+		if (obj instanceof SNTimeValue) {
+			final SNTimeValue other = (SNTimeValue) obj;
+			return millis == other.millis && getDataType() == other.getDataType();
+		}
+		return super.equals(obj);
+	}
+	
+	/**
+	 * Same as {@link Date#hashCode()}.
+	 */
+	@Override
+	protected int valueHash() {
+		return (int) (millis ^ (millis >>> 32));
+	}
+	
+}
@@ -18,12 +18,11 @@ package org.arastreju.sge.model.nodes;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 
+import org.arastreju.sge.model.DateFormats;
 import org.arastreju.sge.model.ElementaryDataType;
 import org.arastreju.sge.model.nodes.views.SNScalar;
 import org.arastreju.sge.model.nodes.views.SNText;
@@ -45,8 +44,6 @@ import de.lichtflut.infra.Infra;
  */
 public class SNValue implements ValueNode, Serializable {
 
-	private static final DateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
-
 	private final ElementaryDataType datatype;
 
 	private final Object value;
@@ -83,6 +80,50 @@ public class SNValue implements ValueNode, Serializable {
 		}
 	}
 
+	// -----------------------------------------------------
+
+	/**
+	 * Create a value node, which keeps values of primitive types without boxing, see {@link PrimitiveValue}.
+	 * Values with a locale, integers exceeding a long and decimals without exact double representation
+	 * are kept in an {@link SNValue}.
+	 * @param datatype The datatype.
+	 * @param value The value.
+	 * @param locale The locale, may be null.
+	 * @return The value node.
+	 */
+	public static ValueNode create(final ElementaryDataType datatype, final Object value, final Locale locale) {
+		final SNValue node = new SNValue(datatype, value, locale);
+		if (locale != null) {
+			return node;
+		}
+		switch (datatype) {
+		case BOOLEAN:
+			return SNBooleanValue.valueOf(node.getBooleanValue());
+		case INTEGER:
+			final BigInteger integer = node.getIntegerValue();
+			if (integer.bitLength() < 64) {
+				return new SNLongValue(integer.longValue());
+			}
+			return node;
+		case DECIMAL:
+			if (!(node.value instanceof BigDecimal)) {
+				return node;
+			}
+			final BigDecimal decimal = (BigDecimal) node.value;
+			final double d = decimal.doubleValue();
+			if (!Double.isInfinite(d) && BigDecimal.valueOf(d).equals(decimal)) {
+				return new SNDoubleValue(d);
+			}
+			return node;
+		case DATE:
+		case TIME_OF_DAY:
+		case TIMESTAMP:
+			return new SNTimeValue(datatype, node.getTimeValue().getTime());
+		default:
+			return node;
+		}
+	}
+
 	//-----------------------------------------------------
 
 	public Object getValue(){
@@ -141,7 +182,7 @@ public class SNValue implements ValueNode, Serializable {
 		case DATE:
 		case TIME_OF_DAY:
 		case TIMESTAMP:
-			return DATE_FORMAT.format(getTimeValue());
+			return DateFormats.formatTimestamp(getTimeValue());
 		case BOOLEAN:
 			return value.toString();
 		default:
@@ -274,7 +315,7 @@ public class SNValue implements ValueNode, Serializable {
             case DATE:
             case TIME_OF_DAY:
             case TIMESTAMP:
-                return DATE_FORMAT.parse(value);
+                return DateFormats.parseTimestamp(value);
             case BOOLEAN:
                 return Boolean.parseBoolean(value);
             case DECIMAL:
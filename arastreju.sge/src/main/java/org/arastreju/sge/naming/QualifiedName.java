@@ -15,9 +15,9 @@
  */
 package org.arastreju.sge.naming;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.arastreju.sge.model.ResourceID;
 
@@ -34,6 +34,11 @@ import org.arastreju.sge.model.ResourceID;
  */
 public class QualifiedName implements Comparable<QualifiedName>, Serializable {
 	
+	/**
+	 * The serialized form is the URI only, this is the UID of the names serialized before it was declared.
+	 */
+	private static final long serialVersionUID = -8895346426402512307L;
+	
 	public static final String VOID_NAMESPACE = "void";
 	public static final String PREFIX_DELIM = ":";
 	public static final String HASH = "#";
@@ -41,7 +46,13 @@ public class QualifiedName implements Comparable<QualifiedName>, Serializable {
 	
 	private final String uri;
 	
-	private static final Map<String, QualifiedName> cache = new HashMap<String, QualifiedName>();
+	private transient int separator;
+	
+	private transient String namespace;
+	
+	private transient String simpleName;
+	
+	private static final QualifiedNameCache cache = new QualifiedNameCache();
 	
 	//------------------------------------------------------
 	
@@ -75,18 +86,12 @@ public class QualifiedName implements Comparable<QualifiedName>, Serializable {
 	}
 	
 	/**
-	 * Create a new QualifiedName for this URI - regarding a cache.
+	 * Create a new QualifiedName for this URI - regarding a cache. Safe for concurrent use.
 	 * @param uri The URI.
 	 * @return A new URI or the corresponding from cache.
 	 */
 	public static QualifiedName create(final String uri) {
-		if (cache.containsKey(uri)) {
-			return cache.get(uri);
-		} else {
-			final QualifiedName qn = new QualifiedName(uri);
-			cache.put(uri, qn);
-			return qn;
-		}
+		return cache.get(uri);
 	}
 	
 	/**
@@ -98,6 +103,13 @@ public class QualifiedName implements Comparable<QualifiedName>, Serializable {
 		return create(namespace + name);
 	}
 	
+	/**
+	 * @return The cache of {@link #create(String)}, e.g. for it's hit rate.
+	 */
+	public static QualifiedNameCache getCache() {
+		return cache;
+	}
+	
 	//------------------------------------------------------
 	
 	/**
@@ -113,16 +125,43 @@ public class QualifiedName implements Comparable<QualifiedName>, Serializable {
 	 */
 	public QualifiedName(final String uri){
 		this.uri = uri;
+		this.separator = getSeperatorIndex(uri);
 	}
 	
 	// ----------------------------------------------------
 	
+	/**
+	 * The parts of the URI are only split once, see {@link #getSeparatorIndex()}.
+	 */
 	public String getSimpleName() {
-		return getSimpleName(uri);
+		if (simpleName == null) {
+			simpleName = uri.substring(separator + 1);
+		}
+		return simpleName;
 	}
 	
+	/**
+	 * Get the namespace part, including the separator.
+	 */
 	public String getNamespace(){
-		return getNamespace(uri);
+		if (namespace == null) {
+			namespace = uri.substring(0, separator + 1);
+		}
+		return namespace;
+	}
+	
+	/**
+	 * @return The namespace instance shared by all names of this namespace.
+	 */
+	public Namespace toNamespace() {
+		return SimpleNamespace.shared(getNamespace());
+	}
+	
+	/**
+	 * @return The index of the separator between namespace and simple name, -1 if there is none.
+	 */
+	public int getSeparatorIndex() {
+		return separator;
 	}
 	
 	public String toURI() {
@@ -156,6 +195,14 @@ public class QualifiedName implements Comparable<QualifiedName>, Serializable {
 	
 	// -----------------------------------------------------
 	
+	/**
+	 * The separator is not serialized, it is computed again from the URI.
+	 */
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		separator = getSeperatorIndex(uri);
+	}
+	
 	protected static int getSeperatorIndex(final String name){
 		int separatorIdx = name.indexOf(HASH);
 		if (separatorIdx < 0) {
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.arastreju.sge.naming;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * 	Intern table of {@link QualifiedName}s, safe for concurrent use.
+ * </p>
+ * 
+ * <p>
+ * 	The names are only weakly referenced, so a name is kept as long as it is in use anywhere
+ * 	and dropped by the garbage collector afterwards. The entries of dropped names are removed
+ * 	on the next access of the table.
+ * </p>
+ */
+public class QualifiedNameCache {
+	
+	private final ConcurrentMap<String, NameReference> names = new ConcurrentHashMap<String, NameReference>();
+	
+	private final ReferenceQueue<QualifiedName> collected = new ReferenceQueue<QualifiedName>();
+	
+	private final AtomicLong hits = new AtomicLong();
+	
+	private final AtomicLong misses = new AtomicLong();
+	
+	//------------------------------------------------------
+	
+	/**
+	 * Get the interned name for this URI, or create it.
+	 * @param uri The URI.
+	 * @return The name.
+	 */
+	public QualifiedName get(final String uri) {
+		expunge();
+		NameReference ref = names.get(uri);
+		QualifiedName qn = ref != null ? ref.get() : null;
+		if (qn != null) {
+			hits.incrementAndGet();
+			return qn;
+		}
+		misses.incrementAndGet();
+		final QualifiedName created = new QualifiedName(uri);
+		final NameReference createdRef = new NameReference(created, collected);
+		while (true) {
+			if (ref == null) {
+				ref = names.putIfAbsent(uri, createdRef);
+				if (ref == null) {
+					return created;
+				}
+			} else if (names.replace(uri, ref, createdRef)) {
+				return created;
+			} else {
+				ref = names.get(uri);
+			}
+			// another thread interned the name meanwhile
+			qn = ref != null ? ref.get() : null;
+			if (qn != null) {
+				return qn;
+			}
+		}
+	}
+	
+	// ----------------------------------------------------
+	
+	/**
+	 * @return The number of names in the table, including those collected but not removed yet.
+	 */
+	public int size() {
+		expunge();
+		return names.size();
+	}
+	
+	/**
+	 * @return The number of requests answered by an interned name.
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+	
+	/**
+	 * @return The number of requests creating a new name.
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+	
+	/**
+	 * @return The ratio of hits to all requests, 0 if there has been none.
+	 */
+	public double getHitRate() {
+		final long h = hits.get();
+		final long total = h + misses.get();
+		return total == 0 ? 0 : (double) h / total;
+	}
+	
+	/**
+	 * Remove all names and reset the statistics.
+	 */
+	public void clear() {
+		names.clear();
+		hits.set(0);
+		misses.set(0);
+	}
+	
+	// ----------------------------------------------------
+	
+	private void expunge() {
+		Reference<? extends QualifiedName> ref;
+		while ((ref = collected.poll()) != null) {
+			// only removed if not replaced by a new name meanwhile
+			names.remove(((NameReference) ref).uri, ref);
+		}
+	}
+	
+	private static class NameReference extends WeakReference<QualifiedName> {
+		
+		private final String uri;
+		
+		public NameReference(QualifiedName qn, ReferenceQueue<QualifiedName> queue) {
+			super(qn, queue);
+			this.uri = qn.toURI();
+		}
+		
+	}
+	
+}
@@ -17,6 +17,8 @@ package org.arastreju.sge.naming;
 
 
 import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import de.lichtflut.infra.Infra;
 
@@ -33,10 +35,36 @@ import de.lichtflut.infra.Infra;
  */
 public class SimpleNamespace implements Namespace, Comparable<Namespace>, Serializable {
 	
+	private static final int MAX_SHARED = 10000;
+	
+	private static final ConcurrentMap<String, Namespace> shared = new ConcurrentHashMap<String, Namespace>();
+	
 	private String uri;
 	
 	private String prefix;
 	
+	// -----------------------------------------------------
+	
+	/**
+	 * Get the shared, unmodifiable instance of a namespace without prefix, e.g. for collecting the namespaces
+	 * of a graph without creating a new instance per node.
+	 * @param uri The URI of the namespace.
+	 * @return The namespace.
+	 */
+	public static Namespace shared(final String uri) {
+		Namespace namespace = shared.get(uri);
+		if (namespace == null) {
+			namespace = new Unmodifiable(uri);
+			if (shared.size() < MAX_SHARED) {
+				final Namespace existing = shared.putIfAbsent(uri, namespace);
+				if (existing != null) {
+					return existing;
+				}
+			}
+		}
+		return namespace;
+	}
+	
 	// -----------------------------------------------------
 
 	/**
@@ -123,5 +151,25 @@ public class SimpleNamespace implements Namespace, Comparable<Namespace>, Serial
 	public int compareTo(final Namespace other) {
 		return Infra.compare(getUri(), other.getUri());
 	}
+	
+	// -----------------------------------------------------
+	
+	private static class Unmodifiable extends SimpleNamespace {
+		
+		public Unmodifiable(final String uri) {
+			super(uri);
+		}
+		
+		@Override
+		public void setPrefix(final String prefix) {
+			throw new UnsupportedOperationException("Shared namespace can not be modified: " + getUri());
+		}
+		
+		@Override
+		public void setUri(final String uri) {
+			throw new UnsupportedOperationException("Shared namespace can not be modified: " + getUri());
+		}
+		
+	}
 
 }
@@ -182,6 +182,10 @@ public abstract class QueryBuilder implements Query {
 		return stack.firstElement();
 	}
 	
+	protected boolean isEmpty() {
+		return stack.isEmpty();
+	}
+	
 	protected SortCriteria getSortCriteria() {
 		return criteria;
 	}
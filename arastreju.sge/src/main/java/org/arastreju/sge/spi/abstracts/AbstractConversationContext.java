@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * <p>
@@ -42,17 +43,17 @@ public abstract class AbstractConversationContext implements ConversationContext
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(AbstractConversationContext.class);
 
-	private static long ID_GEN = 0;
+	private static final AtomicLong ID_GEN = new AtomicLong();
 
 	// ----------------------------------------------------
 
-    private final long ctxId = ++ID_GEN;
+    private final long ctxId = ID_GEN.incrementAndGet();
 
     private Set<Context> readContexts = new HashSet<Context>();
 
 	private Context primaryContext;
 
-	private boolean active = true;
+	private volatile boolean active = true;
 
 	// ----------------------------------------------------
 
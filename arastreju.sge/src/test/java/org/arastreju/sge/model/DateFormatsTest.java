@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.sge.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.arastreju.sge.model.nodes.SNValue;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for {@link DateFormats}.
+ * </p>
+ */
+public class DateFormatsTest {
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		final Date date = new Date(1354890600000L);
+		assertEquals(date, DateFormats.parseTimestamp(DateFormats.formatTimestamp(date)));
+		final SNValue value = new SNValue(ElementaryDataType.TIMESTAMP, DateFormats.formatTimestamp(date));
+		assertEquals(date, value.getTimeValue());
+		assertEquals(DateFormats.formatTimestamp(date), value.getStringValue());
+	}
+
+	@Test
+	public void testConcurrentUse() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		final List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int t = 0; t < 8; t++) {
+			final long offset = t * 86400000L * 37;
+			futures.add(executor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					int errors = 0;
+					for (int i = 0; i < 2000; i++) {
+						final Date date = new Date(offset + i * 1000L);
+						final SNValue value = new SNValue(ElementaryDataType.TIMESTAMP, date);
+						final SNValue parsed = new SNValue(ElementaryDataType.TIMESTAMP, value.getStringValue());
+						if (!date.equals(parsed.getTimeValue())) {
+							errors++;
+						}
+					}
+					return errors;
+				}
+			}));
+		}
+		for (Future<Integer> future : futures) {
+			assertEquals(Integer.valueOf(0), future.get());
+		}
+		executor.shutdown();
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.sge.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.model.nodes.SNValue;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.Namespace;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.naming.SimpleNamespace;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for {@link DefaultSemanticGraph}.
+ * </p>
+ */
+public class DefaultSemanticGraphTest {
+
+	private static final String NS = "http://arastreju.org/test#";
+
+	private final ResourceID a = new SimpleResourceID(new QualifiedName(NS, "A"));
+
+	private final ResourceID b = new SimpleResourceID(new QualifiedName(NS, "B"));
+
+	private final ResourceID date = new SimpleResourceID(new QualifiedName(NS, "date"));
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testDuplicates() {
+		final DefaultSemanticGraph graph = new DefaultSemanticGraph();
+		graph.addStatement(new DetachedStatement(a, RDFS.LABEL, new SNText("A")));
+		graph.addStatement(new DetachedStatement(a, RDFS.LABEL, new SNText("A")));
+		graph.addStatements(Arrays.asList(new DetachedStatement(a, RDF.TYPE, b), new DetachedStatement(a, RDF.TYPE, b)));
+		assertEquals(2, graph.getStatements().size());
+	}
+
+	@Test
+	public void testCachedViews() {
+		final DefaultSemanticGraph graph = new DefaultSemanticGraph();
+		graph.addStatement(new DetachedStatement(a, RDFS.LABEL, new SNText("A")));
+
+		assertSame(graph.getNodes(), graph.getNodes());
+		assertSame(graph.getSubjects(), graph.getSubjects());
+		assertSame(graph.getNamespaces(), graph.getNamespaces());
+		assertSame(graph.getSortedStatements(), graph.getSortedStatements());
+		assertEquals(1, graph.getSubjects().size());
+		assertEquals(2, graph.getNamespaces().size());
+		assertTrue(graph.getNamespaces().contains(RDFS.LABEL.getQualifiedName().toNamespace()));
+		for (Namespace namespace : graph.getNamespaces()) {
+			assertSame(SimpleNamespace.shared(namespace.getUri()), namespace);
+		}
+
+		// adding a known statement keeps the views
+		final List<Statement> sorted = graph.getSortedStatements();
+		graph.addStatement(new DetachedStatement(a, RDFS.LABEL, new SNText("A")));
+		assertSame(sorted, graph.getSortedStatements());
+
+		graph.addStatement(new DetachedStatement(b, RDF.TYPE, a));
+		assertNotSame(sorted, graph.getSortedStatements());
+		assertEquals(2, graph.getSubjects().size());
+		assertEquals(3, graph.getNamespaces().size());
+		assertEquals(3, graph.getNodes().size());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testUnmodifiableViews() {
+		final DefaultSemanticGraph graph = new DefaultSemanticGraph();
+		graph.addStatement(new DetachedStatement(a, RDF.TYPE, b));
+		graph.getSubjects().clear();
+	}
+
+	@Test
+	public void testInsertionOrder() {
+		final Statement s1 = new DetachedStatement(b, RDF.TYPE, a);
+		final Statement s2 = new DetachedStatement(a, RDFS.LABEL, new SNText("A"));
+		final Statement s3 = new DetachedStatement(a, RDF.TYPE, b);
+
+		final DefaultSemanticGraph graph = new DefaultSemanticGraph();
+		graph.addStatement(s1);
+		graph.addStatement(s2);
+		graph.addStatement(s3);
+		graph.addStatement(new DetachedStatement(b, RDF.TYPE, a));
+
+		final List<Statement> iterated = new ArrayList<Statement>();
+		for (Statement stmt : graph) {
+			iterated.add(stmt);
+		}
+		assertEquals(Arrays.asList(s1, s2, s3), iterated);
+		assertEquals(Arrays.asList(s1, s2, s3), new ArrayList<Statement>(graph.getStatements()));
+	}
+
+	@Test
+	public void testSortedStatements() {
+		final Date earlier = new Date(1000000L);
+		final Date later = new Date(2000000000000L);
+		final Statement s1 = new DetachedStatement(a, RDF.TYPE, b);
+		final Statement s2 = new DetachedStatement(a, date, new SNValue(ElementaryDataType.TIMESTAMP, earlier));
+		final Statement s3 = new DetachedStatement(a, date, new SNValue(ElementaryDataType.TIMESTAMP, later));
+		final Statement s4 = new DetachedStatement(b, RDF.TYPE, a);
+
+		final DefaultSemanticGraph graph = new DefaultSemanticGraph(Arrays.<Statement>asList(s4, s3, s1, s2));
+		// insertion order
+		assertEquals(Arrays.<Object>asList(s4, s3, s1, s2), Arrays.asList(graph.getStatements().toArray()));
+
+		final List<Statement> sorted = graph.getSortedStatements();
+		assertEquals(Arrays.asList(s2, s3, s1, s4), sorted);
+	}
+
+}
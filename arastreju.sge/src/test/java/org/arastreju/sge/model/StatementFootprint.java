@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.sge.model;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.context.SimpleContextID;
+import org.arastreju.sge.io.RdfXmlBinding;
+import org.arastreju.sge.io.StatementCollector;
+
+/**
+ * <p>
+ *  Heap footprint of statements, read from the ontologies in the test resources. The statements are
+ *  created again, once with the layout of every statement having an own meta info, timestamp and copy of
+ *  the contexts ('private') and once with the shared meta info ('shared'). Subjects, predicates and
+ *  objects are the same in both cases, so the difference is the statements' own overhead.
+ * </p>
+ *
+ * <p>
+ *  Not a test case, run it with:
+ *  <pre>
+ *  java ... org.arastreju.sge.model.StatementFootprint [copies]
+ *  </pre>
+ *  The statements of all ontologies are created 'copies' times (default 20) to get stable numbers.
+ * </p>
+ */
+public class StatementFootprint {
+
+	private static final String[] ONTOLOGIES = {
+		"n01.rdf.rdf", "n02.rdfs.rdf", "n03.owl.rdf", "n04.aras.rdf", "n5.activities_de.rdf", "n6.schemas.rdf",
+		"n7.automotive.rdf", "n08.org.rdf", "n9.common.rdf", "n10.companies.rdf", "n11.directives.rdf",
+		"n12.bpm.rdf", "n12.food.rdf", "n14.geo.rdf", "n15.grammar.rdf", "n16.it.rdf", "n17.krl.rdf",
+		"n18.persons.rdf", "n19.pm.rdf", "n21.prepositions_de.rdf", "n22.spacetime.rdf", "n23.toolbox.rdf",
+		"n24.countries.rdf"
+	};
+
+	private static final Context[] CONTEXT = { new SimpleContextID("http://arastreju.org/footprint#", "Ctx") };
+
+	// ----------------------------------------------------
+
+	public static void main(String[] args) throws Exception {
+		final int copies = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		final List<Statement> read = read();
+		System.out.println("ontologies: " + ONTOLOGIES.length + ", triples: " + read.size() + ", copies: " + copies);
+		for (Context[] contexts : Arrays.asList(StatementMetaInfo.NO_CTX, CONTEXT)) {
+			final String label = contexts.length == 0 ? "no context" : "one context";
+			report("private, " + label, measure(read, contexts, copies, false), read.size() * copies);
+			report("shared,  " + label, measure(read, contexts, copies, true), read.size() * copies);
+		}
+	}
+
+	// ----------------------------------------------------
+
+	private static List<Statement> read() throws Exception {
+		final StatementCollector collector = new StatementCollector();
+		final RdfXmlBinding binding = new RdfXmlBinding();
+		for (String ontology : ONTOLOGIES) {
+			final InputStream in = StatementFootprint.class.getClassLoader().getResourceAsStream(ontology);
+			try {
+				binding.read(in, collector);
+			} finally {
+				in.close();
+			}
+		}
+		return collector.getStatements();
+	}
+
+	private static long measure(List<Statement> read, Context[] contexts, int copies, boolean shared) {
+		final List<Statement> statements = new ArrayList<Statement>(read.size() * copies);
+		final long before = usedHeap();
+		for (int i = 0; i < copies; i++) {
+			for (Statement stmt : read) {
+				if (shared) {
+					statements.add(new DetachedStatement(stmt.getSubject(), stmt.getPredicate(), stmt.getObject(), contexts));
+				} else {
+					final Context[] copy = Arrays.copyOf(contexts, contexts.length);
+					statements.add(new DetachedStatement(stmt.getSubject(), stmt.getPredicate(), stmt.getObject(),
+							new StatementMetaInfo(copy, new Date())));
+				}
+			}
+		}
+		final long used = usedHeap() - before;
+		if (statements.size() != read.size() * copies) {
+			throw new IllegalStateException();
+		}
+		return used;
+	}
+
+	private static long usedHeap() {
+		final Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void report(String name, long bytes, int triples) {
+		System.out.printf("%-22s heap: %10d bytes   per triple: %6.1f bytes%n", name, bytes, (double) bytes / triples);
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.sge.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.context.SimpleContextID;
+import org.arastreju.sge.model.nodes.StatementOrigin;
+import org.arastreju.sge.model.nodes.views.SNContext;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for {@link StatementMetaInfo}.
+ * </p>
+ */
+public class StatementMetaInfoTest {
+
+	private final Context ctx1 = new SimpleContextID("http://arastreju.org/test#", "Ctx1");
+	private final Context ctx2 = new SimpleContextID("http://arastreju.org/test#", "Ctx2");
+
+	@Test
+	public void testSharedInstances() {
+		assertSame(StatementMetaInfo.of(), StatementMetaInfo.of((Context) null));
+		assertSame(StatementMetaInfo.of(ctx1, ctx2), StatementMetaInfo.of(ctx2, ctx1));
+		assertNotSame(StatementMetaInfo.of(ctx1), StatementMetaInfo.of(ctx1, ctx2));
+		assertArrayEquals(new Context[] { ctx1, ctx2 }, StatementMetaInfo.of(ctx2, ctx1).getContexts());
+		assertNull(StatementMetaInfo.of(ctx1).getTimestamp());
+		assertEquals(StatementOrigin.ASSERTED, StatementMetaInfo.of(ctx1).getOrigin());
+	}
+
+	@Test
+	public void testContextsAreShared() {
+		assertSame(StatementMetaInfo.of(ctx1, ctx2).getContexts(), StatementMetaInfo.of(ctx2, ctx1).getContexts());
+		assertSame(StatementMetaInfo.NO_CTX, StatementMetaInfo.of().getContexts());
+	}
+
+	@Test
+	public void testTimestampOfStatement() {
+		final ResourceID s = new SimpleResourceID("http://arastreju.org/test#", "S");
+		final long before = System.currentTimeMillis();
+		final Statement stmt = new DetachedStatement(s, s, s, ctx1);
+		final Date timestamp = stmt.getMetaInfo().getTimestamp();
+		assertNotNull(timestamp);
+		assertTrue(timestamp.getTime() >= before);
+		assertEquals(timestamp, stmt.getMetaInfo().getTimestamp());
+		assertEquals(timestamp, new DetachedStatement(stmt, s).getMetaInfo().getTimestamp());
+		assertNotNull(new DetachedStatement(s, s, s).getMetaInfo().getTimestamp());
+		assertArrayEquals(new Context[] { ctx1 }, stmt.getMetaInfo().getContexts());
+
+		final Date explicit = new Date(1000L);
+		final Statement stamped = new DetachedStatement(s, s, s, new StatementMetaInfo(new Context[] { ctx1 }, explicit));
+		assertEquals(explicit, stamped.getMetaInfo().getTimestamp());
+	}
+
+	@Test
+	public void testNodesAreNotShared() {
+		final Context node = new SNContext(ctx1.asResource());
+		assertNotSame(StatementMetaInfo.of(node), StatementMetaInfo.of(node));
+	}
+
+	@Test
+	public void testStatementsShareMetaInfo() {
+		final ResourceID s = new SimpleResourceID("http://arastreju.org/test#", "S");
+		final Statement stmt1 = new DetachedStatement(s, s, s, ctx1);
+		final Statement stmt2 = new DetachedStatement(s, s, s, ctx1);
+		assertSame(stmt1.getContexts(), stmt2.getContexts());
+		assertNotNull(new StatementMetaInfo(new Context[] { ctx1 }).getTimestamp());
+		assertNull(new StatementMetaInfo(new Context[] { ctx1 }, null).getTimestamp());
+		assertEquals(StatementOrigin.INFERRED, stmt1.getMetaInfo().infer().getOrigin());
+		assertEquals(StatementOrigin.ASSERTED, stmt1.getMetaInfo().getOrigin());
+	}
+
+}
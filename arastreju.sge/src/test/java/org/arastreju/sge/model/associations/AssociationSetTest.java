@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.sge.model.associations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Set;
+
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.model.DetachedStatement;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for {@link AssociationSet}.
+ * </p>
+ */
+public class AssociationSetTest {
+
+	private final ResourceID subject = new SimpleResourceID("http://arastreju.org/test#", "Subject");
+
+	@Test
+	public void testIndexFollowsChanges() {
+		final AssociationSet set = new AssociationSet();
+		final Statement type = new DetachedStatement(subject, RDF.TYPE, RDFS.CLASS);
+		final Statement label1 = new DetachedStatement(subject, RDFS.LABEL, new SNText("a"));
+		final Statement label2 = new DetachedStatement(subject, RDFS.LABEL, new SNText("b"));
+		set.add(type);
+		set.add(label1);
+		set.add(label2);
+		assertEquals(3, set.size());
+		assertEquals(2, set.getAssociations(RDFS.LABEL).size());
+		assertEquals(1, set.getAssociations(new SimpleResourceID(RDF.TYPE.getQualifiedName())).size());
+		assertTrue(set.getAssociations(RDFS.COMMENT).isEmpty());
+
+		set.remove(label1);
+		assertEquals(1, set.getAssociations(RDFS.LABEL).size());
+
+		final Iterator<Statement> it = set.iterator();
+		while (it.hasNext()) {
+			if (it.next().equals(label2)) {
+				it.remove();
+			}
+		}
+		assertTrue(set.getAssociations(RDFS.LABEL).isEmpty());
+
+		set.clear();
+		assertTrue(set.getAssociations(RDF.TYPE).isEmpty());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testViewIsUnmodifiable() {
+		final AssociationSet set = new AssociationSet(true);
+		set.add(new DetachedStatement(subject, RDF.TYPE, RDFS.CLASS));
+		final Iterator<Statement> it = set.getAssociations(RDF.TYPE).iterator();
+		it.next();
+		it.remove();
+	}
+
+	@Test
+	public void testSnopsUsesIndex() {
+		final SNResource node = new SNResource();
+		SNOPS.associate(node, RDF.TYPE, RDFS.CLASS);
+		SNOPS.associate(node, RDFS.LABEL, new SNText("a"));
+		SNOPS.associate(node, RDFS.LABEL, new SNText("b"));
+		final Set<Statement> labels = node.getAssociations(RDFS.LABEL);
+		assertEquals(2, labels.size());
+		SNOPS.assure(node, RDFS.LABEL, new SNText("c"));
+		assertEquals(1, labels.size());
+		assertEquals(new SNText("c"), SNOPS.singleObject(node, RDFS.LABEL));
+		SNOPS.remove(node, RDFS.LABEL);
+		assertTrue(labels.isEmpty());
+		assertEquals(1, node.getAssociations().size());
+	}
+
+	@Test
+	public void testSnopsReturnsCopy() {
+		final SNResource node = new SNResource();
+		SNOPS.associate(node, RDFS.LABEL, new SNText("a"));
+		SNOPS.associate(node, RDFS.LABEL, new SNText("b"));
+		final Set<Statement> labels = SNOPS.associations(node, RDFS.LABEL);
+		for (Statement stmt : labels) {
+			node.removeAssociation(stmt);
+		}
+		assertEquals(2, labels.size());
+		labels.clear();
+		assertTrue(node.getAssociations(RDFS.LABEL).isEmpty());
+	}
+
+	@Test
+	public void testSnopsOnView() {
+		final SNResource node = new SNResource();
+		SNOPS.associate(node, RDF.TYPE, RDFS.CLASS);
+		SNOPS.associate(node, RDFS.LABEL, new SNText("a"));
+		SNOPS.associate(node, RDFS.LABEL, new SNText("b"));
+		final ResourceNode view = node.asClass();
+		assertEquals(2, SNOPS.associations(view, RDFS.LABEL).size());
+		assertEquals(RDFS.CLASS, SNOPS.singleObject(view, RDF.TYPE));
+	}
+
+}
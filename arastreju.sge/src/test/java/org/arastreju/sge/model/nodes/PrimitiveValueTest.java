@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.sge.model.nodes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.arastreju.sge.model.ElementaryDataType;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for the {@link PrimitiveValue}s created by {@link SNValue#create(ElementaryDataType, Object, Locale)}.
+ * </p>
+ */
+public class PrimitiveValueTest {
+
+	@Test
+	public void testCreate() {
+		assertTrue(SNValue.create(ElementaryDataType.INTEGER, "42", null) instanceof SNLongValue);
+		assertTrue(SNValue.create(ElementaryDataType.INTEGER, "123456789012345678901234567890", null) instanceof SNValue);
+		assertTrue(SNValue.create(ElementaryDataType.DECIMAL, "1.5", null) instanceof SNDoubleValue);
+		assertTrue(SNValue.create(ElementaryDataType.DECIMAL, "1.50", null) instanceof SNValue);
+		assertSame(SNBooleanValue.TRUE, SNValue.create(ElementaryDataType.BOOLEAN, "true", null));
+		assertTrue(SNValue.create(ElementaryDataType.TIMESTAMP, new Date(), null) instanceof SNTimeValue);
+		assertTrue(SNValue.create(ElementaryDataType.INTEGER, "42", Locale.GERMAN) instanceof SNValue);
+		assertTrue(SNValue.create(ElementaryDataType.STRING, "42", null) instanceof SNValue);
+	}
+
+	@Test
+	public void testSameAsSNValue() {
+		final Random random = new Random(7);
+		final List<Long> longs = new ArrayList<Long>();
+		Collections.addAll(longs, 0L, 1L, -1L, Long.MAX_VALUE, Long.MIN_VALUE, 1L << 32, -(1L << 32));
+		for (int i = 0; i < 1000; i++) {
+			longs.add(random.nextLong());
+			longs.add((long) random.nextInt());
+		}
+		for (long l : longs) {
+			assertEquivalent(new SNValue(ElementaryDataType.INTEGER, BigInteger.valueOf(l)), new SNLongValue(l));
+			assertEquivalent(new SNValue(ElementaryDataType.TIMESTAMP, new Date(l)), new SNTimeValue(ElementaryDataType.TIMESTAMP, l));
+			final double d = random.nextDouble() * l;
+			assertEquivalent(new SNValue(ElementaryDataType.DECIMAL, BigDecimal.valueOf(d)), new SNDoubleValue(d));
+		}
+		assertEquivalent(new SNValue(ElementaryDataType.BOOLEAN, Boolean.FALSE), SNBooleanValue.FALSE);
+		assertFalse(new SNTimeValue(ElementaryDataType.DATE, 0).equals(new SNTimeValue(ElementaryDataType.TIMESTAMP, 0)));
+	}
+
+	@Test
+	public void testCompare() {
+		final List<ValueNode> values = new ArrayList<ValueNode>();
+		values.add(new SNLongValue(3));
+		values.add(new SNValue(ElementaryDataType.INTEGER, "1"));
+		values.add(new SNLongValue(-2));
+		values.add(new SNValue(ElementaryDataType.INTEGER, "2"));
+		Collections.sort(values);
+		assertEquals("-2", values.get(0).getStringValue());
+		assertEquals("1", values.get(1).getStringValue());
+		assertEquals("2", values.get(2).getStringValue());
+		assertEquals("3", values.get(3).getStringValue());
+		assertEquals(0, new SNDoubleValue(-0.0).compareTo(new SNDoubleValue(0.0)));
+		assertTrue(new SNDoubleValue(0.5).compareTo(new SNValue(ElementaryDataType.DECIMAL, "0.75")) < 0);
+		assertTrue(SNBooleanValue.FALSE.compareTo(SNBooleanValue.TRUE) < 0);
+	}
+
+	// ----------------------------------------------------
+
+	private void assertEquivalent(SNValue expected, PrimitiveValue actual) {
+		assertEquals(expected, actual);
+		assertEquals(actual, expected);
+		assertEquals(expected.hashCode(), actual.hashCode());
+		assertEquals(expected.getStringValue(), actual.getStringValue());
+		assertEquals(0, actual.compareTo(expected));
+		assertEquals(0, expected.compareTo(actual));
+	}
+
+}
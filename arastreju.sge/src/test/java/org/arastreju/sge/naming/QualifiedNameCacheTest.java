@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.sge.naming;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for {@link QualifiedNameCache}.
+ * </p>
+ */
+public class QualifiedNameCacheTest {
+
+	@Test
+	public void testInterning() {
+		final QualifiedNameCache cache = new QualifiedNameCache();
+		final QualifiedName qn = cache.get("http://arastreju.org/test#A");
+		assertSame(qn, cache.get("http://arastreju.org/test#A"));
+		assertNotSame(qn, cache.get("http://arastreju.org/test#B"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(1.0 / 3, cache.getHitRate(), 0.0001);
+	}
+
+	@Test
+	public void testUnusedNamesAreDropped() throws InterruptedException {
+		final QualifiedNameCache cache = new QualifiedNameCache();
+		for (int i = 0; i < 10000; i++) {
+			cache.get("http://arastreju.org/test#" + i);
+		}
+		final QualifiedName kept = cache.get("http://arastreju.org/test#kept");
+		for (int i = 0; i < 50 && cache.size() > 1; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		assertTrue(cache.size() < 10000);
+		assertSame(kept, cache.get("http://arastreju.org/test#kept"));
+	}
+
+	@Test
+	public void testConcurrentInterning() throws Exception {
+		final QualifiedNameCache cache = new QualifiedNameCache();
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		final List<Future<QualifiedName[]>> futures = new ArrayList<Future<QualifiedName[]>>();
+		for (int t = 0; t < 8; t++) {
+			futures.add(executor.submit(new Callable<QualifiedName[]>() {
+				@Override
+				public QualifiedName[] call() {
+					final QualifiedName[] names = new QualifiedName[1000];
+					for (int i = 0; i < names.length; i++) {
+						names[i] = cache.get("http://arastreju.org/test#" + i);
+					}
+					return names;
+				}
+			}));
+		}
+		final QualifiedName[] first = futures.get(0).get();
+		for (Future<QualifiedName[]> future : futures) {
+			final QualifiedName[] names = future.get();
+			for (int i = 0; i < names.length; i++) {
+				assertSame(first[i], names[i]);
+			}
+		}
+		executor.shutdown();
+		assertEquals(8000, cache.getHitCount() + cache.getMissCount());
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012 by lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ */
+package org.arastreju.sge.naming;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Test case for {@link QualifiedName}.
+ * </p>
+ */
+public class QualifiedNameTest {
+
+	@Test
+	public void testParts() {
+		assertParts("http://arastreju.org/test#", "Name", new QualifiedName("http://arastreju.org/test#Name"));
+		assertParts("http://arastreju.org/test/", "Name", new QualifiedName("http://arastreju.org/test/Name"));
+		assertParts("aras:", "Name", new QualifiedName("aras:Name"));
+		assertParts("", "Name", new QualifiedName("Name"));
+	}
+
+	@Test
+	public void testPartsAreComputedOnce() {
+		final QualifiedName qn = new QualifiedName("http://arastreju.org/test#", "Name");
+		assertEquals(25, qn.getSeparatorIndex());
+		assertSame(qn.getNamespace(), qn.getNamespace());
+		assertSame(qn.getSimpleName(), qn.getSimpleName());
+	}
+
+	@Test
+	public void testSharedNamespace() {
+		final Namespace namespace = new QualifiedName("http://arastreju.org/test#A").toNamespace();
+		assertSame(namespace, new QualifiedName("http://arastreju.org/test#B").toNamespace());
+		assertEquals(new SimpleNamespace("http://arastreju.org/test#"), namespace);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSharedNamespaceIsUnmodifiable() {
+		((SimpleNamespace) new QualifiedName("http://arastreju.org/test#A").toNamespace()).setPrefix("test");
+	}
+	
+	@Test
+	public void testSerialization() throws Exception {
+		// the serialized form is the URI only, as before the separator was introduced
+		final ObjectStreamClass osc = ObjectStreamClass.lookup(QualifiedName.class);
+		assertEquals(1, osc.getFields().length);
+		assertEquals("uri", osc.getFields()[0].getName());
+		assertEquals(-8895346426402512307L, osc.getSerialVersionUID());
+		
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(new QualifiedName("http://arastreju.org/test#Name"));
+		out.close();
+		final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		final QualifiedName qn = (QualifiedName) in.readObject();
+		assertParts("http://arastreju.org/test#", "Name", qn);
+		assertEquals(25, qn.getSeparatorIndex());
+	}
+
+	// ----------------------------------------------------
+
+	private void assertParts(String namespace, String simpleName, QualifiedName qn) {
+		assertEquals(namespace, qn.getNamespace());
+		assertEquals(QualifiedName.getNamespace(qn.toURI()), qn.getNamespace());
+		assertEquals(simpleName, qn.getSimpleName());
+		assertEquals(QualifiedName.getSimpleName(qn.toURI()), qn.getSimpleName());
+	}
+
+}
@@ -0,0 +1,158 @@
+package org.arastreju.sge.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.arastreju.sge.ArastrejuGate;
+import org.arastreju.sge.ModelingConversation;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.persistence.TransactionControl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ *  Contract of {@link org.arastreju.sge.Conversation#findIncomingStatements(ResourceID)}, to be fulfilled
+ *  by every binding: sub classes only create the gate.
+ * </p>
+ *
+ * <p>
+ *  Only the results are checked here. The time of reverse lookups on hubs with 100k+ incoming statements
+ *  is reported by the benchmarks of the bindings.
+ * </p>
+ */
+public abstract class AbstractIncomingStatementsTest {
+
+	private static final int HUB_EDGES = 200;
+
+	private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+	private final QualifiedName qnBike = new QualifiedName("http://q#", "Bike");
+	private final QualifiedName qnVehicle = new QualifiedName("http://q#", "Vehicle");
+
+	private final ResourceID linksTo = new SimpleResourceID(new QualifiedName("http://q#", "linksTo"));
+
+	private ArastrejuGate gate;
+
+	// ----------------------------------------------------
+
+	@Before
+	public void setUp() {
+		gate = createGate();
+	}
+
+	@After
+	public void tearDown() {
+		gate.close();
+	}
+
+	/**
+	 * @return A new gate to an empty store.
+	 */
+	protected abstract ArastrejuGate createGate();
+
+	// ----------------------------------------------------
+
+	@Test
+	public void testIncomingStatements() {
+		final ModelingConversation mc = gate.startConversation();
+		final ResourceNode car = mc.resolve(new SimpleResourceID(qnCar));
+		final ResourceNode bike = mc.resolve(new SimpleResourceID(qnBike));
+		SNOPS.associate(car, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle));
+		SNOPS.associate(bike, RDFS.SUB_CLASS_OF, new SimpleResourceID(qnVehicle));
+		SNOPS.associate(bike, RDF.TYPE, RDFS.CLASS);
+		mc.close();
+
+		final ModelingConversation reader = gate.startConversation();
+		final Set<Statement> incoming = reader.findIncomingStatements(new SimpleResourceID(qnVehicle));
+		assertEquals(2, incoming.size());
+		for (Statement stmt : incoming) {
+			assertEquals(RDFS.SUB_CLASS_OF.getQualifiedName(), stmt.getPredicate().getQualifiedName());
+			assertEquals(qnVehicle, ((ResourceID) stmt.getObject()).getQualifiedName());
+			assertTrue(stmt.getSubject().getQualifiedName().equals(qnCar) || stmt.getSubject().getQualifiedName().equals(qnBike));
+		}
+		assertEquals(1, reader.findIncomingStatements(RDFS.CLASS).size());
+		assertEquals(0, reader.findIncomingStatements(new SimpleResourceID(qnCar)).size());
+		reader.close();
+	}
+
+	@Test
+	public void testRemoveCascades() {
+		final ModelingConversation mc = gate.startConversation();
+		final ResourceNode car = mc.resolve(new SimpleResourceID(qnCar));
+		final ResourceNode bike = mc.resolve(new SimpleResourceID(qnBike));
+		final ResourceNode vehicle = mc.resolve(new SimpleResourceID(qnVehicle));
+		SNOPS.associate(car, RDFS.SUB_CLASS_OF, vehicle);
+		SNOPS.associate(bike, RDFS.SUB_CLASS_OF, vehicle);
+		SNOPS.associate(bike, RDF.TYPE, RDFS.CLASS);
+		SNOPS.associate(vehicle, RDF.TYPE, RDFS.CLASS);
+
+		mc.remove(vehicle);
+		assertTrue(car.getAssociations().isEmpty());
+		assertEquals(1, bike.getAssociations().size());
+		mc.close();
+
+		final ModelingConversation reader = gate.startConversation();
+		assertEquals(0, reader.findIncomingStatements(new SimpleResourceID(qnVehicle)).size());
+		assertEquals(1, reader.findIncomingStatements(RDFS.CLASS).size());
+		assertTrue(reader.resolve(new SimpleResourceID(qnCar)).getAssociations().isEmpty());
+		reader.close();
+	}
+
+	@Test
+	public void testLookupWithHub() {
+		final ResourceID hub = new SimpleResourceID(new QualifiedName("http://q#", "Hub"));
+		final ModelingConversation mc = gate.startConversation();
+		final TransactionControl tx = mc.beginTransaction();
+		try {
+			for (int i = 0; i < HUB_EDGES; i++) {
+				final ResourceNode node = mc.resolve(resource(i));
+				SNOPS.associate(node, linksTo, hub);
+				SNOPS.associate(node, linksTo, resource(i + 1));
+			}
+			tx.success();
+		} finally {
+			tx.finish();
+			mc.close();
+		}
+
+		final ModelingConversation reader = gate.startConversation();
+		final Set<Statement> incoming = reader.findIncomingStatements(hub);
+		assertEquals(HUB_EDGES, incoming.size());
+		final Set<QualifiedName> expected = new HashSet<QualifiedName>();
+		for (int i = 0; i < HUB_EDGES; i++) {
+			expected.add(resource(i).getQualifiedName());
+		}
+		final Set<QualifiedName> subjects = new HashSet<QualifiedName>();
+		for (Statement stmt : incoming) {
+			assertEquals(linksTo.getQualifiedName(), stmt.getPredicate().getQualifiedName());
+			subjects.add(stmt.getSubject().getQualifiedName());
+		}
+		assertEquals(expected, subjects);
+
+		for (int i = 1; i <= HUB_EDGES; i++) {
+			final Set<Statement> single = reader.findIncomingStatements(resource(i));
+			assertEquals(1, single.size());
+			final Statement stmt = single.iterator().next();
+			assertEquals(resource(i - 1).getQualifiedName(), stmt.getSubject().getQualifiedName());
+		}
+		reader.close();
+	}
+
+	// ----------------------------------------------------
+
+	private ResourceID resource(int i) {
+		return new SimpleResourceID(new QualifiedName("http://q#", "R" + i));
+	}
+
+}